@@ -0,0 +1,112 @@
+package desempenho;
+
+import audio.Audio;
+import jogo.ConsoleFX;
+import jogo.GameClock;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks JMH do motor: cada combinação benchmark/parâmetro de {@link EngineBenchmarks#all()} é um valor de
+ * {@link #benchCase}, por isso o JMH e o runner próprio medem exatamente o mesmo código.
+ * A memória alocada por operação vem do profiler de GC do JMH.
+ *
+ * <pre>
+ * mvn -B package
+ * java -jar bench/target/benchmarks.jar -prof gc
+ * java -jar bench/target/benchmarks.jar -prof gc -p benchCase=combat.solve:95,combat.solve:1000
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EngineJmh {
+
+    /** Caso a medir, no formato {@code nome:parâmetro}. */
+    @Param({
+            "combat.turn:0",
+            "combat.heroAttack:0",
+            "combat.solve:95",
+            "combat.solve:180",
+            "combat.solve:1000",
+            "combat.policyLookup:95",
+            "combat.policyLookup:180",
+            "vendor.randomOffer:9",
+            "vendor.randomOffer:100",
+            "vendor.randomOffer:10000",
+            "vendor.randomOffer:100000",
+            "item.isAllowedFor:0",
+            "item.isAllowedFor:3",
+            "item.isAllowedFor:100",
+            "maze.findRoom:10",
+            "maze.findRoom:1000",
+            "maze.findRoom:100000",
+            "maze.findRoom:1000000",
+            "maze.graphWalk:10",
+            "maze.graphWalk:100000",
+            "maze.graphWalk:1000000",
+            "maze.proceduralStep:1000",
+            "maze.proceduralStep:1000000",
+            "maze.routeQuery:1000",
+            "maze.routeQuery:1000000",
+            "save.roundTrip:0",
+            "hero.inventoryScan:10",
+            "hero.inventoryScan:1000",
+            "hero.inventoryScan:100000",
+            "game.playthrough:0",
+            "engine.step:1",
+            "engine.step:10000",
+            "journal.replay:0",
+    })
+    public String benchCase;
+
+    private Benchmark benchmark;
+    private final Blackhole sink = new Blackhole();
+
+    /**
+     * Prepara o jogo sem consola, sem som e sem pausas, e o caso indicado em {@link #benchCase}.
+     *
+     * @throws Exception se o caso não existir ou não puder ser preparado
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        ConsoleFX.setOutput(OutputStream.nullOutputStream());
+        ConsoleFX.setClock(GameClock.parse("zero"));
+        Audio.setEnabled(false);
+
+        int colon = benchCase.lastIndexOf(':');
+        String name = benchCase.substring(0, colon);
+        int param = Integer.parseInt(benchCase.substring(colon + 1));
+        for (Benchmark b : EngineBenchmarks.all()) {
+            if (b.name().equals(name)) benchmark = b;
+        }
+        if (benchmark == null) throw new IllegalArgumentException("benchmark desconhecido: " + name);
+        benchmark.setup(param);
+    }
+
+    /**
+     * Executa uma operação do caso; o valor devolvido é consumido pelo JMH.
+     *
+     * @return valor acumulado no sumidouro
+     */
+    @org.openjdk.jmh.annotations.Benchmark
+    public long op() {
+        benchmark.op(sink);
+        return sink.drain();
+    }
+}
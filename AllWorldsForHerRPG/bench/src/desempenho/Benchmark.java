@@ -0,0 +1,38 @@
+package desempenho;
+
+/**
+ * Um caso de benchmark com um parâmetro de tamanho.
+ * O runner chama {@link #setup} uma vez por parâmetro e depois {@link #op} repetidamente;
+ * o tempo e a memória alocada são divididos pelo número de chamadas a {@code op}.
+ */
+public interface Benchmark {
+
+    /**
+     * Nome do benchmark, usado nos resultados e nas baselines.
+     *
+     * @return nome
+     */
+    String name();
+
+    /**
+     * Valores do parâmetro de tamanho a medir (ex.: tamanho do stock ou número de salas).
+     *
+     * @return parâmetros
+     */
+    int[] params();
+
+    /**
+     * Prepara o estado para um valor do parâmetro; não é medido.
+     *
+     * @param param valor do parâmetro
+     * @throws Exception se o estado não puder ser preparado
+     */
+    void setup(int param) throws Exception;
+
+    /**
+     * Executa uma operação medida.
+     *
+     * @param bh sumidouro para o resultado
+     */
+    void op(Blackhole bh);
+}
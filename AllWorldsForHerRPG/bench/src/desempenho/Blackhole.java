@@ -0,0 +1,38 @@
+package desempenho;
+
+/**
+ * Sumidouro de resultados: impede que o JIT elimine o trabalho de um benchmark por o resultado não ser usado.
+ */
+public final class Blackhole {
+
+    private long sink;
+    private Object last;
+
+    /**
+     * Consome um valor numérico.
+     *
+     * @param value valor produzido pelo benchmark
+     */
+    public void consume(long value) {
+        sink = sink * 31 + value;
+    }
+
+    /**
+     * Consome uma referência.
+     *
+     * @param value objeto produzido pelo benchmark
+     */
+    public void consume(Object value) {
+        last = value;
+        sink += (value == null) ? 0 : 1;
+    }
+
+    /**
+     * Devolve o valor acumulado, para que o sumidouro nunca pareça morto ao compilador.
+     *
+     * @return valor acumulado
+     */
+    long drain() {
+        return sink + ((last == null) ? 0 : 1);
+    }
+}
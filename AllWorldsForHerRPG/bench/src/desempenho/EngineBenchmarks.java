@@ -0,0 +1,662 @@
+package desempenho;
+
+import audio.Audio;
+import combate.CombatPolicy;
+import combate.CombatResolver;
+import combate.CombatState;
+import combate.FightSolver;
+import entidades.Fight;
+import entidades.Hero;
+import entidades.NPC;
+import entidades.Vendor;
+import itens.CombatConsumable;
+import itens.Item;
+import itens.Potion;
+import jogo.ConsoleFX;
+import jogo.Effects;
+import jogo.EventJournal;
+import jogo.Game;
+import jogo.GameMachine;
+import jogo.GameClock;
+import jogo.HeroSetup;
+import jogo.JournalInput;
+import jogo.JournalReplay;
+import jogo.Maze;
+import jogo.Phase;
+import jogo.ProceduralMaze;
+import jogo.RiskEvent;
+import jogo.RngService;
+import jogo.Room;
+import jogo.RoomGraph;
+import jogo.RouteAdvisor;
+import jogo.SaveGame;
+import jogo.ScriptInput;
+import jogo.Step;
+import simulacao.AllocationOptimizer;
+import simulacao.SplitMix;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Benchmarks dos caminhos quentes do motor de jogo: turnos de combate, oferta da loja,
+ * restrições de itens, procura de salas, pesquisa no inventário, uma partida completa por script
+ * e muitas partidas intercaladas numa só thread.
+ * Os resultados podem ser gravados como baseline e comparados nas execuções seguintes.
+ * <p>
+ * A medição de referência é a do módulo Maven {@code bench} com JMH ({@code EngineJmh}, que corre estes mesmos casos);
+ * este runner sem dependências fica como alternativa para correr os casos diretamente do IDE.
+ *
+ * <pre>
+ * java -cp out:bench-out desempenho.EngineBenchmarks [--filter=TEXTO] [--quick] [--save] [--baseline=FICHEIRO]
+ * </pre>
+ */
+public final class EngineBenchmarks {
+
+    private static final String DEFAULT_BASELINE = "bench/baselines.txt";
+
+    private EngineBenchmarks() {}
+
+    /**
+     * Devolve todos os benchmarks do motor.
+     *
+     * @return lista de benchmarks
+     */
+    public static List<Benchmark> all() {
+        List<Benchmark> list = new ArrayList<>();
+        list.add(new CombatTurn());
+        list.add(new HeroAttack());
+        list.add(new SolveFight());
+        list.add(new PolicyLookup());
+        list.add(new RandomOffer());
+        list.add(new AllowedFor());
+        list.add(new FindRoom());
+        list.add(new GraphWalk());
+        list.add(new ProceduralStep());
+        list.add(new RouteQuery());
+        list.add(new SaveRestore());
+        list.add(new InventoryScan());
+        list.add(new ScriptedPlaythrough());
+        list.add(new EngineStep());
+        list.add(new ReplayJournal());
+        return list;
+    }
+
+    /**
+     * Ponto de entrada: corre os benchmarks, escreve a tabela de resultados e compara com a baseline.
+     *
+     * @param args opções da linha de comandos
+     * @throws Exception se algum benchmark falhar
+     */
+    public static void main(String[] args) throws Exception {
+        String filter = "";
+        boolean quick = false;
+        boolean save = false;
+        Path baseline = Path.of(DEFAULT_BASELINE);
+        for (String arg : args) {
+            if (arg.startsWith("--filter=")) filter = arg.substring("--filter=".length());
+            else if (arg.equals("--quick")) quick = true;
+            else if (arg.equals("--save")) save = true;
+            else if (arg.startsWith("--baseline=")) baseline = Path.of(arg.substring("--baseline=".length()));
+        }
+
+        // jogo sem consola, sem som e sem pausas
+        ConsoleFX.setOutput(OutputStream.nullOutputStream());
+        ConsoleFX.setClock(GameClock.parse("zero"));
+        Audio.setEnabled(false);
+
+        Runner runner = quick ? new Runner(2, 3, 200) : new Runner(5, 5, 1000);
+        HashMap<String, double[]> previous = loadBaseline(baseline);
+        ArrayList<Result> results = new ArrayList<>();
+
+        System.out.printf("%-22s %9s %14s %10s %12s %6s %8s%n",
+                "Benchmark", "Param", "ns/op", "±", "B/op", "GCs", "vs base");
+        for (Benchmark b : all()) {
+            if (!b.name().contains(filter)) continue;
+            for (int param : b.params()) {
+                Result r = runner.run(b, param);
+                results.add(r);
+
+                double[] base = previous.get(r.key());
+                String delta = (base == null) ? "-"
+                        : String.format(Locale.ROOT, "%+.1f%%", 100.0 * (r.getNanosPerOp() - base[0]) / base[0]);
+                System.out.printf(Locale.ROOT, "%-22s %9d %14.1f %10.1f %12.1f %6d %8s%n",
+                        r.getName(), r.getParam(), r.getNanosPerOp(), r.getError(),
+                        r.getBytesPerOp(), r.getGcCount(), delta);
+            }
+        }
+
+        if (save) {
+            saveBaseline(baseline, results, previous);
+            System.out.println("\nBaseline gravada em " + baseline);
+        }
+        ConsoleFX.flush();
+        System.exit(0);
+    }
+
+    private static HashMap<String, double[]> loadBaseline(Path file) throws IOException {
+        HashMap<String, double[]> map = new HashMap<>();
+        if (!Files.exists(file)) return map;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.startsWith("#") && line.endsWith(" cpus)")) {
+                // tempos gravados noutro número de processadores não são comparáveis (GC, JIT e threads de som)
+                String cpus = line.substring(line.lastIndexOf(", ") + 2, line.length() - " cpus)".length());
+                int now = Runtime.getRuntime().availableProcessors();
+                if (!cpus.equals(String.valueOf(now))) {
+                    System.out.println("Aviso: a baseline foi gravada com " + cpus + " cpus e esta máquina tem " + now + ".\n");
+                }
+            }
+            if (line.isBlank() || line.startsWith("#")) continue;
+            String[] parts = line.trim().split("\\s+");
+            map.put(parts[0] + "#" + parts[1], new double[] { Double.parseDouble(parts[2]), Double.parseDouble(parts[3]) });
+        }
+        return map;
+    }
+
+    private static void saveBaseline(Path file, List<Result> results, HashMap<String, double[]> previous) throws IOException {
+        HashMap<String, double[]> merged = new HashMap<>(previous);
+        for (Result r : results) merged.put(r.key(), new double[] { r.getNanosPerOp(), r.getBytesPerOp() });
+
+        ArrayList<String> keys = new ArrayList<>(merged.keySet());
+        Collections.sort(keys);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("# benchmark param ns/op B/op (").append(System.getProperty("java.vm.name"))
+                .append(' ').append(System.getProperty("java.version"))
+                .append(", ").append(Runtime.getRuntime().availableProcessors()).append(" cpus)\n");
+        for (String key : keys) {
+            double[] v = merged.get(key);
+            int hash = key.lastIndexOf('#');
+            sb.append(String.format(Locale.ROOT, "%s %s %.1f %.1f%n",
+                    key.substring(0, hash), key.substring(hash + 1), v[0], v[1]));
+        }
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        Files.writeString(file, sb.toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Cria o herói usado nos benchmarks (Estafeta, Difícil, Agressivo) com o equipamento inicial.
+     */
+    private static Hero newHero() {
+        int[] allocation = HeroSetup.autoAllocate(HeroSetup.points(2), 2);
+        Hero hero = HeroSetup.create(2, "Bench", allocation[0], allocation[1], HeroSetup.gold(2));
+        Maze.giveStarterKit(hero);
+        return hero;
+    }
+
+    /** Um turno de combate no {@link CombatResolver}; o combate recomeça quando termina. */
+    static final class CombatTurn implements Benchmark {
+        private final CombatState state = new CombatState();
+        private final SplitMix random = new SplitMix(7);
+
+        @Override
+        public String name() { return "combat.turn"; }
+        @Override
+        public int[] params() { return new int[] { 0 }; }
+        @Override
+        public void setup(int param) { restart(); }
+
+        private void restart() {
+            state.start(1_000_000, 35, 4, 7, 5, 3, 1_000_000, 18);
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            if (state.isOver()) restart();
+            int action = state.isSpecialUsed() ? CombatResolver.NORMAL : CombatResolver.SPECIAL;
+            bh.consume(CombatResolver.turn(state, action, 0, random));
+        }
+    }
+
+    /** Um combate completo através de {@link Fight}, sempre com o ataque normal, com os efeitos registados num {@link Effects}. */
+    static final class HeroAttack implements Benchmark {
+        private Hero hero;
+        private final Effects fx = new Effects();
+        private final Random random = new Random(7);
+
+        @Override
+        public String name() { return "combat.heroAttack"; }
+        @Override
+        public int[] params() { return new int[] { 0 }; }
+
+        @Override
+        public void setup(int param) {
+            hero = newHero();
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            hero.setCurrentHealth(hero.getMaxHealth());
+            fx.begin();
+            try {
+                Fight fight = hero.startFight(new NPC("Alvo", 95, 1, 0), fx);
+                int result;
+                while ((result = fight.nextTurn()) == Fight.TURN) fight.choose(1, random);
+                bh.consume(result);
+            } finally {
+                fx.end();
+            }
+        }
+    }
+
+    /** Cálculo exato de um combate com o {@link FightSolver}; o parâmetro é a vida do inimigo. */
+    static final class SolveFight implements Benchmark {
+        private final FightSolver solver = new FightSolver();
+        private final int[] consumables = { 25, 40, 25 };
+        private int enemyHealth;
+
+        @Override
+        public String name() { return "combat.solve"; }
+        @Override
+        public int[] params() { return new int[] { 95, 180, 1_000 }; }
+        @Override
+        public void setup(int param) { enemyHealth = param; }
+
+        @Override
+        public void op(Blackhole bh) {
+            bh.consume(Double.doubleToRawLongBits(
+                    solver.solve(105, 39, 4, 7, 7, false, consumables, consumables.length, enemyHealth, 22)));
+        }
+    }
+
+    /** Consulta de uma jogada numa {@link CombatPolicy} já resolvida; o parâmetro é a vida máxima do inimigo. */
+    static final class PolicyLookup implements Benchmark {
+        private final int[] consumables = { 25, 40, 25 };
+        private CombatPolicy policy;
+        private int maxEnemy;
+        private int enemyHealth;
+
+        @Override
+        public String name() { return "combat.policyLookup"; }
+        @Override
+        public int[] params() { return new int[] { 95, 180 }; }
+
+        @Override
+        public void setup(int param) {
+            maxEnemy = param;
+            policy = CombatPolicy.solve(39, 4, 7, 7, 22, 105, maxEnemy, consumables, consumables.length);
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            enemyHealth = (enemyHealth % maxEnemy) + 1;
+            bh.consume(policy.bestMove(105, enemyHealth, false, consumables, consumables.length));
+        }
+    }
+
+    /** {@code Vendor.getRandomOffer} com stocks de 9 a 100 mil itens. */
+    static final class RandomOffer implements Benchmark {
+        private Vendor vendor;
+        private Hero hero;
+        private final Random random = new Random(7);
+
+        @Override
+        public String name() { return "vendor.randomOffer"; }
+        @Override
+        public int[] params() { return new int[] { 9, 100, 10_000, 100_000 }; }
+
+        @Override
+        public void setup(int param) {
+            ArrayList<Item> stock = new ArrayList<>();
+            for (int i = 0; i < param; i++) stock.add(new Potion("Poção " + i, 10 + i % 30, 20, 0, new ArrayList<>()));
+            vendor = new Vendor(stock);
+            hero = newHero();
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            bh.consume(vendor.getRandomOffer(hero, random));
+        }
+    }
+
+    /** {@code Item.isAllowedFor} com listas de heróis permitidos de 0 a 100 nomes (o herói é o último). */
+    static final class AllowedFor implements Benchmark {
+        private Item item;
+        private Hero hero;
+
+        @Override
+        public String name() { return "item.isAllowedFor"; }
+        @Override
+        public int[] params() { return new int[] { 0, 3, 100 }; }
+
+        @Override
+        public void setup(int param) {
+            ArrayList<String> allowed = new ArrayList<>();
+            for (int i = 0; i < param - 1; i++) allowed.add("Heroi" + i);
+            if (param > 0) allowed.add("Courier");
+            item = new Potion("Poção", 10, 20, 0, allowed);
+            hero = newHero();
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            bh.consume(item.isAllowedFor(hero) ? 1 : 0);
+        }
+    }
+
+    /** Procura de salas pelo nome ({@code Maze.findRoom}, índice do {@link RoomGraph}) em labirintos de 10 a 1 milhão de salas. */
+    static final class FindRoom implements Benchmark {
+        private Maze maze;
+        private String[] names;
+        private int next;
+
+        @Override
+        public String name() { return "maze.findRoom"; }
+        @Override
+        public int[] params() { return new int[] { 10, 1_000, 100_000, 1_000_000 }; }
+
+        @Override
+        public void setup(int param) {
+            ArrayList<Room> rooms = new ArrayList<>(param);
+            for (int i = 0; i < param; i++) rooms.add(new Room("Sala " + i));
+            maze = Maze.of(rooms, new Vendor(new ArrayList<>()));
+
+            SplitMix random = new SplitMix(7);
+            names = new String[1024];
+            for (int i = 0; i < names.length; i++) names[i] = "sala " + random.nextInt(param);
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            bh.consume(maze.findRoom(names[next++ & (names.length - 1)]));
+        }
+    }
+
+    /** Um passo de navegação por identificadores no {@link RoomGraph}, em labirintos de 10 a 1 milhão de salas com 2 saídas cada. */
+    static final class GraphWalk implements Benchmark {
+        private RoomGraph graph;
+        private final SplitMix random = new SplitMix(7);
+        private int room;
+
+        @Override
+        public String name() { return "maze.graphWalk"; }
+        @Override
+        public int[] params() { return new int[] { 10, 100_000, 1_000_000 }; }
+
+        @Override
+        public void setup(int param) {
+            ArrayList<Room> rooms = new ArrayList<>(param);
+            for (int i = 0; i < param; i++) {
+                Room r = new Room("Sala " + i);
+                r.addConnection("Sala " + random.nextInt(param));
+                r.addConnection("Sala " + random.nextInt(param));
+                rooms.add(r);
+            }
+            graph = Maze.of(rooms, new Vendor(new ArrayList<>())).getGraph();
+            room = 0;
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            room = graph.getExit(room, random.nextInt(graph.getExitCount(room)));
+            bh.consume(graph.getRoom(room));
+        }
+    }
+
+    /** Um passo num {@link ProceduralMaze} de mil a 1 milhão de salas: gera a sala seguinte e liberta as anteriores. */
+    static final class ProceduralStep implements Benchmark {
+        private ProceduralMaze maze;
+        private Room room;
+        private int step;
+
+        @Override
+        public String name() { return "maze.proceduralStep"; }
+        @Override
+        public int[] params() { return new int[] { 1_000, 1_000_000 }; }
+
+        @Override
+        public void setup(int param) {
+            maze = ProceduralMaze.ofSize(7, param);
+            room = maze.getEntrance();
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            room = maze.isBoss(room) ? maze.getEntrance() : maze.enter(room, step++ & 1 & (maze.getExitCount(room) - 1));
+            bh.consume(room);
+        }
+    }
+
+    /**
+     * Consulta da rota mais segura e da mais lucrativa ({@link RouteAdvisor}) a partir de salas ao acaso,
+     * em labirintos de mil a 1 milhão de salas com 2 saídas, combates e travessias de risco.
+     * As consultas retomam a pesquisa guardada para o mesmo estado do herói.
+     */
+    static final class RouteQuery implements Benchmark {
+        private final SplitMix random = new SplitMix(11);
+        private RouteAdvisor advisor;
+        private RoomGraph graph;
+        private Hero hero;
+
+        @Override
+        public String name() { return "maze.routeQuery"; }
+        @Override
+        public int[] params() { return new int[] { 1_000, 1_000_000 }; }
+
+        @Override
+        public void setup(int param) {
+            ArrayList<Room> rooms = new ArrayList<>(param);
+            for (int i = 0; i < param - 1; i++) {
+                Room r = new Room("Sala " + i);
+                if (i % 3 == 1) r.setRiskRoom(new RiskEvent("Cavalo", "", 0.10, 0.75));
+                else if (i % 3 == 2) r.setCombatRoom("", "", "", new NPC("Inimigo", 20 + i % 40, 5 + i % 7, 10 + i % 30), null);
+                // ligações só para a frente, com um salto longo para o caminho mais curto não ser trivial
+                r.addConnection("Sala " + (i + 1));
+                r.addConnection("Sala " + Math.min(param - 2, i + 2 + random.nextInt(64)));
+                rooms.add(r);
+            }
+            rooms.get(param - 2).addConnection(Maze.BOSS_ROOM);
+            Room boss = new Room(Maze.BOSS_ROOM);
+            boss.setCombatRoom("", "", "", new NPC("Loki", 60, 8, 0), null);
+            rooms.add(boss);
+
+            Maze maze = Maze.of(rooms, new Vendor(new ArrayList<>()));
+            graph = maze.getGraph();
+            advisor = new RouteAdvisor(maze);
+            hero = newHero();
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            Room from = graph.getRoom(random.nextInt(graph.size() - 1));
+            bh.consume(advisor.safest(from, hero));
+            bh.consume(advisor.mostProfitable(from, hero));
+        }
+    }
+
+    /**
+     * Gravar e repor uma partida ({@link SaveGame}): codificar o estado, como no ciclo do jogo,
+     * e reconstruir herói e labirinto a partir dos bytes, como ao continuar uma partida.
+     */
+    static final class SaveRestore implements Benchmark {
+        private Hero hero;
+        private Maze maze;
+        private RngService rng;
+
+        @Override
+        public String name() { return "save.roundTrip"; }
+        @Override
+        public int[] params() { return new int[] { 0 }; }
+
+        @Override
+        public void setup(int param) {
+            hero = newHero();
+            maze = Maze.standard();
+            rng = new RngService(7);
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            byte[] data = SaveGame.encode(hero, maze, maze.getEntrance(), rng);
+            try {
+                bh.consume(SaveGame.decode(data, maze.getContent()));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /** Pesquisa de poções no inventário ({@code Hero.findInventory}, usada pelo menu de poções do herói). */
+    static final class InventoryScan implements Benchmark {
+        private Hero hero;
+
+        @Override
+        public String name() { return "hero.inventoryScan"; }
+        @Override
+        public int[] params() { return new int[] { 10, 1_000, 100_000 }; }
+
+        @Override
+        public void setup(int param) {
+            hero = newHero();
+            hero.getInventory().clear();
+            for (int i = 0; i < param; i++) {
+                if (i % 2 == 0) hero.addConsumable(new Potion("Poção " + i, 0, 20, 0, new ArrayList<>()));
+                else hero.addConsumable(new CombatConsumable("Bomba " + i, 0, 25, new ArrayList<>()));
+            }
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            bh.consume(hero.findInventory(Potion.class));
+        }
+    }
+
+    /**
+     * Uma partida completa a partir de um script fixo, com relógio sem pausas e sem som.
+     * O gerador do jogo tem semente fixa, por isso todas as operações jogam a mesma partida.
+     */
+    static final class ScriptedPlaythrough implements Benchmark {
+        private String[] script;
+
+        @Override
+        public String name() { return "game.playthrough"; }
+        @Override
+        public int[] params() { return new int[] { 0 }; }
+
+        @Override
+        public void setup(int param) {
+            ArrayList<String> lines = new ArrayList<>(List.of("2", "1", "Bench", "3", "2", "0", "2"));
+            for (int i = 0; i < 200; i++) lines.add("1");
+            script = lines.toArray(new String[0]);
+            // o jogo começa a calcular a distribuição otimizada em segundo plano; fica já em cache para não medir esse cálculo
+            AllocationOptimizer.best(2, 1);
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            Game game = new Game(new ScriptInput(List.of(script), false), new RngService(7));
+            game.startGame();
+            bh.consume(game);
+        }
+    }
+
+    /**
+     * Muitas partidas do {@link GameMachine} intercaladas numa só thread, como no servidor por eventos:
+     * cada operação é um passo de uma das partidas, à vez. O parâmetro é o número de partidas.
+     */
+    static final class EngineStep implements Benchmark {
+        private GameMachine[] machines;
+        private Step[] steps;
+        private int next;
+
+        @Override
+        public String name() { return "engine.step"; }
+        @Override
+        public int[] params() { return new int[] { 1, 10000 }; }
+
+        @Override
+        public void setup(int param) {
+            machines = new GameMachine[param];
+            steps = new Step[param];
+            for (int i = 0; i < param; i++) restart(i);
+            next = 0;
+        }
+
+        private void restart(int i) {
+            machines[i] = new GameMachine(new RngService(i));
+            steps[i] = machines[i].start(null);
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            int i = next;
+            next = (i + 1 == machines.length) ? 0 : i + 1;
+
+            Step step = steps[i];
+            if (step.isFinished()) {
+                restart(i);
+                bh.consume(steps[i]);
+                return;
+            }
+            GameMachine machine = machines[i];
+            if (step.wantsLine()) step = machine.step("Bench");
+            else step = machine.choose(answer(step.getPhase()));
+            steps[i] = step;
+            bh.consume(step);
+        }
+
+        /** Respostas de um jogador simples: distribuição balanceada, ataque normal, sem compras nem poções. */
+        private static int answer(Phase phase) {
+            switch (phase) {
+                case ALLOCATION_MODE:
+                case AUTO_STYLE:
+                    return 3;
+                case SHOP:
+                case COMBAT_ITEM:
+                case POTION:
+                    return 0;
+                default:
+                    return 1;
+            }
+        }
+    }
+
+    /**
+     * Reprodução de um diário de eventos ({@link JournalReplay}): a partida de {@code game.playthrough},
+     * gravada uma vez, reexecutada e comparada registo a registo.
+     */
+    static final class ReplayJournal implements Benchmark {
+        private EventJournal journal;
+
+        @Override
+        public String name() { return "journal.replay"; }
+        @Override
+        public int[] params() { return new int[] { 0 }; }
+
+        @Override
+        public void setup(int param) {
+            ArrayList<String> lines = new ArrayList<>(List.of("2", "1", "Bench", "3", "2", "0", "2"));
+            for (int i = 0; i < 200; i++) lines.add("1");
+            AllocationOptimizer.best(2, 1);
+
+            RngService rng = new RngService(7);
+            journal = EventJournal.inMemory();
+            journal.append(EventJournal.SESSION, 2, rng.getSeed());
+            journal.append(EventJournal.MAZE, 0, 1);
+            rng.setJournal(journal);
+            Game game = new Game(new JournalInput(new ScriptInput(lines, false), journal), rng);
+            game.setJournal(journal);
+            game.startGame();
+        }
+
+        @Override
+        public void op(Blackhole bh) {
+            try {
+                JournalReplay.Result result = JournalReplay.replay(journal);
+                if (!result.matches()) throw new IllegalStateException(result.describe());
+                bh.consume(result);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
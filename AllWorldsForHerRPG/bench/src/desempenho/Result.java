@@ -0,0 +1,59 @@
+package desempenho;
+
+/**
+ * Resultado da medição de um benchmark para um valor do parâmetro.
+ */
+public final class Result {
+
+    private final String name;
+    private final int param;
+    private final double nanosPerOp;
+    private final double error;
+    private final double bytesPerOp;
+    private final long gcCount;
+    private final long gcMillis;
+
+    /**
+     * Cria um resultado.
+     *
+     * @param name nome do benchmark
+     * @param param valor do parâmetro
+     * @param nanosPerOp tempo médio por operação em nanossegundos
+     * @param error desvio padrão entre iterações, em nanossegundos por operação
+     * @param bytesPerOp memória alocada por operação na thread do benchmark
+     * @param gcCount recolhas de lixo durante a medição
+     * @param gcMillis tempo gasto em recolhas de lixo durante a medição
+     */
+    public Result(String name, int param, double nanosPerOp, double error, double bytesPerOp, long gcCount, long gcMillis) {
+        this.name = name;
+        this.param = param;
+        this.nanosPerOp = nanosPerOp;
+        this.error = error;
+        this.bytesPerOp = bytesPerOp;
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+    }
+
+    public String getName() { return name; }
+
+    public int getParam() { return param; }
+
+    public double getNanosPerOp() { return nanosPerOp; }
+
+    public double getError() { return error; }
+
+    public double getBytesPerOp() { return bytesPerOp; }
+
+    public long getGcCount() { return gcCount; }
+
+    public long getGcMillis() { return gcMillis; }
+
+    /**
+     * Chave usada no ficheiro de baselines.
+     *
+     * @return nome e parâmetro
+     */
+    public String key() {
+        return name + "#" + param;
+    }
+}
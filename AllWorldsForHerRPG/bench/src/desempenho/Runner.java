@@ -0,0 +1,106 @@
+package desempenho;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Executor de benchmarks sem dependências externas: aquecimento para o JIT, iterações medidas de duração fixa,
+ * memória alocada por operação (contador da thread) e recolhas de lixo durante a medição.
+ * A alocação só conta a thread do benchmark; trabalho feito noutras threads (ex.: máquina de escrever) não entra.
+ */
+public final class Runner {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final int warmupIterations;
+    private final int measureIterations;
+    private final long iterationNanos;
+
+    /**
+     * Cria um executor.
+     *
+     * @param warmupIterations iterações de aquecimento (não medidas)
+     * @param measureIterations iterações medidas
+     * @param iterationMillis duração de cada iteração em milissegundos
+     */
+    public Runner(int warmupIterations, int measureIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measureIterations = measureIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+    }
+
+    /**
+     * Mede um benchmark para um valor do parâmetro.
+     *
+     * @param benchmark benchmark a medir
+     * @param param valor do parâmetro
+     * @return resultado da medição
+     * @throws Exception se a preparação do benchmark falhar
+     */
+    public Result run(Benchmark benchmark, int param) throws Exception {
+        benchmark.setup(param);
+        Blackhole bh = new Blackhole();
+
+        // calibra o lote para que cada verificação do relógio cubra ~100 µs de trabalho
+        int batch = 1;
+        long[] sample = iterate(benchmark, bh, batch, iterationNanos / 4);
+        batch = (int) Math.max(1, Math.min(1_000_000, sample[0] * 100_000L / Math.max(1, sample[1])));
+
+        for (int i = 0; i < warmupIterations; i++) iterate(benchmark, bh, batch, iterationNanos);
+
+        double[] nanosPerOp = new double[measureIterations];
+        long ops = 0;
+        long bytes = 0;
+        long gcCount = -gcCount();
+        long gcMillis = -gcMillis();
+        for (int i = 0; i < measureIterations; i++) {
+            long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long[] it = iterate(benchmark, bh, batch, iterationNanos);
+            bytes += THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            ops += it[0];
+            nanosPerOp[i] = (double) it[1] / it[0];
+        }
+        gcCount += gcCount();
+        gcMillis += gcMillis();
+
+        double mean = 0;
+        for (double v : nanosPerOp) mean += v;
+        mean /= nanosPerOp.length;
+        double variance = 0;
+        for (double v : nanosPerOp) variance += (v - mean) * (v - mean);
+        double error = (nanosPerOp.length > 1) ? Math.sqrt(variance / (nanosPerOp.length - 1)) : 0;
+
+        if (bh.drain() == 42) System.out.print("");
+        return new Result(benchmark.name(), param, mean, error, (double) bytes / ops, gcCount, gcMillis);
+    }
+
+    private static long[] iterate(Benchmark benchmark, Blackhole bh, int batch, long durationNanos) {
+        long ops = 0;
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        long now;
+        do {
+            for (int i = 0; i < batch; i++) benchmark.op(bh);
+            ops += batch;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return new long[] { ops, now - start };
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,110 @@
+package audio;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Pacote de sons num único ficheiro, mapeado em memória.
+ * O ficheiro começa com um índice (nome → posição, tamanho e formato) seguido dos dados PCM
+ * já convertidos para o formato do mixer, por isso os sons são servidos diretamente do mapeamento,
+ * sem cópias nem acessos ao sistema de ficheiros.
+ *
+ * <pre>
+ * "AWFHPACK"  int versão  int número de entradas
+ * por entrada: short tamanho do nome, nome UTF-8, long posição, int tamanho,
+ *              float frequência, byte canais, byte bits, byte com sinal, byte big-endian
+ * dados PCM (cada entrada alinhada a 4 bytes)
+ * </pre>
+ */
+public class AssetBundle {
+
+    static final byte[] MAGIC = "AWFHPACK".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+
+    private final HashMap<String, PcmSample> samples = new HashMap<>();
+    private final long sizeBytes;
+
+    private AssetBundle(MappedByteBuffer map) throws IOException {
+        this.sizeBytes = map.capacity();
+        ByteBuffer header = map.duplicate().order(ByteOrder.BIG_ENDIAN);
+
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("pacote de sons inválido");
+
+        int version = header.getInt();
+        if (version != VERSION) throw new IOException("versão do pacote não suportada: " + version);
+
+        int count = header.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[header.getShort()];
+            header.get(name);
+            long offset = header.getLong();
+            int length = header.getInt();
+            float sampleRate = header.getFloat();
+            int channels = header.get();
+            int bits = header.get();
+            boolean signed = header.get() != 0;
+            boolean bigEndian = header.get() != 0;
+            AudioFormat format = new AudioFormat(sampleRate, bits, channels, signed, bigEndian);
+
+            if (!format.matches(PcmSample.FORMAT)) continue;
+            if (offset < 0 || offset + length > map.capacity()) throw new IOException("índice do pacote corrompido");
+
+            ByteBuffer pcm = map.slice((int) offset, length).order(ByteOrder.LITTLE_ENDIAN);
+            samples.put(new String(name, StandardCharsets.UTF_8), new PcmSample(pcm.asShortBuffer()));
+        }
+    }
+
+    /**
+     * Abre e mapeia um pacote de sons.
+     *
+     * @param file ficheiro do pacote
+     * @return pacote aberto
+     * @throws IOException se o ficheiro não existir ou não for um pacote válido
+     */
+    public static AssetBundle open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new AssetBundle(map);
+        }
+    }
+
+    /**
+     * Devolve o som com o nome indicado (por exemplo "attack.wav").
+     *
+     * @param name nome do ficheiro original
+     * @return som mapeado, ou null se não existir no pacote
+     */
+    public PcmSample get(String name) {
+        return samples.get(name);
+    }
+
+    /**
+     * Devolve os nomes dos sons presentes no pacote.
+     *
+     * @return nomes dos sons
+     */
+    public Set<String> names() {
+        return samples.keySet();
+    }
+
+    /**
+     * Devolve o tamanho do ficheiro mapeado.
+     *
+     * @return tamanho em bytes
+     */
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+}
@@ -0,0 +1,118 @@
+package audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Ferramenta de build que junta todos os ficheiros .wav de uma pasta num pacote de sons.
+ * Os sons são convertidos para o formato do mixer, para serem tocados diretamente do pacote.
+ *
+ * <pre>
+ * java -cp out audio.AssetBundleBuilder src/resources/audio src/resources/audio.pack
+ * </pre>
+ */
+public class AssetBundleBuilder {
+
+    private AssetBundleBuilder() {}
+
+    /**
+     * Ponto de entrada da ferramenta.
+     *
+     * @param args pasta de origem e ficheiro de destino (opcionais)
+     * @throws Exception se algum som não puder ser convertido ou o pacote não puder ser escrito
+     */
+    public static void main(String[] args) throws Exception {
+        File dir = new File(args.length > 0 ? args[0] : "src/resources/audio");
+        Path target = Path.of(args.length > 1 ? args[1] : Audio.BUNDLE_PATH);
+
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".wav"));
+        if (files == null) throw new IOException("pasta não encontrada: " + dir);
+        Arrays.sort(files);
+
+        build(files, target);
+        System.out.println("Pacote criado: " + target + " (" + files.length + " sons, "
+                + Files.size(target) + " bytes)");
+    }
+
+    /**
+     * Converte os ficheiros indicados e escreve o pacote de forma atómica.
+     *
+     * @param files ficheiros .wav a incluir
+     * @param target ficheiro do pacote
+     * @throws Exception se algum som não puder ser convertido ou o pacote não puder ser escrito
+     */
+    public static void build(File[] files, Path target) throws Exception {
+        ArrayList<byte[]> names = new ArrayList<>();
+        ArrayList<byte[]> data = new ArrayList<>();
+
+        for (File f : files) {
+            try (AudioInputStream source = AudioSystem.getAudioInputStream(f);
+                 AudioInputStream in = source.getFormat().matches(PcmSample.FORMAT)
+                         ? source
+                         : AudioSystem.getAudioInputStream(PcmSample.FORMAT, source)) {
+                names.add(f.getName().getBytes(StandardCharsets.UTF_8));
+                data.add(in.readAllBytes());
+            }
+        }
+
+        int headerSize = AssetBundle.MAGIC.length + 8;
+        for (byte[] name : names) headerSize += 2 + name.length + 8 + 4 + 4 + 4;
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream(headerSize);
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.write(AssetBundle.MAGIC);
+        header.writeInt(AssetBundle.VERSION);
+        header.writeInt(names.size());
+
+        AudioFormat format = PcmSample.FORMAT;
+        long offset = align(headerSize);
+        long[] offsets = new long[data.size()];
+        for (int i = 0; i < names.size(); i++) {
+            offsets[i] = offset;
+            header.writeShort(names.get(i).length);
+            header.write(names.get(i));
+            header.writeLong(offset);
+            header.writeInt(data.get(i).length);
+            header.writeFloat(format.getSampleRate());
+            header.writeByte(format.getChannels());
+            header.writeByte(format.getSampleSizeInBits());
+            header.writeByte(1);
+            header.writeByte(format.isBigEndian() ? 1 : 0);
+            offset = align(offset + data.get(i).length);
+        }
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, ByteBuffer.wrap(headerBytes.toByteArray()), 0);
+            for (int i = 0; i < data.size(); i++) {
+                writeFully(out, ByteBuffer.wrap(data.get(i)), offsets[i]);
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long align(long position) {
+        return (position + 3) & ~3L;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            position += out.write(buf, position);
+        }
+    }
+}
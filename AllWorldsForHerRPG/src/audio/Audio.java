@@ -1,41 +1,101 @@
 package audio;
 
-import javax.sound.sampled.*;
-import java.io.File;
-import jogo.ConsoleFX;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class Audio {
 
+    public static final String BUNDLE_PATH = "src/resources/audio.pack";
+
+    private static final long DEFAULT_CACHE_BUDGET = 16L * 1024 * 1024;
+    private static final int MAX_VOICES = 8;
+
     private static boolean enabled = true;
+    private static final ClipCache cache = new ClipCache(DEFAULT_CACHE_BUDGET);
+    private static final SoftwareMixer mixer = new SoftwareMixer(MAX_VOICES);
+    private static final AudioScheduler scheduler = new AudioScheduler(cache, mixer);
+    private static final MusicChannel music = new MusicChannel();
+
+    static {
+        if (Files.exists(Path.of(BUNDLE_PATH))) loadBundle(BUNDLE_PATH);
+    }
 
     private Audio() {}
 
     public static void setEnabled(boolean value) {
         enabled = value;
+        if (!value) music.stop();
     }
 
     public static boolean isEnabled() {
         return enabled;
     }
 
-    public static void playSfx(String path) {
-        if (!enabled) return;
+    public static ClipCache getClipCache() {
+        return cache;
+    }
 
+    public static boolean loadBundle(String path) {
         try {
-            File audio = new File(path);
-            if (!audio.exists()) return;
-
-            AudioInputStream in = AudioSystem.getAudioInputStream(audio);
-            Clip clip = AudioSystem.getClip();
-            clip.open(in);
-            clip.start();
+            cache.setBundle(AssetBundle.open(Path.of(path)));
+            return true;
         } catch (Exception e) {
-            System.out.println("Erro ao reproduzir som: " + e.getMessage());
+            System.out.println("Erro ao abrir pacote de sons: " + e.getMessage());
+            return false;
         }
     }
 
-    public static void playSfxAndWait(String path, long durationMs) {
-        playSfx(path);
-        ConsoleFX.pause(durationMs);
+    public static void setCacheBudget(long bytes) {
+        cache.setBudgetBytes(bytes);
+    }
+
+    public static void preload(String... paths) {
+        if (!enabled) return;
+        cache.preload(paths);
+    }
+
+    public static SoftwareMixer getMixer() {
+        return mixer;
+    }
+
+    public static MusicChannel getMusic() {
+        return music;
+    }
+
+    public static void enterRoom(String roomName) {
+        if (!enabled) return;
+        music.enterRoom(roomName);
+    }
+
+    public static void pauseMusic() {
+        music.pause();
+    }
+
+    public static void resumeMusic() {
+        music.resume();
+    }
+
+    public static PlaybackHandle playStinger(String path) {
+        PlaybackHandle handle = play(path);
+        music.pause();
+        handle.whenDone(music::resume);
+        return handle;
+    }
+
+    public static PlaybackHandle play(String path) {
+        return play(path, 1.0f);
+    }
+
+    public static PlaybackHandle play(String path, float gain) {
+        if (!enabled) return PlaybackHandle.completed();
+        return scheduler.play(path, gain);
+    }
+
+    public static void playSfx(String path) {
+        play(path);
+    }
+
+    public static void playSfxAndWait(String path, long maxWaitMs) {
+        play(path).await(maxWaitMs);
     }
-}
\ No newline at end of file
+}
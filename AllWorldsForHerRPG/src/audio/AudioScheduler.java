@@ -0,0 +1,69 @@
+package audio;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Thread dedicada à preparação de sons.
+ * Obtém as amostras da cache fora da thread do jogo e entrega-as ao mixer,
+ * que conclui cada reprodução quando a amostra chega ao fim.
+ */
+public class AudioScheduler {
+
+    private final ClipCache cache;
+    private final SoftwareMixer mixer;
+    private final ExecutorService executor;
+
+    /**
+     * Cria o agendador de áudio sobre uma cache de sons e um mixer.
+     *
+     * @param cache cache de onde são obtidas as amostras
+     * @param mixer mixer onde os sons são tocados
+     */
+    public AudioScheduler(ClipCache cache, SoftwareMixer mixer) {
+        this.cache = cache;
+        this.mixer = mixer;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "audio-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Agenda a reprodução de um ficheiro de áudio e devolve imediatamente.
+     *
+     * @param path caminho do ficheiro de áudio
+     * @param gain ganho da voz (1.0 = volume original)
+     * @return handle da reprodução
+     */
+    public PlaybackHandle play(String path, float gain) {
+        PlaybackHandle handle = new PlaybackHandle();
+        executor.execute(() -> start(path, gain, handle));
+        return handle;
+    }
+
+    /**
+     * Para a thread de áudio e o mixer. Reproduções pendentes são dadas como concluídas.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        mixer.close();
+    }
+
+    private void start(String path, float gain, PlaybackHandle handle) {
+        if (handle.isDone()) return;
+
+        try {
+            PcmSample sample = cache.acquire(path);
+            if (sample == null) {
+                handle.complete();
+                return;
+            }
+            mixer.play(sample, gain, handle);
+        } catch (Exception e) {
+            System.out.println("Erro ao reproduzir som: " + e.getMessage());
+            handle.complete();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package audio;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache de sons já descodificados, indexados pelo caminho do ficheiro.
+ * Cada ficheiro é lido e convertido para o formato do mixer uma única vez;
+ * as reproduções seguintes voltam a usar as mesmas amostras.
+ * Quando o orçamento de memória é ultrapassado, os sons menos usados recentemente são libertados.
+ * Se houver um pacote de sons carregado, os sons que lá existem são servidos diretamente do pacote;
+ * os restantes são lidos dos ficheiros soltos.
+ */
+public class ClipCache {
+
+    private final LinkedHashMap<String, PcmSample> samples = new LinkedHashMap<>(16, 0.75f, true);
+    private AssetBundle bundle;
+
+    private long budgetBytes;
+    private long usedBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long decodeNanos;
+
+    /**
+     * Cria uma cache com um orçamento máximo de memória.
+     *
+     * @param budgetBytes memória máxima ocupada pelos sons em bytes
+     */
+    public ClipCache(long budgetBytes) {
+        this.budgetBytes = Math.max(0, budgetBytes);
+    }
+
+    /**
+     * Descodifica antecipadamente os ficheiros indicados, para que a primeira reprodução não tenha custo.
+     *
+     * @param paths caminhos dos ficheiros de áudio
+     */
+    public synchronized void preload(String... paths) {
+        for (String path : paths) {
+            if (samples.containsKey(path) || fromBundle(path) != null) continue;
+            try {
+                PcmSample sample = decode(path);
+                if (sample != null && sample.getSizeBytes() <= budgetBytes) store(path, sample);
+            } catch (Exception e) {
+                System.out.println("Erro ao carregar som: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Devolve o som do ficheiro indicado.
+     * Se o som não estiver na cache, é descodificado e guardado.
+     *
+     * @param path caminho do ficheiro de áudio
+     * @return som descodificado, ou null se o ficheiro não existir
+     * @throws Exception se o ficheiro não puder ser descodificado
+     */
+    public synchronized PcmSample acquire(String path) throws Exception {
+        PcmSample sample = fromBundle(path);
+        if (sample == null) sample = samples.get(path);
+        if (sample != null) {
+            hits++;
+            return sample;
+        }
+
+        misses++;
+        sample = decode(path);
+        if (sample == null) return null;
+
+        // um som maior do que o orçamento toca na mesma, mas não fica guardado
+        if (sample.getSizeBytes() <= budgetBytes) store(path, sample);
+        return sample;
+    }
+
+    /**
+     * Define o pacote de sons de onde os sons são servidos antes de procurar ficheiros soltos.
+     *
+     * @param bundle pacote de sons, ou null para usar apenas ficheiros soltos
+     */
+    public synchronized void setBundle(AssetBundle bundle) {
+        this.bundle = bundle;
+    }
+
+    public synchronized AssetBundle getBundle() { return bundle; }
+
+    /**
+     * Altera o orçamento de memória, libertando sons se for necessário.
+     *
+     * @param budgetBytes novo orçamento em bytes
+     */
+    public synchronized void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = Math.max(0, budgetBytes);
+        evictUntilFits(0);
+    }
+
+    /**
+     * Liberta todos os sons guardados na cache.
+     */
+    public synchronized void clear() {
+        samples.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized long getBudgetBytes() { return budgetBytes; }
+
+    public synchronized long getUsedBytes() { return usedBytes; }
+
+    public synchronized int size() { return samples.size(); }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized long getEvictions() { return evictions; }
+
+    /**
+     * Devolve o tempo total gasto a descodificar ficheiros.
+     *
+     * @return tempo de descodificação em nanossegundos
+     */
+    public synchronized long getDecodeNanos() { return decodeNanos; }
+
+    @Override
+    public synchronized String toString() {
+        return "ClipCache{clips=" + samples.size()
+                + ", used=" + usedBytes + "/" + budgetBytes + " bytes"
+                + ", hits=" + hits
+                + ", misses=" + misses
+                + ", evictions=" + evictions
+                + ", decode=" + (decodeNanos / 1_000_000) + " ms}";
+    }
+
+    private PcmSample fromBundle(String path) {
+        if (bundle == null) return null;
+        int slash = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+        return bundle.get(path.substring(slash + 1));
+    }
+
+    private PcmSample decode(String path) throws Exception {
+        File file = new File(path);
+        if (!file.exists()) return null;
+
+        long start = System.nanoTime();
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(file);
+             AudioInputStream in = source.getFormat().matches(PcmSample.FORMAT)
+                     ? source
+                     : AudioSystem.getAudioInputStream(PcmSample.FORMAT, source)) {
+            byte[] bytes = in.readAllBytes();
+            return new PcmSample(ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer());
+        } finally {
+            decodeNanos += System.nanoTime() - start;
+        }
+    }
+
+    private void store(String path, PcmSample sample) {
+        evictUntilFits(sample.getSizeBytes());
+        samples.put(path, sample);
+        usedBytes += sample.getSizeBytes();
+    }
+
+    private void evictUntilFits(long incoming) {
+        Iterator<Map.Entry<String, PcmSample>> it = samples.entrySet().iterator();
+        while (usedBytes + incoming > budgetBytes && it.hasNext()) {
+            PcmSample eldest = it.next().getValue();
+            it.remove();
+            usedBytes -= eldest.getSizeBytes();
+            evictions++;
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package audio;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.SourceDataLine;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * Canal de música de fundo.
+ * Lê a faixa do disco em pequenos blocos numa thread própria e escreve-os numa linha de saída
+ * dedicada, por isso a memória usada não depende da duração da faixa.
+ * Suporta repetição em ciclo, transição suave entre faixas (crossfade) e pausas.
+ * <p>
+ * As faixas pertencem à thread da música: os outros métodos só deixam um pedido e acordam-na,
+ * por isso nenhuma leitura ou abertura de ficheiros acontece na thread do jogo nem com o monitor ocupado.
+ * A linha de saída só é aberta quando há música para tocar, e a thread termina quando fica sem nada para fazer.
+ */
+public class MusicChannel {
+
+    private static final int CHUNK_FRAMES = 1024;
+    private static final int FRAME_SIZE = PcmSample.FORMAT.getFrameSize();
+    private static final long DEFAULT_FADE_MS = 1500;
+
+    private final HashMap<String, String> roomTracks = new HashMap<>();
+
+    private final byte[] currentChunk = new byte[CHUNK_FRAMES * FRAME_SIZE];
+    private final byte[] nextChunk = new byte[CHUNK_FRAMES * FRAME_SIZE];
+    private final byte[] outChunk = new byte[CHUNK_FRAMES * FRAME_SIZE];
+
+    // usados apenas pela thread da música
+    private Stream current;
+    private Stream next;
+    private long fadeFrames;
+    private long fadedFrames;
+
+    // pedido pendente (protegido pelo monitor): faixa, ciclo e duração da transição (0 para substituir logo)
+    private boolean requested;
+    private String requestPath;
+    private boolean requestLoop;
+    private long requestFadeMs;
+    /** Última faixa pedida, para ignorar pedidos repetidos. */
+    private String target;
+
+    private volatile float volume = 0.6f;
+    private int pauseDepth;
+
+    private SourceDataLine line;
+    private Thread thread;
+    private boolean available = true;
+
+    /**
+     * Associa uma faixa a uma sala.
+     *
+     * @param roomName nome da sala
+     * @param path caminho do ficheiro de música
+     */
+    public synchronized void setRoomTrack(String roomName, String path) {
+        roomTracks.put(roomName, path);
+    }
+
+    /**
+     * Muda para a faixa associada à sala, com transição suave.
+     * Se a sala não tiver faixa, a música atual desvanece.
+     *
+     * @param roomName nome da sala onde o herói entrou
+     */
+    public synchronized void enterRoom(String roomName) {
+        crossfadeTo(roomTracks.get(roomName), DEFAULT_FADE_MS);
+    }
+
+    /**
+     * Começa a tocar uma faixa, substituindo a atual sem transição.
+     *
+     * @param path caminho do ficheiro de música
+     * @param loop true para repetir a faixa em ciclo
+     */
+    public synchronized void play(String path, boolean loop) {
+        request(path, loop, 0);
+    }
+
+    /**
+     * Faz a transição da faixa atual para outra ao longo de um intervalo de tempo.
+     * Se a faixa pedida já estiver a tocar, não faz nada.
+     *
+     * @param path caminho da nova faixa, ou null para desvanecer até ao silêncio
+     * @param fadeMs duração da transição em milissegundos
+     */
+    public synchronized void crossfadeTo(String path, long fadeMs) {
+        if (path == null ? target == null : path.equals(target)) return;
+        request(path, true, Math.max(1, fadeMs));
+    }
+
+    /**
+     * Suspende a música. As pausas acumulam: a música só volta depois de igual número de resume().
+     */
+    public synchronized void pause() {
+        pauseDepth++;
+        if (line != null) line.stop();
+    }
+
+    /**
+     * Retoma a música suspensa por pause().
+     */
+    public synchronized void resume() {
+        if (pauseDepth == 0) return;
+        pauseDepth--;
+        if (pauseDepth == 0) {
+            if (line != null) line.start();
+            notifyAll();
+        }
+    }
+
+    /**
+     * Para a música e fecha a faixa atual.
+     */
+    public synchronized void stop() {
+        request(null, false, 0);
+        if (line != null) line.flush();
+    }
+
+    /**
+     * Define o volume da música.
+     *
+     * @param volume ganho entre 0.0 e 1.0
+     */
+    public synchronized void setVolume(float volume) {
+        this.volume = Math.max(0f, Math.min(1f, volume));
+    }
+
+    public synchronized boolean isPaused() {
+        return pauseDepth > 0;
+    }
+
+    /**
+     * Deixa um pedido para a thread da música (substituindo o anterior, se ainda não foi atendido) e acorda-a.
+     */
+    private void request(String path, boolean loop, long fadeMs) {
+        target = path;
+        // sem thread não há nenhuma faixa aberta, por isso pedir silêncio não tem nada a fazer
+        if (!available || (path == null && thread == null)) return;
+        requested = true;
+        requestPath = path;
+        requestLoop = loop;
+        requestFadeMs = fadeMs;
+
+        if (thread == null) {
+            thread = new Thread(this::run, "audio-music");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        notifyAll();
+    }
+
+    private void run() {
+        while (true) {
+            boolean take;
+            String path;
+            boolean loop;
+            long fadeMs;
+            synchronized (this) {
+                try {
+                    while (!requested && pauseDepth > 0 && hasAudio()) wait();
+                } catch (InterruptedException e) {
+                    thread = null;
+                    return;
+                }
+                if (!requested && !hasAudio()) {
+                    // nada para tocar: a thread termina e o próximo pedido cria outra
+                    thread = null;
+                    return;
+                }
+                take = requested;
+                path = requestPath;
+                loop = requestLoop;
+                fadeMs = requestFadeMs;
+                requested = false;
+            }
+
+            if (take) {
+                // a faixa é aberta aqui, fora do monitor; depois volta a verificar pausas e pedidos
+                apply((path == null) ? null : Stream.open(path, loop), fadeMs);
+                continue;
+            }
+            if (!ensureLine()) return;
+
+            mixChunk();
+            line.write(outChunk, 0, outChunk.length);
+        }
+    }
+
+    /**
+     * Troca as faixas conforme um pedido: sem transição substitui tudo, com transição a faixa nova entra como seguinte.
+     *
+     * @param opened faixa já aberta, ou null para silêncio
+     * @param fadeMs duração da transição, ou 0 para substituir logo
+     */
+    private void apply(Stream opened, long fadeMs) {
+        if (fadeMs == 0) {
+            closeStreams();
+            current = opened;
+            return;
+        }
+
+        if (next != null) {
+            // transição interrompida: a faixa que entrava passa a ser a atual
+            if (current != null) current.close();
+            current = next;
+        }
+        next = (opened == null) ? Stream.silence() : opened;
+        fadeFrames = Math.max(1, (long) (fadeMs * PcmSample.FORMAT.getFrameRate() / 1000));
+        fadedFrames = 0;
+        if (current == null) current = Stream.silence();
+    }
+
+    /**
+     * Abre a linha de saída na primeira vez que há música para tocar.
+     * Se não houver saída de som, o canal fica desativado e a thread termina.
+     *
+     * @return true se a linha estiver pronta
+     */
+    private boolean ensureLine() {
+        if (line != null) return true;
+
+        SourceDataLine opened;
+        try {
+            opened = AudioSystem.getSourceDataLine(PcmSample.FORMAT);
+            opened.open(PcmSample.FORMAT, outChunk.length * 4);
+        } catch (Exception e) {
+            System.out.println("Erro ao abrir a saída de música: " + e.getMessage());
+            closeStreams();
+            synchronized (this) {
+                available = false;
+                thread = null;
+            }
+            return false;
+        }
+
+        synchronized (this) {
+            line = opened;
+            if (pauseDepth == 0) line.start();
+        }
+        return true;
+    }
+
+    private boolean hasAudio() {
+        return (current != null && !current.isSilence()) || (next != null && !next.isSilence());
+    }
+
+    private void mixChunk() {
+        int curBytes = (current == null) ? 0 : current.read(currentChunk);
+        int nextBytes = (next == null) ? 0 : next.read(nextChunk);
+
+        for (int i = 0; i < outChunk.length; i += 2) {
+            float gainCur = 1f;
+            float gainNext = 0f;
+            if (next != null) {
+                long frame = fadedFrames + (i / FRAME_SIZE);
+                gainNext = Math.min(1f, (float) frame / fadeFrames);
+                gainCur = 1f - gainNext;
+            }
+
+            int a = (i < curBytes) ? sampleAt(currentChunk, i) : 0;
+            int b = (i < nextBytes) ? sampleAt(nextChunk, i) : 0;
+            int s = (int) ((a * gainCur + b * gainNext) * volume);
+
+            outChunk[i] = (byte) s;
+            outChunk[i + 1] = (byte) (s >> 8);
+        }
+
+        if (next != null) {
+            fadedFrames += CHUNK_FRAMES;
+            if (fadedFrames >= fadeFrames) {
+                if (current != null) current.close();
+                current = next;
+                next = null;
+            }
+        }
+
+        if (current != null && current.isFinished()) {
+            current.close();
+            current = null;
+        }
+    }
+
+    private static int sampleAt(byte[] buf, int i) {
+        return (short) ((buf[i] & 0xff) | (buf[i + 1] << 8));
+    }
+
+    private void closeStreams() {
+        if (current != null) current.close();
+        if (next != null) next.close();
+        current = null;
+        next = null;
+    }
+
+    /**
+     * Leitura em blocos de uma faixa, reaberta do início quando chega ao fim se estiver em ciclo.
+     */
+    private static class Stream {
+        final String path;
+        private final boolean loop;
+        private AudioInputStream in;
+        private boolean finished;
+
+        private Stream(String path, boolean loop) {
+            this.path = path;
+            this.loop = loop;
+        }
+
+        static Stream silence() {
+            return new Stream(null, false);
+        }
+
+        static Stream open(String path, boolean loop) {
+            Stream s = new Stream(path, loop);
+            if (!s.reopen()) s.finished = true;
+            return s;
+        }
+
+        boolean isSilence() {
+            return in == null;
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+
+        /**
+         * Lê um bloco completo, voltando ao início da faixa quando esta termina e está em ciclo.
+         *
+         * @param buf destino dos bytes PCM
+         * @return número de bytes lidos
+         */
+        int read(byte[] buf) {
+            if (in == null) return 0;
+
+            int filled = 0;
+            boolean reopened = false;
+            try {
+                while (filled < buf.length) {
+                    int n = in.read(buf, filled, buf.length - filled);
+                    if (n > 0) {
+                        filled += n;
+                        reopened = false;
+                    } else if (n == 0) {
+                        break;
+                    } else if (!loop || reopened || !reopen()) {
+                        // fim da faixa (ou faixa vazia, que não pode ser repetida)
+                        finished = true;
+                        break;
+                    } else {
+                        reopened = true;
+                    }
+                }
+            } catch (IOException e) {
+                finished = true;
+            }
+            return filled - (filled % FRAME_SIZE);
+        }
+
+        private boolean reopen() {
+            close();
+            if (path == null) return false;
+            File file = new File(path);
+            if (!file.exists()) return false;
+
+            try {
+                AudioInputStream source = AudioSystem.getAudioInputStream(
+                        new BufferedInputStream(new FileInputStream(file), 16 * 1024));
+                in = source.getFormat().matches(PcmSample.FORMAT)
+                        ? source
+                        : AudioSystem.getAudioInputStream(PcmSample.FORMAT, source);
+                return true;
+            } catch (Exception e) {
+                System.out.println("Erro ao abrir música: " + e.getMessage());
+                return false;
+            }
+        }
+
+        void close() {
+            if (in == null) return;
+            try {
+                in.close();
+            } catch (IOException ignored) {
+            }
+            in = null;
+        }
+    }
+}
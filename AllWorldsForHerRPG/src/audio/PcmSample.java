@@ -0,0 +1,65 @@
+package audio;
+
+import javax.sound.sampled.AudioFormat;
+import java.nio.ShortBuffer;
+
+/**
+ * Som já descodificado para o formato de saída do mixer
+ * (PCM de 16 bits com sinal, estéreo, little-endian).
+ * As amostras são intercaladas: esquerda, direita, esquerda, direita...
+ */
+public class PcmSample {
+
+    /** Formato usado por todas as amostras e pela linha de saída. */
+    public static final AudioFormat FORMAT = new AudioFormat(44100f, 16, 2, true, false);
+
+    private final ShortBuffer data;
+    private final int frames;
+
+    /**
+     * Cria uma amostra a partir de dados PCM intercalados.
+     *
+     * @param data amostras de 16 bits no formato {@link #FORMAT}
+     */
+    public PcmSample(ShortBuffer data) {
+        this.data = data;
+        this.frames = data.limit() / FORMAT.getChannels();
+    }
+
+    /**
+     * Devolve a amostra de 16 bits numa posição absoluta.
+     *
+     * @param index índice da amostra (frame * canais + canal)
+     * @return valor da amostra
+     */
+    short get(int index) {
+        return data.get(index);
+    }
+
+    /**
+     * Devolve o número de frames da amostra.
+     *
+     * @return número de frames
+     */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * Devolve a memória ocupada pelas amostras.
+     *
+     * @return tamanho em bytes
+     */
+    public long getSizeBytes() {
+        return (long) frames * FORMAT.getFrameSize();
+    }
+
+    /**
+     * Devolve a duração do som.
+     *
+     * @return duração em milissegundos
+     */
+    public long getDurationMs() {
+        return (long) (frames * 1000L / FORMAT.getFrameRate());
+    }
+}
@@ -0,0 +1,126 @@
+package audio;
+
+import jogo.ConsoleFX;
+import jogo.GameClock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Representa uma reprodução de som em curso.
+ * Permite saber se o som já terminou, esperar pelo fim ou interrompê-lo.
+ */
+public class PlaybackHandle {
+
+    private static final long KEYPRESS_POLL_MS = 25;
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Runnable onSkip;
+    private Runnable onDone;
+
+    PlaybackHandle() {}
+
+    /**
+     * Cria um handle já concluído (som desligado, inexistente ou com erro).
+     *
+     * @return handle concluído
+     */
+    static PlaybackHandle completed() {
+        PlaybackHandle h = new PlaybackHandle();
+        h.complete();
+        return h;
+    }
+
+    void onSkip(Runnable action) {
+        this.onSkip = action;
+    }
+
+    void complete() {
+        Runnable action;
+        synchronized (this) {
+            if (isDone()) return;
+            done.countDown();
+            action = onDone;
+            onDone = null;
+        }
+        if (action != null) action.run();
+    }
+
+    /**
+     * Regista uma ação a executar quando a reprodução terminar.
+     * Se já tiver terminado, a ação é executada de imediato.
+     *
+     * @param action ação a executar
+     */
+    public void whenDone(Runnable action) {
+        synchronized (this) {
+            if (!isDone()) {
+                Runnable previous = onDone;
+                onDone = (previous == null) ? action : () -> {
+                    previous.run();
+                    action.run();
+                };
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * Indica se a reprodução já terminou.
+     *
+     * @return true se o som terminou ou foi interrompido
+     */
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * Interrompe o som e marca a reprodução como concluída.
+     */
+    public void skip() {
+        Runnable action = onSkip;
+        if (action != null) action.run();
+        complete();
+    }
+
+    /**
+     * Espera até o som terminar ou até o jogador carregar em Enter.
+     */
+    public void await() {
+        await(Long.MAX_VALUE);
+    }
+
+    /**
+     * Espera até o som terminar, até o jogador carregar em Enter ou até passar o tempo máximo.
+     * O tempo máximo é convertido pelo relógio do jogo; em tempo virtual o som é interrompido logo.
+     *
+     * @param maxWaitMs tempo máximo de espera em milissegundos (tempo de jogo)
+     */
+    public void await(long maxWaitMs) {
+        GameClock clock = ConsoleFX.getClock();
+        long realWait = (maxWaitMs == Long.MAX_VALUE) ? Long.MAX_VALUE : clock.toRealMillis(maxWaitMs);
+        if (realWait <= 0) {
+            clock.sleep(maxWaitMs);
+            skip();
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + realWait;
+        if (deadline < 0) deadline = Long.MAX_VALUE;
+
+        try {
+            while (!isDone()) {
+                long left = deadline - System.currentTimeMillis();
+                if (left <= 0) return;
+                if (done.await(Math.min(left, KEYPRESS_POLL_MS), TimeUnit.MILLISECONDS)) return;
+                if (ConsoleFX.skipRequested()) {
+                    skip();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
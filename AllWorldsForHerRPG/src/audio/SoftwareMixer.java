@@ -0,0 +1,191 @@
+package audio;
+
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.SourceDataLine;
+import java.util.Arrays;
+
+/**
+ * Mixer em software que soma todos os efeitos sonoros ativos numa única linha de saída.
+ * A linha é aberta uma vez e reutilizada durante todo o jogo.
+ * O número de vozes em simultâneo é limitado; quando o limite é atingido,
+ * a voz mais antiga é interrompida para dar lugar à nova.
+ */
+public class SoftwareMixer {
+
+    private static final int BLOCK_FRAMES = 512;
+
+    private final Voice[] voices;
+    private final int[] mixBuffer = new int[BLOCK_FRAMES * 2];
+    private final byte[] outBuffer = new byte[BLOCK_FRAMES * 4];
+
+    private SourceDataLine line;
+    private Thread thread;
+    private boolean available = true;
+    private boolean running;
+    private long startCounter;
+
+    /**
+     * Cria um mixer com um número máximo de vozes.
+     *
+     * @param maxVoices número máximo de sons a tocar em simultâneo
+     */
+    public SoftwareMixer(int maxVoices) {
+        this.voices = new Voice[Math.max(1, maxVoices)];
+        for (int i = 0; i < voices.length; i++) voices[i] = new Voice();
+    }
+
+    /**
+     * Começa a tocar uma amostra. A reprodução é dada como concluída quando a amostra termina,
+     * quando é interrompida ou quando a voz é roubada por um som mais recente.
+     *
+     * @param sample amostra a tocar
+     * @param gain ganho da voz (1.0 = volume original)
+     * @param handle handle a concluir no fim da reprodução
+     */
+    public synchronized void play(PcmSample sample, float gain, PlaybackHandle handle) {
+        if (!ensureOpen()) {
+            handle.complete();
+            return;
+        }
+
+        Voice voice = null;
+        for (Voice v : voices) {
+            if (v.sample == null) {
+                voice = v;
+                break;
+            }
+            if (voice == null || v.startOrder < voice.startOrder) voice = v;
+        }
+
+        release(voice);
+
+        voice.sample = sample;
+        voice.position = 0;
+        voice.gain = Math.max(0f, gain);
+        voice.handle = handle;
+        voice.startOrder = startCounter++;
+
+        Voice started = voice;
+        handle.onSkip(() -> stop(started, handle));
+        notifyAll();
+    }
+
+    /**
+     * Devolve o número de vozes a tocar neste momento.
+     *
+     * @return vozes ativas
+     */
+    public synchronized int getActiveVoices() {
+        int n = 0;
+        for (Voice v : voices) if (v.sample != null) n++;
+        return n;
+    }
+
+    /**
+     * Devolve o número máximo de vozes em simultâneo.
+     *
+     * @return limite de vozes
+     */
+    public int getMaxVoices() {
+        return voices.length;
+    }
+
+    /**
+     * Para todas as vozes, fecha a linha de saída e termina a thread do mixer.
+     */
+    public synchronized void close() {
+        for (Voice v : voices) release(v);
+        running = false;
+        notifyAll();
+        if (line != null) {
+            line.stop();
+            line.close();
+            line = null;
+        }
+    }
+
+    private synchronized void stop(Voice voice, PlaybackHandle handle) {
+        if (voice.handle == handle) release(voice);
+    }
+
+    private void release(Voice voice) {
+        if (voice.handle != null) voice.handle.complete();
+        voice.sample = null;
+        voice.handle = null;
+    }
+
+    private boolean ensureOpen() {
+        if (line != null) return true;
+        if (!available) return false;
+
+        try {
+            line = AudioSystem.getSourceDataLine(PcmSample.FORMAT);
+            line.open(PcmSample.FORMAT, outBuffer.length * 4);
+            line.start();
+        } catch (Exception e) {
+            available = false;
+            line = null;
+            System.out.println("Erro ao abrir a saída de som: " + e.getMessage());
+            return false;
+        }
+
+        running = true;
+        thread = new Thread(this::run, "audio-mixer");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void run() {
+        while (true) {
+            SourceDataLine out;
+            synchronized (this) {
+                try {
+                    while (running && getActiveVoices() == 0) wait();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (!running) return;
+                mixBlock();
+                out = line;
+            }
+            if (out != null) out.write(outBuffer, 0, outBuffer.length);
+        }
+    }
+
+    private void mixBlock() {
+        Arrays.fill(mixBuffer, 0);
+
+        for (Voice v : voices) {
+            if (v.sample == null) continue;
+
+            int frames = Math.min(BLOCK_FRAMES, v.sample.getFrames() - v.position);
+            int base = v.position * 2;
+            for (int i = 0; i < frames * 2; i++) {
+                mixBuffer[i] += (int) (v.sample.get(base + i) * v.gain);
+            }
+
+            v.position += frames;
+            if (v.position >= v.sample.getFrames()) release(v);
+        }
+
+        for (int i = 0; i < mixBuffer.length; i++) {
+            int s = mixBuffer[i];
+            if (s > Short.MAX_VALUE) s = Short.MAX_VALUE;
+            else if (s < Short.MIN_VALUE) s = Short.MIN_VALUE;
+            outBuffer[i * 2] = (byte) s;
+            outBuffer[i * 2 + 1] = (byte) (s >> 8);
+        }
+    }
+
+    /**
+     * Uma posição de reprodução do mixer.
+     */
+    private static class Voice {
+        PcmSample sample;
+        int position;
+        float gain;
+        PlaybackHandle handle;
+        long startOrder;
+    }
+}
@@ -0,0 +1,447 @@
+package combate;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Política ótima de combate já resolvida: para cada estado (vida do herói, vida do inimigo, especial usado,
+ * consumíveis restantes) guarda num byte a ação que maximiza a probabilidade de vitória.
+ * É calculada de uma vez por indução para trás sobre todos os estados e depois consultada em tempo constante.
+ * <p>
+ * Cada política serve um conjunto de estatísticas (força, arma, bónus especial, força do inimigo)
+ * e cobre qualquer vida até aos máximos indicados e qualquer subconjunto dos consumíveis com que foi resolvida.
+ * Depois de criada é imutável e pode ser consultada por várias threads.
+ * <p>
+ * Se os consumíveis não couberem no limite de {@value #MAX_STATES} estados, os mais fracos são ignorados
+ * (ver {@link #groupTypes(int[], int, int, int)}); combates cujas vidas, sozinhas, já não cabem
+ * não têm política (ver {@link #fits}).
+ */
+public final class CombatPolicy {
+
+    /** Número máximo de estados de uma política. */
+    public static final int MAX_STATES = 8_000_000;
+
+    private static final double EPS = 1e-12;
+
+    /**
+     * Memória de trabalho da indução para trás (probabilidade e vida esperada de cada estado, 16 bytes por estado),
+     * reaproveitada entre cálculos. Só pode ser usada por um cálculo de cada vez.
+     */
+    static final class Scratch {
+        private double[] prob = new double[0];
+        private double[] hp = new double[0];
+
+        int capacity() {
+            return prob.length;
+        }
+
+        private void ensure(int size) {
+            if (prob.length >= size) return;
+            prob = new double[size];
+            hp = new double[size];
+        }
+    }
+
+    final int strength;
+    final int weaponAttack;
+    final int weaponSpecial;
+    final int specialBonus;
+    final int enemyStrength;
+    final int maxHero;
+    final int maxEnemy;
+    final int[] typeDamage;
+    final int[] typeMax;
+    private final int[] typeRadix;
+    private final int combos;
+    private final byte[] table;
+
+    private CombatPolicy(int strength, int weaponAttack, int weaponSpecial, int specialBonus, int enemyStrength,
+                         int maxHero, int maxEnemy, int[] typeDamage, int[] typeMax, byte[] table) {
+        this.strength = strength;
+        this.weaponAttack = weaponAttack;
+        this.weaponSpecial = weaponSpecial;
+        this.specialBonus = specialBonus;
+        this.enemyStrength = enemyStrength;
+        this.maxHero = maxHero;
+        this.maxEnemy = maxEnemy;
+        this.typeDamage = typeDamage;
+        this.typeMax = typeMax;
+        this.typeRadix = new int[typeDamage.length];
+
+        if (maxHero < 1 || maxEnemy < 1) throw new IllegalArgumentException("vida máxima inválida");
+        // o tipo do consumível é guardado em 6 bits de cada célula
+        if (typeDamage.length > 64) throw new IllegalArgumentException("demasiados tipos de consumíveis");
+
+        long radix = 1;
+        for (int t = 0; t < typeDamage.length; t++) {
+            if (typeMax[t] < 0) throw new IllegalArgumentException("quantidade de consumíveis inválida");
+            typeRadix[t] = (int) radix;
+            radix *= (typeMax[t] + 1L);
+            if (radix > MAX_STATES) throw new IllegalArgumentException("política demasiado grande: " + radix + " combinações");
+        }
+        this.combos = (int) radix;
+
+        long size = (long) (maxHero + 1) * (maxEnemy + 1) * 2 * combos;
+        if (size > MAX_STATES) throw new IllegalArgumentException("política demasiado grande: " + size + " estados");
+        this.table = (table != null) ? table : new byte[(int) size];
+        if (this.table.length != size) throw new IllegalArgumentException("tabela com tamanho inválido");
+    }
+
+    /**
+     * Resolve a política ótima para as estatísticas indicadas.
+     *
+     * @param strength força do herói
+     * @param weaponAttack ataque normal da arma
+     * @param weaponSpecial ataque especial da arma
+     * @param specialBonus bónus do ataque especial da personagem
+     * @param enemyStrength força do inimigo
+     * @param maxHero vida máxima do herói coberta pela política
+     * @param maxEnemy vida máxima do inimigo coberta pela política
+     * @param consumables dano dos consumíveis de combate disponíveis no início
+     * @param count número de valores válidos em {@code consumables}
+     * @return política resolvida
+     * @throws IllegalArgumentException se as vidas não couberem numa política (ver {@link #fits})
+     */
+    public static CombatPolicy solve(int strength, int weaponAttack, int weaponSpecial, int specialBonus, int enemyStrength,
+                                     int maxHero, int maxEnemy, int[] consumables, int count) {
+        maxHero = Math.max(1, maxHero);
+        maxEnemy = Math.max(1, maxEnemy);
+        return solve(strength, weaponAttack, weaponSpecial, specialBonus, enemyStrength, maxHero, maxEnemy,
+                groupTypes(consumables, count, maxHero, maxEnemy), new Scratch());
+    }
+
+    /**
+     * Resolve a política para consumíveis já agrupados por {@link #groupTypes(int[], int, int, int)},
+     * usando a memória de trabalho indicada.
+     */
+    static CombatPolicy solve(int strength, int weaponAttack, int weaponSpecial, int specialBonus, int enemyStrength,
+                              int maxHero, int maxEnemy, int[][] types, Scratch scratch) {
+        CombatPolicy policy = new CombatPolicy(strength, weaponAttack, weaponSpecial, specialBonus,
+                Math.max(0, enemyStrength), maxHero, maxEnemy, types[0], types[1], null);
+        policy.fill(scratch);
+        return policy;
+    }
+
+    /**
+     * Indica se um combate com estas vidas máximas cabe numa política, mesmo sem consumíveis.
+     *
+     * @param maxHero vida máxima do herói
+     * @param maxEnemy vida máxima do inimigo
+     * @return true se a tabela sem consumíveis não ultrapassar {@link #MAX_STATES}
+     */
+    public static boolean fits(int maxHero, int maxEnemy) {
+        return (long) (Math.max(1, maxHero) + 1) * (Math.max(1, maxEnemy) + 1) * 2 <= MAX_STATES;
+    }
+
+    /**
+     * Agrupa os consumíveis por dano e corta os mais fracos até a política caber em {@link #MAX_STATES}.
+     * Os tipos sem nenhum consumível depois do corte são removidos.
+     *
+     * @param consumables dano dos consumíveis
+     * @param count número de valores válidos em {@code consumables}
+     * @param maxHero vida máxima do herói (pelo menos 1)
+     * @param maxEnemy vida máxima do inimigo (pelo menos 1)
+     * @return danos e quantidades de cada tipo, por ordem crescente de dano
+     */
+    static int[][] groupTypes(int[] consumables, int count, int maxHero, int maxEnemy) {
+        int[][] types = groupTypes(consumables, count);
+        int[] damage = types[0];
+        int[] max = types[1];
+        long limit = MAX_STATES / ((long) (maxHero + 1) * (maxEnemy + 1) * 2);
+
+        // os tipos estão por ordem crescente de dano, por isso o mais fraco com consumíveis é o primeiro
+        int first = 0;
+        while (first < damage.length && combos(max, first) > limit) {
+            if (--max[first] == 0) first++;
+        }
+        if (first == 0) return types;
+        return new int[][] { Arrays.copyOfRange(damage, first, damage.length), Arrays.copyOfRange(max, first, max.length) };
+    }
+
+    /**
+     * Número de combinações dos tipos a partir de {@code from}, saturado acima de {@link #MAX_STATES}.
+     */
+    private static long combos(int[] max, int from) {
+        long product = 1;
+        for (int t = from; t < max.length && product <= MAX_STATES; t++) product *= (max[t] + 1L);
+        return product;
+    }
+
+    /**
+     * Agrupa os consumíveis por dano, por ordem crescente de dano.
+     *
+     * @return danos e quantidades de cada tipo
+     */
+    static int[][] groupTypes(int[] consumables, int count) {
+        int[] sorted = Arrays.copyOf(consumables, count);
+        Arrays.sort(sorted);
+
+        int types = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (sorted[i] > 0 && (i == 0 || sorted[i] != sorted[i - 1])) types++;
+        }
+        int[] damage = new int[types];
+        int[] max = new int[types];
+        int t = -1;
+        for (int i = 0; i < sorted.length; i++) {
+            if (sorted[i] <= 0) continue;
+            if (t < 0 || damage[t] != sorted[i]) damage[++t] = sorted[i];
+            max[t]++;
+        }
+        return new int[][] { damage, max };
+    }
+
+    /**
+     * Indução para trás: as transições vão sempre para menos vida do herói (o inimigo ataca)
+     * ou, com a mesma vida, para menos vida do inimigo, por isso basta percorrer as duas por ordem crescente.
+     * Cada estado só é lido depois de calculado, por isso a memória de trabalho não precisa de ser limpa.
+     */
+    private void fill(Scratch scratch) {
+        scratch.ensure(table.length);
+        double[] prob = scratch.prob;
+        double[] hp = scratch.hp;
+        int normal = CombatResolver.normalDamage(strength, weaponAttack);
+        int special = CombatResolver.specialDamage(strength, weaponSpecial, specialBonus);
+        double normalHit = 1.0 - CombatResolver.WEAK_POINT_CHANCE / 100.0;
+        double weakHit = CombatResolver.WEAK_POINT_CHANCE / 100.0;
+
+        for (int h = 1; h <= maxHero; h++) {
+            for (int e = 1; e <= maxEnemy; e++) {
+                for (int s = 0; s < 2; s++) {
+                    for (int c = 0; c < combos; c++) {
+                        int idx = index(h, e, s, c);
+
+                        double bestP = -1;
+                        double bestH = 0;
+                        int best = CombatResolver.NORMAL;
+
+                        for (int a = 0; a <= 1 + typeDamage.length; a++) {
+                            int damage;
+                            int ns = s;
+                            int nc = c;
+                            int move;
+                            if (a == 0) {
+                                damage = normal;
+                                move = CombatResolver.NORMAL;
+                            } else if (a == 1) {
+                                if (s == 1) continue;
+                                damage = special;
+                                ns = 1;
+                                move = CombatResolver.SPECIAL;
+                            } else {
+                                int t = a - 2;
+                                if ((c / typeRadix[t]) % (typeMax[t] + 1) == 0) continue;
+                                damage = typeDamage[t];
+                                nc = c - typeRadix[t];
+                                move = CombatResolver.CONSUMABLE | (t << 2);
+                            }
+
+                            int ne = e - damage;
+                            double p;
+                            double eh;
+                            if (ne <= 0) {
+                                p = 1;
+                                eh = h;
+                            } else if (enemyStrength == 0) {
+                                int next = index(h, ne, ns, nc);
+                                p = prob[next];
+                                eh = hp[next];
+                            } else {
+                                p = 0;
+                                eh = 0;
+                                int h1 = h - enemyStrength;
+                                int h2 = h - 2 * enemyStrength;
+                                if (h1 > 0) {
+                                    int next = index(h1, ne, ns, nc);
+                                    p += normalHit * prob[next];
+                                    eh += normalHit * hp[next];
+                                }
+                                if (h2 > 0) {
+                                    int next = index(h2, ne, ns, nc);
+                                    p += weakHit * prob[next];
+                                    eh += weakHit * hp[next];
+                                }
+                            }
+
+                            if (p > bestP + EPS || (p > bestP - EPS && eh > bestH + EPS)) {
+                                bestP = p;
+                                bestH = eh;
+                                best = move;
+                            }
+                        }
+
+                        prob[idx] = bestP;
+                        hp[idx] = bestH;
+                        table[idx] = (byte) best;
+                    }
+                }
+            }
+        }
+    }
+
+    private int index(int h, int e, int s, int c) {
+        return ((h * (maxEnemy + 1) + e) * 2 + s) * combos + c;
+    }
+
+    /**
+     * Indica se esta política serve para um combate com as estatísticas e o estado indicados.
+     *
+     * @param strength força do herói
+     * @param weaponAttack ataque normal da arma
+     * @param weaponSpecial ataque especial da arma
+     * @param specialBonus bónus do ataque especial
+     * @param enemyStrength força do inimigo
+     * @param heroHealth vida atual do herói
+     * @param enemyHealth vida atual do inimigo
+     * @param consumables dano dos consumíveis de combate disponíveis
+     * @param count número de valores válidos em {@code consumables}
+     * @return true se todos os estados do combate estão cobertos por esta política
+     */
+    public boolean covers(int strength, int weaponAttack, int weaponSpecial, int specialBonus, int enemyStrength,
+                          int heroHealth, int enemyHealth, int[] consumables, int count) {
+        if (strength != this.strength || weaponAttack != this.weaponAttack || weaponSpecial != this.weaponSpecial
+                || specialBonus != this.specialBonus || enemyStrength != this.enemyStrength) return false;
+        if (heroHealth > maxHero || enemyHealth > maxEnemy) return false;
+
+        for (int t = 0; t < typeDamage.length; t++) {
+            int have = 0;
+            for (int i = 0; i < count; i++) {
+                if (consumables[i] == typeDamage[t]) have++;
+            }
+            if (have > typeMax[t]) return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (consumables[i] > 0 && Arrays.binarySearch(typeDamage, consumables[i]) < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Devolve a melhor jogada para um estado do combate.
+     * Consumíveis com danos desconhecidos para esta política são ignorados.
+     *
+     * @param heroHealth vida atual do herói
+     * @param enemyHealth vida atual do inimigo
+     * @param specialUsed true se o especial já foi usado
+     * @param consumables dano dos consumíveis de combate disponíveis
+     * @param count número de valores válidos em {@code consumables}
+     * @return jogada codificada (ver {@link #actionOf} e {@link #itemDamageOf})
+     */
+    public int bestMove(int heroHealth, int enemyHealth, boolean specialUsed, int[] consumables, int count) {
+        if (heroHealth <= 0 || enemyHealth <= 0) return CombatResolver.NORMAL;
+
+        int c = 0;
+        for (int t = 0; t < typeDamage.length; t++) {
+            int have = 0;
+            for (int i = 0; i < count; i++) {
+                if (consumables[i] == typeDamage[t]) have++;
+            }
+            c += Math.min(have, typeMax[t]) * typeRadix[t];
+        }
+
+        int h = Math.min(heroHealth, maxHero);
+        int e = Math.min(enemyHealth, maxEnemy);
+        int cell = table[index(h, e, specialUsed ? 1 : 0, c)] & 0xFF;
+        int action = cell & 3;
+        return (action == CombatResolver.CONSUMABLE) ? action | (typeDamage[cell >>> 2] << 2) : action;
+    }
+
+    /**
+     * Devolve a melhor jogada para o estado atual de um combate.
+     *
+     * @param s estado do combate
+     * @param consumables dano dos consumíveis de combate disponíveis
+     * @param count número de valores válidos em {@code consumables}
+     * @return jogada codificada
+     */
+    public int bestMove(CombatState s, int[] consumables, int count) {
+        return bestMove(s.heroHealth, s.enemyHealth, s.specialUsed, consumables, count);
+    }
+
+    /**
+     * Extrai a ação de uma jogada codificada.
+     *
+     * @param move jogada devolvida por {@link #bestMove}
+     * @return {@link CombatResolver#NORMAL}, {@link CombatResolver#SPECIAL} ou {@link CombatResolver#CONSUMABLE}
+     */
+    public static int actionOf(int move) {
+        return move & 3;
+    }
+
+    /**
+     * Extrai o dano do consumível a usar de uma jogada codificada.
+     *
+     * @param move jogada devolvida por {@link #bestMove}
+     * @return dano instantâneo, ou 0 se a jogada não for um consumível
+     */
+    public static int itemDamageOf(int move) {
+        return move >>> 2;
+    }
+
+    /**
+     * Devolve o tamanho da tabela.
+     *
+     * @return número de estados (um byte cada)
+     */
+    public int getStates() { return table.length; }
+
+    /**
+     * Escreve a política num fluxo binário.
+     *
+     * @param out destino
+     * @throws IOException se a escrita falhar
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(strength);
+        out.writeInt(weaponAttack);
+        out.writeInt(weaponSpecial);
+        out.writeInt(specialBonus);
+        out.writeInt(enemyStrength);
+        out.writeInt(maxHero);
+        out.writeInt(maxEnemy);
+        out.writeInt(typeDamage.length);
+        for (int t = 0; t < typeDamage.length; t++) {
+            out.writeInt(typeDamage[t]);
+            out.writeInt(typeMax[t]);
+        }
+        out.writeInt(table.length);
+        out.write(table);
+    }
+
+    /**
+     * Lê uma política escrita por {@link #write}.
+     *
+     * @param in origem
+     * @return política lida
+     * @throws IOException se a leitura falhar ou os dados forem inválidos
+     */
+    static CombatPolicy read(DataInputStream in) throws IOException {
+        int strength = in.readInt();
+        int weaponAttack = in.readInt();
+        int weaponSpecial = in.readInt();
+        int specialBonus = in.readInt();
+        int enemyStrength = in.readInt();
+        int maxHero = in.readInt();
+        int maxEnemy = in.readInt();
+        int types = in.readInt();
+        if (types < 0 || types > 64) throw new IOException("política inválida");
+        int[] typeDamage = new int[types];
+        int[] typeMax = new int[types];
+        for (int t = 0; t < types; t++) {
+            typeDamage[t] = in.readInt();
+            typeMax[t] = in.readInt();
+        }
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STATES) throw new IOException("política inválida");
+        byte[] table = new byte[length];
+        in.readFully(table);
+        try {
+            return new CombatPolicy(strength, weaponAttack, weaponSpecial, specialBonus, enemyStrength,
+                    maxHero, maxEnemy, typeDamage, typeMax, table);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("política inválida: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package combate;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Regras de combate sem consola, som nem pausas: dano normal (força + ataque da arma),
+ * ataque especial uma vez por combate (força + especial da arma + bónus da personagem),
+ * consumíveis de combate com dano instantâneo e o ataque do inimigo,
+ * que tem 25% de hipótese de atingir o ponto fraco e causar o dobro do dano.
+ * Todos os métodos trabalham sobre um {@link CombatState} e não criam objetos.
+ */
+public final class CombatResolver {
+
+    public static final int NORMAL = 1;
+    public static final int SPECIAL = 2;
+    public static final int CONSUMABLE = 3;
+
+    /** Resultado de uma ação recusada (especial repetido ou sem consumíveis); o turno não conta. */
+    public static final int REJECTED = -1;
+
+    /** Probabilidade, em percentagem, de o inimigo atingir o ponto fraco. */
+    public static final int WEAK_POINT_CHANCE = 25;
+
+    private CombatResolver() {}
+
+    /**
+     * Calcula o dano de um ataque normal.
+     *
+     * @param strength força do herói
+     * @param weaponAttack ataque normal da arma
+     * @return dano
+     */
+    public static int normalDamage(int strength, int weaponAttack) {
+        return strength + weaponAttack;
+    }
+
+    /**
+     * Calcula o dano do ataque especial.
+     *
+     * @param strength força do herói
+     * @param weaponSpecial ataque especial da arma
+     * @param specialBonus bónus da personagem
+     * @return dano
+     */
+    public static int specialDamage(int strength, int weaponSpecial, int specialBonus) {
+        return strength + weaponSpecial + specialBonus;
+    }
+
+    /**
+     * Aplica a ação do herói ao inimigo.
+     *
+     * @param s estado do combate
+     * @param action {@link #NORMAL}, {@link #SPECIAL} ou {@link #CONSUMABLE}
+     * @param instantDamage dano instantâneo do consumível escolhido (ignorado nas outras ações)
+     * @return dano causado, ou {@link #REJECTED} se a ação não for permitida
+     */
+    public static int heroAction(CombatState s, int action, int instantDamage) {
+        int damage;
+        if (action == NORMAL) {
+            damage = normalDamage(s.heroStrength, s.weaponAttack);
+        } else if (action == SPECIAL) {
+            if (s.specialUsed) return REJECTED;
+            damage = specialDamage(s.heroStrength, s.weaponSpecial, s.specialBonus);
+            s.specialUsed = true;
+        } else if (action == CONSUMABLE) {
+            if (s.consumables <= 0) return REJECTED;
+            damage = Math.max(0, instantDamage);
+            s.consumables--;
+        } else {
+            return REJECTED;
+        }
+
+        s.enemyHealth = Math.max(0, s.enemyHealth - damage);
+        s.lastDamage = damage;
+        return damage;
+    }
+
+    /**
+     * Aplica o ataque do inimigo ao herói, sorteando se atinge o ponto fraco.
+     *
+     * @param s estado do combate
+     * @param random gerador de números aleatórios
+     * @return dano sofrido pelo herói
+     */
+    public static int enemyAction(CombatState s, RandomGenerator random) {
+        boolean weak = random.nextInt(100) < WEAK_POINT_CHANCE;
+        int damage = weak ? s.enemyStrength * 2 : s.enemyStrength;
+
+        s.heroHealth = Math.max(0, s.heroHealth - damage);
+        s.lastEnemyDamage = damage;
+        s.lastWeakHit = weak;
+        return damage;
+    }
+
+    /**
+     * Resolve um turno completo: a ação do herói e, se o inimigo sobreviver, o ataque do inimigo.
+     *
+     * @param s estado do combate
+     * @param action {@link #NORMAL}, {@link #SPECIAL} ou {@link #CONSUMABLE}
+     * @param instantDamage dano instantâneo do consumível escolhido
+     * @param random gerador de números aleatórios
+     * @return dano causado pelo herói, ou {@link #REJECTED} se a ação não for permitida
+     */
+    public static int turn(CombatState s, int action, int instantDamage, RandomGenerator random) {
+        int damage = heroAction(s, action, instantDamage);
+        if (damage == REJECTED) return REJECTED;
+        if (s.enemyHealth > 0) enemyAction(s, random);
+        return damage;
+    }
+}
@@ -0,0 +1,103 @@
+package combate;
+
+/**
+ * Estado de um combate em valores primitivos: vida e força do herói, arma equipada,
+ * ataque especial, consumíveis de combate disponíveis e vida e força do inimigo.
+ * Guarda também o resultado do último passo, para a camada de apresentação o mostrar.
+ * Uma instância pode ser reutilizada de combate em combate sem criar objetos.
+ */
+public final class CombatState {
+
+    int heroHealth;
+    int heroStrength;
+    int weaponAttack;
+    int weaponSpecial;
+    int specialBonus;
+    boolean specialUsed;
+    int consumables;
+
+    int enemyHealth;
+    int enemyStrength;
+
+    int lastDamage;
+    int lastEnemyDamage;
+    boolean lastWeakHit;
+
+    /**
+     * Prepara o estado para um novo combate.
+     *
+     * @param heroHealth vida atual do herói
+     * @param heroStrength força do herói
+     * @param weaponAttack ataque normal da arma equipada (0 sem arma)
+     * @param weaponSpecial ataque especial da arma equipada (0 sem arma)
+     * @param specialBonus bónus do ataque especial da personagem
+     * @param consumables número de consumíveis de combate no inventário
+     * @param enemyHealth vida atual do inimigo
+     * @param enemyStrength força do inimigo
+     */
+    public void start(int heroHealth, int heroStrength, int weaponAttack, int weaponSpecial, int specialBonus,
+                      int consumables, int enemyHealth, int enemyStrength) {
+        this.heroHealth = heroHealth;
+        this.heroStrength = heroStrength;
+        this.weaponAttack = weaponAttack;
+        this.weaponSpecial = weaponSpecial;
+        this.specialBonus = specialBonus;
+        this.specialUsed = false;
+        this.consumables = consumables;
+        this.enemyHealth = enemyHealth;
+        this.enemyStrength = enemyStrength;
+        this.lastDamage = 0;
+        this.lastEnemyDamage = 0;
+        this.lastWeakHit = false;
+    }
+
+    public int getHeroHealth() { return heroHealth; }
+
+    public int getHeroStrength() { return heroStrength; }
+
+    public int getWeaponAttack() { return weaponAttack; }
+
+    public int getWeaponSpecial() { return weaponSpecial; }
+
+    public int getSpecialBonus() { return specialBonus; }
+
+    public boolean isSpecialUsed() { return specialUsed; }
+
+    public int getConsumables() { return consumables; }
+
+    public int getEnemyHealth() { return enemyHealth; }
+
+    public int getEnemyStrength() { return enemyStrength; }
+
+    /**
+     * Devolve o dano causado pelo herói no último passo.
+     *
+     * @return dano causado
+     */
+    public int getLastDamage() { return lastDamage; }
+
+    /**
+     * Devolve o dano sofrido pelo herói no último ataque do inimigo.
+     *
+     * @return dano sofrido
+     */
+    public int getLastEnemyDamage() { return lastEnemyDamage; }
+
+    /**
+     * Indica se o último ataque do inimigo atingiu o ponto fraco.
+     *
+     * @return true se o dano foi duplicado
+     */
+    public boolean isLastWeakHit() { return lastWeakHit; }
+
+    public boolean isHeroAlive() { return heroHealth > 0; }
+
+    public boolean isEnemyAlive() { return enemyHealth > 0; }
+
+    /**
+     * Indica se o combate terminou (um dos lados ficou sem vida).
+     *
+     * @return true se o combate acabou
+     */
+    public boolean isOver() { return heroHealth <= 0 || enemyHealth <= 0; }
+}
@@ -0,0 +1,335 @@
+package combate;
+
+import java.util.Arrays;
+
+/**
+ * Calcula de forma exata a probabilidade de vitória de um combate, em vez de a estimar por amostragem.
+ * O dano do herói é determinístico e o único acaso é o ponto fraco (25% de dano a dobrar),
+ * por isso o combate é uma cadeia de Markov sobre (golpes sofridos, vida do inimigo, especial usado, consumíveis restantes).
+ * A cada estado é escolhida a ação que maximiza a probabilidade de vitória (em empate, a vida esperada no fim).
+ * <p>
+ * A vida do herói só desce em múltiplos da força do inimigo, por isso é guardada como número de "golpes simples" sofridos
+ * (um golpe no ponto fraco conta como dois). Os consumíveis são agrupados por dano e contados em base mista.
+ * A tabela de memória usa arrays primitivos reaproveitados entre cálculos; um solver não é seguro entre threads.
+ * <p>
+ * Os combates grandes demais para o cálculo exato (mais de {@value #MAX_STATES} estados, ou mais de
+ * {@value #MAX_HITS} golpes até à derrota) recebem uma estimativa determinística em vez de um erro:
+ * ver {@link #isExact()}.
+ */
+public final class FightSolver {
+
+    /** Limite de combinações de consumíveis; acima disto os consumíveis extra são ignorados no cálculo. */
+    private static final int MAX_COMBOS = 4096;
+
+    /** Limite de estados do cálculo exato (cerca de 22 bytes por estado na memória). */
+    public static final int MAX_STATES = 2_000_000;
+
+    /** Limite de golpes sofridos; a recursão desce um nível por golpe, por isso também limita a pilha. */
+    public static final int MAX_HITS = 2_000;
+
+    private static final double EPS = 1e-12;
+    private static final double NORMAL_HIT = 1.0 - CombatResolver.WEAK_POINT_CHANCE / 100.0;
+    private static final double WEAK_HIT = CombatResolver.WEAK_POINT_CHANCE / 100.0;
+
+    // parâmetros do cálculo atual
+    private int heroHealth;
+    private int enemyStrength;
+    private int normalDamage;
+    private int specialDamage;
+    private int enemyHealth;
+    private int maxHits;
+    private int combos;
+    private int typeCount;
+    private final int[] typeDamage = new int[16];
+    private final int[] typeCount0 = new int[16];
+    private final int[] typeRadix = new int[16];
+
+    // memória
+    private double[] prob = new double[0];
+    private double[] health = new double[0];
+    private byte[] action = new byte[0];
+    private byte[] itemType = new byte[0];
+    private int[] stamp = new int[0];
+    private int generation;
+
+    // resultado do último cálculo
+    private double lastProbability;
+    private double lastHealth;
+    private int lastAction;
+    private int lastItemDamage;
+    private long lastStates;
+    private boolean exact;
+
+    /**
+     * Calcula o combate a partir do estado atual de um {@link CombatState}.
+     *
+     * @param s estado do combate
+     * @param consumables dano instantâneo de cada consumível de combate disponível
+     * @param count número de valores válidos em {@code consumables}
+     * @return probabilidade de vitória, entre 0 e 1
+     */
+    public double solve(CombatState s, int[] consumables, int count) {
+        return solve(s.heroHealth, s.heroStrength, s.weaponAttack, s.weaponSpecial, s.specialBonus, s.specialUsed,
+                consumables, count, s.enemyHealth, s.enemyStrength);
+    }
+
+    /**
+     * Calcula o combate a partir de valores primitivos.
+     *
+     * @param heroHealth vida atual do herói
+     * @param strength força do herói
+     * @param weaponAttack ataque normal da arma
+     * @param weaponSpecial ataque especial da arma
+     * @param specialBonus bónus do ataque especial da personagem
+     * @param specialUsed true se o especial já foi usado neste combate
+     * @param consumables dano instantâneo de cada consumível de combate disponível
+     * @param count número de valores válidos em {@code consumables}
+     * @param enemyHealth vida atual do inimigo
+     * @param enemyStrength força do inimigo
+     * @return probabilidade de vitória, entre 0 e 1
+     */
+    public double solve(int heroHealth, int strength, int weaponAttack, int weaponSpecial, int specialBonus,
+                        boolean specialUsed, int[] consumables, int count, int enemyHealth, int enemyStrength) {
+        lastStates = 0;
+        exact = true;
+        if (enemyHealth <= 0) return result(1, heroHealth, CombatResolver.NORMAL, 0);
+        if (heroHealth <= 0) return result(0, 0, CombatResolver.NORMAL, 0);
+
+        this.heroHealth = heroHealth;
+        this.enemyStrength = Math.max(0, enemyStrength);
+        this.normalDamage = CombatResolver.normalDamage(strength, weaponAttack);
+        this.specialDamage = CombatResolver.specialDamage(strength, weaponSpecial, specialBonus);
+        this.enemyHealth = enemyHealth;
+        this.maxHits = (this.enemyStrength == 0) ? 0 : (heroHealth - 1) / this.enemyStrength;
+
+        long base = (long) (maxHits + 1) * (enemyHealth + 1) * 2;
+        if (maxHits > MAX_HITS || base > MAX_STATES) return estimate(specialUsed);
+        // os consumíveis extra são cortados até a tabela caber no limite de estados
+        groupConsumables(consumables, count, (int) Math.min(MAX_COMBOS, MAX_STATES / base));
+
+        ensureCapacity((int) (base * combos));
+        if (++generation == 0) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+
+        int start = 0;
+        for (int t = 0; t < typeCount; t++) start += typeCount0[t] * typeRadix[t];
+        int idx = value(0, enemyHealth, specialUsed ? 1 : 0, start);
+        int best = action[idx];
+        return result(prob[idx], health[idx], best,
+                (best == CombatResolver.CONSUMABLE) ? typeDamage[itemType[idx]] : 0);
+    }
+
+    /**
+     * Devolve a vida que o herói espera ter no fim do último combate calculado (0 nas derrotas).
+     *
+     * @return vida esperada
+     */
+    public double getExpectedHealth() { return lastHealth; }
+
+    /**
+     * Devolve a probabilidade de vitória do último combate calculado.
+     *
+     * @return probabilidade entre 0 e 1
+     */
+    public double getWinProbability() { return lastProbability; }
+
+    /**
+     * Devolve a melhor ação no estado inicial do último cálculo.
+     *
+     * @return {@link CombatResolver#NORMAL}, {@link CombatResolver#SPECIAL} ou {@link CombatResolver#CONSUMABLE}
+     */
+    public int getBestAction() { return lastAction; }
+
+    /**
+     * Devolve o dano do consumível a usar quando a melhor ação é um consumível.
+     *
+     * @return dano instantâneo, ou 0 se a melhor ação não for um consumível
+     */
+    public int getBestItemDamage() { return lastItemDamage; }
+
+    /**
+     * Devolve a melhor jogada no estado inicial do último cálculo, codificada como as de {@link CombatPolicy}.
+     *
+     * @return jogada codificada (ver {@link CombatPolicy#actionOf} e {@link CombatPolicy#itemDamageOf})
+     */
+    public int getBestMove() { return lastAction | (lastItemDamage << 2); }
+
+    /**
+     * Indica se o último resultado é exato. Nos combates grandes demais para o cálculo exato, o resultado é uma
+     * estimativa: o herói usa o especial (se for mais forte) e depois só o ataque normal, e sofre o dano médio
+     * do inimigo em cada turno; vence (probabilidade 1) se a vida chegar, perde (0) se não.
+     *
+     * @return true se o resultado for exato
+     */
+    public boolean isExact() { return exact; }
+
+    /**
+     * Devolve quantos estados foram calculados no último cálculo.
+     *
+     * @return número de estados
+     */
+    public long getStatesVisited() { return lastStates; }
+
+    private double result(double p, double h, int best, int itemDamage) {
+        lastProbability = p;
+        lastHealth = h;
+        lastAction = best;
+        lastItemDamage = itemDamage;
+        return p;
+    }
+
+    /**
+     * Estimativa determinística para combates grandes demais para o cálculo exato.
+     */
+    private double estimate(boolean specialUsed) {
+        exact = false;
+        int best = CombatResolver.NORMAL;
+        double turns = 0;
+        int remaining = enemyHealth;
+        if (!specialUsed && specialDamage > normalDamage) {
+            best = CombatResolver.SPECIAL;
+            remaining -= specialDamage;
+            turns = 1;
+        }
+        if (remaining > 0) turns += (normalDamage > 0) ? Math.ceil(remaining / (double) normalDamage) : Double.POSITIVE_INFINITY;
+
+        // o inimigo ataca depois de cada turno do herói, menos o último
+        double loss = (enemyStrength == 0) ? 0 : (turns - 1) * enemyStrength * (NORMAL_HIT + 2 * WEAK_HIT);
+        if (loss < heroHealth) return result(1, heroHealth - loss, best, 0);
+        return result(0, 0, best, 0);
+    }
+
+    private void groupConsumables(int[] consumables, int count, int maxCombos) {
+        typeCount = 0;
+        combos = 1;
+        for (int i = 0; i < count; i++) {
+            int d = consumables[i];
+            if (d <= 0) continue;
+
+            int t = 0;
+            while (t < typeCount && typeDamage[t] != d) t++;
+            if (t == typeCount) {
+                if (typeCount == typeDamage.length) continue;
+                typeDamage[t] = d;
+                typeCount0[t] = 0;
+                typeCount++;
+            }
+            typeCount0[t]++;
+        }
+
+        // corta consumíveis (dos mais fracos) até o número de combinações caber na tabela
+        while (true) {
+            long product = 1;
+            for (int t = 0; t < typeCount; t++) product = Math.min(product * (typeCount0[t] + 1), MAX_COMBOS + 1L);
+            combos = (int) product;
+            if (combos <= maxCombos) break;
+            int weakest = 0;
+            for (int t = 1; t < typeCount; t++) {
+                if (typeCount0[t] > 0 && (typeCount0[weakest] == 0 || typeDamage[t] < typeDamage[weakest])) weakest = t;
+            }
+            typeCount0[weakest]--;
+        }
+
+        int radix = 1;
+        for (int t = 0; t < typeCount; t++) {
+            typeRadix[t] = radix;
+            radix *= (typeCount0[t] + 1);
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (prob.length >= size) return;
+        int capacity = Math.max(size, prob.length * 2);
+        prob = new double[capacity];
+        health = new double[capacity];
+        action = new byte[capacity];
+        itemType = new byte[capacity];
+        stamp = new int[capacity];
+        generation = 0;
+    }
+
+    /**
+     * Calcula (ou devolve da memória) o valor de um estado e devolve o seu índice na tabela.
+     */
+    private int value(int hits, int enemy, int special, int combo) {
+        int idx = ((hits * (enemyHealth + 1) + enemy) * 2 + special) * combos + combo;
+        if (stamp[idx] == generation) return idx;
+        lastStates++;
+
+        double bestP = -1;
+        double bestH = 0;
+        int bestAction = CombatResolver.NORMAL;
+        int bestType = 0;
+
+        // ataque normal
+        double p = after(hits, enemy - normalDamage, special, combo);
+        bestP = p;
+        bestH = afterHealth;
+
+        // ataque especial
+        if (special == 0) {
+            p = after(hits, enemy - specialDamage, 1, combo);
+            if (p > bestP + EPS || (p > bestP - EPS && afterHealth > bestH + EPS)) {
+                bestP = p;
+                bestH = afterHealth;
+                bestAction = CombatResolver.SPECIAL;
+            }
+        }
+
+        // consumíveis de combate (um de cada tipo disponível)
+        for (int t = 0; t < typeCount; t++) {
+            int left = (combo / typeRadix[t]) % (typeCount0[t] + 1);
+            if (left == 0) continue;
+            p = after(hits, enemy - typeDamage[t], special, combo - typeRadix[t]);
+            if (p > bestP + EPS || (p > bestP - EPS && afterHealth > bestH + EPS)) {
+                bestP = p;
+                bestH = afterHealth;
+                bestAction = CombatResolver.CONSUMABLE;
+                bestType = t;
+            }
+        }
+
+        prob[idx] = bestP;
+        health[idx] = bestH;
+        action[idx] = (byte) bestAction;
+        itemType[idx] = (byte) bestType;
+        stamp[idx] = generation;
+        return idx;
+    }
+
+    /** Vida esperada devolvida pela última chamada a {@link #after}. */
+    private double afterHealth;
+
+    /**
+     * Resolve o que acontece depois de o herói deixar o inimigo com {@code enemy} de vida:
+     * vitória imediata, ou o ataque do inimigo (simples ou no ponto fraco) e o estado seguinte.
+     */
+    private double after(int hits, int enemy, int special, int combo) {
+        if (enemy <= 0) {
+            afterHealth = heroHealth - hits * enemyStrength;
+            return 1;
+        }
+        if (enemyStrength == 0) {
+            // o inimigo não causa dano: o herói acaba sempre por vencer, sem perder vida
+            afterHealth = heroHealth;
+            return 1;
+        }
+
+        double p = 0;
+        double h = 0;
+        if (hits + 1 <= maxHits) {
+            int idx = value(hits + 1, enemy, special, combo);
+            p += NORMAL_HIT * prob[idx];
+            h += NORMAL_HIT * health[idx];
+        }
+        if (hits + 2 <= maxHits) {
+            int idx = value(hits + 2, enemy, special, combo);
+            p += WEAK_HIT * prob[idx];
+            h += WEAK_HIT * health[idx];
+        }
+        afterHealth = h;
+        return p;
+    }
+}
@@ -0,0 +1,296 @@
+package combate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Cache de políticas ótimas de combate, indexadas pelas estatísticas do herói, da arma e do inimigo.
+ * Cada política é resolvida uma única vez; os combates seguintes com as mesmas estatísticas
+ * (no mesmo jogo, noutra partida ou no simulador) só fazem consultas à tabela.
+ * Quando o orçamento de memória é ultrapassado, as políticas menos usadas recentemente são libertadas.
+ * A cache pode ser gravada num ficheiro e lida na sessão seguinte.
+ * <p>
+ * As políticas são resolvidas fora do monitor da cache: threads que pedem a mesma política esperam
+ * pelo mesmo cálculo, e as restantes continuam a consultar a cache entretanto.
+ * Cada cálculo precisa de 16 bytes de memória de trabalho por estado (até ~128 MB), por isso só
+ * {@link #DEFAULT_SOLVE_SLOTS} cálculos correm ao mesmo tempo e a memória de trabalho é reaproveitada entre eles.
+ */
+public class PolicyCache {
+
+    /** Ficheiro onde a cache partilhada é guardada entre sessões (na pasta do utilizador, fora do projeto). */
+    public static final Path DEFAULT_FILE = Paths.get(System.getProperty("user.home"), ".allworldsforher", "policies.cache");
+
+    /** Número de políticas resolvidas em simultâneo, por omissão. */
+    public static final int DEFAULT_SOLVE_SLOTS = 2;
+
+    /** Memória de trabalho maior do que isto (em estados) é libertada depois do cálculo em vez de ficar guardada. */
+    private static final int RETAIN_STATES = 2_000_000;
+
+    private static final int MAGIC = 0x41504F4C; // "APOL"
+    private static final int VERSION = 1;
+
+    private static PolicyCache shared;
+
+    private final LinkedHashMap<String, CombatPolicy> policies = new LinkedHashMap<>(16, 0.75f, true);
+    private final HashMap<String, CompletableFuture<CombatPolicy>> solving = new HashMap<>();
+    private final long budgetBytes;
+    private final Semaphore solveSlots;
+    private final ConcurrentLinkedDeque<CombatPolicy.Scratch> scratchPool = new ConcurrentLinkedDeque<>();
+    private long usedBytes;
+    private boolean dirty;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long solveNanos;
+
+    /**
+     * Cria uma cache vazia com um orçamento máximo de memória.
+     *
+     * @param budgetBytes memória máxima ocupada pelas tabelas em bytes
+     */
+    public PolicyCache(long budgetBytes) {
+        this(budgetBytes, DEFAULT_SOLVE_SLOTS);
+    }
+
+    /**
+     * Cria uma cache vazia com um orçamento máximo de memória e um limite de cálculos simultâneos.
+     *
+     * @param budgetBytes memória máxima ocupada pelas tabelas em bytes
+     * @param solveSlots número máximo de políticas resolvidas ao mesmo tempo
+     */
+    public PolicyCache(long budgetBytes, int solveSlots) {
+        this.budgetBytes = Math.max(0, budgetBytes);
+        this.solveSlots = new Semaphore(Math.max(1, solveSlots));
+    }
+
+    /**
+     * Devolve a cache partilhada pelo jogo e pelo simulador.
+     * Na primeira chamada é lida do ficheiro {@link #DEFAULT_FILE} (se existir)
+     * e fica registada para ser gravada quando a aplicação terminar.
+     *
+     * @return cache partilhada
+     */
+    public static synchronized PolicyCache shared() {
+        if (shared == null) {
+            PolicyCache cache = new PolicyCache(64L * 1024 * 1024);
+            Path file = DEFAULT_FILE;
+            try {
+                if (Files.exists(file)) cache.load(file);
+            } catch (IOException e) {
+                System.out.println("Erro ao ler políticas de combate: " + e.getMessage());
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    if (cache.isDirty()) {
+                        Files.createDirectories(file.getParent());
+                        cache.save(file);
+                    }
+                } catch (IOException ignored) {
+                    // a cache é apenas uma otimização: na próxima sessão as políticas voltam a ser resolvidas
+                }
+            }, "policy-cache-save"));
+            shared = cache;
+        }
+        return shared;
+    }
+
+    /**
+     * Devolve a política ótima para as estatísticas indicadas, resolvendo-a se ainda não estiver na cache.
+     * Se houver demasiados consumíveis, os mais fracos ficam de fora da política (ver {@link CombatPolicy}).
+     *
+     * @param strength força do herói
+     * @param weaponAttack ataque normal da arma
+     * @param weaponSpecial ataque especial da arma
+     * @param specialBonus bónus do ataque especial da personagem
+     * @param enemyStrength força do inimigo
+     * @param maxHero vida máxima do herói
+     * @param maxEnemy vida máxima do inimigo
+     * @param consumables dano dos consumíveis de combate disponíveis
+     * @param count número de valores válidos em {@code consumables}
+     * @return política resolvida, ou null se as vidas forem grandes demais para uma política
+     *         (ver {@link CombatPolicy#fits}) ou se o cálculo falhar; nesse caso o combate deve ser calculado
+     *         estado a estado
+     */
+    public CombatPolicy get(int strength, int weaponAttack, int weaponSpecial, int specialBonus,
+                            int enemyStrength, int maxHero, int maxEnemy, int[] consumables, int count) {
+        if (!CombatPolicy.fits(maxHero, maxEnemy)) return null;
+        maxHero = Math.max(1, maxHero);
+        maxEnemy = Math.max(1, maxEnemy);
+        enemyStrength = Math.max(0, enemyStrength);
+        int[][] types = CombatPolicy.groupTypes(consumables, count, maxHero, maxEnemy);
+        String key = key(strength, weaponAttack, weaponSpecial, specialBonus, enemyStrength, maxHero, maxEnemy,
+                types[0], types[1]);
+
+        CompletableFuture<CombatPolicy> pending;
+        synchronized (this) {
+            CombatPolicy policy = policies.get(key);
+            if (policy != null) {
+                hits++;
+                return policy;
+            }
+            pending = solving.get(key);
+            if (pending == null) {
+                misses++;
+                solving.put(key, new CompletableFuture<>());
+            }
+        }
+        if (pending != null) {
+            // outra thread já está a resolver esta política; se esse cálculo falhar, não há política
+            try {
+                return pending.join();
+            } catch (CompletionException | CancellationException e) {
+                return null;
+            }
+        }
+
+        CombatPolicy policy = null;
+        long nanos = 0;
+        solveSlots.acquireUninterruptibly();
+        CombatPolicy.Scratch scratch = scratchPool.poll();
+        if (scratch == null) scratch = new CombatPolicy.Scratch();
+        try {
+            long start = System.nanoTime();
+            policy = CombatPolicy.solve(strength, weaponAttack, weaponSpecial, specialBonus, enemyStrength,
+                    maxHero, maxEnemy, types, scratch);
+            nanos = System.nanoTime() - start;
+        } catch (IllegalArgumentException e) {
+            // estatísticas que não dão uma política: quem pediu calcula o combate estado a estado
+        } finally {
+            if (scratch.capacity() <= RETAIN_STATES) scratchPool.push(scratch);
+            solveSlots.release();
+            synchronized (this) {
+                pending = solving.remove(key);
+                solveNanos += nanos;
+                // uma política maior do que o orçamento é usada na mesma, mas não fica guardada
+                if (policy != null && policy.getStates() <= budgetBytes) {
+                    store(key, policy);
+                    dirty = true;
+                }
+            }
+            if (policy != null) pending.complete(policy);
+            else pending.completeExceptionally(new IllegalStateException("falha ao resolver a política " + key));
+        }
+        return policy;
+    }
+
+    /**
+     * Lê políticas gravadas por {@link #save}, juntando-as às que já estão na cache.
+     *
+     * @param file ficheiro da cache
+     * @throws IOException se o ficheiro não puder ser lido ou não for uma cache de políticas
+     */
+    public synchronized void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException("ficheiro de políticas inválido");
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                CombatPolicy policy = CombatPolicy.read(in);
+                String key = key(policy.strength, policy.weaponAttack, policy.weaponSpecial, policy.specialBonus,
+                        policy.enemyStrength, policy.maxHero, policy.maxEnemy, policy.typeDamage, policy.typeMax);
+                if (!policies.containsKey(key) && policy.getStates() <= budgetBytes) store(key, policy);
+            }
+        }
+    }
+
+    /**
+     * Grava todas as políticas da cache num ficheiro.
+     * A escrita é feita num ficheiro temporário que depois substitui o original,
+     * por isso uma gravação interrompida nunca deixa uma cache corrompida.
+     *
+     * @param file ficheiro da cache
+     * @throws IOException se a gravação falhar
+     */
+    public synchronized void save(Path file) throws IOException {
+        ArrayList<CombatPolicy> all = new ArrayList<>(policies.values());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(all.size());
+            for (CombatPolicy policy : all) policy.write(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+    }
+
+    /**
+     * Liberta todas as políticas guardadas na cache.
+     */
+    public synchronized void clear() {
+        policies.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized boolean isDirty() { return dirty; }
+
+    public synchronized long getUsedBytes() { return usedBytes; }
+
+    public synchronized int size() { return policies.size(); }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized long getEvictions() { return evictions; }
+
+    /**
+     * Devolve o tempo total gasto a resolver políticas.
+     *
+     * @return tempo de cálculo em nanossegundos
+     */
+    public synchronized long getSolveNanos() { return solveNanos; }
+
+    @Override
+    public synchronized String toString() {
+        return "PolicyCache{policies=" + policies.size()
+                + ", used=" + usedBytes + "/" + budgetBytes + " bytes"
+                + ", hits=" + hits
+                + ", misses=" + misses
+                + ", evictions=" + evictions
+                + ", solve=" + (solveNanos / 1_000_000) + " ms}";
+    }
+
+    private static String key(int strength, int weaponAttack, int weaponSpecial, int specialBonus, int enemyStrength,
+                              int maxHero, int maxEnemy, int[] typeDamage, int[] typeMax) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(strength).append('/').append(weaponAttack).append('/').append(weaponSpecial)
+                .append('/').append(specialBonus).append('/').append(enemyStrength)
+                .append('/').append(maxHero).append('/').append(maxEnemy);
+        for (int t = 0; t < typeDamage.length; t++) sb.append('/').append(typeDamage[t]).append('x').append(typeMax[t]);
+        return sb.toString();
+    }
+
+    private void store(String key, CombatPolicy policy) {
+        evictUntilFits(policy.getStates());
+        policies.put(key, policy);
+        usedBytes += policy.getStates();
+    }
+
+    private void evictUntilFits(long incoming) {
+        Iterator<Map.Entry<String, CombatPolicy>> it = policies.entrySet().iterator();
+        while (usedBytes + incoming > budgetBytes && it.hasNext()) {
+            CombatPolicy eldest = it.next().getValue();
+            it.remove();
+            usedBytes -= eldest.getStates();
+            evictions++;
+        }
+    }
+}
@@ -1,9 +1,25 @@
 package entidades;
+
+import jogo.ConsoleFX;
+import jogo.Fragment;
+
 /**
  * Classe que representa a personagem Estafeta.
  * Possui um ataque especial baseado em lançamentos.
  */
 public class Courier extends Hero {
+
+    private static final Fragment PORTRAIT = Fragment.lines(
+            "   ______",
+            "  / ____/\\",
+            " /_/___ / /",
+            " \\_____/ /",
+            "  /  _  \\/",
+            " |  (_)  |",
+            " |   _   |",
+            "  \\_____/ "
+    );
+
     /**
      * Cria uma nova personagem Estafeta.
      *
@@ -30,20 +46,13 @@ public class Courier extends Hero {
      * Imprime o retrato ASCII da personagem Estafeta.
      */
     protected void printAsciiPortrait() {
-        System.out.println("   ______");
-        System.out.println("  / ____/\\");
-        System.out.println(" /_/___ / /");
-        System.out.println(" \\_____/ /");
-        System.out.println("  /  _  \\/");
-        System.out.println(" |  (_)  |");
-        System.out.println(" |   _   |");
-        System.out.println("  \\_____/ ");
+        ConsoleFX.print(PORTRAIT);
     }
     /**
      * Imprime a fala associada ao ataque especial do Estafeta.
      */
     protected void printSpecialDialogue() {
-        System.out.println("Tu: \"Entrega urgente! Assina… ou leva com ela!\"");
+        ConsoleFX.println("Tu: \"Entrega urgente! Assina… ou leva com ela!\"");
     }
     /**
      * Devolve o bónus de dano do ataque especial do Estafeta.
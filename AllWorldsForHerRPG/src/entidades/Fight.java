@@ -0,0 +1,466 @@
+package entidades;
+
+import combate.CombatPolicy;
+import combate.CombatResolver;
+import combate.CombatState;
+import combate.FightSolver;
+import combate.PolicyCache;
+import itens.CombatConsumable;
+import jogo.ConsoleFX;
+import jogo.Effects;
+import jogo.Fragment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Um combate do herói contra um inimigo, jogado turno a turno pelo motor de jogo.
+ * As regras são as de {@link CombatResolver}; esta classe só apresenta cada passo e anota os sons.
+ * <p>
+ * Cada turno é {@link #nextTurn()} (mostra o estado e o menu, ou o fim do combate) seguido de {@link #choose}
+ * com a ação escolhida e, se essa ação for um consumível, de {@link #chooseItem}.
+ * As opções que usam a política ótima (resolver automaticamente, sugerir jogada) podem ter de a resolver primeiro:
+ * ver {@link #needsPolicy} e {@link #resolvePolicy()}.
+ */
+public final class Fight {
+
+    /** {@link #nextTurn()}: o menu do turno foi mostrado, falta a ação. */
+    public static final int TURN = 0;
+    /** {@link #nextTurn()}: o herói venceu; a recompensa em ouro e a subida de nível já foram aplicadas. */
+    public static final int WON = 1;
+    /** {@link #nextTurn()}: o herói foi derrotado. */
+    public static final int LOST = 2;
+    /** {@link #choose}: a ação foi jogada (ou era só uma consulta); segue-se {@link #nextTurn()}. */
+    public static final int NEXT = 3;
+    /** {@link #choose}: a ação foi recusada (especial já usado, sem consumíveis); segue-se {@link #nextTurn()}. */
+    public static final int REFUSED = 4;
+    /** {@link #choose}: a lista de consumíveis foi mostrada; segue-se {@link #chooseItem}. */
+    public static final int ITEM = 5;
+
+    private static final Fragment COMBAT_YOU = Fragment.lines("🧍 Tu");
+    private static final Fragment COMBAT_ENEMY = Fragment.lines("", "👹 Inimigo");
+    private static final Fragment COMBAT_OVER = Fragment.lines(
+            "================================",
+            "        COMBATE TERMINADO       ",
+            "================================",
+            "Vitória!\n");
+    private static final Fragment AFTER_COMBAT = Fragment.lines("--- Estado do herói (após o combate) ---");
+    private static final Fragment AFTER_COMBAT_END = Fragment.lines("---------------------------------------\n");
+    private static final Fragment AFTER_LEVEL_UP = Fragment.lines("\n--- Estado do herói (após level up) ---");
+    private static final Fragment AFTER_LEVEL_UP_END = Fragment.lines("================================\n");
+
+    private final Hero hero;
+    private final NPC enemy;
+    private final Effects fx;
+    private final CombatState combat = new CombatState();
+
+    private CombatPolicy policy;
+    private boolean policyResolved;
+    private int[] consumableDamages = new int[8];
+    private ArrayList<Integer> itemIndexes;
+
+    Fight(Hero hero, NPC enemy, Effects fx) {
+        this.hero = hero;
+        this.enemy = enemy;
+        this.fx = fx;
+
+        hero.specialUsedThisFight = false;
+        int weaponAtk = (hero.equippedWeapon == null) ? 0 : hero.equippedWeapon.getAttack();
+        int weaponSpecial = (hero.equippedWeapon == null) ? 0 : hero.equippedWeapon.getSpecialAttack();
+        combat.start(hero.currentHealth, hero.strength, weaponAtk, weaponSpecial, hero.getHeroSpecialBonus(),
+                countCombatConsumables(), enemy.getCurrentHealth(), enemy.getStrength());
+
+        ConsoleFX.title("Combate ⚔️");
+        ConsoleFX.println("👾 Inimigo: " + enemy.getName());
+        ConsoleFX.pause(400);
+    }
+
+    /**
+     * Mostra o estado e o menu do turno seguinte ou, se o combate acabou, o resultado.
+     *
+     * @return {@link #TURN}, {@link #WON} ou {@link #LOST}
+     */
+    public int nextTurn() {
+        if (combat.isOver()) return finish();
+
+        ConsoleFX.section("Estado");
+
+        ConsoleFX.print(COMBAT_YOU);
+        ConsoleFX.println("   ❤️ Vida : " + hero.currentHealth + "/" + hero.maxHealth);
+        ConsoleFX.println("   💪 Força: " + hero.strength);
+        ConsoleFX.println("   🎯 Ponto fraco: " + hero.weakPoint.getPtName());
+
+        ConsoleFX.print(COMBAT_ENEMY);
+        ConsoleFX.println("   ❤️ Vida : " + enemy.getCurrentHealth() + "/" + enemy.getMaxHealth());
+
+        if (Hero.combatHints()) {
+            FightSolver s = solve();
+            ConsoleFX.println(String.format("\n🎲 Hipótese de vitória: %.1f%% · vida esperada no fim: %.0f%s",
+                    100 * s.getWinProbability(), s.getExpectedHealth(), s.isExact() ? "" : " (estimativa)"));
+        }
+
+        ConsoleFX.section("Escolhe o ataque");
+        ConsoleFX.option(1, "Ataque normal ⚔️");
+        ConsoleFX.option(2, "Ataque especial ✨ (1x por combate)");
+        ConsoleFX.option(3, "Consumível de combate 💣");
+        ConsoleFX.option(4, "Resolver automaticamente 🎲");
+        ConsoleFX.option(5, "Sugerir jogada 💡");
+        ConsoleFX.prompt("Opção:");
+        return TURN;
+    }
+
+    /**
+     * Joga a ação escolhida no turno atual e, se o inimigo sobreviver, o ataque do inimigo.
+     *
+     * @param choice 1 ataque normal, 2 especial, 3 consumível, 4 resolver automaticamente, 5 sugerir jogada
+     * @param random gerador de números aleatórios
+     * @return {@link #NEXT}, {@link #REFUSED} ou {@link #ITEM}
+     */
+    public int choose(int choice, RandomGenerator random) {
+        if (choice == 4) {
+            autoResolve(random);
+            return NEXT;
+        }
+        if (choice == 5) {
+            int move = bestMove();
+            ConsoleFX.println("\n💡 Sugestão: " + describeMove(move) + "\n");
+            ConsoleFX.pause(350);
+            return NEXT;
+        }
+
+        if (choice == CombatResolver.NORMAL) {
+            fx.play("src/resources/audio/attack.wav");
+            int damage = CombatResolver.heroAction(combat, CombatResolver.NORMAL, 0);
+            enemy.takeDamage(damage);
+
+            ConsoleFX.println("\n>>> ATACASTE <<<");
+            ConsoleFX.println("Dano causado: " + damage + "\n");
+            fx.await(3000);
+            ConsoleFX.pause(450);
+
+        } else if (choice == CombatResolver.SPECIAL) {
+            if (combat.isSpecialUsed()) {
+                ConsoleFX.println("\nJá usaste o ataque especial neste combate.\n");
+                ConsoleFX.pause(350);
+                return REFUSED;
+            }
+
+            fx.play("src/resources/audio/special.wav");
+            int damage = CombatResolver.heroAction(combat, CombatResolver.SPECIAL, 0);
+
+            ConsoleFX.println("\n>>> ATAQUE ESPECIAL <<<");
+            ConsoleFX.pause(250);
+            hero.printSpecialDialogue();
+            ConsoleFX.pause(250);
+            ConsoleFX.println("Dano total: " + damage + "\n");
+
+            enemy.takeDamage(damage);
+            hero.specialUsedThisFight = true;
+            fx.await(5000);
+            ConsoleFX.pause(450);
+
+        } else if (choice == CombatResolver.CONSUMABLE) {
+            itemIndexes = hero.findInventory(CombatConsumable.class);
+            if (itemIndexes.isEmpty()) return noConsumable();
+
+            ConsoleFX.println("\nConsumíveis de combate:");
+            for (int k = 0; k < itemIndexes.size(); k++) {
+                int idx = itemIndexes.get(k);
+                ConsoleFX.print((k + 1) + ") ");
+                hero.inventory.get(idx).showDetails();
+            }
+            ConsoleFX.println("0) Cancelar");
+            ConsoleFX.print("Escolha: ");
+            return ITEM;
+
+        } else {
+            ConsoleFX.println("\nOpção inválida.\n");
+            ConsoleFX.pause(300);
+            return NEXT;
+        }
+
+        enemyTurn(random);
+        return NEXT;
+    }
+
+    /**
+     * Devolve o número de consumíveis da lista mostrada por {@link #choose}.
+     *
+     * @return maior opção da lista
+     */
+    public int getItemCount() {
+        return (itemIndexes == null) ? 0 : itemIndexes.size();
+    }
+
+    /**
+     * Usa o consumível escolhido da lista e, se o inimigo sobreviver, joga o ataque do inimigo.
+     * Remove o item do inventário e aplica o dano instantâneo através do {@link CombatResolver}.
+     *
+     * @param choice posição na lista (1 a {@link #getItemCount()}), ou 0 para cancelar
+     * @param random gerador de números aleatórios
+     * @return {@link #NEXT}, ou {@link #REFUSED} se nenhum consumível foi usado
+     */
+    public int chooseItem(int choice, RandomGenerator random) {
+        if (choice == 0) return noConsumable();
+
+        int pos = choice - 1;
+        if (pos < 0 || pos >= itemIndexes.size()) {
+            ConsoleFX.println("Opção inválida.");
+            ConsoleFX.pause(300);
+            return noConsumable();
+        }
+
+        int realIndex = itemIndexes.get(pos);
+        CombatConsumable item = (CombatConsumable) hero.inventory.remove(realIndex);
+
+        fx.play("src/resources/audio/explosion.wav");
+        int damage = CombatResolver.heroAction(combat, CombatResolver.CONSUMABLE, item.getInstantAttack());
+        enemy.takeDamage(damage);
+        ConsoleFX.println("Usaste " + item.getName() + " e causaste " + damage + " de dano instantâneo.");
+        fx.await(6000);
+        ConsoleFX.pause(350);
+
+        enemyTurn(random);
+        return NEXT;
+    }
+
+    private int noConsumable() {
+        ConsoleFX.println("\nNão tens consumíveis de combate.\n");
+        ConsoleFX.pause(350);
+        return REFUSED;
+    }
+
+    private void enemyTurn(RandomGenerator random) {
+        if (!combat.isEnemyAlive()) return;
+
+        ConsoleFX.println(enemy.getName() + " prepara um ataque...");
+        ConsoleFX.pause(650);
+
+        int enemyDamage = CombatResolver.enemyAction(combat, random);
+        boolean hitWeak = combat.isLastWeakHit();
+
+        if (hitWeak) {
+            fx.stinger("src/resources/audio/weakpoint.wav");
+            ConsoleFX.println("\n!!! PONTO FRACO ATINGIDO !!!");
+            ConsoleFX.println("Local: " + hero.weakPoint.getPtName());
+            ConsoleFX.println("Tu: \"" + hero.weakPoint.getHitPhrase() + "\"");
+            ConsoleFX.println("Dano DUPLICADO!\n");
+            ConsoleFX.pause(700);
+
+        } else {
+            fx.play("src/resources/audio/hurt.wav");
+        }
+
+        hero.takeDamage(enemyDamage);
+        ConsoleFX.println(enemy.getName() + " atacou-te e causou " + enemyDamage + " de dano.\n");
+        fx.await(hitWeak ? 4000 : 3000);
+        ConsoleFX.pause(450);
+    }
+
+    private int finish() {
+        if (!combat.isHeroAlive()) {
+            ConsoleFX.println("\nFoste derrotado/a...\n");
+            fx.stinger("src/resources/audio/game_over.wav");
+            fx.await(4000);
+            return LOST;
+        }
+
+        // vitória
+        ConsoleFX.print(COMBAT_OVER);
+        fx.stinger("src/resources/audio/victory.wav");
+
+        // estado do herói após combate
+        ConsoleFX.print(AFTER_COMBAT);
+        ConsoleFX.println("Vida:  " + hero.currentHealth + "/" + hero.maxHealth);
+        ConsoleFX.println("Força: " + hero.strength);
+        ConsoleFX.println("Ouro:  " + hero.gold);
+        ConsoleFX.print(AFTER_COMBAT_END);
+        fx.await(3000);
+        ConsoleFX.pause(650);
+
+        hero.earnGold(enemy.getGoldReward());
+        hero.levelUp();
+
+        ConsoleFX.print(AFTER_LEVEL_UP);
+        ConsoleFX.println("Vida:  " + hero.currentHealth + "/" + hero.maxHealth);
+        ConsoleFX.println("Força: " + hero.strength);
+        ConsoleFX.println("Ouro:  " + hero.gold);
+        ConsoleFX.print(AFTER_LEVEL_UP_END);
+        ConsoleFX.pause(650);
+
+        return WON;
+    }
+
+    /**
+     * Calcula a probabilidade exata de vitória a partir do estado atual do combate.
+     *
+     * @return solver com o resultado do cálculo
+     */
+    private FightSolver solve() {
+        FightSolver solver = hero.solver();
+        solver.solve(combat, consumableDamages, collectConsumableDamages());
+        return solver;
+    }
+
+    /**
+     * Devolve a melhor jogada para o estado atual do combate.
+     * Usa a política ótima da cache partilhada; nos combates grandes demais para uma política,
+     * calcula a jogada estado a estado com o {@link FightSolver} do herói.
+     *
+     * @return jogada codificada (ver {@link CombatPolicy#actionOf} e {@link CombatPolicy#itemDamageOf})
+     */
+    private int bestMove() {
+        if (!policyResolved) setPolicy(policyQuery().get());
+        if (policy != null) return policy.bestMove(combat, consumableDamages, collectConsumableDamages());
+        return solve().getBestMove();
+    }
+
+    /**
+     * Indica se a opção escolhida usa a política ótima e esta ainda não foi resolvida.
+     * Nesse caso, quem joga o combate pode resolvê-la fora da sua thread com {@link #resolvePolicy()} e entregá-la
+     * com {@link #setPolicy} antes de chamar {@link #choose}; se não o fizer, {@link #choose} resolve-a na hora.
+     *
+     * @param choice opção do menu do turno
+     * @return true se a opção precisar de uma política ainda não resolvida
+     */
+    public boolean needsPolicy(int choice) {
+        return (choice == 4 || choice == 5) && !policyResolved;
+    }
+
+    /**
+     * Resolve a política ótima deste combate numa thread de trabalho, a partir da cache partilhada.
+     * Os dados do combate são copiados antes de o cálculo começar.
+     *
+     * @return cálculo da política (o resultado é null se o combate for grande demais para uma política)
+     */
+    public CompletableFuture<CombatPolicy> resolvePolicy() {
+        return CompletableFuture.supplyAsync(policyQuery());
+    }
+
+    /**
+     * Define a política ótima usada no resto do combate.
+     *
+     * @param policy política resolvida por {@link #resolvePolicy()}, ou null para calcular cada jogada estado a estado
+     */
+    public void setPolicy(CombatPolicy policy) {
+        this.policy = policy;
+        this.policyResolved = true;
+    }
+
+    /**
+     * Prepara a consulta da política ótima deste combate à cache partilhada, com uma cópia dos dados atuais.
+     * A política cobre qualquer vida até ao máximo e qualquer subconjunto dos consumíveis atuais,
+     * por isso serve para o resto do combate.
+     *
+     * @return consulta que devolve a política, ou null se o combate for grande demais para uma política
+     */
+    private Supplier<CombatPolicy> policyQuery() {
+        int[] damages = Arrays.copyOf(consumableDamages, collectConsumableDamages());
+        int strength = combat.getHeroStrength();
+        int weaponAttack = combat.getWeaponAttack();
+        int weaponSpecial = combat.getWeaponSpecial();
+        int specialBonus = combat.getSpecialBonus();
+        int enemyStrength = enemy.getStrength();
+        int maxHero = Math.max(hero.maxHealth, hero.currentHealth);
+        int maxEnemy = enemy.getMaxHealth();
+        return () -> PolicyCache.shared().get(strength, weaponAttack, weaponSpecial, specialBonus, enemyStrength,
+                maxHero, maxEnemy, damages, damages.length);
+    }
+
+    /**
+     * Copia o dano dos consumíveis de combate do inventário para {@code consumableDamages}.
+     *
+     * @return número de consumíveis copiados
+     */
+    private int collectConsumableDamages() {
+        int n = 0;
+        for (int i = 0; i < hero.inventory.size(); i++) {
+            if (!(hero.inventory.get(i) instanceof CombatConsumable c)) continue;
+            if (n == consumableDamages.length) consumableDamages = Arrays.copyOf(consumableDamages, n * 2);
+            consumableDamages[n++] = c.getInstantAttack();
+        }
+        return n;
+    }
+
+    /**
+     * Descreve uma jogada da política em texto para o jogador.
+     *
+     * @param move jogada codificada por {@link CombatPolicy}
+     * @return descrição da jogada
+     */
+    private String describeMove(int move) {
+        int action = CombatPolicy.actionOf(move);
+        if (action == CombatResolver.SPECIAL) return "Ataque especial ✨";
+        if (action == CombatResolver.CONSUMABLE) {
+            int damage = CombatPolicy.itemDamageOf(move);
+            for (int i = 0; i < hero.inventory.size(); i++) {
+                if (hero.inventory.get(i) instanceof CombatConsumable c && c.getInstantAttack() == damage) {
+                    return "Consumível de combate 💣 (" + c.getName() + ")";
+                }
+            }
+        }
+        return "Ataque normal ⚔️";
+    }
+
+    /**
+     * Joga o resto do combate sem perguntar nada, escolhendo em cada turno a ação que maximiza a probabilidade de vitória.
+     * As regras e o acaso são os mesmos do combate turno a turno; só a apresentação é resumida.
+     *
+     * @param random gerador de números aleatórios
+     */
+    private void autoResolve(RandomGenerator random) {
+        ConsoleFX.println("\n🎲 A resolver o combate automaticamente...");
+        fx.play("src/resources/audio/attack.wav");
+
+        int turns = 0;
+        int weakHits = 0;
+        int itemsUsed = 0;
+        while (!combat.isOver()) {
+            int move = bestMove();
+            int action = CombatPolicy.actionOf(move);
+            int itemDamage = CombatPolicy.itemDamageOf(move);
+
+            if (action == CombatResolver.CONSUMABLE) {
+                for (int i = 0; i < hero.inventory.size(); i++) {
+                    if (hero.inventory.get(i) instanceof CombatConsumable c && c.getInstantAttack() == itemDamage) {
+                        hero.inventory.remove(i);
+                        itemsUsed++;
+                        break;
+                    }
+                }
+            } else if (action == CombatResolver.SPECIAL) {
+                hero.specialUsedThisFight = true;
+            }
+
+            CombatResolver.turn(combat, action, itemDamage, random);
+            if (combat.isEnemyAlive() && combat.isLastWeakHit()) weakHits++;
+            turns++;
+        }
+
+        hero.setCurrentHealth(combat.getHeroHealth());
+        enemy.setCurrentHealth(combat.getEnemyHealth());
+
+        ConsoleFX.println("Turnos: " + turns + " | Pontos fracos atingidos: " + weakHits
+                + " | Consumíveis usados: " + itemsUsed);
+        ConsoleFX.println("Vida final: " + hero.currentHealth + "/" + hero.maxHealth
+                + " | Vida do inimigo: " + enemy.getCurrentHealth() + "/" + enemy.getMaxHealth() + "\n");
+        fx.await(3000);
+        ConsoleFX.pause(450);
+    }
+
+    /**
+     * Conta os consumíveis de combate no inventário.
+     *
+     * @return número de consumíveis de combate
+     */
+    private int countCombatConsumables() {
+        int count = 0;
+        for (int i = 0; i < hero.inventory.size(); i++) {
+            if (hero.inventory.get(i) instanceof CombatConsumable) count++;
+        }
+        return count;
+    }
+}
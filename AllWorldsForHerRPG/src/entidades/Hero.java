@@ -1,16 +1,16 @@
 package entidades;
 
-import audio.Audio;
-import itens.CombatConsumable;
+import combate.FightSolver;
 import itens.Consumable;
 import itens.Potion;
 import itens.Weapon;
 import jogo.ConsoleFX;
+import jogo.Effects;
+import jogo.Fragment;
 import jogo.WeakPoint;
 
 import java.util.ArrayList;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.random.RandomGenerator;
 
 /**
  * Representa o herói principal do jogo.
@@ -19,6 +19,13 @@ import java.util.Scanner;
 
 public abstract class Hero extends Entity {
 
+    private static final Fragment STATUS_HEADER = Fragment.lines(
+            "",
+            "📊 Estado do Herói",
+            "────────────────────────────────────────");
+    private static final Fragment STATUS_FOOTER = Fragment.lines("────────────────────────────────────────");
+    private static final Fragment NO_WEAPON = Fragment.lines("🗡️  Arma : (nenhuma)");
+
     protected int level;
     protected int gold;
 
@@ -28,8 +35,13 @@ public abstract class Hero extends Entity {
     protected WeakPoint weakPoint;
     protected boolean specialUsedThisFight;
 
+    private static volatile boolean combatHints;
+    private FightSolver solver;
+
     /**
      * Cria um herói com os atributos iniciais definidos.
+     * O ponto fraco começa sempre em {@link WeakPoint#HEAD}: quem cria o herói para uma partida sorteia-o
+     * com {@link #rollWeakPoint}, e uma partida guardada repõe-no com {@link #restoreProgress}.
      *
      * @param name nome do herói
      * @param maxHealth vida máxima
@@ -43,8 +55,7 @@ public abstract class Hero extends Entity {
         this.gold = Math.max(0, gold);
         this.inventory = new ArrayList<>();
         this.equippedWeapon = null;
-        WeakPoint[] values = WeakPoint.values();
-        this.weakPoint = values[new Random().nextInt(values.length)];
+        this.weakPoint = WeakPoint.HEAD;
         this.specialUsedThisFight = false;
     }
     /**
@@ -68,15 +79,33 @@ public abstract class Hero extends Entity {
      */
     protected abstract int getHeroSpecialBonus();
 
+    /**
+     * Devolve o bónus de dano do ataque especial desta personagem.
+     *
+     * @return valor do bónus
+     */
+    public final int getSpecialBonus() { return getHeroSpecialBonus(); }
+
+    /**
+     * Ativa ou desativa a dica de probabilidade de vitória durante os combates.
+     *
+     * @param value true para mostrar a dica em cada turno
+     */
+    public static void setCombatHints(boolean value) {
+        combatHints = value;
+    }
+
     /**
      * Mostra a introdução da personagem e o respetivo retrato ASCII.
      */
     public void showIntro() {
-        System.out.println(getIntroText());
-        System.out.println();
+        for (String line : getIntroText().split("\n")) {
+            ConsoleFX.typewriter(line, 25);
+        }
+        ConsoleFX.println();
         ConsoleFX.pause(350);
         printAsciiPortrait();
-        System.out.println();
+        ConsoleFX.println();
         ConsoleFX.pause(600);
     }
 
@@ -95,6 +124,20 @@ public abstract class Hero extends Entity {
         return gold;
     }
 
+    /**
+     * Devolve o nível do herói.
+     *
+     * @return nível atual
+     */
+    public int getLevel() { return level; }
+
+    /**
+     * Devolve a arma equipada.
+     *
+     * @return arma equipada, ou null se não houver
+     */
+    public Weapon getEquippedWeapon() { return equippedWeapon; }
+
     /**
      * Devolve o inventário do herói.
      *
@@ -102,6 +145,20 @@ public abstract class Hero extends Entity {
      */
     public ArrayList<Consumable> getInventory() { return inventory; }
 
+    /**
+     * Procura no inventário os consumíveis de um tipo.
+     *
+     * @param type tipo de consumível (ex.: {@code Potion.class})
+     * @return posições no inventário dos consumíveis desse tipo, por ordem
+     */
+    public ArrayList<Integer> findInventory(Class<? extends Consumable> type) {
+        ArrayList<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < inventory.size(); i++) {
+            if (type.isInstance(inventory.get(i))) indexes.add(i);
+        }
+        return indexes;
+    }
+
     /**
      * Adiciona um consumível ao inventário do herói.
      *
@@ -142,7 +199,7 @@ public abstract class Hero extends Entity {
         int a = Math.max(0, amount);
         gold += a;
         if (a > 0) {
-            System.out.println("Ganhaste " + a + " ouro.");
+            ConsoleFX.println("Ganhaste " + a + " ouro.");
             ConsoleFX.pause(300);
         }
     }
@@ -165,292 +222,152 @@ public abstract class Hero extends Entity {
         strength += 1;
         if (currentHealth > maxHealth) currentHealth = maxHealth;
 
-        System.out.println("Subiste de nível!");
+        ConsoleFX.println("Subiste de nível!");
         ConsoleFX.pause(200);
-        System.out.println("Vida máxima +10 | Força +1");
+        ConsoleFX.println("Vida máxima +10 | Força +1");
         ConsoleFX.pause(450);
     }
+    /**
+     * Sorteia o ponto fraco com o gerador indicado
+     * (o jogo usa o fluxo de criação do herói da partida, para que a partida possa ser reproduzida).
+     *
+     * @param random gerador de números aleatórios
+     */
+    public void rollWeakPoint(RandomGenerator random) {
+        WeakPoint[] values = WeakPoint.values();
+        this.weakPoint = values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Repõe o progresso de um herói guardado: nível e ponto fraco.
+     * A vida, a força e o ouro já são os do momento em que a partida foi guardada.
+     *
+     * @param level nível do herói
+     * @param weakPoint ponto fraco
+     */
+    public void restoreProgress(int level, WeakPoint weakPoint) {
+        this.level = Math.max(1, level);
+        this.weakPoint = weakPoint;
+    }
     /**
      * Imprime o estado atual do herói na consola.
      */
     public void printStatus() {
-        System.out.println();
-        System.out.println("📊 Estado do Herói");
-        System.out.println("────────────────────────────────────────");
-        System.out.println("❤️ Vida : " + currentHealth + "/" + maxHealth);
-        System.out.println("💪 Força: " + strength);
-        System.out.println("💰 Ouro : " + gold);
+        ConsoleFX.print(STATUS_HEADER);
+        ConsoleFX.println("❤️ Vida : " + currentHealth + "/" + maxHealth);
+        ConsoleFX.println("💪 Força: " + strength);
+        ConsoleFX.println("💰 Ouro : " + gold);
 
         if (equippedWeapon != null) {
-            System.out.println("🗡️  Arma : " + equippedWeapon.getName());
+            ConsoleFX.println("🗡️  Arma : " + equippedWeapon.getName());
         } else {
-            System.out.println("🗡️  Arma : (nenhuma)");
+            ConsoleFX.print(NO_WEAPON);
         }
 
-        System.out.println("🎯 Ponto fraco: " + weakPoint.getPtName());
-        System.out.println("────────────────────────────────────────");
+        ConsoleFX.println("🎯 Ponto fraco: " + weakPoint.getPtName());
+        ConsoleFX.print(STATUS_FOOTER);
     }
     /**
-     * Executa um combate completo contra um inimigo.
+     * Começa um combate contra um inimigo; o combate é jogado turno a turno pelo motor de jogo (ver {@link Fight}).
      *
      * @param enemy inimigo a combater
-     * @return true se o herói vencer, false se morrer
+     * @param fx efeitos do passo atual (sons do combate)
+     * @return combate em curso
      */
-    public boolean attack(NPC enemy, Scanner scanner, Random random) {
-        specialUsedThisFight = false;
-
-        ConsoleFX.title("Combate ⚔️");
-        System.out.println("👾 Inimigo: " + enemy.getName());
-        ConsoleFX.pause(400);
-
-        while (this.isAlive() && enemy.isAlive()) {
-            ConsoleFX.section("Estado");
-
-            System.out.println("🧍 Tu");
-            System.out.println("   ❤️ Vida : " + currentHealth + "/" + maxHealth);
-            System.out.println("   💪 Força: " + strength);
-            System.out.println("   🎯 Ponto fraco: " + weakPoint.getPtName());
-
-            System.out.println();
-
-            System.out.println("👹 Inimigo");
-            System.out.println("   ❤️ Vida : " + enemy.getCurrentHealth() + "/" + enemy.getMaxHealth());
-
-            ConsoleFX.section("Escolhe o ataque");
-            ConsoleFX.option(1, "Ataque normal ⚔️");
-            ConsoleFX.option(2, "Ataque especial ✨ (1x por combate)");
-            ConsoleFX.option(3, "Consumível de combate 💣");
-            ConsoleFX.prompt("Opção:");
-
-            int choice = readInt(scanner);
-
-            if (choice == 1) {
-                Audio.playSfxAndWait("src/resources/audio/attack.wav", 3000);
-                int weaponAtk = (equippedWeapon == null) ? 0 : equippedWeapon.getAttack();
-                int damage = strength + weaponAtk;
-
-                enemy.takeDamage(damage);
-
-                System.out.println("\n>>> ATACASTE <<<");
-                System.out.println("Dano causado: " + damage + "\n");
-                ConsoleFX.pause(450);
-
-            } else if (choice == 2) {
-                if (specialUsedThisFight) {
-                    System.out.println("\nJá usaste o ataque especial neste combate.\n");
-                    ConsoleFX.pause(350);
-                    continue;
-                }
-
-                Audio.playSfxAndWait("src/resources/audio/special.wav", 5000);
-
-                int weaponSpecial = (equippedWeapon == null) ? 0 : equippedWeapon.getSpecialAttack();
-                int damage = strength + weaponSpecial + getHeroSpecialBonus();
-
-                System.out.println("\n>>> ATAQUE ESPECIAL <<<");
-                ConsoleFX.pause(250);
-                printSpecialDialogue();
-                ConsoleFX.pause(250);
-                System.out.println("Dano total: " + damage + "\n");
-
-                enemy.takeDamage(damage);
-                specialUsedThisFight = true;
-                ConsoleFX.pause(450);
-
-            } else if (choice == 3) {
-                boolean used = useCombatConsumable(scanner, enemy);
-                if (!used) {
-                    System.out.println("\nNão tens consumíveis de combate.\n");
-                    ConsoleFX.pause(350);
-                    continue;
-                }
-                ConsoleFX.pause(350);
-
-            } else {
-                System.out.println("\nOpção inválida.\n");
-                ConsoleFX.pause(300);
-                continue;
-            }
-
-            if (!enemy.isAlive()) break;
-
-            System.out.println(enemy.getName() + " prepara um ataque...");
-            ConsoleFX.pause(650);
-
-            int enemyDamage = enemy.getStrength();
-            boolean hitWeak = random.nextInt(100) < 25;
-
-            if (hitWeak) {
-                Audio.playSfxAndWait("src/resources/audio/weakpoint.wav", 4000);
-                enemyDamage *= 2;
-                System.out.println("\n!!! PONTO FRACO ATINGIDO !!!");
-                System.out.println("Local: " + weakPoint.getPtName());
-                System.out.println("Tu: \"" + weakPoint.getHitPhrase() + "\"");
-                System.out.println("Dano DUPLICADO!\n");
-                ConsoleFX.pause(700);
-
-            } else {
-                Audio.playSfxAndWait("src/resources/audio/hurt.wav", 3000);            }
-
-            this.takeDamage(enemyDamage);
-            System.out.println(enemy.getName() + " atacou-te e causou " + enemyDamage + " de dano.\n");
-            ConsoleFX.pause(450);
-        }
-
-        if (!this.isAlive()) {
-            System.out.println("\nFoste derrotado/a...\n");
-            Audio.playSfxAndWait("src/resources/audio/game_over.wav", 4000);
-            return false;
-        }
-
-        // vitória
-        System.out.println("================================");
-        System.out.println("        COMBATE TERMINADO       ");
-        System.out.println("================================");
-        System.out.println("Vitória!\n");
-        Audio.playSfxAndWait("src/resources/audio/victory.wav", 3000);        ConsoleFX.pause(900);
-
-        // estado do herói após combate
-        System.out.println("--- Estado do herói (após o combate) ---");
-        System.out.println("Vida:  " + currentHealth + "/" + maxHealth);
-        System.out.println("Força: " + strength);
-        System.out.println("Ouro:  " + gold);
-        System.out.println("---------------------------------------\n");
-        ConsoleFX.pause(650);
-
-        earnGold(enemy.getGoldReward());
-        levelUp();
-
-        System.out.println("\n--- Estado do herói (após level up) ---");
-        System.out.println("Vida:  " + currentHealth + "/" + maxHealth);
-        System.out.println("Força: " + strength);
-        System.out.println("Ouro:  " + gold);
-        System.out.println("================================\n");
-        ConsoleFX.pause(650);
-
-        return true;
+    public Fight startFight(NPC enemy, Effects fx) {
+        return new Fight(this, enemy, fx);
     }
 
-    /**
-     * Apresenta a lista de consumíveis de combate disponíveis e permite usar um deles.
-     * Remove o item do inventário e aplica o efeito no inimigo.
-     *
-     * @param scanner scanner para ler a escolha do utilizador
-     * @param enemy inimigo que será afetado pelo consumível
-     * @return true se um consumível foi usado, false se não existirem consumíveis ou se o utilizador cancelar
-     */
-    private boolean useCombatConsumable(Scanner scanner, NPC enemy) {
-        ArrayList<Integer> indexes = new ArrayList<>();
-        for (int i = 0; i < inventory.size(); i++) {
-            if (inventory.get(i) instanceof CombatConsumable) indexes.add(i);
-        }
-        if (indexes.isEmpty()) return false;
-
-        System.out.println("\nConsumíveis de combate:");
-        for (int k = 0; k < indexes.size(); k++) {
-            int idx = indexes.get(k);
-            System.out.print((k + 1) + ") ");
-            inventory.get(idx).showDetails();
-        }
-        System.out.println("0) Cancelar");
-        System.out.print("Escolha: ");
-
-        int choice = readInt(scanner);
-        if (choice == 0) return false;
-
-        int pos = choice - 1;
-        if (pos < 0 || pos >= indexes.size()) {
-            System.out.println("Opção inválida.");
-            ConsoleFX.pause(300);
-            return false;
-        }
-
-        int realIndex = indexes.get(pos);
-        Consumable item = inventory.remove(realIndex);
-
-        Audio.playSfxAndWait("src/resources/audio/explosion.wav", 6000);
-        item.use(this, enemy);
-        ConsoleFX.pause(350);
+    static boolean combatHints() {
+        return combatHints;
+    }
 
-        return true;
+    FightSolver solver() {
+        if (solver == null) solver = new FightSolver();
+        return solver;
     }
 
     /**
-     * Apresenta o menu de poções e permite usar uma poção do inventário.
+     * Mostra as poções do inventário como menu (0 para não usar nada).
+     *
+     * @return número de poções, ou 0 se não houver nenhuma (nesse caso, o menu não é mostrado)
      */
-    public void usePotionMenu(Scanner scanner) {
-        ArrayList<Integer> potionIndexes = new ArrayList<>();
-        for (int i = 0; i < inventory.size(); i++) {
-            if (inventory.get(i) instanceof Potion) potionIndexes.add(i);
-        }
+    public int showPotionMenu() {
+        ArrayList<Integer> potionIndexes = findInventory(Potion.class);
 
         if (potionIndexes.isEmpty()) {
-            System.out.println("Não tens poções no inventário.");
+            ConsoleFX.println("Não tens poções no inventário.");
             ConsoleFX.pause(350);
-            return;
+            return 0;
         }
 
-        System.out.println("\nPoções no inventário:");
+        ConsoleFX.println("\nPoções no inventário:");
         for (int k = 0; k < potionIndexes.size(); k++) {
             int idx = potionIndexes.get(k);
-            System.out.print((k + 1) + ") ");
+            ConsoleFX.print((k + 1) + ") ");
             inventory.get(idx).showDetails();
         }
-        System.out.println("0) Não usar nada");
-        System.out.print("Escolha: ");
+        ConsoleFX.println("0) Não usar nada");
+        ConsoleFX.print("Escolha: ");
+        return potionIndexes.size();
+    }
 
-        int choice = readInt(scanner);
-        if (choice == 0) return;
+    /**
+     * Converte a escolha do menu de {@link #showPotionMenu()} na posição da poção no inventário.
+     * Se a poção desperdiçar cura, mostra o aviso e pede confirmação ({@link #needsConfirmation}).
+     *
+     * @param choice opção escolhida (0 para não usar nada)
+     * @return posição da poção no inventário, ou -1 se nenhuma foi escolhida
+     */
+    public int choosePotion(int choice) {
+        if (choice == 0) return -1;
 
+        ArrayList<Integer> potionIndexes = findInventory(Potion.class);
         int pos = choice - 1;
         if (pos < 0 || pos >= potionIndexes.size()) {
-            System.out.println("Opção inválida.");
+            ConsoleFX.println("Opção inválida.");
             ConsoleFX.pause(300);
-            return;
+            return -1;
         }
+        return potionIndexes.get(pos);
+    }
 
-        int realIndex = potionIndexes.get(pos);
-        Potion p = (Potion) inventory.get(realIndex);
+    /**
+     * Verifica se a poção desperdiça cura e, nesse caso, mostra o aviso e o menu de confirmação (1 sim, 2 não).
+     *
+     * @param index posição da poção no inventário
+     * @return true se é preciso confirmar antes de usar
+     */
+    public boolean needsConfirmation(int index) {
+        Potion p = (Potion) inventory.get(index);
 
         // aviso de excesso de cura
         int possible = currentHealth + p.getHealAmount();
-        if (p.getHealAmount() > 0 && possible > maxHealth) {
-            int excess = possible - maxHealth;
-            System.out.println("\nAtenção: vais desperdiçar " + excess + " de cura (excesso).");
-            ConsoleFX.pause(350);
-            System.out.println("Queres usar na mesma?");
-            System.out.println("1) Sim");
-            System.out.println("2) Não");
-            System.out.print("Opção: ");
-            int confirm = readInt(scanner);
-            if (confirm != 1) {
-                System.out.println("Não usaste a poção.");
-                ConsoleFX.pause(300);
-                return;
-            }
-        }
+        if (p.getHealAmount() <= 0 || possible <= maxHealth) return false;
 
-        inventory.remove(realIndex);
-        Audio.playSfxAndWait("src/resources/audio/potion.wav", 6000);
-        p.use(this, null);
-        ConsoleFX.pause(250);
-        printStatus();
-        ConsoleFX.pause(800);
+        int excess = possible - maxHealth;
+        ConsoleFX.println("\nAtenção: vais desperdiçar " + excess + " de cura (excesso).");
+        ConsoleFX.pause(350);
+        ConsoleFX.println("Queres usar na mesma?");
+        ConsoleFX.println("1) Sim");
+        ConsoleFX.println("2) Não");
+        ConsoleFX.print("Opção: ");
+        return true;
     }
 
     /**
-     * Lê um número inteiro da consola de forma segura, repetindo o pedido até ser válido.
+     * Usa a poção indicada: retira-a do inventário, aplica-a e mostra o estado do herói.
      *
-     * @param scanner scanner a utilizar para leitura
-     * @return inteiro introduzido pelo utilizador
+     * @param index posição da poção no inventário
+     * @param fx efeitos do passo atual (som da poção)
      */
-    protected int readInt(Scanner scanner) {
-        while (!scanner.hasNextInt()) {
-            scanner.nextLine();
-            System.out.print("Opção: ");
-        }
-        int v = scanner.nextInt();
-        scanner.nextLine();
-        return v;
+    public void usePotion(int index, Effects fx) {
+        Potion p = (Potion) inventory.remove(index);
+        fx.play("src/resources/audio/potion.wav");
+        p.use(this, null);
+        ConsoleFX.pause(250);
+        printStatus();
+        fx.await(6000);
+        ConsoleFX.pause(800);
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,25 @@
 package entidades;
+
+import jogo.ConsoleFX;
+import jogo.Fragment;
+
 /**
  * Classe que representa a personagem Enfermeira.
  * Possui um ataque especial único.
  */
 public class Nurse extends Hero {
 
+    private static final Fragment PORTRAIT = Fragment.lines(
+            "   .-\"\"\"-.",
+            "  /  _ _  \\",
+            " |  (o o)  |",
+            " |   \\_/   |",
+            "  \\  ___  /",
+            "   '-___-'",
+            "    /| |\\",
+            "   /_| |_\\"
+    );
+
     public Nurse(String name, int maxHealth, int strength, int gold) {
         super(name, maxHealth, strength, gold);
     }
@@ -21,20 +36,13 @@ public class Nurse extends Hero {
      * Imprime o retrato ASCII da personagem Enfermeira.
      */
     protected void printAsciiPortrait() {
-        System.out.println("   .-\"\"\"-.");
-        System.out.println("  /  _ _  \\");
-        System.out.println(" |  (o o)  |");
-        System.out.println(" |   \\_/   |");
-        System.out.println("  \\  ___  /");
-        System.out.println("   '-___-'");
-        System.out.println("    /| |\\");
-        System.out.println("   /_| |_\\");
+        ConsoleFX.print(PORTRAIT);
     }
     /**
      * Imprime a fala associada ao ataque especial da Enfermeira.
      */
     protected void printSpecialDialogue() {
-        System.out.println("Tu: \"Pulseira verde. Pode aguardar.\"");
+        ConsoleFX.println("Tu: \"Pulseira verde. Pode aguardar.\"");
     }
 
     /**
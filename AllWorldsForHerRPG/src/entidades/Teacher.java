@@ -1,9 +1,24 @@
 package entidades;
+
+import jogo.ConsoleFX;
+import jogo.Fragment;
+
 /**
  * Classe que representa a personagem Professora.
  * Possui um ataque especial baseado em confusão intelectual.
  */
 public class Teacher extends Hero {
+
+    private static final Fragment PORTRAIT = Fragment.lines(
+            "    _____",
+            "   / ___ \\",
+            "  | |o o| |",
+            "  | | ^ | |",
+            "   \\_____/",
+            "    _| |_",
+            "   /_| |_\\"
+    );
+
     /**
      * Cria uma nova personagem Professora.
      *
@@ -31,20 +46,14 @@ public class Teacher extends Hero {
      */
     @Override
     protected void printAsciiPortrait() {
-        System.out.println("    _____");
-        System.out.println("   / ___ \\");
-        System.out.println("  | |o o| |");
-        System.out.println("  | | ^ | |");
-        System.out.println("   \\_____/");
-        System.out.println("    _| |_");
-        System.out.println("   /_| |_\\");
+        ConsoleFX.print(PORTRAIT);
     }
     /**
      * Imprime a fala associada ao ataque especial da Professora.
      */
     @Override
     protected void printSpecialDialogue() {
-        System.out.println("Tu: \"Álgebra linear. Determinantes. Matrizes.\"");
+        ConsoleFX.println("Tu: \"Álgebra linear. Determinantes. Matrizes.\"");
     }
     /**
      * Devolve o bónus de dano do ataque especial da Professora.
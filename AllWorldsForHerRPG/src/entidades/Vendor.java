@@ -1,21 +1,28 @@
 package entidades;
 
-import audio.Audio;
 import itens.Consumable;
 import itens.Item;
 import itens.Weapon;
 import jogo.ConsoleFX;
+import jogo.Effects;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.random.RandomGenerator;
 
 /**
  * Representa o mercador do jogo.
  * Gera ofertas aleatórias e permite ao herói comprar armas e consumíveis.
  */
 public class Vendor {
+
+    /** {@link #sell}: o herói saiu da loja. */
+    public static final int CLOSED = 0;
+    /** {@link #sell}: a loja continua aberta, com uma oferta nova. */
+    public static final int OPEN = 1;
+    /** {@link #sell}: a compra foi recusada por falta de ouro; a loja continua aberta. */
+    public static final int REFUSED = 2;
+
     /**
      * Cria um mercador com um stock base de itens.
      *
@@ -26,6 +33,14 @@ public class Vendor {
     public Vendor(ArrayList<Item> stock) {
         this.stock = new ArrayList<Item>(stock);
     }
+    /**
+     * Devolve uma cópia do stock base do mercador, pela ordem original.
+     *
+     * @return lista de itens do stock
+     */
+    public ArrayList<Item> getStock() {
+        return new ArrayList<Item>(stock);
+    }
     /**
      * Gera uma lista de itens aleatórios permitidos para o herói.
      * A oferta tem no máximo 10 itens.
@@ -34,7 +49,7 @@ public class Vendor {
      * @param random gerador de números aleatórios
      * @return lista de itens disponíveis para compra
      */
-    public ArrayList<Item> getRandomOffer(Hero hero, Random random) {
+    public ArrayList<Item> getRandomOffer(Hero hero, RandomGenerator random) {
         ArrayList<Item> copy = new ArrayList<Item>(stock);
         Collections.shuffle(copy, random);
 
@@ -47,79 +62,76 @@ public class Vendor {
         return offer;
     }
     /**
-     * Abre o menu da loja e permite ao herói comprar itens com ouro.
-     * Itens comprados podem ser equipados (armas) ou colocados no inventário (consumíveis).
+     * Sorteia uma oferta nova e mostra o menu da loja (0 para sair).
      *
      * @param hero herói que interage com a loja
-     * @param scanner scanner para leitura das opções do utilizador
      * @param random gerador de números aleatórios para gerar a oferta
+     * @return itens à venda, pela ordem do menu
      */
-    public void openShop(Hero hero, Scanner scanner, Random random) {
-        while (true) {
-            ArrayList<Item> offer = getRandomOffer(hero, random);
-
-            ConsoleFX.title("Loja do Mercador 🛒");
-            System.out.println("💰 Ouro disponível: " + hero.getGold());
-            ConsoleFX.section("Itens à venda");
-
-            for (int i = 0; i < offer.size(); i++) {
-                System.out.print("🛍️  " + (i + 1) + ") ");
-                offer.get(i).showDetails();
-            }
-
-            System.out.println("🚪 0) Sair");
-            ConsoleFX.prompt("Escolhe um item: ");
-            int choice = readInt(scanner);
-
-            if (choice == 0) {
-                System.out.println("Saíste da loja.");
-                ConsoleFX.pause(500);
-                return;
-            }
-
-            int idx = choice - 1;
-            if (idx < 0 || idx >= offer.size()) {
-                System.out.println("Opção inválida.");
-                ConsoleFX.pause(400);
-                continue;
-            }
+    public ArrayList<Item> showShop(Hero hero, RandomGenerator random) {
+        ArrayList<Item> offer = getRandomOffer(hero, random);
 
-            Item item = offer.get(idx);
+        ConsoleFX.title("Loja do Mercador 🛒");
+        ConsoleFX.println("💰 Ouro disponível: " + hero.getGold());
+        ConsoleFX.section("Itens à venda");
 
-            if (!hero.spendGold(item.getPrice())) {
-                System.out.println("Não tens ouro suficiente.");
-                ConsoleFX.pause(450);
-                continue;
-            }
-
-            Audio.playSfxAndWait("src/resources/audio/buy.wav", 3000);
-            if (item instanceof Weapon) {
-                hero.equipWeapon((Weapon) item);
-                System.out.println("Compraste e equipaste: " + item.getName());
-                ConsoleFX.pause(500);
-            } else if (item instanceof Consumable) {
-                hero.addConsumable((Consumable) item);
-                System.out.println("Compraste: " + item.getName() + " (inventário)");
-                ConsoleFX.pause(500);
-            } else {
-                System.out.println("Item comprado.");
-                ConsoleFX.pause(350);
-            }
+        for (int i = 0; i < offer.size(); i++) {
+            ConsoleFX.print("🛍️  " + (i + 1) + ") ");
+            offer.get(i).showDetails();
         }
+
+        ConsoleFX.println("🚪 0) Sair");
+        ConsoleFX.prompt("Escolhe um item: ");
+        return offer;
     }
     /**
-     * Lê um número inteiro da consola de forma segura, repetindo o pedido até ser válido.
+     * Vende ao herói o item escolhido da oferta mostrada por {@link #showShop}.
+     * Itens comprados podem ser equipados (armas) ou colocados no inventário (consumíveis).
      *
-     * @param scanner scanner a utilizar para leitura
-     * @return inteiro introduzido pelo utilizador
+     * @param hero herói que interage com a loja
+     * @param offer itens à venda
+     * @param choice opção escolhida (0 para sair)
+     * @param fx efeitos do passo atual (som da compra)
+     * @return {@link #CLOSED} se o herói saiu, {@link #REFUSED} se não tinha ouro, {@link #OPEN} nos outros casos
      */
-    private int readInt(Scanner scanner) {
-        while (!scanner.hasNextInt()) {
-            scanner.nextLine();
-            System.out.print("Opção: ");
+    public int sell(Hero hero, ArrayList<Item> offer, int choice, Effects fx) {
+        if (choice == 0) {
+            ConsoleFX.println("Saíste da loja.");
+            ConsoleFX.pause(500);
+            return CLOSED;
+        }
+
+        int idx = choice - 1;
+        if (idx < 0 || idx >= offer.size()) {
+            ConsoleFX.println("Opção inválida.");
+            ConsoleFX.pause(400);
+            return OPEN;
+        }
+
+        Item item = offer.get(idx);
+
+        if (!hero.spendGold(item.getPrice())) {
+            ConsoleFX.println("Não tens ouro suficiente.");
+            ConsoleFX.pause(450);
+            return REFUSED;
+        }
+
+        fx.play("src/resources/audio/buy.wav");
+        if (item instanceof Weapon) {
+            hero.equipWeapon((Weapon) item);
+            ConsoleFX.println("Compraste e equipaste: " + item.getName());
+            fx.await(3000);
+            ConsoleFX.pause(500);
+        } else if (item instanceof Consumable) {
+            hero.addConsumable((Consumable) item);
+            ConsoleFX.println("Compraste: " + item.getName() + " (inventário)");
+            fx.await(3000);
+            ConsoleFX.pause(500);
+        } else {
+            ConsoleFX.println("Item comprado.");
+            fx.await(3000);
+            ConsoleFX.pause(350);
         }
-        int v = scanner.nextInt();
-        scanner.nextLine();
-        return v;
+        return OPEN;
     }
-}
\ No newline at end of file
+}
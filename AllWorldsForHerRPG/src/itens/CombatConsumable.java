@@ -2,6 +2,7 @@ package itens;
 
 import entidades.Hero;
 import entidades.NPC;
+import jogo.ConsoleFX;
 
 import java.util.ArrayList;
 /**
@@ -23,6 +24,12 @@ public class CombatConsumable extends Consumable {
         super(name, price, allowedHeroes);
         this.instantAttack = Math.max(0, instantAttack);
     }
+    /**
+     * Devolve o dano instantâneo causado pelo consumível.
+     *
+     * @return dano instantâneo
+     */
+    public int getInstantAttack() { return instantAttack; }
     /**
      * Aplica o efeito do consumível no inimigo.
      * Causa dano instantâneo durante o combate.
@@ -34,13 +41,13 @@ public class CombatConsumable extends Consumable {
     public void use(Hero hero, NPC enemy) {
         if (enemy == null) return;
         enemy.takeDamage(instantAttack);
-        System.out.println("Usaste " + name + " e causaste " + instantAttack + " de dano instantâneo.");
+        ConsoleFX.println("Usaste " + name + " e causaste " + instantAttack + " de dano instantâneo.");
     }
     /**
      * Mostra os detalhes do consumível de combate.
      */
     @Override
     public void showDetails() {
-        System.out.println(name + " | Dano instantâneo: " + instantAttack + " | Preço: " + price + " ouro");
+        ConsoleFX.println(name + " | Dano instantâneo: " + instantAttack + " | Preço: " + price + " ouro");
     }
 }
\ No newline at end of file
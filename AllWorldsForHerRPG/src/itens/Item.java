@@ -1,6 +1,7 @@
 package itens;
 
 import entidades.Hero;
+import jogo.ConsoleFX;
 import java.util.ArrayList;
 /**
  * Classe abstrata que representa um item do jogo.
@@ -50,6 +51,6 @@ public abstract class Item {
      * Mostra os detalhes básicos do item na consola.
      */
     public void showDetails() {
-        System.out.println(name + " | Preço: " + price + " ouro");
+        ConsoleFX.println(name + " | Preço: " + price + " ouro");
     }
 }
\ No newline at end of file
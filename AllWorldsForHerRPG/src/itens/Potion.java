@@ -2,6 +2,7 @@ package itens;
 
 import entidades.Hero;
 import entidades.NPC;
+import jogo.ConsoleFX;
 
 import java.util.ArrayList;
 /**
@@ -49,11 +50,11 @@ public class Potion extends Consumable {
     public void use(Hero hero, NPC enemy) {
         if (healAmount > 0) {
             hero.heal(healAmount);
-            System.out.println("Recuperaste " + healAmount + " de vida.");
+            ConsoleFX.println("Recuperaste " + healAmount + " de vida.");
         }
         if (strengthBoost > 0) {
             hero.increaseStrength(strengthBoost);
-            System.out.println("A tua força aumentou em +" + strengthBoost + ".");
+            ConsoleFX.println("A tua força aumentou em +" + strengthBoost + ".");
         }
     }
 
@@ -62,6 +63,6 @@ public class Potion extends Consumable {
      */
     @Override
     public void showDetails() {
-        System.out.println(name + " | Cura: " + healAmount + " | +Força: " + strengthBoost + " | Preço: " + price + " ouro");
+        ConsoleFX.println(name + " | Cura: " + healAmount + " | +Força: " + strengthBoost + " | Preço: " + price + " ouro");
     }
 }
\ No newline at end of file
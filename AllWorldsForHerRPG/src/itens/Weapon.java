@@ -1,5 +1,7 @@
 package itens;
 
+import jogo.ConsoleFX;
+
 import java.util.ArrayList;
 /**
  * Representa uma arma utilizável pelo herói.
@@ -42,6 +44,6 @@ public class Weapon extends Item {
      */
     @Override
     public void showDetails() {
-        System.out.println(name + " | ATK: " + attack + " | ESP: " + specialAttack + " | Preço: " + price + " ouro");
+        ConsoleFX.println(name + " | ATK: " + attack + " | ESP: " + specialAttack + " | Preço: " + price + " ouro");
     }
 }
\ No newline at end of file
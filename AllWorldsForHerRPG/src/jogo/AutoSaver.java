@@ -0,0 +1,129 @@
+package jogo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Gravação automática da partida numa thread própria, para que o ciclo do jogo nunca espere pelo disco.
+ * <p>
+ * O jogo codifica o estado ({@link SaveGame#encode}, alguns microssegundos) e entrega os bytes com {@link #submit};
+ * a escrita é feita mais tarde. Se chegarem várias gravações antes de a anterior terminar, só a mais recente é escrita,
+ * e uma gravação igual à última escrita é ignorada.
+ */
+public final class AutoSaver {
+
+    private final Path file;
+    private final ExecutorService executor;
+    private final AtomicReference<byte[]> pending = new AtomicReference<>();
+
+    private CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+    // só usados na thread de escrita
+    private byte[] written;
+    private volatile IOException lastError;
+    private volatile long writes;
+
+    /**
+     * Cria um gravador para o ficheiro indicado.
+     *
+     * @param file ficheiro da partida
+     */
+    public AutoSaver(Path file) {
+        this.file = file;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "autosave");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Põe uma gravação na fila e devolve imediatamente.
+     *
+     * @param data partida codificada
+     */
+    public synchronized void submit(byte[] data) {
+        // se já havia uma gravação pendente, a tarefa já agendada escreve esta em vez da anterior
+        if (pending.getAndSet(data) == null) {
+            last = CompletableFuture.runAsync(this::writePending, executor);
+        }
+    }
+
+    private void writePending() {
+        byte[] data = pending.getAndSet(null);
+        if (data == null || Arrays.equals(data, written)) return;
+        try {
+            SaveGame.write(file, data);
+            written = data;
+            writes++;
+        } catch (IOException e) {
+            lastError = e;
+        }
+    }
+
+    /**
+     * Apaga a partida guardada (por exemplo, depois de o jogo ser vencido), depois das gravações pendentes.
+     */
+    public synchronized void delete() {
+        pending.set(null);
+        last = last.thenRunAsync(() -> {
+            try {
+                Files.deleteIfExists(file);
+                written = null;
+            } catch (IOException e) {
+                lastError = e;
+            }
+        }, executor);
+    }
+
+    /**
+     * Espera até todas as gravações pendentes estarem escritas.
+     */
+    public void flush() {
+        CompletableFuture<Void> pendingWrite;
+        synchronized (this) {
+            pendingWrite = last;
+        }
+        pendingWrite.join();
+    }
+
+    /**
+     * Escreve as gravações pendentes e termina a thread de escrita.
+     */
+    public void close() {
+        flush();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Devolve o último erro de escrita, se houve algum.
+     *
+     * @return erro, ou null se todas as gravações foram escritas
+     */
+    public IOException getLastError() { return lastError; }
+
+    /**
+     * Devolve quantas gravações chegaram ao disco (as repetidas e as substituídas não contam).
+     *
+     * @return número de escritas
+     */
+    public long getWrites() { return writes; }
+
+    /**
+     * Devolve o ficheiro da partida.
+     *
+     * @return ficheiro
+     */
+    public Path getFile() { return file; }
+}
@@ -0,0 +1,116 @@
+package jogo;
+
+import java.io.OutputStream;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Estado da consola de uma sessão de jogo: frame de texto, máquina de escrever, relógio das pausas
+ * e fonte de entrada ativa.
+ * <p>
+ * Os métodos de {@link ConsoleFX} usam o contexto associado à thread atual ({@link #run}) ou, se não houver nenhum,
+ * o contexto global da consola do processo. Assim, várias partidas podem correr no mesmo processo,
+ * cada uma na sua thread e com a sua saída, sem mudar o código do jogo.
+ */
+public final class ConsoleContext {
+
+    private static final int SESSION_FRAME_CAPACITY = 1024;
+    private static final int RECORDING_FRAME_CAPACITY = 256;
+
+    private final ThreadFactory threads;
+    private final int frameCapacity;
+    private final Effects effects;
+
+    private volatile FrameBuffer frame;
+    private volatile Typewriter typewriter;
+    private volatile GameClock clock;
+    private volatile Input input;
+
+    /**
+     * Cria o contexto de uma sessão: a máquina de escrever corre numa thread virtual
+     * e os buffers começam pequenos, para que muitas sessões caibam no mesmo processo.
+     *
+     * @param out destino do texto da sessão
+     * @param clock relógio das pausas da sessão
+     */
+    public ConsoleContext(OutputStream out, GameClock clock) {
+        this(out, clock, Thread.ofVirtual().name("typewriter").factory(), SESSION_FRAME_CAPACITY);
+    }
+
+    ConsoleContext(OutputStream out, GameClock clock, ThreadFactory threads, int frameCapacity) {
+        this(null, out, clock, threads, frameCapacity);
+    }
+
+    /**
+     * Cria o contexto de gravação de um passo do motor de jogo: as linhas da máquina de escrever
+     * também ficam registadas em vez de serem animadas.
+     */
+    ConsoleContext(Effects effects, OutputStream out, GameClock clock) {
+        this(effects, out, clock, Thread.ofVirtual().name("typewriter").factory(), RECORDING_FRAME_CAPACITY);
+    }
+
+    private ConsoleContext(Effects effects, OutputStream out, GameClock clock, ThreadFactory threads, int frameCapacity) {
+        this.effects = effects;
+        // a thread da máquina de escrever usa o relógio e a entrada deste contexto
+        this.threads = r -> threads.newThread(() -> {
+            ConsoleFX.bind(this);
+            r.run();
+        });
+        this.frameCapacity = frameCapacity;
+        this.clock = (clock == null) ? GameClock.realTime() : clock;
+        setOutput(out);
+    }
+
+    /**
+     * Executa uma tarefa na thread atual com este contexto como consola.
+     *
+     * @param task tarefa a executar (normalmente {@link Game#startGame()})
+     */
+    public void run(Runnable task) {
+        ConsoleContext previous = ConsoleFX.bind(this);
+        try {
+            task.run();
+        } finally {
+            frame.flush();
+            ConsoleFX.bind(previous);
+        }
+    }
+
+    /**
+     * Escreve o texto pendente e termina a thread da máquina de escrever.
+     */
+    public void close() {
+        frame.flush();
+        typewriter.shutdown();
+    }
+
+    synchronized void setOutput(OutputStream out) {
+        FrameBuffer oldFrame = frame;
+        Typewriter oldTypewriter = typewriter;
+        if (oldFrame != null) oldFrame.flush();
+        if (oldTypewriter != null) oldTypewriter.shutdown();
+
+        Typewriter tw = new Typewriter(new FrameBuffer(out, frameCapacity), threads);
+        FrameBuffer fb = new FrameBuffer(out, frameCapacity);
+        fb.setBeforeFlush(tw::awaitIdle);
+        typewriter = tw;
+        frame = fb;
+    }
+
+    FrameBuffer frame() { return frame; }
+
+    Effects effects() { return effects; }
+
+    Typewriter typewriter() { return typewriter; }
+
+    GameClock clock() { return clock; }
+
+    void setClock(GameClock value) {
+        clock = (value == null) ? GameClock.realTime() : value;
+    }
+
+    Input input() { return input; }
+
+    void setInput(Input value) {
+        input = value;
+    }
+}
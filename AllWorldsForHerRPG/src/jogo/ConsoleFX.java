@@ -1,37 +1,180 @@
 package jogo;
+
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
 /**
  * Classe utilitária para efeitos visuais na consola.
  * Contém métodos estáticos para pausas, títulos, menus e animações de texto.
+ * As pausas passam pelo relógio do jogo, que pode ser real, acelerado ou virtual.
+ * O texto é acumulado num frame e enviado de uma só vez antes de cada pausa ou pedido de entrada;
+ * títulos, secções e opções de menu são guardados já codificados.
+ * <p>
+ * Frame, relógio e entrada pertencem ao {@link ConsoleContext} da thread atual (uma sessão do servidor)
+ * ou, fora de uma sessão, ao contexto global da consola do processo.
  */
 public final class ConsoleFX {
+
+    private static final int MAX_CACHED_FRAGMENTS = 256;
+    private static final Fragment PROMPT_ICON = Fragment.of("👉 ");
+
+    private static final ThreadLocal<ConsoleContext> SESSION = new ThreadLocal<>();
+    private static final ConsoleContext global = new ConsoleContext(System.out, GameClock.realTime(), r -> {
+        Thread t = new Thread(r, "typewriter");
+        t.setDaemon(true);
+        return t;
+    }, 8 * 1024);
+
+    private static final Map<String, Fragment> titles = new ConcurrentHashMap<>();
+    private static final Map<String, Fragment> sections = new ConcurrentHashMap<>();
+    private static final Map<String, Fragment> options = new ConcurrentHashMap<>();
+
     /**
      * Construtor privado para impedir a criação de instâncias desta classe utilitária.
      */
     private ConsoleFX() {}
+
+    private static ConsoleContext context() {
+        ConsoleContext c = SESSION.get();
+        return (c != null) ? c : global;
+    }
+
+    /**
+     * Associa um contexto à thread atual.
+     *
+     * @param context contexto da sessão, ou null para voltar ao contexto global
+     * @return contexto associado antes
+     */
+    static ConsoleContext bind(ConsoleContext context) {
+        ConsoleContext previous = SESSION.get();
+        if (context == null || context == global) SESSION.remove();
+        else SESSION.set(context);
+        return previous;
+    }
     /**
-     * Suspende a execução do programa durante um determinado tempo.
+     * Define o relógio usado pelas pausas do jogo.
      *
-     * @param ms tempo de pausa em milissegundos
+     * @param value relógio a usar
+     */
+    public static void setClock(GameClock value) {
+        context().setClock(value);
+    }
+    /**
+     * Devolve o relógio usado pelas pausas do jogo.
+     *
+     * @return relógio atual
+     */
+    public static GameClock getClock() {
+        return context().clock();
+    }
+    /**
+     * Envia o frame atual para a consola e suspende a execução durante um determinado tempo.
+     *
+     * @param ms tempo de pausa em milissegundos (tempo de jogo)
      */
     public static void pause(long ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        ConsoleContext c = context();
+        c.frame().flush();
+        c.clock().sleep(ms);
     }
     /**
-     * Imprime texto na consola com efeito de máquina de escrever.
+     * Define a fonte de entrada ativa, usada para saber se o jogador quer saltar uma espera.
+     *
+     * @param value fonte de entrada do jogo
+     */
+    public static void setInput(Input value) {
+        context().setInput(value);
+    }
+    /**
+     * Verifica se o jogador pediu para saltar uma espera (carregando em Enter)
+     * ou se ainda há escolhas de um lote por usar.
+     *
+     * @return true se a espera deve ser saltada
+     */
+    public static boolean skipRequested() {
+        Input in = context().input();
+        return in != null && in.skipWait();
+    }
+    /**
+     * Define o destino do texto do jogo (por omissão, System.out).
+     * O texto ainda pendente é enviado para o destino anterior.
+     *
+     * @param out novo destino do texto
+     */
+    public static void setOutput(OutputStream out) {
+        context().setOutput(out);
+    }
+    /**
+     * Devolve o frame onde é acumulado o texto da consola.
+     *
+     * @return frame da consola
+     */
+    public static FrameBuffer frame() {
+        return context().frame();
+    }
+    /**
+     * Acrescenta texto ao frame atual.
+     *
+     * @param text texto a mostrar
+     */
+    public static void print(String text) {
+        frame().print(text);
+    }
+    /**
+     * Acrescenta texto ao frame atual, seguido de mudança de linha.
+     *
+     * @param text texto a mostrar
+     */
+    public static void println(String text) {
+        frame().println(text);
+    }
+    /**
+     * Acrescenta uma linha em branco ao frame atual.
+     */
+    public static void println() {
+        frame().println();
+    }
+    /**
+     * Acrescenta um fragmento pré-codificado ao frame atual.
+     *
+     * @param fragment fragmento a mostrar
+     */
+    public static void print(Fragment fragment) {
+        frame().print(fragment);
+    }
+    /**
+     * Envia para a consola todo o texto acumulado no frame.
+     */
+    public static void flush() {
+        frame().flush();
+    }
+    /**
+     * Imprime uma linha na consola com efeito de máquina de escrever, sem bloquear o jogo.
+     * O texto já acumulado no frame é mostrado primeiro; o texto escrito depois desta chamada
+     * só aparece quando a linha terminar de ser animada.
+     * Carregar em Enter completa a linha de imediato.
      *
      * @param text texto a imprimir
      * @param delayPerCharMs atraso em milissegundos entre cada carácter
+     * @return futuro concluído quando a linha estiver completamente escrita
      */
-    public static void typewriter(String text, long delayPerCharMs) {
-        for (int i = 0; i < text.length(); i++) {
-            System.out.print(text.charAt(i));
-            pause(delayPerCharMs);
+    public static CompletableFuture<Void> typewriter(String text, long delayPerCharMs) {
+        ConsoleContext c = context();
+        c.frame().flush();
+        if (c.effects() != null) {
+            c.effects().typewriter(text, delayPerCharMs);
+            return CompletableFuture.completedFuture(null);
         }
-        System.out.println();
+        return c.typewriter().type(text, delayPerCharMs);
+    }
+    /**
+     * Completa de imediato a linha que está a ser animada pela máquina de escrever.
+     */
+    public static void skipTypewriter() {
+        context().typewriter().skipCurrent();
     }
     /**
      * Mostra um título formatado na consola.
@@ -39,11 +182,12 @@ public final class ConsoleFX {
      * @param text texto do título
      */
     public static void title(String text) {
-        System.out.println();
-        System.out.println("════════════════════════════════════════");
-        System.out.println("        " + text.toUpperCase());
-        System.out.println("════════════════════════════════════════");
-        System.out.println();
+        frame().print(cached(titles, text, () -> Fragment.lines(
+                "",
+                "════════════════════════════════════════",
+                "        " + text.toUpperCase(),
+                "════════════════════════════════════════",
+                "")));
     }
     /**
      * Mostra um separador de secção na consola.
@@ -51,8 +195,7 @@ public final class ConsoleFX {
      * @param text texto da secção
      */
     public static void section(String text) {
-        System.out.println();
-        System.out.println("────────── " + text + " ──────────");
+        frame().print(cached(sections, text, () -> Fragment.lines("", "────────── " + text + " ──────────")));
     }
     /**
      * Mostra uma opção numerada de menu.
@@ -61,15 +204,27 @@ public final class ConsoleFX {
      * @param text descrição da opção
      */
     public static void option(int number, String text) {
-        System.out.println("  " + number + ") " + text);
+        frame().print(cached(options, number + ") " + text, () -> Fragment.lines("  " + number + ") " + text)));
     }
     /**
-     * Mostra um pedido de entrada ao utilizador.
+     * Mostra um pedido de entrada ao utilizador e envia o frame para a consola.
      *
      * @param text texto do pedido
      */
     public static void prompt(String text) {
-        System.out.print("👉 " + text + " ");
+        FrameBuffer frame = frame();
+        frame.print(PROMPT_ICON);
+        frame.print(text);
+        frame.print(' ');
+        frame.flush();
+    }
+
+    private static Fragment cached(Map<String, Fragment> cache, String key, Supplier<Fragment> encode) {
+        Fragment f = cache.get(key);
+        if (f != null) return f;
+        f = encode.get();
+        if (cache.size() < MAX_CACHED_FRAGMENTS) cache.put(key, f);
+        return f;
     }
 
 }
\ No newline at end of file
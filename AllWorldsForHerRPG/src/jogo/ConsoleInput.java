@@ -0,0 +1,95 @@
+package jogo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Entrada interativa a partir da consola.
+ * Uma thread lê as linhas à medida que o jogador as escreve e coloca-as numa fila,
+ * por isso o jogador pode responder antecipadamente e o jogo pode consultar a fila sem bloquear.
+ */
+public class ConsoleInput extends Input {
+
+    private static final String EOF = new String("<eof>");
+
+    private final LinkedBlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final InputStream source;
+    private Thread reader;
+    private boolean ended;
+
+    /**
+     * Cria uma entrada que lê linhas do stream indicado.
+     *
+     * @param source stream de onde ler (normalmente System.in)
+     */
+    public ConsoleInput(InputStream source) {
+        this.source = source;
+    }
+
+    @Override
+    protected String take() {
+        startReader();
+        if (ended) throw new EndOfInputException();
+        try {
+            String line = queue.take();
+            if (line == EOF) {
+                ended = true;
+                throw new EndOfInputException();
+            }
+            return line;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EndOfInputException();
+        }
+    }
+
+    @Override
+    public String poll() {
+        startReader();
+        String line = queue.peek();
+        if (line == null || line == EOF) return null;
+        return queue.poll();
+    }
+
+    @Override
+    public boolean hasPending() {
+        startReader();
+        String line = queue.peek();
+        return line != null && line != EOF;
+    }
+
+    /**
+     * Um Enter (linha em branco) salta a espera e é consumido.
+     * Uma resposta já escrita também salta a espera, mas fica na fila para o próximo pedido.
+     *
+     * @return true se há uma linha à espera
+     */
+    @Override
+    public boolean skipRequested() {
+        String line = queue.peek();
+        if (line == null || line == EOF) return false;
+        if (line.isBlank()) queue.poll();
+        return true;
+    }
+
+    private synchronized void startReader() {
+        if (reader != null) return;
+
+        reader = new Thread(() -> {
+            BufferedReader in = new BufferedReader(new InputStreamReader(source, Charset.defaultCharset()));
+            try {
+                String line;
+                while ((line = in.readLine()) != null) queue.add(line);
+            } catch (IOException e) {
+                // a consola fechou: tratado como fim da entrada
+            }
+            queue.add(EOF);
+        }, "console-input");
+        reader.setDaemon(true);
+        reader.start();
+    }
+}
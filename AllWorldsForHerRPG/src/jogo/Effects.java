@@ -0,0 +1,225 @@
+package jogo;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Registo dos efeitos de um passo do motor de jogo ({@link GameMachine}): texto, pausas, linhas da máquina de escrever
+ * e sons, pela ordem em que aconteceram.
+ * <p>
+ * Enquanto um passo corre, {@link #begin()} associa à thread um {@link ConsoleContext} de gravação:
+ * tudo o que o código do jogo escreve com {@link ConsoleFX} fica aqui registado em vez de ir para a consola,
+ * e as pausas são anotadas em vez de esperadas. Os sons passam pelos métodos desta classe
+ * (em vez de {@link audio.Audio}) pela mesma razão. Assim, um passo nunca bloqueia, e quem o consome decide
+ * como apresentar os efeitos: a consola reproduz tudo com as pausas e os sons, o servidor envia só o texto.
+ */
+public final class Effects {
+
+    /** Texto a mostrar. */
+    public static final int TEXT = 0;
+    /** Pausa, em milissegundos de jogo. */
+    public static final int PAUSE = 1;
+    /** Linha animada pela máquina de escrever (atraso por carácter em milissegundos). */
+    public static final int TYPEWRITER = 2;
+    /** Começa a tocar um efeito sonoro. */
+    public static final int SOUND = 3;
+    /** Começa a tocar um som que se sobrepõe à música. */
+    public static final int STINGER = 4;
+    /** Espera pelo fim do último som, no máximo o tempo indicado. */
+    public static final int AWAIT = 5;
+    /** Muda a música para a da sala indicada. */
+    public static final int ROOM_MUSIC = 6;
+    /** Suspende a música de fundo. */
+    public static final int PAUSE_MUSIC = 7;
+    /** Retoma a música de fundo. */
+    public static final int RESUME_MUSIC = 8;
+
+    private final Clock clock = new Clock();
+    private final ConsoleContext context;
+
+    private byte[] pending = new byte[256];
+    private int pendingLen;
+
+    private int[] kinds = new int[16];
+    private String[] texts = new String[16];
+    private Fragment[] fragments = new Fragment[16];
+    private long[] values = new long[16];
+    private int size;
+
+    private ConsoleContext previous;
+
+    /**
+     * Cria um registo vazio.
+     */
+    public Effects() {
+        this.context = new ConsoleContext(this, new Sink(), clock);
+    }
+
+    /**
+     * Começa um passo: limpa o registo e passa a gravar o que a thread atual escreve com {@link ConsoleFX}.
+     */
+    public void begin() {
+        size = 0;
+        pendingLen = 0;
+        previous = ConsoleFX.bind(context);
+    }
+
+    /**
+     * Termina o passo: regista o texto ainda por despejar e devolve a thread ao contexto anterior.
+     */
+    public void end() {
+        try {
+            context.frame().flush();
+            closeText();
+        } finally {
+            ConsoleFX.bind(previous);
+            previous = null;
+        }
+    }
+
+    /**
+     * Começa a tocar um efeito sonoro ({@link audio.Audio#play}).
+     *
+     * @param path caminho do ficheiro de som
+     */
+    public void play(String path) {
+        add(SOUND, path, 0);
+    }
+
+    /**
+     * Começa a tocar um som por cima da música ({@link audio.Audio#playStinger}).
+     *
+     * @param path caminho do ficheiro de som
+     */
+    public void stinger(String path) {
+        add(STINGER, path, 0);
+    }
+
+    /**
+     * Espera pelo fim do último som (a espera pode ser saltada pelo jogador).
+     *
+     * @param maxWaitMs tempo máximo de espera em milissegundos
+     */
+    public void await(long maxWaitMs) {
+        add(AWAIT, null, maxWaitMs);
+    }
+
+    /**
+     * Toca um efeito sonoro e espera pelo fim ({@link audio.Audio#playSfxAndWait}).
+     *
+     * @param path caminho do ficheiro de som
+     * @param maxWaitMs tempo máximo de espera em milissegundos
+     */
+    public void playAndWait(String path, long maxWaitMs) {
+        play(path);
+        await(maxWaitMs);
+    }
+
+    /**
+     * Muda a música de fundo para a da sala indicada.
+     *
+     * @param roomName nome da sala
+     */
+    public void enterRoom(String roomName) {
+        add(ROOM_MUSIC, roomName, 0);
+    }
+
+    /**
+     * Suspende a música de fundo.
+     */
+    public void pauseMusic() {
+        add(PAUSE_MUSIC, null, 0);
+    }
+
+    /**
+     * Retoma a música de fundo.
+     */
+    public void resumeMusic() {
+        add(RESUME_MUSIC, null, 0);
+    }
+
+    void typewriter(String text, long delayPerCharMs) {
+        add(TYPEWRITER, text, delayPerCharMs);
+    }
+
+    /**
+     * Devolve o número de efeitos registados no passo atual.
+     *
+     * @return número de efeitos
+     */
+    public int size() { return size; }
+
+    int[] kinds() { return Arrays.copyOf(kinds, size); }
+
+    String[] texts() { return Arrays.copyOf(texts, size); }
+
+    Fragment[] fragments() { return Arrays.copyOf(fragments, size); }
+
+    long[] values() { return Arrays.copyOf(values, size); }
+
+    private void add(int kind, String text, long value) {
+        // o texto escrito antes do efeito vem antes dele
+        context.frame().flush();
+        closeText();
+        append(kind, text, null, value);
+    }
+
+    private void append(int kind, String text, Fragment fragment, long value) {
+        if (size == kinds.length) {
+            kinds = Arrays.copyOf(kinds, size * 2);
+            texts = Arrays.copyOf(texts, size * 2);
+            fragments = Arrays.copyOf(fragments, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        kinds[size] = kind;
+        texts[size] = text;
+        fragments[size] = fragment;
+        values[size] = value;
+        size++;
+    }
+
+    private void closeText() {
+        if (pendingLen == 0) return;
+        // o texto fica codificado: a consola copia-o diretamente para o frame
+        append(TEXT, null, Fragment.copyOf(pending, 0, pendingLen), 0);
+        pendingLen = 0;
+    }
+
+    /** Recebe o texto despejado pelo frame de gravação. */
+    private final class Sink extends OutputStream {
+        @Override
+        public void write(int b) {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (pendingLen + len > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLen + len));
+            }
+            System.arraycopy(b, off, pending, pendingLen, len);
+            pendingLen += len;
+        }
+    }
+
+    /** Relógio de gravação: as pausas ficam registadas e o tempo de jogo avança sem esperar. */
+    private final class Clock extends GameClock {
+        private long time;
+
+        @Override
+        public void sleep(long ms) {
+            if (ms > 0) time += ms;
+            add(PAUSE, null, ms);
+        }
+
+        @Override
+        public long toRealMillis(long ms) {
+            return 0;
+        }
+
+        @Override
+        public long now() {
+            return time;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package jogo;
+
+/**
+ * Lançada quando a fonte de entrada termina (fim de um script, de uma gravação ou da consola).
+ * O jogo termina a sessão de forma ordenada quando a recebe.
+ */
+public class EndOfInputException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Cria a exceção de fim de entrada.
+     */
+    public EndOfInputException() {
+        super("fim da entrada");
+    }
+}
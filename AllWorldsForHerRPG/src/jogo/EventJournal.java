@@ -0,0 +1,278 @@
+package jogo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Diário de eventos de uma sessão: cada decisão do jogador e cada número aleatório sorteado,
+ * por ordem, em registos de tamanho fixo (16 bytes) num ficheiro mapeado em memória.
+ * <p>
+ * O diário só cresce: acrescentar um registo é escrever 16 bytes no mapeamento e atualizar o contador no cabeçalho,
+ * sem chamadas ao sistema operativo, por isso pode registar todos os sorteios do jogo sem custo visível.
+ * Se a sessão terminar de forma abrupta, os registos já contados continuam legíveis.
+ * <p>
+ * Cada registo tem um tipo, um inteiro {@code a} e um long {@code b}; o significado depende do tipo
+ * (ver as constantes). O texto das linhas de entrada segue em registos {@link #TEXT} a seguir ao {@link #LINE}.
+ * {@link JournalReplay} executa de novo um diário e confirma que o jogo chega ao mesmo estado.
+ */
+public final class EventJournal implements AutoCloseable {
+
+    /** Início da sessão: {@code a} versão do formato, {@code b} semente da partida (ver {@link RngService}). */
+    public static final int SESSION = 1;
+    /** Labirinto da sessão: {@code a} 0 para o labirinto do jogo ou o número de salas do gerado, {@code b} semente. */
+    public static final int MAZE = 2;
+    /** Linha de entrada: {@code a} tamanho em bytes (UTF-8); o texto segue em registos {@link #TEXT}. */
+    public static final int LINE = 3;
+    /** Pedaço de texto de uma linha: 12 bytes, 4 em {@code a} e 8 em {@code b}. */
+    public static final int TEXT = 4;
+    /** Escolha num menu: {@code a} opção escolhida, {@code b} limites do menu (mínimo nos 32 bits altos, máximo nos baixos). */
+    public static final int CHOICE = 5;
+    /** Número aleatório: {@code a} fluxo ({@link RngService#COMBAT}, {@link RngService#RISK}...), {@code b} valor sorteado. */
+    public static final int RANDOM = 6;
+    /** Entrada numa sala: {@code a} identificador da sala (ou -1), {@code b} hash do nome. */
+    public static final int ROOM = 7;
+    /** Fim da sessão: {@code a} resultado ({@link #QUIT}, {@link #VICTORY} ou {@link #END_OF_INPUT}), {@code b} resumo do estado final. */
+    public static final int END = 8;
+
+    /** Resultado do fim: o jogador saiu. */
+    public static final int QUIT = 0;
+    /** Resultado do fim: o boss foi vencido. */
+    public static final int VICTORY = 1;
+    /** Resultado do fim: a entrada terminou. */
+    public static final int END_OF_INPUT = 2;
+
+    static final int VERSION = 2;
+
+    private static final int MAGIC = 0x414A524E; // "AJRN"
+    private static final int HEADER = 16;
+    private static final int RECORD = 16;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+
+    private final FileChannel channel;
+    private final boolean writable;
+    private ByteBuffer buffer;
+    private long count;
+
+    private EventJournal(FileChannel channel, ByteBuffer buffer, boolean writable, long count) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.writable = writable;
+        this.count = count;
+    }
+
+    /**
+     * Cria um diário novo no ficheiro indicado (um diário anterior com o mesmo nome é substituído).
+     *
+     * @param file ficheiro do diário
+     * @return diário pronto a receber registos
+     * @throws IOException se o ficheiro não puder ser criado
+     */
+    public static EventJournal create(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_CAPACITY);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, 0);
+        return new EventJournal(channel, buffer, true, 0);
+    }
+
+    /**
+     * Cria um diário só em memória (por exemplo, para comparar uma reexecução com o diário original).
+     *
+     * @return diário vazio
+     */
+    public static EventJournal inMemory() {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        return new EventJournal(null, buffer, true, 0);
+    }
+
+    /**
+     * Abre um diário existente só para leitura.
+     *
+     * @param file ficheiro do diário
+     * @return diário com os registos gravados
+     * @throws IOException se o ficheiro não puder ser lido ou não for um diário
+     */
+    public static EventJournal open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < HEADER) {
+            channel.close();
+            throw new IOException("não é um diário de eventos");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        long count = buffer.getLong(8);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || count < 0 || HEADER + count * RECORD > size) {
+            channel.close();
+            throw new IOException("não é um diário de eventos (ou é de outra versão)");
+        }
+        return new EventJournal(channel, buffer, false, count);
+    }
+
+    /**
+     * Acrescenta um registo.
+     *
+     * @param kind tipo do registo
+     * @param a primeiro valor
+     * @param b segundo valor
+     */
+    public void append(int kind, int a, long b) {
+        if (!writable) throw new IllegalStateException("diário aberto só para leitura");
+        long offset = HEADER + count * RECORD;
+        if (offset + RECORD > buffer.capacity()) grow();
+
+        int at = (int) offset;
+        buffer.putInt(at, kind);
+        buffer.putInt(at + 4, a);
+        buffer.putLong(at + 8, b);
+        count++;
+        buffer.putLong(8, count);
+    }
+
+    /**
+     * Acrescenta uma linha de texto: um registo {@link #LINE} seguido dos registos {@link #TEXT} necessários.
+     *
+     * @param line linha de texto
+     */
+    public void appendLine(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        append(LINE, bytes.length, 0);
+        for (int i = 0; i < bytes.length; i += 12) {
+            int a = 0;
+            long b = 0;
+            for (int k = 0; k < 4; k++) a |= (byteAt(bytes, i + k) & 0xFF) << (8 * k);
+            for (int k = 0; k < 8; k++) b |= (byteAt(bytes, i + 4 + k) & 0xFFL) << (8 * k);
+            append(TEXT, a, b);
+        }
+    }
+
+    private static byte byteAt(byte[] bytes, int i) {
+        return (i < bytes.length) ? bytes[i] : 0;
+    }
+
+    /**
+     * Lê a linha de texto que começa no registo {@link #LINE} indicado.
+     *
+     * @param index posição do registo {@link #LINE}
+     * @return texto da linha
+     */
+    public String lineAt(long index) {
+        if (kind(index) != LINE) throw new IllegalArgumentException("o registo " + index + " não é uma linha");
+        byte[] bytes = new byte[a(index)];
+        for (int i = 0; i < bytes.length; i++) {
+            long r = index + 1 + i / 12;
+            int k = i % 12;
+            bytes[i] = (k < 4) ? (byte) (a(r) >>> (8 * k)) : (byte) (b(r) >>> (8 * (k - 4)));
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Devolve quantos registos {@link #TEXT} seguem uma linha com o tamanho indicado.
+     *
+     * @param length tamanho da linha em bytes
+     * @return número de registos de texto
+     */
+    public static int textRecords(int length) {
+        return (length + 11) / 12;
+    }
+
+    private void grow() {
+        long capacity = (long) buffer.capacity() * 2;
+        if (capacity > Integer.MAX_VALUE) throw new IllegalStateException("diário de eventos demasiado grande");
+        if (channel == null) {
+            ByteBuffer bigger = ByteBuffer.allocate((int) capacity);
+            bigger.put(buffer.duplicate().clear());
+            buffer = bigger;
+            return;
+        }
+        try {
+            // o mapeamento anterior continua válido até ser recolhido; os dados já estão no ficheiro
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new IllegalStateException("não foi possível aumentar o diário de eventos", e);
+        }
+    }
+
+    /**
+     * Devolve o número de registos.
+     *
+     * @return número de registos
+     */
+    public long size() { return count; }
+
+    /**
+     * Devolve o tipo de um registo.
+     *
+     * @param index posição do registo
+     * @return tipo
+     */
+    public int kind(long index) { return buffer.getInt(offset(index)); }
+
+    /**
+     * Devolve o primeiro valor de um registo.
+     *
+     * @param index posição do registo
+     * @return valor {@code a}
+     */
+    public int a(long index) { return buffer.getInt(offset(index) + 4); }
+
+    /**
+     * Devolve o segundo valor de um registo.
+     *
+     * @param index posição do registo
+     * @return valor {@code b}
+     */
+    public long b(long index) { return buffer.getLong(offset(index) + 8); }
+
+    private int offset(long index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("registo " + index + " de " + count);
+        return (int) (HEADER + index * RECORD);
+    }
+
+    /**
+     * Descreve um registo numa linha, para mensagens de divergência.
+     *
+     * @param index posição do registo
+     * @return descrição do registo
+     */
+    public String describe(long index) {
+        int a = a(index);
+        long b = b(index);
+        switch (kind(index)) {
+            case SESSION: return "sessão (semente " + b + ")";
+            case MAZE: return (a == 0) ? "labirinto do jogo" : "labirinto gerado (" + a + " salas, semente " + b + ")";
+            case LINE: return "linha \"" + lineAt(index) + "\"";
+            case TEXT: return "texto";
+            case CHOICE: return "escolha " + a + " (de " + (int) (b >> 32) + " a " + (int) b + ")";
+            case RANDOM: return "sorteio (" + RngService.streamName(a) + ") = " + b;
+            case ROOM: return "sala " + a;
+            case END: return "fim (" + a + ", estado " + Long.toHexString(b) + ")";
+            default: return "registo desconhecido " + kind(index);
+        }
+    }
+
+    /**
+     * Grava os registos no disco e fecha o ficheiro.
+     *
+     * @throws IOException se o ficheiro não puder ser fechado
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        if (writable) {
+            if (buffer instanceof MappedByteBuffer mapped) mapped.force();
+            // o mapeamento reservou espaço a mais: o ficheiro fica só com os registos
+            channel.truncate(HEADER + count * RECORD);
+        }
+        channel.close();
+    }
+}
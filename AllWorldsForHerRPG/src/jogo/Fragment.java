@@ -0,0 +1,58 @@
+package jogo;
+
+/**
+ * Texto estático já codificado em bytes (banners, separadores, retratos, opções de menu).
+ * É codificado uma única vez e copiado diretamente para o frame em cada utilização.
+ */
+public final class Fragment {
+
+    private final byte[] bytes;
+
+    private Fragment(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Cria um fragmento com o texto exato indicado.
+     *
+     * @param text texto a codificar
+     * @return fragmento codificado
+     */
+    public static Fragment of(String text) {
+        return new Fragment(text.getBytes(FrameBuffer.CHARSET));
+    }
+
+    /**
+     * Cria um fragmento com várias linhas, cada uma terminada por mudança de linha.
+     *
+     * @param lines linhas do fragmento
+     * @return fragmento codificado
+     */
+    public static Fragment lines(String... lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) sb.append(line).append(System.lineSeparator());
+        return of(sb.toString());
+    }
+
+    /**
+     * Cria um fragmento com uma cópia de bytes já codificados.
+     */
+    static Fragment copyOf(byte[] bytes, int offset, int length) {
+        byte[] copy = new byte[length];
+        System.arraycopy(bytes, offset, copy, 0, length);
+        return new Fragment(copy);
+    }
+
+    byte[] bytes() {
+        return bytes;
+    }
+
+    /**
+     * Devolve o tamanho do fragmento codificado.
+     *
+     * @return tamanho em bytes
+     */
+    public int length() {
+        return bytes.length;
+    }
+}
@@ -0,0 +1,266 @@
+package jogo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Frame de texto da consola.
+ * Todo o texto de um ecrã é acumulado num buffer reutilizável e enviado com uma única escrita
+ * quando o frame é despejado (antes de uma pausa, de um pedido de entrada ou no fim do jogo).
+ */
+public final class FrameBuffer {
+
+    /** Codificação usada pela consola, partilhada pelos fragmentos pré-codificados. */
+    public static final Charset CHARSET = System.out.charset();
+
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final int AUTO_FLUSH_BYTES = 64 * 1024;
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(CHARSET);
+    private static final boolean ASCII_COMPATIBLE = isAsciiCompatible();
+
+    private final OutputStream out;
+    // um lock em vez de synchronized: flush pode bloquear a escrever, e uma thread virtual
+    // bloqueada dentro de synchronized prende a thread do sistema que a executa
+    private final ReentrantLock lock = new ReentrantLock();
+    private final CharsetEncoder encoder = CHARSET.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private Runnable beforeFlush;
+
+    private byte[] buf;
+    private int len;
+
+    private long flushes;
+    private long bytesWritten;
+
+    /**
+     * Cria um frame que escreve para o destino indicado.
+     *
+     * @param out destino do texto
+     */
+    public FrameBuffer(OutputStream out) {
+        this(out, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Cria um frame com a capacidade inicial indicada (o buffer cresce conforme é preciso).
+     *
+     * @param out destino do texto
+     * @param initialCapacity capacidade inicial em bytes
+     */
+    public FrameBuffer(OutputStream out, int initialCapacity) {
+        this.out = out;
+        this.buf = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * Acrescenta texto ao frame.
+     *
+     * @param text texto a acrescentar
+     */
+    public void print(String text) {
+        lock.lock();
+        try {
+            if (text == null) text = "null";
+
+            int n = text.length();
+            int i = 0;
+            if (ASCII_COMPATIBLE) {
+                ensure(n);
+                while (i < n) {
+                    char c = text.charAt(i);
+                    if (c >= 0x80) break;
+                    buf[len++] = (byte) c;
+                    i++;
+                }
+            }
+            if (i < n) encode(CharBuffer.wrap(text, i, n));
+            autoFlush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acrescenta um carácter ao frame.
+     *
+     * @param c carácter a acrescentar
+     */
+    public void print(char c) {
+        lock.lock();
+        try {
+            if (ASCII_COMPATIBLE && c < 0x80) {
+                ensure(1);
+                buf[len++] = (byte) c;
+            } else {
+                encode(CharBuffer.wrap(new char[] {c}));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acrescenta texto seguido de mudança de linha.
+     *
+     * @param text texto a acrescentar
+     */
+    public void println(String text) {
+        lock.lock();
+        try {
+            print(text);
+            println();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acrescenta uma mudança de linha.
+     */
+    public void println() {
+        lock.lock();
+        try {
+            append(NEWLINE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acrescenta um fragmento pré-codificado.
+     *
+     * @param fragment fragmento a copiar
+     */
+    public void print(Fragment fragment) {
+        lock.lock();
+        try {
+            append(fragment.bytes());
+            autoFlush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Define uma ação executada antes de cada escrita do frame
+     * (por exemplo, esperar que a máquina de escrever termine as suas linhas).
+     *
+     * @param action ação a executar, ou null
+     */
+    public void setBeforeFlush(Runnable action) {
+        lock.lock();
+        try {
+            this.beforeFlush = action;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Envia todo o conteúdo do frame para o destino com uma única escrita.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            if (len == 0) return;
+            if (beforeFlush != null) beforeFlush.run();
+            try {
+                out.write(buf, 0, len);
+                out.flush();
+                flushes++;
+                bytesWritten += len;
+            } catch (IOException e) {
+                // a consola fechou: o texto perde-se, tal como aconteceria com System.out
+            }
+            len = 0;
+            if (out instanceof PrintStream ps) ps.checkError();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devolve o número de bytes à espera de serem despejados.
+     *
+     * @return bytes no frame
+     */
+    public int pending() {
+        lock.lock();
+        try {
+            return len;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFlushes() {
+        lock.lock();
+        try {
+            return flushes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBytesWritten() {
+        lock.lock();
+        try {
+            return bytesWritten;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isAsciiCompatible() {
+        StringBuilder probe = new StringBuilder();
+        for (char c = 0x20; c < 0x7f; c++) probe.append(c);
+        probe.append("\r\n\t");
+        String ascii = probe.toString();
+        return Arrays.equals(ascii.getBytes(CHARSET), ascii.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void append(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, len, bytes.length);
+        len += bytes.length;
+    }
+
+    private void encode(CharBuffer chars) {
+        encoder.reset();
+        while (true) {
+            ensure((int) (chars.remaining() * encoder.averageBytesPerChar()) + 8);
+            ByteBuffer dst = ByteBuffer.wrap(buf, len, buf.length - len);
+            CoderResult r = encoder.encode(chars, dst, true);
+            if (r.isUnderflow()) r = encoder.flush(dst);
+            len = dst.position();
+            if (r.isUnderflow()) return;
+            grow(buf.length);
+        }
+    }
+
+    private void ensure(int extra) {
+        if (len + extra > buf.length) grow(len + extra - buf.length);
+    }
+
+    private void grow(int atLeast) {
+        byte[] bigger = new byte[Math.max(buf.length * 2, buf.length + atLeast)];
+        System.arraycopy(buf, 0, bigger, 0, len);
+        buf = bigger;
+    }
+
+    private void autoFlush() {
+        if (len >= AUTO_FLUSH_BYTES) flush();
+    }
+}
@@ -0,0 +1,138 @@
+package jogo;
+
+/**
+ * Relógio usado por todas as pausas do jogo.
+ * Permite correr o jogo em tempo real, acelerado (turbo) ou em tempo virtual,
+ * em que as esperas são saltadas e apenas o tempo simulado avança.
+ */
+public abstract class GameClock {
+
+    /**
+     * Espera durante o tempo indicado, de acordo com o modo do relógio.
+     *
+     * @param ms tempo de jogo em milissegundos
+     */
+    public abstract void sleep(long ms);
+
+    /**
+     * Converte um tempo de jogo no tempo real que vai ser efetivamente esperado.
+     *
+     * @param ms tempo de jogo em milissegundos
+     * @return tempo real em milissegundos
+     */
+    public abstract long toRealMillis(long ms);
+
+    /**
+     * Devolve o tempo de jogo decorrido desde a criação do relógio.
+     *
+     * @return tempo de jogo em milissegundos
+     */
+    public abstract long now();
+
+    /**
+     * Relógio em tempo real: cada pausa dura exatamente o tempo pedido.
+     *
+     * @return relógio em tempo real
+     */
+    public static GameClock realTime() {
+        return new Scaled(1.0);
+    }
+
+    /**
+     * Relógio acelerado: cada pausa dura o tempo pedido multiplicado pelo fator.
+     *
+     * @param factor fator de tempo (por exemplo 0.1 para dez vezes mais rápido)
+     * @return relógio acelerado
+     */
+    public static GameClock turbo(double factor) {
+        if (factor < 0 || Double.isNaN(factor)) throw new IllegalArgumentException("fator inválido: " + factor);
+        return new Scaled(factor);
+    }
+
+    /**
+     * Relógio virtual: as pausas não esperam, apenas fazem avançar o tempo simulado.
+     *
+     * @return relógio virtual
+     */
+    public static GameClock virtual() {
+        return new Virtual();
+    }
+
+    /**
+     * Cria um relógio a partir de uma descrição textual:
+     * "real", "turbo" (0.1x), "turbo:FATOR" ou "virtual".
+     *
+     * @param spec descrição do modo
+     * @return relógio correspondente
+     */
+    public static GameClock parse(String spec) {
+        String s = (spec == null) ? "" : spec.trim().toLowerCase();
+        if (s.isEmpty() || s.equals("real")) return realTime();
+        if (s.equals("virtual") || s.equals("zero")) return virtual();
+        if (s.equals("turbo")) return turbo(0.1);
+        if (s.startsWith("turbo:")) return turbo(Double.parseDouble(s.substring(6)));
+        throw new IllegalArgumentException("modo de relógio desconhecido: " + spec);
+    }
+
+    private static final class Scaled extends GameClock {
+        private final double factor;
+        private final long start = System.nanoTime();
+
+        Scaled(double factor) {
+            this.factor = factor;
+        }
+
+        @Override
+        public void sleep(long ms) {
+            long real = toRealMillis(ms);
+            if (real <= 0) return;
+            try {
+                Thread.sleep(real);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public long toRealMillis(long ms) {
+            if (ms <= 0) return 0;
+            double real = ms * factor;
+            return (real >= Long.MAX_VALUE) ? Long.MAX_VALUE : Math.round(real);
+        }
+
+        @Override
+        public long now() {
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            return (factor == 0) ? elapsed : Math.round(elapsed / factor);
+        }
+
+        @Override
+        public String toString() {
+            return (factor == 1.0) ? "real" : "turbo:" + factor;
+        }
+    }
+
+    private static final class Virtual extends GameClock {
+        private long time;
+
+        @Override
+        public synchronized void sleep(long ms) {
+            if (ms > 0) time += ms;
+        }
+
+        @Override
+        public long toRealMillis(long ms) {
+            return 0;
+        }
+
+        @Override
+        public synchronized long now() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return "virtual";
+        }
+    }
+}
@@ -0,0 +1,837 @@
+package jogo;
+
+import combate.CombatPolicy;
+import entidades.Fight;
+import entidades.Hero;
+import entidades.NPC;
+import entidades.Vendor;
+import itens.Item;
+import itens.Potion;
+import simulacao.AllocationOptimizer;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Motor de jogo por passos: todo o fluxo de uma partida (criação do herói, entrada nas salas, turnos de combate,
+ * recompensas, loja, poções e escolha da saída) como uma máquina de estados explícita.
+ * <p>
+ * Cada passo recebe a resposta do jogador ({@link #step(String)} ou {@link #choose(int)}), joga tudo o que
+ * acontece até à pergunta seguinte e devolve um {@link Step} com os efeitos a apresentar e o novo estado
+ * ({@link Phase}). Um passo nunca lê a entrada, nunca espera nem dorme: as pausas e os sons ficam anotados
+ * no passo, e os cálculos longos (partida guardada, distribuição otimizada, política ótima do combate,
+ * sugestões de rota) correm numa thread de trabalho e são devolvidos como {@link Step#getPending()},
+ * para quem consome o motor esperar por eles como entender.
+ * Por isso uma só thread pode fazer avançar milhares de partidas, intercalando os passos.
+ * <p>
+ * A consola ({@link Game}) é um dos consumidores: lê cada resposta de um {@link Input} e reproduz os efeitos
+ * com as pausas e os sons. Cada motor deve ser usado por uma thread de cada vez.
+ */
+public final class GameMachine {
+
+    private final RngService rng;
+    private final Effects fx = new Effects();
+
+    private Supplier<MazeMap> mazeFactory = Maze::standard;
+    private boolean routeAdvice;
+    private Runnable roomListener;
+
+    private Hero hero;
+    private Vendor vendor;
+    private MazeMap maze;
+    private Room currentRoom;
+    private RouteAdvisor advisor;
+    private boolean victory;
+
+    // pedido atual
+    private Phase phase;
+    private int min;
+    private int max;
+    private String retryPrompt;
+    private boolean rejected;
+    private CompletableFuture<?> pending;
+    private Runnable afterPending;
+
+    // estado guardado entre passos
+    private CompletableFuture<SaveGame> saved;
+    private SaveGame save;
+    private int heroChoice;
+    private int difficulty;
+    private int totalPoints;
+    private int startGold;
+    private String name;
+    private int points;
+    private int maxHealth;
+    private int strength;
+    private int addHealth;
+    private int style;
+    private Fight fight;
+    private ArrayList<Item> offer;
+    private int potionIndex;
+
+    /**
+     * Cria um motor de jogo.
+     *
+     * @param rng números aleatórios dos combates, eventos de risco, loja e criação do herói
+     */
+    public GameMachine(RngService rng) {
+        this.rng = rng;
+    }
+
+    /**
+     * Define de onde vem o labirinto de cada partida (por omissão, {@link Maze#standard()}).
+     *
+     * @param mazeFactory fornecedor de labirintos novos
+     */
+    public void setMazeFactory(Supplier<MazeMap> mazeFactory) {
+        this.mazeFactory = mazeFactory;
+    }
+
+    /**
+     * Ativa ou desativa as sugestões de rota antes de cada escolha de saída.
+     * Só se aplica a labirintos com todas as salas em memória ({@link Maze}).
+     *
+     * @param routeAdvice true para mostrar as rotas sugeridas
+     */
+    public void setRouteAdvice(boolean routeAdvice) {
+        this.routeAdvice = routeAdvice;
+    }
+
+    /**
+     * Define a ação executada sempre que o herói entra numa sala, antes de a sala ser jogada
+     * (por exemplo, registar a sala no diário e gravar a partida).
+     *
+     * @param roomListener ação a executar, ou null para nenhuma
+     */
+    public void setRoomListener(Runnable roomListener) {
+        this.roomListener = roomListener;
+    }
+
+    /**
+     * Primeiro passo: a introdução e, se houver partida guardada, a pergunta se é para a continuar;
+     * se não, a escolha da personagem.
+     *
+     * @param saved leitura da partida guardada (o resultado é null se não houver), ou null se não houver gravação
+     * @return primeiro passo
+     */
+    public Step start(CompletableFuture<SaveGame> saved) {
+        if (phase != null) throw new IllegalStateException("o motor já começou");
+        return run(() -> {
+            fx.play("src/resources/audio/game_start.wav");
+
+            ConsoleFX.title("All Worlds For Her");
+            ConsoleFX.println("🌌 Bem-vindo/a ao labirinto entre mundos.");
+            ConsoleFX.pause(300);
+            ConsoleFX.println("💊 A cura existe... mas não no teu mundo.");
+            fx.await(2000);
+            ConsoleFX.pause(500);
+
+            this.saved = saved;
+            // a partida guardada é lida enquanto a introdução é apresentada
+            if (saved != null && !saved.isDone()) waitFor(saved, this::offerSaved);
+            else offerSaved();
+        });
+    }
+
+    /**
+     * Continua depois de {@link Step#getPending()} terminar (só em {@link Phase#WAITING}).
+     *
+     * @return passo seguinte
+     */
+    public Step resume() {
+        if (phase != Phase.WAITING) throw new IllegalStateException("o motor não está à espera de um cálculo");
+        Runnable action = afterPending;
+        afterPending = null;
+        return run(action);
+    }
+
+    /**
+     * Responde à pergunta atual com uma palavra escrita pelo jogador.
+     * Uma resposta em branco é ignorada; uma resposta que não é um número repete o pedido.
+     * No nome da personagem, a resposta é a linha inteira.
+     *
+     * @param answer resposta do jogador
+     * @return passo seguinte
+     */
+    public Step step(String answer) {
+        if (phase == Phase.NAME) return run(() -> chooseName(answer));
+        checkAnswerable();
+
+        String token = answer.trim();
+        if (token.isEmpty()) return run(() -> {});
+        int value;
+        try {
+            value = Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            return run(() -> {
+                rejected = true;
+                ConsoleFX.print(retryPrompt);
+            });
+        }
+        return choose(value);
+    }
+
+    /**
+     * Responde à pergunta atual com uma opção do menu.
+     * Uma opção fora do menu é tratada pelo próprio menu (normalmente como opção inválida) e marcada como recusada.
+     *
+     * @param choice opção escolhida
+     * @return passo seguinte
+     */
+    public Step choose(int choice) {
+        if (phase == Phase.NAME) return step(Integer.toString(choice));
+        checkAnswerable();
+        return run(() -> {
+            if (choice < min || choice > max) rejected = true;
+            answer(choice);
+        });
+    }
+
+    /**
+     * Devolve o estado em que o motor está.
+     *
+     * @return pergunta atual, ou null antes de {@link #start}
+     */
+    public Phase getPhase() { return phase; }
+
+    /**
+     * Indica se a partida terminou com a vitória sobre o boss.
+     *
+     * @return true depois da vitória
+     */
+    public boolean isVictory() { return victory; }
+
+    /**
+     * Devolve o herói atual.
+     *
+     * @return herói, ou null antes de ser criado
+     */
+    public Hero getHero() { return hero; }
+
+    /**
+     * Devolve o labirinto atual.
+     *
+     * @return labirinto, ou null antes de ser construído
+     */
+    public MazeMap getMaze() { return maze; }
+
+    /**
+     * Devolve a sala onde o herói está.
+     *
+     * @return sala atual, ou null antes de entrar no labirinto
+     */
+    public Room getCurrentRoom() { return currentRoom; }
+
+    /**
+     * Devolve os números aleatórios da partida.
+     *
+     * @return serviço de números aleatórios
+     */
+    public RngService getRng() { return rng; }
+
+    private void checkAnswerable() {
+        if (phase == null) throw new IllegalStateException("o motor ainda não começou");
+        if (phase == Phase.WAITING) throw new IllegalStateException("o motor está à espera de um cálculo");
+        if (phase == Phase.FINISHED) throw new IllegalStateException("a sessão já terminou");
+    }
+
+    private Step run(Runnable action) {
+        rejected = false;
+        pending = null;
+        fx.begin();
+        try {
+            action.run();
+        } finally {
+            fx.end();
+        }
+        return new Step(phase, min, max, retryPrompt, rejected, pending, fx);
+    }
+
+    private void ask(Phase next, int min, int max, String retryPrompt) {
+        this.phase = next;
+        this.min = min;
+        this.max = max;
+        this.retryPrompt = retryPrompt;
+    }
+
+    private void waitFor(CompletableFuture<?> future, Runnable then) {
+        ask(Phase.WAITING, 0, 0, null);
+        pending = future;
+        afterPending = then;
+    }
+
+    private void finish() {
+        ask(Phase.FINISHED, 0, 0, null);
+    }
+
+    private void answer(int choice) {
+        switch (phase) {
+            case CONTINUE_SAVED: chooseSaved(choice); break;
+            case HERO_CLASS: chooseHeroClass(choice); break;
+            case DIFFICULTY: chooseDifficulty(choice); break;
+            case ALLOCATION_MODE: chooseAllocationMode(choice); break;
+            case MANUAL_HEALTH: chooseManualHealth(choice); break;
+            case MANUAL_STRENGTH: chooseManualStrength(choice); break;
+            case INCREMENTAL: chooseIncrement(choice); break;
+            case AUTO_STYLE: chooseStyle(choice); break;
+            case RISK_CHOICE: chooseRisk(choice); break;
+            case SHOP: buy(choice); break;
+            case COMBAT_TURN: chooseAction(choice); break;
+            case COMBAT_ITEM: chooseCombatItem(choice); break;
+            case REWARD_CHOICE: chooseReward(choice); break;
+            case POTION: choosePotion(choice); break;
+            case POTION_CONFIRM: confirmPotion(choice); break;
+            case EXIT_CHOICE: chooseExit(choice); break;
+            case GAME_OVER: chooseGameOver(choice); break;
+            default: throw new IllegalStateException("resposta inesperada em " + phase);
+        }
+    }
+
+    // ---------- partida guardada ----------
+
+    /**
+     * Se houver uma partida guardada, pergunta se o jogador a quer continuar; se não, passa à escolha da personagem.
+     */
+    private void offerSaved() {
+        SaveGame s = null;
+        if (saved != null) {
+            try {
+                s = saved.join();
+            } catch (CompletionException e) {
+                Throwable cause = (e.getCause() instanceof UncheckedIOException u) ? u.getCause() : e.getCause();
+                ConsoleFX.println("Não foi possível carregar a partida guardada: " + cause.getMessage());
+            }
+            saved = null;
+        }
+        if (s == null) {
+            askHeroClass();
+            return;
+        }
+
+        save = s;
+        ConsoleFX.section("Partida guardada");
+        ConsoleFX.println(s.getHero().getName() + " · nível " + s.getHero().getLevel()
+                + " · " + s.getRoom().getRoomName());
+        ConsoleFX.option(1, "Continuar");
+        ConsoleFX.option(2, "Nova partida");
+        ConsoleFX.prompt("Opção:");
+        ask(Phase.CONTINUE_SAVED, 1, 2, "Opção: ");
+    }
+
+    private void chooseSaved(int choice) {
+        SaveGame s = save;
+        save = null;
+        if (choice != 1) {
+            askHeroClass();
+            return;
+        }
+        hero = s.getHero();
+        s.restoreRng(rng);
+        useMaze(s.getMaze());
+        currentRoom = s.getRoom();
+        enterRoom();
+    }
+
+    // ---------- criação do herói ----------
+
+    private void askHeroClass() {
+        ConsoleFX.section("Escolha da Personagem");
+        ConsoleFX.option(1, "Enfermeira 🏥");
+        ConsoleFX.option(2, "Estafeta 📦");
+        ConsoleFX.option(3, "Professora 📚");
+        ConsoleFX.prompt("Opção:");
+        ask(Phase.HERO_CLASS, 1, 3, "Opção: ");
+    }
+
+    private void chooseHeroClass(int choice) {
+        heroChoice = choice;
+
+        ConsoleFX.section("Dificuldade");
+        ConsoleFX.option(1, "Fácil 🟢  (300 pontos · 20 ouro)");
+        ConsoleFX.option(2, "Difícil 🔴 (220 pontos · 15 ouro)");
+        ConsoleFX.prompt("Opção:");
+        ask(Phase.DIFFICULTY, 1, 2, "Opção: ");
+    }
+
+    private void chooseDifficulty(int diff) {
+        difficulty = diff;
+        totalPoints = HeroSetup.points(diff);
+        startGold = HeroSetup.gold(diff);
+
+        // a distribuição otimizada demora alguns segundos: começa já, enquanto o jogador escreve o nome
+        AllocationOptimizer.prefetch(heroChoice, diff);
+
+        ConsoleFX.print("\nNome da personagem: ");
+        ConsoleFX.flush();
+        ask(Phase.NAME, 0, 0, null);
+    }
+
+    private void chooseName(String line) {
+        String n = line.trim();
+        name = n.isBlank() ? "Herói" : n;
+        askAllocationMode();
+    }
+
+    private void askAllocationMode() {
+        points = totalPoints;
+        maxHealth = 0;
+        strength = 0;
+
+        ConsoleFX.println("\nComo queres distribuir os pontos?");
+        ConsoleFX.println("1) Manual (escrever valores)");
+        ConsoleFX.println("2) Incremental (um a um)");
+        ConsoleFX.println("3) Automático (Defensivo / Agressivo / Balanceado / Otimizado)");
+        ConsoleFX.print("Opção: ");
+        ask(Phase.ALLOCATION_MODE, 1, 3, "Opção: ");
+    }
+
+    private void chooseAllocationMode(int mode) {
+        if (mode == 1) {
+            askManualHealth();
+        } else if (mode == 2) {
+            askIncrement();
+        } else if (mode == 3) {
+            ConsoleFX.println("\nEscolhe o estilo automático:");
+            ConsoleFX.println("1) Defensivo (mais vida)");
+            ConsoleFX.println("2) Agressivo (mais força)");
+            ConsoleFX.println("3) Balanceado");
+            ConsoleFX.println("4) Otimizado (melhor hipótese contra os inimigos do labirinto)");
+            ConsoleFX.print("Opção: ");
+            ask(Phase.AUTO_STYLE, 1, 4, "Opção: ");
+        } else {
+            ConsoleFX.println("Opção inválida.");
+            askAllocationMode();
+        }
+    }
+
+    private void askManualHealth() {
+        ConsoleFX.println("\nPontos disponíveis: " + points);
+        ConsoleFX.println("Regra: Vida custa 1 ponto | Força custa 5 pontos");
+        ConsoleFX.print("Quantos pontos queres colocar em VIDA? (0 a " + points + "): ");
+        ask(Phase.MANUAL_HEALTH, 0, points, "Opção: ");
+    }
+
+    private void chooseManualHealth(int value) {
+        if (value < 0 || value > points) {
+            ConsoleFX.println("Valor inválido.");
+            askManualHealth();
+            return;
+        }
+        addHealth = value;
+
+        int maxStrengthPossible = (points - value) / 5;
+        ConsoleFX.print("Quantos pontos de FORÇA queres colocar? (0 a " + maxStrengthPossible + "): ");
+        ask(Phase.MANUAL_STRENGTH, 0, maxStrengthPossible, "Opção: ");
+    }
+
+    private void chooseManualStrength(int value) {
+        if (value < 0 || value > max) {
+            ConsoleFX.println("Valor inválido.");
+            askManualHealth();
+            return;
+        }
+
+        maxHealth = addHealth;
+        strength = value;
+        points = points - addHealth - (value * 5);
+
+        if (points == 0) {
+            createHero();
+            return;
+        }
+
+        ConsoleFX.println("\nAinda sobraram " + points + " pontos. Tens de gastar tudo.");
+        ConsoleFX.println("Dica: coloca o resto em VIDA.");
+        askManualHealth();
+    }
+
+    private void askIncrement() {
+        if (points <= 0) {
+            createHero();
+            return;
+        }
+        ConsoleFX.println("\nPontos disponíveis: " + points);
+        ConsoleFX.println("Vida: " + maxHealth + " | Força: " + strength);
+        ConsoleFX.println("1) +Vida (custa 1 ponto)");
+        ConsoleFX.println("2) +Força (custa 5 pontos)");
+        ConsoleFX.print("Opção: ");
+        ask(Phase.INCREMENTAL, 1, 2, "Opção: ");
+    }
+
+    private void chooseIncrement(int choice) {
+        if (choice == 1) {
+            maxHealth += 1;
+            points -= 1;
+        } else if (choice == 2) {
+            if (points < 5) {
+                rejected = true;
+                ConsoleFX.println("Não tens pontos suficientes para força.");
+            } else {
+                strength += 1;
+                points -= 5;
+            }
+        } else {
+            ConsoleFX.println("Opção inválida.");
+        }
+        askIncrement();
+    }
+
+    private void chooseStyle(int value) {
+        style = value;
+        if (style == HeroSetup.STYLE_OPTIMIZED && !AllocationOptimizer.isReady(heroChoice, difficulty)) {
+            ConsoleFX.println("\nA calcular a melhor distribuição...");
+            waitFor(AllocationOptimizer.prefetch(heroChoice, difficulty), this::allocateAutomatically);
+            return;
+        }
+        allocateAutomatically();
+    }
+
+    private void allocateAutomatically() {
+        int[] allocation = (style == HeroSetup.STYLE_OPTIMIZED)
+                ? AllocationOptimizer.best(heroChoice, difficulty)
+                : HeroSetup.autoAllocate(points, style);
+        maxHealth = allocation[0];
+        strength = allocation[1];
+        points = 0;
+
+        ConsoleFX.println("\nDistribuição automática (" + HeroSetup.styleName(style) + "):");
+        ConsoleFX.println("Vida atribuída: " + maxHealth);
+        ConsoleFX.println("Força atribuída: " + strength);
+        ConsoleFX.pause(700);
+        createHero();
+    }
+
+    /**
+     * Cria o herói com a distribuição escolhida, dá-lhe o inventário inicial, constrói o labirinto
+     * e entra na sala inicial.
+     */
+    private void createHero() {
+        Hero h = HeroSetup.create(heroChoice, name, maxHealth, strength, startGold);
+        h.rollWeakPoint(rng.hero());
+
+        ConsoleFX.println("\nPersonagem criada!");
+        ConsoleFX.println("Vida: " + h.getMaxHealth() + " | Força: " + h.getStrength() + " | Ouro: " + h.getGold());
+        ConsoleFX.println("Ponto fraco marcado: " + h.getWeakPoint().getPtName());
+        ConsoleFX.pause(900);
+
+        hero = h;
+        hero.showIntro();
+        Maze.giveStarterKit(hero);
+
+        useMaze(mazeFactory.get());
+        currentRoom = maze.getEntrance();
+        enterRoom();
+    }
+
+    /**
+     * Passa a jogar no labirinto indicado: mercador e sugestões de rota.
+     */
+    private void useMaze(MazeMap value) {
+        maze = value;
+        vendor = value.getVendor();
+        advisor = (routeAdvice && value instanceof Maze m) ? new RouteAdvisor(m) : null;
+    }
+
+    // ---------- salas ----------
+
+    private void enterRoom() {
+        if (roomListener != null) roomListener.run();
+        playRoom();
+    }
+
+    /**
+     * Joga a sala atual até à primeira pergunta: um evento de risco, a loja ou um combate.
+     */
+    private void playRoom() {
+        Room room = currentRoom;
+        ConsoleFX.println("\n\n########################################");
+        ConsoleFX.println("SALA: " + room.getRoomName().toUpperCase());
+        ConsoleFX.println("########################################\n");
+        fx.enterRoom(room.getRoomName());
+        ConsoleFX.pause(250);
+
+        if (room.isRiskRoom()) {
+            room.getRiskEvent().present(fx);
+            ask(Phase.RISK_CHOICE, 1, 2, "Opção → ");
+            return;
+        }
+
+        if (room.isShopRoom()) {
+            ConsoleFX.println("Um mercador aparece entre portais cintilantes...");
+            fx.playAndWait("src/resources/audio/shop.wav", 3000);
+            showShop();
+            return;
+        }
+
+        if (room.isCleared()) {
+            ConsoleFX.println("A sala está silenciosa. Já não há nada aqui.");
+            ConsoleFX.pause(350);
+            roomSurvived();
+            return;
+        }
+
+        String ally = room.getAllyName();
+        if (ally != null && !ally.isBlank()) {
+            ConsoleFX.println(ally + ": \"" + room.getAllyDialogue() + "\"\n");
+            ConsoleFX.pause(700);
+        }
+
+        NPC enemy = room.getEnemy();
+        if (enemy == null) {
+            ConsoleFX.println("Não há inimigos nesta sala.");
+            room.markCleared();
+            ConsoleFX.pause(350);
+            roomSurvived();
+            return;
+        }
+
+        ConsoleFX.println(enemy.getName() + ": \"" + room.getEnemyDialogue() + "\"\n");
+        ConsoleFX.pause(700);
+
+        fight = hero.startFight(enemy, fx);
+        nextTurn();
+    }
+
+    private void chooseRisk(int choice) {
+        if (currentRoom.getRiskEvent().resolve(choice, rng.risk(), fx)) roomSurvived();
+        else died();
+    }
+
+    private void showShop() {
+        offer = vendor.showShop(hero, rng.shop());
+        ask(Phase.SHOP, 0, offer.size(), "Opção: ");
+    }
+
+    private void buy(int choice) {
+        int result = vendor.sell(hero, offer, choice, fx);
+        if (result == Vendor.CLOSED) {
+            offer = null;
+            currentRoom.markCleared();
+            roomSurvived();
+            return;
+        }
+        if (result == Vendor.REFUSED) rejected = true;
+        showShop();
+    }
+
+    private void nextTurn() {
+        int result = fight.nextTurn();
+        if (result == Fight.TURN) {
+            ask(Phase.COMBAT_TURN, 1, 5, "Opção: ");
+            return;
+        }
+        fight = null;
+        if (result == Fight.LOST) {
+            died();
+            return;
+        }
+
+        ConsoleFX.pause(300);
+
+        Potion reward = currentRoom.getRewardPotion();
+        if (reward == null) {
+            currentRoom.markCleared();
+            roomSurvived();
+            return;
+        }
+        ConsoleFX.println("\nRecompensa encontrada: " + reward.getName());
+        reward.showDetails();
+        ConsoleFX.pause(200);
+
+        ConsoleFX.println("\n1) Usar agora");
+        ConsoleFX.println("2) Guardar no inventário");
+        ConsoleFX.print("Opção → ");
+        ask(Phase.REWARD_CHOICE, 1, 2, "Opção → ");
+    }
+
+    private void chooseAction(int choice) {
+        if (fight.needsPolicy(choice)) {
+            // a política ótima pode demorar a resolver: a jogada continua quando estiver pronta
+            CompletableFuture<CombatPolicy> policy = fight.resolvePolicy();
+            waitFor(policy, () -> {
+                CombatPolicy resolved = null;
+                try {
+                    resolved = policy.join();
+                } catch (CompletionException | CancellationException e) {
+                    // sem política, as jogadas são calculadas estado a estado
+                }
+                fight.setPolicy(resolved);
+                chooseAction(choice);
+            });
+            return;
+        }
+        int result = fight.choose(choice, rng.combat());
+        if (result == Fight.ITEM) {
+            ask(Phase.COMBAT_ITEM, 0, fight.getItemCount(), "Opção: ");
+            return;
+        }
+        if (result == Fight.REFUSED) rejected = true;
+        nextTurn();
+    }
+
+    private void chooseCombatItem(int choice) {
+        if (fight.chooseItem(choice, rng.combat()) == Fight.REFUSED) rejected = true;
+        nextTurn();
+    }
+
+    private void chooseReward(int choice) {
+        if (choice == 1) {
+            fx.playAndWait("src/resources/audio/potion.wav", 5000);
+            ConsoleFX.pause(250);
+            hero.printStatus();
+            ConsoleFX.pause(800);
+        } else {
+            hero.addConsumable(currentRoom.getRewardPotion());
+            ConsoleFX.println("Guardaste no inventário.");
+        }
+        ConsoleFX.pause(450);
+
+        currentRoom.markCleared();
+        roomSurvived();
+    }
+
+    /**
+     * O herói saiu vivo da sala: vitória se for a sala do boss; se não, o menu de poções e a escolha da saída.
+     */
+    private void roomSurvived() {
+        if (maze.isBoss(currentRoom)) {
+            fx.stinger("src/resources/audio/game_win.wav");
+
+            ConsoleFX.println("\nA cura finalmente existe.");
+            ConsoleFX.println("=== VITÓRIA ===");
+            victory = true;
+            fx.await(4000);
+            finish();
+            return;
+        }
+
+        ConsoleFX.println("\nAntes de seguires, queres usar uma poção?");
+        int potions = hero.showPotionMenu();
+        if (potions == 0) {
+            askExit();
+            return;
+        }
+        ask(Phase.POTION, 0, potions, "Opção: ");
+    }
+
+    private void choosePotion(int choice) {
+        int index = hero.choosePotion(choice);
+        if (index >= 0 && hero.needsConfirmation(index)) {
+            potionIndex = index;
+            ask(Phase.POTION_CONFIRM, 1, 2, "Opção: ");
+            return;
+        }
+        if (index >= 0) hero.usePotion(index, fx);
+        askExit();
+    }
+
+    private void confirmPotion(int choice) {
+        if (choice == 1) {
+            hero.usePotion(potionIndex, fx);
+        } else {
+            ConsoleFX.println("Não usaste a poção.");
+            ConsoleFX.pause(300);
+        }
+        askExit();
+    }
+
+    private void askExit() {
+        currentRoom.printConnections();
+        if (advisor == null) {
+            promptExit();
+            return;
+        }
+
+        // as rotas resolvem um combate por sala: são procuradas numa thread de trabalho
+        Room room = currentRoom;
+        CompletableFuture<RouteAdvisor.Route[]> routes = CompletableFuture.supplyAsync(
+                () -> new RouteAdvisor.Route[] { advisor.safest(room, hero), advisor.mostProfitable(room, hero) });
+        waitFor(routes, () -> {
+            try {
+                RouteAdvisor.Route[] found = routes.join();
+                printRoutes(found[0], found[1]);
+            } catch (CompletionException | CancellationException e) {
+                ConsoleFX.println("🧭 Não foi possível calcular as rotas.");
+            }
+            promptExit();
+        });
+    }
+
+    private void promptExit() {
+        ConsoleFX.print("Para onde queres ir? ");
+        ask(Phase.EXIT_CHOICE, 1, maze.getExitCount(currentRoom), "Opção: ");
+    }
+
+    /**
+     * Mostra a rota mais segura e a mais lucrativa a partir da sala atual.
+     *
+     * @param safest rota mais segura, ou null se não houver caminho até ao boss
+     * @param richest rota mais lucrativa, ou null
+     */
+    private void printRoutes(RouteAdvisor.Route safest, RouteAdvisor.Route richest) {
+        if (safest == null) {
+            ConsoleFX.println("🧭 Não há caminho até ao boss a partir daqui.");
+            return;
+        }
+        ConsoleFX.println(String.format("🧭 Rota mais segura: %s (sobrevivência %.1f%%, vida perdida ~%.0f)",
+                safest.describe(), 100 * safest.getSurvival(), safest.getHealthLoss()));
+        if (richest != null) {
+            ConsoleFX.println(String.format("💰 Rota mais lucrativa: %s (ouro esperado %.0f, sobrevivência %.1f%%)",
+                    richest.describe(), richest.getGold(), 100 * richest.getSurvival()));
+        }
+    }
+
+    private void chooseExit(int choice) {
+        int idx = choice - 1;
+        if (idx < 0 || idx >= max) {
+            // o herói fica e a sala é jogada de novo
+            ConsoleFX.println("Escolha inválida. Ficas onde estás.");
+            ConsoleFX.pause(400);
+            playRoom();
+            return;
+        }
+
+        Room next = maze.enter(currentRoom, idx);
+        if (next == null) {
+            ConsoleFX.println("Erro: sala não encontrada (" + currentRoom.getConnectedRoomNames().get(idx) + ").");
+            ConsoleFX.pause(400);
+            playRoom();
+            return;
+        }
+
+        fx.playAndWait("src/resources/audio/door.wav", 5000);
+        currentRoom = next;
+        enterRoom();
+    }
+
+    // ---------- fim de jogo ----------
+
+    private void died() {
+        fx.stinger("src/resources/audio/game_over.wav");
+        fx.await(4000);
+
+        ConsoleFX.println("\n=== FIM DE JOGO ===");
+        ConsoleFX.println("1) Jogar novamente (mesma personagem)");
+        ConsoleFX.println("2) Jogar novamente (nova personagem)");
+        ConsoleFX.println("3) Fechar");
+        ConsoleFX.print("Opção: ");
+        ask(Phase.GAME_OVER, 1, 3, "Opção: ");
+    }
+
+    private void chooseGameOver(int option) {
+        if (option == 1) {
+            hero.setCurrentHealth(hero.getMaxHealth());
+            currentRoom = maze.getEntrance();
+            enterRoom();
+        } else if (option == 2) {
+            askHeroClass();
+        } else {
+            ConsoleFX.println("Até à próxima.");
+            finish();
+        }
+    }
+}
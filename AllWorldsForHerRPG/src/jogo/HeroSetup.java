@@ -0,0 +1,133 @@
+package jogo;
+
+import entidades.Courier;
+import entidades.Hero;
+import entidades.Nurse;
+import entidades.Teacher;
+
+/**
+ * Regras de criação do herói: pontos e ouro por dificuldade, distribuição automática dos pontos
+ * e escolha da classe. Partilhadas entre o menu do jogo e o simulador.
+ */
+public final class HeroSetup {
+
+    /** Custo em pontos de cada ponto de força (a vida custa 1 ponto). */
+    public static final int STRENGTH_COST = 5;
+
+    /** Estilo automático que procura a melhor distribuição contra os inimigos do labirinto. */
+    public static final int STYLE_OPTIMIZED = 4;
+
+    private HeroSetup() {}
+
+    /**
+     * Devolve os pontos a distribuir na dificuldade indicada.
+     *
+     * @param difficulty 1 para Fácil, 2 para Difícil
+     * @return total de pontos
+     */
+    public static int points(int difficulty) {
+        return (difficulty == 1) ? 300 : 220;
+    }
+
+    /**
+     * Devolve o ouro inicial na dificuldade indicada.
+     *
+     * @param difficulty 1 para Fácil, 2 para Difícil
+     * @return ouro inicial
+     */
+    public static int gold(int difficulty) {
+        return (difficulty == 1) ? 20 : 15;
+    }
+
+    /**
+     * Distribui automaticamente os pontos segundo um estilo.
+     * Os pontos que não chegam para mais um ponto de força vão para a vida.
+     *
+     * @param points pontos a distribuir
+     * @param style 1 Defensivo, 2 Agressivo, 3 Balanceado
+     * @return vida e força atribuídas, por esta ordem
+     */
+    public static int[] autoAllocate(int points, int style) {
+        double healthRatio = (style == 1) ? 0.55 : (style == 2) ? 0.20 : 0.35;
+
+        int baseHealth = (int) Math.round(points * healthRatio);
+        if (baseHealth > points) baseHealth = points;
+
+        int remaining = points - baseHealth;
+        int strength = remaining / STRENGTH_COST;
+        int leftover = remaining % STRENGTH_COST;
+
+        return new int[] { baseHealth + leftover, strength };
+    }
+
+    /**
+     * Distribui os pontos com uma força fixa; o resto vai todo para a vida.
+     *
+     * @param points pontos a distribuir
+     * @param strength força pretendida
+     * @return vida e força atribuídas, por esta ordem
+     */
+    public static int[] split(int points, int strength) {
+        int s = Math.max(0, Math.min(strength, points / STRENGTH_COST));
+        return new int[] { points - s * STRENGTH_COST, s };
+    }
+
+    /**
+     * Devolve o nome do estilo de distribuição automática.
+     *
+     * @param style 1 Defensivo, 2 Agressivo, 3 Balanceado, 4 Otimizado
+     * @return nome do estilo
+     */
+    public static String styleName(int style) {
+        if (style == STYLE_OPTIMIZED) return "Otimizado";
+        return (style == 1) ? "Defensivo" : (style == 2) ? "Agressivo" : "Balanceado";
+    }
+
+    /**
+     * Devolve o nome da classe de herói.
+     *
+     * @param heroChoice 1 Enfermeira, 2 Estafeta, 3 Professora
+     * @return nome da classe
+     */
+    public static String className(int heroChoice) {
+        return (heroChoice == 1) ? "Enfermeira" : (heroChoice == 2) ? "Estafeta" : "Professora";
+    }
+
+    /**
+     * Devolve o nome da dificuldade.
+     *
+     * @param difficulty 1 para Fácil, 2 para Difícil
+     * @return nome da dificuldade
+     */
+    public static String difficultyName(int difficulty) {
+        return (difficulty == 1) ? "Fácil" : "Difícil";
+    }
+
+    /**
+     * Devolve a classe de um herói já criado, na numeração usada em {@link #create}.
+     *
+     * @param hero herói
+     * @return 1 Enfermeira, 2 Estafeta, 3 Professora
+     */
+    public static int choiceOf(Hero hero) {
+        if (hero instanceof Nurse) return 1;
+        if (hero instanceof Courier) return 2;
+        return 3;
+    }
+
+    /**
+     * Cria o herói da classe escolhida, com o ponto fraco ainda por sortear ({@link Hero#rollWeakPoint}).
+     *
+     * @param heroChoice 1 Enfermeira, 2 Estafeta, 3 Professora
+     * @param name nome da personagem
+     * @param maxHealth vida máxima
+     * @param strength força base
+     * @param gold ouro inicial
+     * @return herói criado
+     */
+    public static Hero create(int heroChoice, String name, int maxHealth, int strength, int gold) {
+        if (heroChoice == 1) return new Nurse(name, maxHealth, strength, gold);
+        if (heroChoice == 2) return new Courier(name, maxHealth, strength, gold);
+        return new Teacher(name, maxHealth, strength, gold);
+    }
+}
@@ -0,0 +1,173 @@
+package jogo;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Fonte de entrada do jogo.
+ * Todas as escolhas do jogador passam por aqui, seja a partir da consola, de um script em memória
+ * ou de uma sessão gravada. As linhas já recebidas ficam numa fila (type-ahead) e podem ser
+ * consultadas sem bloquear.
+ * <p>
+ * Uma linha pode conter várias escolhas separadas por espaços (por exemplo {@code 1 1 2 0 3}).
+ * As escolhas seguintes ficam num lote e são usadas, pela ordem, nos pedidos seguintes;
+ * o lote é descartado na primeira escolha inválida.
+ */
+public abstract class Input {
+
+    private final ArrayDeque<String> batch = new ArrayDeque<>();
+
+    /**
+     * Devolve a próxima linha, bloqueando até existir uma.
+     *
+     * @return linha recebida
+     * @throws EndOfInputException se a fonte de entrada terminou
+     */
+    protected abstract String take();
+
+    /**
+     * Devolve a próxima linha se já tiver sido recebida, sem bloquear.
+     *
+     * @return linha recebida, ou null se ainda não existir nenhuma
+     */
+    public abstract String poll();
+
+    /**
+     * Indica se já existem linhas recebidas à espera de serem lidas.
+     *
+     * @return true se a fila não estiver vazia
+     */
+    public abstract boolean hasPending();
+
+    /**
+     * Indica se o jogador pediu para saltar uma espera (som ou animação).
+     * Por omissão, fontes não interativas nunca pedem para saltar.
+     *
+     * @return true se a espera deve ser saltada
+     */
+    public boolean skipRequested() {
+        return false;
+    }
+
+    /**
+     * Chamado com cada linha entregue ao jogo (por exemplo, para gravar ou mostrar a linha).
+     *
+     * @param line linha entregue
+     */
+    protected void onLine(String line) {
+    }
+
+    /**
+     * Lê a próxima linha completa.
+     * Se ainda houver escolhas num lote, devolve a próxima palavra do lote.
+     *
+     * @return linha lida
+     * @throws EndOfInputException se a fonte de entrada terminou
+     */
+    public final String readLine() {
+        String token = batch.poll();
+        if (token != null) {
+            ConsoleFX.println(token);
+            return token;
+        }
+        return takeLine();
+    }
+
+    /**
+     * Lê um número inteiro de forma segura.
+     * Linhas em branco são ignoradas; se a escolha não for um número, o pedido é repetido.
+     *
+     * @param retryPrompt texto mostrado ao repetir o pedido
+     * @return inteiro introduzido
+     * @throws EndOfInputException se a fonte de entrada terminou
+     */
+    public int readInt(String retryPrompt) {
+        return readChoice(Integer.MIN_VALUE, Integer.MAX_VALUE, retryPrompt);
+    }
+
+    /**
+     * Lê a escolha de um menu com opções entre {@code min} e {@code max}.
+     * Uma escolha fora do menu é devolvida na mesma (o menu trata-a como inválida),
+     * mas o resto do lote é descartado.
+     *
+     * @param min menor opção válida
+     * @param max maior opção válida
+     * @param retryPrompt texto mostrado ao repetir o pedido
+     * @return escolha introduzida
+     * @throws EndOfInputException se a fonte de entrada terminou
+     */
+    public int readChoice(int min, int max, String retryPrompt) {
+        while (true) {
+            String token = nextToken();
+            int value;
+            try {
+                value = Integer.parseInt(token);
+            } catch (NumberFormatException e) {
+                cancelBatch();
+                ConsoleFX.print(retryPrompt);
+                continue;
+            }
+            if (value < min || value > max) cancelBatch();
+            return value;
+        }
+    }
+
+    /**
+     * Descarta as escolhas que ainda restam no lote atual.
+     * Deve ser chamado quando uma escolha é recusada pelo jogo (por exemplo, ouro insuficiente).
+     */
+    public void cancelBatch() {
+        batch.clear();
+    }
+
+    /**
+     * Indica se existem escolhas de um lote por usar.
+     *
+     * @return true se o lote não estiver vazio
+     */
+    public boolean hasBatch() {
+        return !batch.isEmpty();
+    }
+
+    /**
+     * Indica se uma espera deve ser saltada: há escolhas do lote por usar
+     * ou o jogador pediu para saltar.
+     *
+     * @return true se a espera deve ser saltada
+     */
+    public final boolean skipWait() {
+        return !batch.isEmpty() || skipRequested();
+    }
+
+    /**
+     * Cria uma fonte de entrada a partir de linhas em memória.
+     *
+     * @param lines linhas do script
+     * @return fonte de entrada com as linhas indicadas
+     */
+    public static Input script(String... lines) {
+        return new ScriptInput(Arrays.asList(lines), false);
+    }
+
+    private String takeLine() {
+        ConsoleFX.flush();
+        String line = take();
+        onLine(line);
+        return line;
+    }
+
+    private String nextToken() {
+        String token = batch.poll();
+        if (token != null) {
+            ConsoleFX.println(token);
+            return token;
+        }
+
+        while (true) {
+            String[] tokens = takeLine().trim().split("\\s+");
+            if (tokens[0].isEmpty()) continue;
+            for (int i = 1; i < tokens.length; i++) batch.add(tokens[i]);
+            return tokens[0];
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package jogo;
+
+/**
+ * Regista num {@link EventJournal} todas as linhas entregues por outra fonte de entrada
+ * e todas as escolhas feitas nos menus do jogo.
+ * As linhas chegam para reproduzir a sessão; as escolhas servem para confirmar, na reprodução,
+ * que cada menu recebeu a mesma resposta.
+ */
+public class JournalInput extends Input {
+
+    private final Input source;
+    private final EventJournal journal;
+
+    /**
+     * Cria uma entrada que regista as linhas e as escolhas de outra.
+     *
+     * @param source fonte de entrada original
+     * @param journal diário onde registar
+     */
+    public JournalInput(Input source, EventJournal journal) {
+        this.source = source;
+        this.journal = journal;
+    }
+
+    @Override
+    protected String take() {
+        String line = source.take();
+        source.onLine(line);
+        journal.appendLine(line);
+        return line;
+    }
+
+    @Override
+    public String poll() {
+        String line = source.poll();
+        if (line != null) journal.appendLine(line);
+        return line;
+    }
+
+    @Override
+    public boolean hasPending() {
+        return source.hasPending();
+    }
+
+    @Override
+    public boolean skipRequested() {
+        return source.skipRequested();
+    }
+
+    @Override
+    public int readChoice(int min, int max, String retryPrompt) {
+        int value = super.readChoice(min, max, retryPrompt);
+        journal.append(EventJournal.CHOICE, value, ((long) min << 32) | (max & 0xFFFFFFFFL));
+        return value;
+    }
+}
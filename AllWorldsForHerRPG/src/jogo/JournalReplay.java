@@ -0,0 +1,158 @@
+package jogo;
+
+import audio.Audio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reprodução determinística de um {@link EventJournal}.
+ * <p>
+ * O jogo é executado de novo com as linhas de entrada do diário e a mesma semente,
+ * sem pausas, sem som e sem texto na consola, e cada registo produzido é comparado com o original.
+ * Se o código do jogo mudou de forma a alterar o resultado de uma sessão, o primeiro registo diferente
+ * mostra onde a sessão divergiu.
+ * <p>
+ * Uso: {@code java jogo.JournalReplay FICHEIRO}
+ */
+public final class JournalReplay {
+
+    private JournalReplay() {
+    }
+
+    /**
+     * Resultado de uma reprodução.
+     */
+    public static final class Result {
+        private final long records;
+        private final long divergence;
+        private final String expected;
+        private final String actual;
+        private final long nanos;
+
+        private Result(long records, long divergence, String expected, String actual, long nanos) {
+            this.records = records;
+            this.divergence = divergence;
+            this.expected = expected;
+            this.actual = actual;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Indica se a reprodução produziu exatamente os mesmos registos.
+         *
+         * @return true se não houve divergência
+         */
+        public boolean matches() { return divergence < 0; }
+
+        /**
+         * Devolve o número de registos do diário original.
+         *
+         * @return número de registos
+         */
+        public long getRecords() { return records; }
+
+        /**
+         * Devolve a posição do primeiro registo diferente.
+         *
+         * @return posição, ou -1 se não houve divergência
+         */
+        public long getDivergence() { return divergence; }
+
+        /**
+         * Devolve o tempo da reprodução.
+         *
+         * @return tempo em nanossegundos
+         */
+        public long getNanos() { return nanos; }
+
+        /**
+         * Descreve o resultado numa ou duas linhas.
+         *
+         * @return descrição
+         */
+        public String describe() {
+            String time = String.format("%.1f ms", nanos / 1e6);
+            if (matches()) return "Reprodução igual ao diário: " + records + " registos em " + time + ".";
+            return "Divergência no registo " + divergence + " de " + records + " (" + time + "):\n"
+                    + "  esperado: " + expected + "\n"
+                    + "  obtido:   " + actual;
+        }
+    }
+
+    /**
+     * Reexecuta a sessão de um diário e compara os registos.
+     * Não silencia a consola nem o som: quem chama deve preparar o ambiente (ver {@link #main}).
+     *
+     * @param original diário gravado
+     * @return resultado da comparação
+     * @throws IOException se o diário não começar por uma sessão e um labirinto
+     */
+    public static Result replay(EventJournal original) throws IOException {
+        if (original.size() < 2 || original.kind(0) != EventJournal.SESSION || original.kind(1) != EventJournal.MAZE) {
+            throw new IOException("o diário não começa por uma sessão");
+        }
+        long seed = original.b(0);
+        int rooms = original.a(1);
+        long mazeSeed = original.b(1);
+
+        List<String> lines = new ArrayList<>();
+        for (long i = 2; i < original.size(); i++) {
+            if (original.kind(i) == EventJournal.LINE) {
+                lines.add(original.lineAt(i));
+                i += EventJournal.textRecords(original.a(i));
+            }
+        }
+
+        long start = System.nanoTime();
+        EventJournal copy = EventJournal.inMemory();
+        copy.append(EventJournal.SESSION, original.a(0), seed);
+        copy.append(EventJournal.MAZE, rooms, mazeSeed);
+        RngService rng = new RngService(seed);
+        rng.setJournal(copy);
+        Game game = new Game(new JournalInput(new ScriptInput(lines, false), copy), rng);
+        game.setJournal(copy);
+        if (rooms > 0) game.setMazeFactory(() -> ProceduralMaze.ofSize(mazeSeed, rooms));
+        game.startGame();
+        long nanos = System.nanoTime() - start;
+
+        long n = Math.min(original.size(), copy.size());
+        for (long i = 0; i < n; i++) {
+            if (original.kind(i) != copy.kind(i) || original.a(i) != copy.a(i) || original.b(i) != copy.b(i)) {
+                return new Result(original.size(), i, original.describe(i), copy.describe(i), nanos);
+            }
+        }
+        if (original.size() != copy.size()) {
+            String expected = (n < original.size()) ? original.describe(n) : "fim do diário";
+            String actual = (n < copy.size()) ? copy.describe(n) : "fim do diário";
+            return new Result(original.size(), n, expected, actual, nanos);
+        }
+        return new Result(original.size(), -1, null, null, nanos);
+    }
+
+    /**
+     * Reproduz o diário indicado à velocidade máxima e termina com código 1 se houver divergência.
+     *
+     * @param args ficheiro do diário
+     * @throws IOException se o diário não puder ser lido
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Uso: java jogo.JournalReplay FICHEIRO");
+            System.exit(2);
+        }
+        ConsoleFX.setOutput(OutputStream.nullOutputStream());
+        ConsoleFX.setClock(GameClock.virtual());
+        Audio.setEnabled(false);
+
+        Result result;
+        try (EventJournal journal = EventJournal.open(Path.of(args[0]))) {
+            result = replay(journal);
+        }
+        System.out.println(result.describe());
+        if (!result.matches()) System.exit(1);
+    }
+}
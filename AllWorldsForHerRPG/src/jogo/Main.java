@@ -1,4 +1,10 @@
 package jogo;
+
+import entidades.Hero;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * Classe principal do programa.
  * Contém o método main, ponto de entrada da aplicação.
@@ -6,11 +12,92 @@ package jogo;
 public class Main {
     /**
      * Método principal que inicia a execução do jogo.
+     * Opções:
+     * <ul>
+     *   <li>{@code --clock=real|turbo|turbo:FATOR|virtual} (ou a propriedade {@code awfh.clock}) escolhe o relógio;</li>
+     *   <li>{@code --input=FICHEIRO} lê as escolhas de um script ou de uma sessão gravada;</li>
+     *   <li>{@code --record=FICHEIRO} grava as escolhas da sessão para serem reproduzidas mais tarde;</li>
+     *   <li>{@code --hints} mostra em cada turno de combate a probabilidade exata de vitória;</li>
+     *   <li>{@code --maze=SALAS[:SEMENTE]} joga num labirinto gerado com o número de salas indicado;</li>
+     *   <li>{@code --routes} sugere antes de cada escolha a rota mais segura e a mais lucrativa até ao boss;</li>
+     *   <li>{@code --save=FICHEIRO} muda o ficheiro onde a partida é gravada a cada sala para poder ser continuada
+     *       mais tarde (por omissão, {@link SaveGame#DEFAULT_FILE}); {@code --no-save} desativa a gravação.
+     *       Uma sessão lida de {@code --input} só grava com {@code --save}, e uma sessão com {@code --journal} nunca grava;</li>
+     *   <li>{@code --seed=N} fixa a semente da partida: com as mesmas escolhas, a partida repete-se;</li>
+     *   <li>{@code --journal=FICHEIRO} regista todas as decisões e sorteios da sessão num diário de eventos,
+     *       que {@link JournalReplay} reexecuta para confirmar que o jogo chega ao mesmo estado.</li>
+     * </ul>
      *
-     * @param args argumentos da linha de comandos (não utilizados)
+     * @param args argumentos da linha de comandos
+     * @throws IOException se o ficheiro de entrada ou de gravação não puder ser aberto
      */
-    public static void main(String[] args) {
-        Game game = new Game();
-        game.startGame();
+    public static void main(String[] args) throws IOException {
+        String clock = System.getProperty("awfh.clock", "real");
+        String inputFile = null;
+        String recordFile = null;
+        String generated = null;
+        boolean routes = false;
+        String saveFile = null;
+        boolean save = true;
+        String journalFile = null;
+        String runSeed = null;
+        for (String arg : args) {
+            if (arg.startsWith("--clock=")) clock = arg.substring("--clock=".length());
+            else if (arg.startsWith("--input=")) inputFile = arg.substring("--input=".length());
+            else if (arg.startsWith("--record=")) recordFile = arg.substring("--record=".length());
+            else if (arg.equals("--hints")) Hero.setCombatHints(true);
+            else if (arg.startsWith("--maze=")) generated = arg.substring("--maze=".length());
+            else if (arg.equals("--routes")) routes = true;
+            else if (arg.startsWith("--save=")) saveFile = arg.substring("--save=".length());
+            else if (arg.equals("--no-save")) save = false;
+            else if (arg.startsWith("--journal=")) journalFile = arg.substring("--journal=".length());
+            else if (arg.startsWith("--seed=")) runSeed = arg.substring("--seed=".length());
+        }
+        ConsoleFX.setClock(GameClock.parse(clock));
+
+        Input input = (inputFile == null)
+                ? new ConsoleInput(System.in)
+                : ScriptInput.load(Path.of(inputFile), true);
+        if (recordFile != null) input = new RecordingInput(input, Path.of(recordFile));
+
+        long rooms = 0;
+        long seed = 1;
+        if (generated != null) {
+            String[] parts = generated.split(":");
+            rooms = Long.parseLong(parts[0]);
+            if (parts.length > 1) seed = Long.parseLong(parts[1]);
+        }
+
+        RngService rng = (runSeed == null) ? new RngService() : new RngService(Long.parseLong(runSeed));
+        EventJournal journal = null;
+        Game game;
+        if (journalFile != null) {
+            if (rooms > Integer.MAX_VALUE) throw new IllegalArgumentException("labirinto demasiado grande para o diário");
+            // uma partida continuada não poderia ser reproduzida só a partir do diário
+            if (saveFile != null) System.err.println("--save é ignorado quando a sessão é registada num diário.");
+            save = false;
+            journal = EventJournal.create(Path.of(journalFile));
+            journal.append(EventJournal.SESSION, EventJournal.VERSION, rng.getSeed());
+            journal.append(EventJournal.MAZE, (int) rooms, seed);
+            rng.setJournal(journal);
+            game = new Game(new JournalInput(input, journal), rng);
+            game.setJournal(journal);
+        } else {
+            game = new Game(input, rng);
+        }
+        game.setRouteAdvice(routes);
+        // um script reproduz uma sessão desde o início: não continua nem substitui a partida do jogador
+        if (inputFile != null && saveFile == null) save = false;
+        if (save) game.setSaveFile((saveFile == null) ? SaveGame.DEFAULT_FILE : Path.of(saveFile));
+        if (generated != null) {
+            long size = rooms;
+            long mazeSeed = seed;
+            game.setMazeFactory(() -> ProceduralMaze.ofSize(mazeSeed, size));
+        }
+        try {
+            game.startGame();
+        } finally {
+            if (journal != null) journal.close();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,128 @@
+package jogo;
+
+import entidades.Hero;
+import entidades.Vendor;
+
+import java.util.ArrayList;
+
+/**
+ * Labirinto com todas as salas em memória: salas, ligações, inimigos, recompensas e o mercador.
+ * É usado pelo jogo e por ferramentas que precisam das mesmas regras sem consola (ex.: o simulador).
+ * O conteúdo do jogo vem de um ficheiro ({@link MazeContent}); cada chamada a {@link #standard()}
+ * devolve salas e inimigos novos, sem estado de jogo partilhado.
+ * As ligações entre salas são resolvidas uma única vez num {@link RoomGraph}.
+ */
+public class Maze implements MazeMap {
+
+    /** Nome da sala onde começa cada partida. */
+    public static final String ENTRANCE = "Entrada do Labirinto";
+    /** Nome da sala final; vencer o combate desta sala termina o jogo. */
+    public static final String BOSS_ROOM = "Núcleo do Labirinto (Boss)";
+
+    private final ArrayList<Room> rooms;
+    private final Vendor vendor;
+    private final RoomGraph graph;
+    private final int boss;
+    private final MazeContent content;
+
+    Maze(ArrayList<Room> rooms, Vendor vendor, MazeContent content) {
+        this.rooms = rooms;
+        this.vendor = vendor;
+        this.graph = RoomGraph.build(rooms);
+        this.boss = graph.idOf(BOSS_ROOM);
+        this.content = content;
+    }
+
+    /**
+     * Constrói o labirinto do jogo a partir do conteúdo em {@link MazeContent#DEFAULT_FILE}:
+     * salas, eventos, inimigos, recompensas e ligações (grafo).
+     * O ficheiro só é lido na primeira chamada; as seguintes apenas criam salas e inimigos novos.
+     *
+     * @return labirinto novo, com todas as salas por limpar
+     */
+    public static Maze standard() {
+        return MazeContent.standard().newMaze();
+    }
+
+    /**
+     * Devolve o mercador do jogo, com o stock de poções, consumíveis e armas definido no conteúdo.
+     *
+     * @return mercador
+     */
+    public static Vendor standardVendor() {
+        return MazeContent.standard().getVendor();
+    }
+
+    /**
+     * Cria um labirinto a partir de salas já construídas (por exemplo, geradas por uma ferramenta).
+     *
+     * @param rooms salas do labirinto, já com as ligações; a lista passa a pertencer ao labirinto e não deve ser alterada
+     * @param vendor mercador do labirinto
+     * @return labirinto com as salas indicadas
+     */
+    public static Maze of(ArrayList<Room> rooms, Vendor vendor) {
+        return new Maze(rooms, vendor, null);
+    }
+
+    /**
+     * Dá ao herói o equipamento inicial definido no conteúdo (por omissão, punhos como arma e uma poção pequena).
+     *
+     * @param hero herói acabado de criar
+     */
+    public static void giveStarterKit(Hero hero) {
+        MazeContent.standard().giveStarterKit(hero);
+    }
+
+    /**
+     * Devolve todas as salas do labirinto, pela ordem em que foram criadas.
+     *
+     * @return lista de salas
+     */
+    public ArrayList<Room> getRooms() { return rooms; }
+
+    /**
+     * Devolve o grafo das salas, para navegar por identificadores.
+     *
+     * @return grafo do labirinto
+     */
+    public RoomGraph getGraph() { return graph; }
+
+    /**
+     * Devolve o conteúdo de onde o labirinto foi criado.
+     *
+     * @return conteúdo, ou null se o labirinto foi criado com {@link #of}
+     */
+    public MazeContent getContent() { return content; }
+
+    @Override
+    public Vendor getVendor() { return vendor; }
+
+    @Override
+    public Room getEntrance() { return findRoom(ENTRANCE); }
+
+    @Override
+    public boolean isBoss(Room room) { return room.getId() == boss; }
+
+    @Override
+    public int getExitCount(Room room) { return graph.getExitCount(room.getId()); }
+
+    @Override
+    public Room enter(Room from, int k) {
+        int id = graph.getExit(from.getId(), k);
+        return (id == RoomGraph.NONE) ? null : graph.getRoom(id);
+    }
+
+    @Override
+    public int getLiveRooms() { return rooms.size(); }
+
+    /**
+     * Procura uma sala pelo seu nome.
+     *
+     * @param name nome da sala a procurar
+     * @return sala encontrada ou null se não existir
+     */
+    public Room findRoom(String name) {
+        int id = graph.idOf(name);
+        return (id == RoomGraph.NONE) ? null : graph.getRoom(id);
+    }
+}
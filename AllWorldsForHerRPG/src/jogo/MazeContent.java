@@ -0,0 +1,604 @@
+package jogo;
+
+import entidades.Hero;
+import entidades.NPC;
+import entidades.Vendor;
+import itens.CombatConsumable;
+import itens.Consumable;
+import itens.Item;
+import itens.Potion;
+import itens.Weapon;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conteúdo do labirinto lido de um ficheiro de texto: salas, eventos de risco, inimigos, recompensas,
+ * o stock do mercador e o equipamento inicial.
+ * <p>
+ * O ficheiro é lido linha a linha uma única vez para definições imutáveis
+ * (o formato está descrito no próprio ficheiro, {@link #DEFAULT_FILE}).
+ * Ao lado do texto pode ficar uma versão compilada em binário ({@code .bin}), criada pela ferramenta de build
+ * {@link MazeContentBuilder} e lida de uma só vez enquanto o texto não mudar. O jogo nunca escreve essa versão.
+ * <p>
+ * Itens, eventos de risco e o mercador não têm estado, por isso são criados uma vez e partilhados por todas as partidas.
+ * Só o que muda durante uma partida (salas limpas e vida dos inimigos) é criado de novo em {@link #newMaze()}.
+ */
+public final class MazeContent {
+
+    /** Ficheiro de conteúdo usado pelo jogo. */
+    public static final String DEFAULT_FILE = "src/resources/content/maze.txt";
+
+    private static final int MAGIC = 0x414D415A; // "AMAZ"
+    private static final int VERSION = 2;
+
+    private static final int POTION = 0;
+    private static final int CONSUMABLE = 1;
+    private static final int WEAPON = 2;
+
+    private static MazeContent standard;
+
+    /** Definição de um item, guardada para a versão binária; o item em si é criado uma vez. */
+    private static final class ItemDef {
+        final int kind;
+        final String name;
+        final int price;
+        final int a;
+        final int b;
+        final String[] heroes;
+        final Item item;
+
+        ItemDef(int kind, String name, int price, int a, int b, String[] heroes) {
+            this.kind = kind;
+            this.name = name;
+            this.price = price;
+            this.a = a;
+            this.b = b;
+            this.heroes = heroes;
+
+            ArrayList<String> allowed = new ArrayList<>(Arrays.asList(heroes));
+            switch (kind) {
+                case POTION: item = new Potion(name, price, a, b, allowed); break;
+                case CONSUMABLE: item = new CombatConsumable(name, price, a, allowed); break;
+                default: item = new Weapon(name, price, a, b, allowed); break;
+            }
+        }
+    }
+
+    /** Definição de uma sala. Os campos que não se aplicam ao tipo da sala ficam a null. */
+    private static final class RoomDef {
+        String name;
+        boolean shop;
+        String riskTransport;
+        String riskDescription;
+        double riskSlow;
+        double riskFast;
+        RiskEvent risk;
+        String allyName;
+        String allyDialogue;
+        String enemyName;
+        int enemyHealth;
+        int enemyStrength;
+        int enemyGold;
+        String enemyDialogue;
+        ItemDef reward;
+        String music;
+        final ArrayList<String> exits = new ArrayList<>();
+
+        void finish(int line) throws IOException {
+            if (riskTransport != null) risk = new RiskEvent(riskTransport, riskDescription, riskSlow, riskFast);
+
+            int kinds = (shop ? 1 : 0) + (risk != null ? 1 : 0) + (enemyName != null ? 1 : 0);
+            if (kinds > 1) throw new IOException("linha " + line + ": a sala '" + name + "' tem mais do que um tipo");
+            if ((enemyName == null) != (allyName == null)) {
+                throw new IOException("linha " + line + ": a sala de combate '" + name + "' precisa de aliado e inimigo");
+            }
+            if (reward != null && enemyName == null) {
+                throw new IOException("linha " + line + ": a sala '" + name + "' tem recompensa mas não tem combate");
+            }
+        }
+    }
+
+    private final List<RoomDef> rooms;
+    private final List<ItemDef> stock;
+    private final List<ItemDef> starter;
+    private final Vendor vendor;
+
+    // identificadores dos itens para as partidas guardadas: stock, equipamento inicial e recompensas, por esta ordem
+    private final Item[] items;
+    private final IdentityHashMap<Item, Integer> itemIds = new IdentityHashMap<>();
+    private final long fingerprint;
+
+    private MazeContent(List<RoomDef> rooms, List<ItemDef> stock, List<ItemDef> starter) {
+        this.rooms = Collections.unmodifiableList(rooms);
+        this.stock = Collections.unmodifiableList(stock);
+        this.starter = Collections.unmodifiableList(starter);
+
+        ArrayList<Item> all = new ArrayList<>();
+        for (ItemDef def : stock) all.add(def.item);
+        this.vendor = new Vendor(all);
+        for (ItemDef def : starter) all.add(def.item);
+        for (RoomDef def : rooms) {
+            if (def.reward != null) all.add(def.reward.item);
+        }
+        this.items = all.toArray(new Item[0]);
+        for (int id = 0; id < items.length; id++) itemIds.put(items[id], id);
+        this.fingerprint = computeFingerprint();
+    }
+
+    /**
+     * Resume as definições num número: muda quase sempre que o conteúdo muda,
+     * para que uma partida guardada não seja carregada com outras salas ou outros itens.
+     */
+    private long computeFingerprint() {
+        long h = 1125899906842597L;
+        for (Item item : items) h = 31 * h + item.getName().hashCode() * 7L + item.getPrice();
+        for (RoomDef def : rooms) {
+            h = 31 * h + def.name.hashCode();
+            h = 31 * h + ((def.enemyName == null) ? 0 : def.enemyName.hashCode() + def.enemyHealth);
+            for (String exit : def.exits) h = 31 * h + exit.hashCode();
+        }
+        return h;
+    }
+
+    /**
+     * Devolve o conteúdo do jogo, lido de {@link #DEFAULT_FILE} na primeira chamada e reutilizado depois disso.
+     *
+     * @return conteúdo do jogo
+     * @throws UncheckedIOException se o ficheiro de conteúdo não existir ou for inválido
+     */
+    public static synchronized MazeContent standard() {
+        if (standard == null) {
+            try {
+                standard = load(Paths.get(DEFAULT_FILE));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao ler o conteúdo do labirinto (" + DEFAULT_FILE + ")", e);
+            }
+        }
+        return standard;
+    }
+
+    /**
+     * Lê um ficheiro de conteúdo. Se a versão compilada ao lado do ficheiro corresponder ao texto atual
+     * (mesmo tamanho e data de modificação), é essa que é lida; caso contrário é lido o texto.
+     *
+     * @param file ficheiro de texto com o conteúdo
+     * @return conteúdo lido
+     * @throws IOException se o ficheiro não puder ser lido ou tiver um erro
+     */
+    public static MazeContent load(Path file) throws IOException {
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        Path compiled = compiledFile(file);
+
+        if (Files.exists(compiled)) {
+            try {
+                MazeContent content = readCompiled(compiled, size, modified);
+                if (content != null) return content;
+            } catch (IOException e) {
+                // versão compilada corrompida ou antiga: o texto é a fonte de verdade
+            }
+        }
+
+        return parse(file);
+    }
+
+    /**
+     * Lê o ficheiro de texto e grava a versão compilada ao lado dele, de forma atómica.
+     *
+     * @param file ficheiro de texto com o conteúdo
+     * @return ficheiro compilado
+     * @throws IOException se o texto tiver um erro ou a versão compilada não puder ser gravada
+     */
+    public static Path compile(Path file) throws IOException {
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        Path compiled = compiledFile(file);
+        parse(file).writeCompiled(compiled, size, modified);
+        return compiled;
+    }
+
+    private static Path compiledFile(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return file.resolveSibling(((dot > 0) ? name.substring(0, dot) : name) + ".bin");
+    }
+
+    /**
+     * Lê o ficheiro de texto linha a linha.
+     *
+     * @param file ficheiro de texto com o conteúdo
+     * @return conteúdo lido
+     * @throws IOException se o ficheiro não puder ser lido ou tiver um erro (a mensagem indica a linha)
+     */
+    public static MazeContent parse(Path file) throws IOException {
+        ArrayList<RoomDef> rooms = new ArrayList<>();
+        ArrayList<ItemDef> stock = new ArrayList<>();
+        ArrayList<ItemDef> starter = new ArrayList<>();
+
+        ArrayList<ItemDef> items = null;
+        RoomDef room = null;
+        int number = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                String[] f = line.split("\\|");
+                for (int i = 0; i < f.length; i++) f[i] = f[i].strip();
+                String key = f[0];
+
+                switch (key) {
+                    case "mercador":
+                    case "inicial":
+                    case "sala":
+                        if (room != null) room.finish(number);
+                        room = null;
+                        items = null;
+                        if (key.equals("mercador")) items = stock;
+                        else if (key.equals("inicial")) items = starter;
+                        else {
+                            fields(f, 2, 2, number);
+                            room = new RoomDef();
+                            room.name = f[1];
+                            rooms.add(room);
+                        }
+                        break;
+                    case "poção":
+                    case "consumível":
+                    case "arma":
+                        if (items == null) throw error(number, "item fora de 'mercador' ou 'inicial'");
+                        items.add(item(f, 0, number));
+                        break;
+                    default:
+                        if (room == null) throw error(number, "'" + key + "' fora de uma sala");
+                        roomLine(room, f, number);
+                        break;
+                }
+            }
+        }
+        if (room != null) room.finish(number);
+
+        if (rooms.isEmpty()) throw new IOException("o conteúdo não tem salas");
+        return new MazeContent(rooms, stock, starter);
+    }
+
+    private static void roomLine(RoomDef room, String[] f, int line) throws IOException {
+        switch (f[0]) {
+            case "loja":
+                fields(f, 1, 1, line);
+                room.shop = true;
+                break;
+            case "risco":
+                fields(f, 5, 5, line);
+                room.riskTransport = f[1];
+                room.riskSlow = chance(f[2], line);
+                room.riskFast = chance(f[3], line);
+                room.riskDescription = f[4];
+                break;
+            case "aliado":
+                fields(f, 3, 3, line);
+                room.allyName = f[1];
+                room.allyDialogue = f[2];
+                break;
+            case "inimigo":
+                fields(f, 6, 6, line);
+                room.enemyName = f[1];
+                room.enemyHealth = number(f[2], line);
+                room.enemyStrength = number(f[3], line);
+                room.enemyGold = number(f[4], line);
+                room.enemyDialogue = f[5];
+                break;
+            case "recompensa":
+                if (f.length < 2 || !f[1].equals("poção")) throw error(line, "a recompensa tem de ser uma poção");
+                room.reward = item(f, 1, line);
+                break;
+            case "saída":
+                fields(f, 2, 2, line);
+                room.exits.add(f[1]);
+                break;
+            case "música":
+                fields(f, 2, 2, line);
+                room.music = f[1];
+                break;
+            default:
+                throw error(line, "palavra-chave desconhecida '" + f[0] + "'");
+        }
+    }
+
+    /**
+     * Lê um item a partir da posição {@code at} (onde está o tipo do item).
+     */
+    private static ItemDef item(String[] f, int at, int line) throws IOException {
+        int kind;
+        int stats;
+        switch (f[at]) {
+            case "poção": kind = POTION; stats = 2; break;
+            case "consumível": kind = CONSUMABLE; stats = 1; break;
+            default: kind = WEAPON; stats = 2; break;
+        }
+        int min = at + 3 + stats;
+        fields(f, min, min + 1, line);
+
+        String name = f[at + 1];
+        int price = number(f[at + 2], line);
+        int a = number(f[at + 3], line);
+        int b = (stats == 2) ? number(f[at + 4], line) : 0;
+        String[] heroes = new String[0];
+        if (f.length > min && !f[min].isEmpty()) {
+            heroes = f[min].split(",");
+            for (int i = 0; i < heroes.length; i++) heroes[i] = heroes[i].strip();
+        }
+        return new ItemDef(kind, name, price, a, b, heroes);
+    }
+
+    private static void fields(String[] f, int min, int max, int line) throws IOException {
+        if (f.length < min || f.length > max) {
+            throw error(line, "'" + f[0] + "' espera " + ((min == max) ? min - 1 : (min - 1) + " a " + (max - 1))
+                    + " campos e tem " + (f.length - 1));
+        }
+    }
+
+    private static int number(String s, int line) throws IOException {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw error(line, "número inválido '" + s + "'");
+        }
+    }
+
+    private static double chance(String s, int line) throws IOException {
+        try {
+            double p = Double.parseDouble(s);
+            if (p < 0 || p > 1) throw error(line, "probabilidade fora de [0, 1]: " + s);
+            return p;
+        } catch (NumberFormatException e) {
+            throw error(line, "probabilidade inválida '" + s + "'");
+        }
+    }
+
+    private static IOException error(int line, String message) {
+        return new IOException("linha " + line + ": " + message);
+    }
+
+    /**
+     * Lê a versão compilada com uma única leitura do ficheiro.
+     *
+     * @return conteúdo, ou null se a versão compilada não corresponder ao texto indicado
+     */
+    private static MazeContent readCompiled(Path compiled, long size, long modified) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(compiled)));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+        if (in.readLong() != size || in.readLong() != modified) return null;
+
+        ArrayList<ItemDef> stock = readItems(in);
+        ArrayList<ItemDef> starter = readItems(in);
+        int count = in.readInt();
+        if (count <= 0) throw new IOException("conteúdo compilado inválido");
+        ArrayList<RoomDef> rooms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RoomDef room = new RoomDef();
+            room.name = in.readUTF();
+            room.shop = in.readBoolean();
+            if (in.readBoolean()) {
+                room.riskTransport = in.readUTF();
+                room.riskDescription = in.readUTF();
+                room.riskSlow = in.readDouble();
+                room.riskFast = in.readDouble();
+            }
+            if (in.readBoolean()) {
+                room.allyName = in.readUTF();
+                room.allyDialogue = in.readUTF();
+                room.enemyName = in.readUTF();
+                room.enemyHealth = in.readInt();
+                room.enemyStrength = in.readInt();
+                room.enemyGold = in.readInt();
+                room.enemyDialogue = in.readUTF();
+                if (in.readBoolean()) room.reward = readItem(in);
+            }
+            if (in.readBoolean()) room.music = in.readUTF();
+            int exits = in.readInt();
+            for (int k = 0; k < exits; k++) room.exits.add(in.readUTF());
+            room.finish(0);
+            rooms.add(room);
+        }
+        return new MazeContent(rooms, stock, starter);
+    }
+
+    private static ArrayList<ItemDef> readItems(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) throw new IOException("conteúdo compilado inválido");
+        ArrayList<ItemDef> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) items.add(readItem(in));
+        return items;
+    }
+
+    private static ItemDef readItem(DataInputStream in) throws IOException {
+        int kind = in.readByte();
+        String name = in.readUTF();
+        int price = in.readInt();
+        int a = in.readInt();
+        int b = in.readInt();
+        String[] heroes = new String[in.readByte()];
+        for (int i = 0; i < heroes.length; i++) heroes[i] = in.readUTF();
+        return new ItemDef(kind, name, price, a, b, heroes);
+    }
+
+    /**
+     * Grava a versão compilada num ficheiro temporário com nome único que depois substitui o anterior,
+     * por isso duas gravações ao mesmo tempo nunca escrevem no mesmo ficheiro.
+     */
+    private void writeCompiled(Path compiled, long size, long modified) throws IOException {
+        Path tmp = Files.createTempFile(compiled.toAbsolutePath().getParent(), compiled.getFileName() + ".", ".tmp");
+        try {
+            writeCompiledTo(tmp, size, modified);
+            Files.move(tmp, compiled, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void writeCompiledTo(Path tmp, long size, long modified) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(size);
+            out.writeLong(modified);
+            writeItems(out, stock);
+            writeItems(out, starter);
+            out.writeInt(rooms.size());
+            for (RoomDef room : rooms) {
+                out.writeUTF(room.name);
+                out.writeBoolean(room.shop);
+                out.writeBoolean(room.risk != null);
+                if (room.risk != null) {
+                    out.writeUTF(room.riskTransport);
+                    out.writeUTF(room.riskDescription);
+                    out.writeDouble(room.riskSlow);
+                    out.writeDouble(room.riskFast);
+                }
+                out.writeBoolean(room.enemyName != null);
+                if (room.enemyName != null) {
+                    out.writeUTF(room.allyName);
+                    out.writeUTF(room.allyDialogue);
+                    out.writeUTF(room.enemyName);
+                    out.writeInt(room.enemyHealth);
+                    out.writeInt(room.enemyStrength);
+                    out.writeInt(room.enemyGold);
+                    out.writeUTF(room.enemyDialogue);
+                    out.writeBoolean(room.reward != null);
+                    if (room.reward != null) writeItem(out, room.reward);
+                }
+                out.writeBoolean(room.music != null);
+                if (room.music != null) out.writeUTF(room.music);
+                out.writeInt(room.exits.size());
+                for (String exit : room.exits) out.writeUTF(exit);
+            }
+        }
+    }
+
+    private static void writeItems(DataOutputStream out, List<ItemDef> items) throws IOException {
+        out.writeInt(items.size());
+        for (ItemDef def : items) writeItem(out, def);
+    }
+
+    private static void writeItem(DataOutputStream out, ItemDef def) throws IOException {
+        out.writeByte(def.kind);
+        out.writeUTF(def.name);
+        out.writeInt(def.price);
+        out.writeInt(def.a);
+        out.writeInt(def.b);
+        out.writeByte(def.heroes.length);
+        for (String hero : def.heroes) out.writeUTF(hero);
+    }
+
+    /**
+     * Cria um labirinto novo a partir das definições: salas e inimigos novos, com todas as salas por limpar.
+     * Os itens, os eventos de risco e o mercador são partilhados com os labirintos anteriores.
+     *
+     * @return labirinto novo
+     */
+    public Maze newMaze() {
+        ArrayList<Room> list = new ArrayList<>(rooms.size());
+        for (RoomDef def : rooms) {
+            Room room = new Room(def.name);
+            if (def.shop) room.setShopRoom(true);
+            else if (def.risk != null) room.setRiskRoom(def.risk);
+            else if (def.enemyName != null) {
+                room.setCombatRoom(def.allyName, def.allyDialogue, def.enemyDialogue,
+                        new NPC(def.enemyName, def.enemyHealth, def.enemyStrength, def.enemyGold),
+                        (def.reward == null) ? null : (Potion) def.reward.item);
+            }
+            for (String exit : def.exits) room.addConnection(exit);
+            list.add(room);
+        }
+        return new Maze(list, vendor, this);
+    }
+
+    /**
+     * Devolve o mercador, partilhado por todas as partidas (o stock não muda durante o jogo).
+     *
+     * @return mercador
+     */
+    public Vendor getVendor() { return vendor; }
+
+    /**
+     * Dá ao herói o equipamento inicial: as armas são equipadas e os restantes itens vão para o inventário.
+     *
+     * @param hero herói acabado de criar
+     */
+    public void giveStarterKit(Hero hero) {
+        for (ItemDef def : starter) {
+            if (def.item instanceof Weapon w) hero.equipWeapon(w);
+            else hero.addConsumable((Consumable) def.item);
+        }
+    }
+
+    /**
+     * Devolve o identificador de um item do conteúdo (do mercador, do equipamento inicial ou de uma recompensa).
+     *
+     * @param item item
+     * @return identificador, ou -1 se o item não pertencer a este conteúdo
+     */
+    public int itemId(Item item) {
+        Integer id = itemIds.get(item);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * Devolve o item com o identificador indicado.
+     *
+     * @param id identificador devolvido por {@link #itemId}
+     * @return item, ou null se o identificador não existir
+     */
+    public Item itemById(int id) {
+        return (id >= 0 && id < items.length) ? items[id] : null;
+    }
+
+    /**
+     * Devolve um resumo das definições, igual enquanto o conteúdo não mudar.
+     *
+     * @return impressão digital do conteúdo
+     */
+    public long getFingerprint() { return fingerprint; }
+
+    /**
+     * Devolve a faixa de música de fundo de cada sala que tem uma, pela ordem do ficheiro.
+     *
+     * @return caminho da faixa de cada sala, indexado pelo nome da sala
+     */
+    public Map<String, String> getRoomMusic() {
+        LinkedHashMap<String, String> music = new LinkedHashMap<>();
+        for (RoomDef def : rooms) {
+            if (def.music != null) music.put(def.name, def.music);
+        }
+        return music;
+    }
+
+    /**
+     * Devolve o número de salas definidas.
+     *
+     * @return número de salas
+     */
+    public int getRoomCount() { return rooms.size(); }
+}
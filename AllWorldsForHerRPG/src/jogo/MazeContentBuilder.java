@@ -0,0 +1,29 @@
+package jogo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Ferramenta de build que compila o ficheiro de conteúdo do labirinto para a versão binária lida no arranque.
+ * O jogo só usa a versão compilada enquanto corresponder ao texto; sem ela, lê o texto.
+ *
+ * <pre>
+ * java -cp out jogo.MazeContentBuilder src/resources/content/maze.txt
+ * </pre>
+ */
+public final class MazeContentBuilder {
+
+    private MazeContentBuilder() {}
+
+    /**
+     * Ponto de entrada da ferramenta.
+     *
+     * @param args ficheiro de conteúdo (opcional)
+     * @throws Exception se o conteúdo tiver um erro ou a versão compilada não puder ser escrita
+     */
+    public static void main(String[] args) throws Exception {
+        Path source = Path.of(args.length > 0 ? args[0] : MazeContent.DEFAULT_FILE);
+        Path compiled = MazeContent.compile(source);
+        System.out.println("Conteúdo compilado: " + compiled + " (" + Files.size(compiled) + " bytes)");
+    }
+}
@@ -0,0 +1,57 @@
+package jogo;
+
+import entidades.Vendor;
+
+/**
+ * Navegação num labirinto, independentemente de como as salas são guardadas:
+ * todas em memória ({@link Maze}) ou geradas à medida que o jogador avança ({@link ProceduralMaze}).
+ * O jogo só conhece a sala atual e pede a sala seguinte pela posição da saída.
+ */
+public interface MazeMap {
+
+    /**
+     * Devolve o mercador do labirinto.
+     *
+     * @return mercador
+     */
+    Vendor getVendor();
+
+    /**
+     * Devolve a sala onde começa cada partida (e onde o herói volta ao tentar de novo).
+     *
+     * @return sala de entrada
+     */
+    Room getEntrance();
+
+    /**
+     * Indica se a sala é a sala final; vencê-la termina o jogo.
+     *
+     * @param room sala atual
+     * @return true se for a sala do boss
+     */
+    boolean isBoss(Room room);
+
+    /**
+     * Devolve o número de saídas de uma sala.
+     *
+     * @param room sala atual
+     * @return número de saídas
+     */
+    int getExitCount(Room room);
+
+    /**
+     * Segue uma saída da sala atual.
+     *
+     * @param from sala atual
+     * @param k posição da saída, de 0 a {@code getExitCount(from) - 1}
+     * @return sala de destino, ou null se a ligação apontar para uma sala que não existe
+     */
+    Room enter(Room from, int k);
+
+    /**
+     * Devolve o número de salas atualmente em memória.
+     *
+     * @return salas em memória
+     */
+    int getLiveRooms();
+}
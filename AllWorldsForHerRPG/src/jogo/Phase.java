@@ -0,0 +1,48 @@
+package jogo;
+
+/**
+ * Estado em que o motor de jogo ({@link GameMachine}) fica à espera depois de um passo,
+ * ou seja, a pergunta que o jogador tem de responder a seguir.
+ */
+public enum Phase {
+    /** À espera de um cálculo em segundo plano ({@link Step#getPending()}); não precisa de resposta. */
+    WAITING,
+    /** Continuar a partida guardada (1) ou começar uma nova (2). */
+    CONTINUE_SAVED,
+    /** Escolha da personagem. */
+    HERO_CLASS,
+    /** Escolha da dificuldade. */
+    DIFFICULTY,
+    /** Nome da personagem (linha de texto). */
+    NAME,
+    /** Modo de distribuição dos pontos: manual, incremental ou automático. */
+    ALLOCATION_MODE,
+    /** Distribuição manual: pontos de vida. */
+    MANUAL_HEALTH,
+    /** Distribuição manual: pontos de força. */
+    MANUAL_STRENGTH,
+    /** Distribuição incremental: mais vida ou mais força. */
+    INCREMENTAL,
+    /** Distribuição automática: estilo. */
+    AUTO_STYLE,
+    /** Evento de risco: ir devagar ou depressa. */
+    RISK_CHOICE,
+    /** Loja do mercador: item a comprar, ou 0 para sair. */
+    SHOP,
+    /** Turno de combate: ação do herói. */
+    COMBAT_TURN,
+    /** Turno de combate: consumível a usar, ou 0 para cancelar. */
+    COMBAT_ITEM,
+    /** Recompensa do combate: usar agora ou guardar. */
+    REWARD_CHOICE,
+    /** Poção a usar antes de sair da sala, ou 0 para nenhuma. */
+    POTION,
+    /** Confirmação de uma poção que desperdiça cura. */
+    POTION_CONFIRM,
+    /** Saída da sala. */
+    EXIT_CHOICE,
+    /** Fim de jogo: recomeçar com a mesma personagem, com uma nova, ou sair. */
+    GAME_OVER,
+    /** A sessão terminou. */
+    FINISHED
+}
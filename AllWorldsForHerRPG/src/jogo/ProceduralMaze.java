@@ -0,0 +1,268 @@
+package jogo;
+
+import entidades.NPC;
+import entidades.Vendor;
+import itens.Potion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Labirinto gerado a partir de uma semente, organizado por camadas: a entrada, {@code layers - 2} camadas
+ * de {@code width} salas e a sala do boss. Cada sala liga apenas a salas da camada seguinte.
+ * <p>
+ * O conteúdo de cada sala (tipo, inimigo, recompensa e saídas) é uma função pura da semente e do identificador,
+ * por isso nenhuma sala é construída antes de o herói lá entrar. Como as ligações só avançam,
+ * ao entrar numa sala todas as salas das camadas anteriores (e as outras da mesma camada) deixam de ser alcançáveis
+ * e são libertadas; só a entrada fica sempre em memória, para tentar de novo.
+ * Das salas libertadas guarda-se apenas se já foram limpas, por isso a memória cresce com as salas visitadas
+ * e não com o tamanho do labirinto.
+ * <p>
+ * Os inimigos ficam mais fortes com a profundidade; as salas usam os mesmos tipos do labirinto original
+ * (loja, travessias de risco e combates com aliado, inimigo e poção de recompensa).
+ */
+public class ProceduralMaze implements MazeMap {
+
+    /** Largura por omissão de cada camada. */
+    public static final int DEFAULT_WIDTH = 4;
+
+    private static final String[][] COMBATS = {
+            { "Bosque de Beacon Hills", "Scott McCall", "Não deixes o medo controlar-te. Protege o teu ponto fraco e avança.",
+                    "Nogitsune", "A lua escolheu-te para cair hoje." },
+            { "Galeria das Sombras", "Bonnie Bennett", "Mantém a mente fria. O inimigo vai tentar atingir o teu ponto fraco.",
+                    "Klaus Mikaelson", "A tua esperança é a primeira coisa que eu mato." },
+            { "Rooftop de Star City", "Oliver Queen", "Escolhe o alvo e termina. Não dês espaço ao inimigo.",
+                    "Slade Wilson", "Eu vou devolver-te tudo… em dor." },
+            { "Cidade Fragmentada", "Miles Morales", "Coragem é agir apesar do medo. Protege-te e continua.",
+                    "Kingpin", "Eu vou esmagar o que te resta." },
+    };
+
+    private static final String[][] RISKS = {
+            { "Travessia do Cavalo", "Cavalo", "Uma ravina bloqueia o caminho. O cavalo treme sob os teus pés." },
+            { "Travessia da Mota", "Mota", "A ponte está a cair. A mota vibra. Tens segundos para decidir." },
+            { "Travessia do Hipopótamo", "Hipopótamo", "Um rio dimensional ruge. Um hipopótamo surge como única passagem possível." },
+    };
+
+    private static final int KIND_SHOP = 0;
+    private static final int KIND_RISK = 1;
+    private static final int KIND_COMBAT = 2;
+
+    private final long seed;
+    private final int layers;
+    private final int width;
+    private final Vendor vendor;
+
+    private final Room entrance;
+    private final HashMap<Long, Room> live = new HashMap<>();
+    private final IdentityHashMap<Room, Long> ids = new IdentityHashMap<>();
+    private final HashSet<Long> cleared = new HashSet<>();
+    private long materialized;
+
+    /**
+     * Cria um labirinto com o número de camadas e a largura indicados.
+     * Nenhuma sala além da entrada é construída.
+     *
+     * @param seed semente do labirinto
+     * @param layers número de camadas, incluindo a entrada e o boss (mínimo 2)
+     * @param width salas por camada intermédia (mínimo 1)
+     */
+    public ProceduralMaze(long seed, int layers, int width) {
+        if (layers < 2) throw new IllegalArgumentException("o labirinto precisa de pelo menos 2 camadas");
+        if (width < 1) throw new IllegalArgumentException("cada camada precisa de pelo menos 1 sala");
+        this.seed = seed;
+        this.layers = layers;
+        this.width = width;
+        this.vendor = Maze.standardVendor();
+        this.entrance = materialize(0);
+    }
+
+    /**
+     * Cria um labirinto com aproximadamente o número de salas indicado e a largura por omissão.
+     *
+     * @param seed semente do labirinto
+     * @param rooms número de salas pretendido (mínimo 2)
+     * @return labirinto gerado
+     */
+    public static ProceduralMaze ofSize(long seed, long rooms) {
+        long middle = Math.max(0, rooms - 2);
+        long layers = 2 + (middle + DEFAULT_WIDTH - 1) / DEFAULT_WIDTH;
+        if (layers > Integer.MAX_VALUE) throw new IllegalArgumentException("labirinto demasiado grande: " + rooms);
+        return new ProceduralMaze(seed, (int) layers, DEFAULT_WIDTH);
+    }
+
+    /**
+     * Devolve o número total de salas do labirinto (construídas ou não).
+     *
+     * @return número de salas
+     */
+    public long getRoomCount() { return 2 + (long) (layers - 2) * width; }
+
+    /**
+     * Devolve quantas salas foram construídas desde a criação do labirinto, incluindo as já libertadas.
+     *
+     * @return salas construídas
+     */
+    public long getMaterialized() { return materialized; }
+
+    @Override
+    public Vendor getVendor() { return vendor; }
+
+    @Override
+    public Room getEntrance() { return entrance; }
+
+    @Override
+    public boolean isBoss(Room room) {
+        Long id = ids.get(room);
+        return id != null && id == bossId();
+    }
+
+    @Override
+    public int getExitCount(Room room) {
+        Long id = ids.get(room);
+        return (id == null) ? 0 : exitCount(id);
+    }
+
+    @Override
+    public Room enter(Room from, int k) {
+        Long id = ids.get(from);
+        if (id == null || k < 0 || k >= exitCount(id)) return null;
+
+        long to = exit(id, k);
+        Room room = live.get(to);
+        if (room == null) room = materialize(to);
+        evictBefore(to);
+        return room;
+    }
+
+    @Override
+    public int getLiveRooms() { return live.size(); }
+
+    // identificadores: 0 é a entrada, depois as camadas intermédias por ordem, e por fim o boss
+
+    private long bossId() {
+        return 1 + (long) (layers - 2) * width;
+    }
+
+    private int layerOf(long id) {
+        if (id == 0) return 0;
+        return (int) (1 + (id - 1) / width);
+    }
+
+    private int exitCount(long id) {
+        if (id == bossId()) return 0;
+        // a última camada intermédia (ou a entrada, num labirinto só com 2 camadas) leva ao boss
+        if (layerOf(id) == layers - 2) return 1;
+        return Math.min(2, width);
+    }
+
+    private long exit(long id, int k) {
+        int layer = layerOf(id);
+        if (layer == layers - 2) return bossId();
+
+        long h = mix(id);
+        int first = (int) Long.remainderUnsigned(h, width);
+        int slot = (k == 0) ? first : (first + 1 + (int) Long.remainderUnsigned(h >>> 21, width - 1)) % width;
+        return 1 + (long) layer * width + slot;
+    }
+
+    private String nameOf(long id) {
+        if (id == 0) return Maze.ENTRANCE;
+        if (id == bossId()) return Maze.BOSS_ROOM;
+
+        long h = mix(id ^ 0x9E37L);
+        String place;
+        switch (kindOf(h)) {
+            case KIND_SHOP: place = "Loja do Mercador"; break;
+            case KIND_RISK: place = RISKS[(int) Long.remainderUnsigned(h >>> 8, RISKS.length)][0]; break;
+            default: place = COMBATS[(int) Long.remainderUnsigned(h >>> 8, COMBATS.length)][0]; break;
+        }
+        long slot = (id - 1) % width;
+        return place + " " + layerOf(id) + "." + (slot + 1);
+    }
+
+    private static int kindOf(long h) {
+        int roll = (int) Long.remainderUnsigned(h, 100);
+        if (roll < 8) return KIND_SHOP;
+        if (roll < 38) return KIND_RISK;
+        return KIND_COMBAT;
+    }
+
+    /**
+     * Constrói a sala com o identificador indicado, sempre igual para a mesma semente.
+     */
+    private Room materialize(long id) {
+        Room room = new Room(nameOf(id));
+        int depth = layerOf(id);
+
+        if (id == bossId()) {
+            room.setCombatRoom(
+                    "Voz do Labirinto",
+                    "Ele engana com a cara mais calma do mundo. Não acredites em nada.",
+                    "Eu engano, eu viro, eu parto.",
+                    new NPC("Loki", 180 + 10 * depth, 22 + depth, 0),
+                    null
+            );
+        } else if (id != 0) {
+            long h = mix(id ^ 0x9E37L);
+            switch (kindOf(h)) {
+                case KIND_SHOP:
+                    room.setShopRoom(true);
+                    break;
+                case KIND_RISK: {
+                    String[] r = RISKS[(int) Long.remainderUnsigned(h >>> 8, RISKS.length)];
+                    room.setRiskRoom(new RiskEvent(r[1], r[2], 0.10, 0.75));
+                    break;
+                }
+                default: {
+                    String[] c = COMBATS[(int) Long.remainderUnsigned(h >>> 8, COMBATS.length)];
+                    ArrayList<String> allHeroes = new ArrayList<String>();
+                    Potion reward = null;
+                    int rewardRoll = (int) Long.remainderUnsigned(h >>> 16, 4);
+                    if (rewardRoll == 1) reward = new Potion("Poção de Vida (" + c[3] + ")", 0, 30 + 2 * depth, 0, allHeroes);
+                    else if (rewardRoll == 2) reward = new Potion("Poção de Força (" + c[3] + ")", 0, 0, 2, allHeroes);
+                    room.setCombatRoom(c[1], c[2], c[4],
+                            new NPC(c[3], 80 + 8 * depth, 10 + depth, 20 + 3 * depth),
+                            reward);
+                    break;
+                }
+            }
+        }
+
+        for (int k = 0; k < exitCount(id); k++) room.addConnection(nameOf(exit(id, k)));
+        if (cleared.contains(id)) room.markCleared();
+
+        live.put(id, room);
+        ids.put(room, id);
+        materialized++;
+        return room;
+    }
+
+    /**
+     * Liberta as salas que deixaram de ser alcançáveis depois de entrar na sala {@code current}:
+     * as das camadas anteriores e as outras da mesma camada. A entrada nunca é libertada.
+     */
+    private void evictBefore(long current) {
+        int layer = layerOf(current);
+        Iterator<Map.Entry<Long, Room>> it = live.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Room> e = it.next();
+            long id = e.getKey();
+            if (id == 0 || id == current || layerOf(id) > layer) continue;
+
+            if (e.getValue().isCleared()) cleared.add(id);
+            ids.remove(e.getValue());
+            it.remove();
+        }
+    }
+
+    private long mix(long id) {
+        long z = seed + (id + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,64 @@
+package jogo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Grava num ficheiro todas as linhas entregues por outra fonte de entrada.
+ * O ficheiro gravado pode ser reproduzido mais tarde com {@link ScriptInput#load(Path, boolean)}.
+ */
+public class RecordingInput extends Input {
+
+    private final Input source;
+    private final BufferedWriter out;
+
+    /**
+     * Cria uma entrada que grava as linhas de outra.
+     *
+     * @param source fonte de entrada original
+     * @param file ficheiro onde gravar a sessão
+     * @throws IOException se o ficheiro não puder ser criado
+     */
+    public RecordingInput(Input source, Path file) throws IOException {
+        this.source = source;
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected String take() {
+        String line = source.take();
+        source.onLine(line);
+        record(line);
+        return line;
+    }
+
+    @Override
+    public String poll() {
+        String line = source.poll();
+        if (line != null) record(line);
+        return line;
+    }
+
+    @Override
+    public boolean hasPending() {
+        return source.hasPending();
+    }
+
+    @Override
+    public boolean skipRequested() {
+        return source.skipRequested();
+    }
+
+    private void record(String line) {
+        try {
+            out.write(line);
+            out.newLine();
+            out.flush();
+        } catch (IOException e) {
+            ConsoleFX.println("Erro ao gravar a sessão: " + e.getMessage());
+        }
+    }
+}
@@ -1,9 +1,6 @@
 package jogo;
 
-import audio.Audio;
-
-import java.util.Random;
-import java.util.Scanner;
+import java.util.random.RandomGenerator;
 
 /**
  * Representa um evento de risco durante a progressão no labirinto.
@@ -32,70 +29,84 @@ public class RiskEvent {
     }
 
     /**
-     * Executa o evento de risco, apresentando opções ao jogador
-     * e determinando o resultado com base em probabilidades.
+     * Devolve a probabilidade de morte ao ir devagar.
      *
-     * @param scanner scanner para leitura das escolhas do utilizador
-     * @param random gerador de números aleatórios
-     * @return true se o jogador sobreviver, false se morrer
+     * @return probabilidade entre 0 e 1
+     */
+    public double getSlowDeathChance() { return slowDeathChance; }
+
+    /**
+     * Devolve a probabilidade de morte ao ir depressa.
+     *
+     * @return probabilidade entre 0 e 1
      */
-    public boolean execute(Scanner scanner, Random random) {
+    public double getFastDeathChance() { return fastDeathChance; }
+
+    /**
+     * Apresenta o evento e a decisão (1 devagar, 2 depressa), com a música de fundo suspensa até ao resultado.
+     *
+     * @param fx efeitos do passo atual
+     */
+    public void present(Effects fx) {
+        fx.pauseMusic();
         ConsoleFX.title("Evento de Risco 🧨");
-        System.out.println("🚗 Transporte: " + transportName);
+        ConsoleFX.println("🚗 Transporte: " + transportName);
 
-        System.out.println(description);
+        ConsoleFX.println(description);
         ConsoleFX.pause(500);
 
         ConsoleFX.section("Decisão");
         ConsoleFX.option(1, "Ir mais devagar 🐢");
         ConsoleFX.option(2, "Ir mais depressa ⚡");
         ConsoleFX.prompt("Opção:");
-        int choice = readInt(scanner);
+    }
+
+    /**
+     * Resolve a travessia com a decisão do jogador, com base nas probabilidades, e retoma a música.
+     *
+     * @param choice decisão do jogador
+     * @param random gerador de números aleatórios
+     * @param fx efeitos do passo atual
+     * @return true se o jogador sobreviver, false se morrer
+     */
+    public boolean resolve(int choice, RandomGenerator random, Effects fx) {
+        try {
+            return cross(choice, random, fx);
+        } finally {
+            fx.resumeMusic();
+        }
+    }
 
-        System.out.println("\nA travessia começa...");
-        Audio.playSfxAndWait("src/resources/audio/transition.wav", 4000);
+    private boolean cross(int choice, RandomGenerator random, Effects fx) {
+        ConsoleFX.println("\nA travessia começa...");
+        fx.play("src/resources/audio/transition.wav");
         double roll = random.nextDouble();
+        fx.await(4000);
 
         if (choice == 1) {
             if (roll < slowDeathChance) {
-                System.out.println("Caíste durante a travessia... foi fatal.");
-                Audio.playSfxAndWait("src/resources/audio/game_over.wav", 4000);
+                ConsoleFX.println("Caíste durante a travessia... foi fatal.");
+                fx.playAndWait("src/resources/audio/game_over.wav", 4000);
                 return false;
             }
-            System.out.println("Passaste com cuidado e sobreviveste.");
+            ConsoleFX.println("Passaste com cuidado e sobreviveste.");
             ConsoleFX.pause(500);
             return true;
         }
 
         if (choice == 2) {
             if (roll < fastDeathChance) {
-                System.out.println("Foste rápido demais... e isso custou-te a vida.");
-                Audio.playSfxAndWait("src/resources/audio/game_over.wav", 4000);
+                ConsoleFX.println("Foste rápido demais... e isso custou-te a vida.");
+                fx.playAndWait("src/resources/audio/game_over.wav", 4000);
                 return false;
             }
-            System.out.println("Contra todas as probabilidades, passaste vivo.");
+            ConsoleFX.println("Contra todas as probabilidades, passaste vivo.");
             ConsoleFX.pause(500);
             return true;
         }
 
-        System.out.println("Opção inválida. Hesitaste... mas passaste por milagre.");
+        ConsoleFX.println("Opção inválida. Hesitaste... mas passaste por milagre.");
         ConsoleFX.pause(400);
         return true;
     }
-
-    /**
-     * Lê um número inteiro da consola de forma segura.
-     *
-     * @param scanner scanner a utilizar para leitura
-     * @return inteiro introduzido pelo utilizador
-     */
-    private int readInt(Scanner scanner) {
-        while (!scanner.hasNextInt()) {
-            scanner.nextLine();
-            System.out.print("Opção → ");
-        }
-        int v = scanner.nextInt();
-        scanner.nextLine();
-        return v;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,171 @@
+package jogo;
+
+import simulacao.SplitMix;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Números aleatórios de uma partida, todos derivados de uma única semente.
+ * <p>
+ * Cada subsistema tem o seu fluxo independente: combate, eventos de risco, loja e criação do herói.
+ * Assim, uma compra a mais na loja não altera os ataques dos inimigos, e a mesma semente com as mesmas escolhas
+ * reproduz sempre a mesma partida. Os fluxos seguem o algoritmo SplitMix64: dão os mesmos valores de
+ * {@code nextLong()} que um {@link SplittableRandom} criado com a semente do fluxo, mas o estado pode ser lido
+ * e reposto (para ser guardado com a partida) e cada número pode ser registado num {@link EventJournal}.
+ * <p>
+ * Os fluxos não são seguros para várias threads: o jogo usa-os só na thread principal.
+ * Trabalho em paralelo (por exemplo, as partidas do simulador) usa {@link #forTask}: um fluxo por tarefa,
+ * derivado do número da tarefa e não da thread, por isso o resultado é o mesmo com qualquer número de threads.
+ */
+public final class RngService {
+
+    /** Fluxo dos combates (ataques do inimigo e combates automáticos). */
+    public static final int COMBAT = 0;
+    /** Fluxo dos eventos de risco. */
+    public static final int RISK = 1;
+    /** Fluxo das ofertas do mercador. */
+    public static final int SHOP = 2;
+    /** Fluxo da criação do herói (ponto fraco). */
+    public static final int HERO = 3;
+
+    static final int STREAMS = 4;
+    private static final String[] NAMES = { "combate", "risco", "loja", "herói" };
+
+    private final long seed;
+    private final Stream[] streams = new Stream[STREAMS];
+    private EventJournal journal;
+
+    /**
+     * Cria um serviço com uma semente diferente em cada execução.
+     */
+    public RngService() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Cria um serviço com a semente indicada.
+     *
+     * @param seed semente da partida
+     */
+    public RngService(long seed) {
+        this.seed = seed;
+        for (int id = 0; id < STREAMS; id++) streams[id] = new Stream(id, streamSeed(id));
+    }
+
+    // índices negativos: nunca coincidem com os das tarefas (forTask)
+    private long streamSeed(int id) {
+        return SplitMix.seedFor(seed, -1 - id);
+    }
+
+    /**
+     * Devolve a semente da partida.
+     *
+     * @return semente
+     */
+    public long getSeed() { return seed; }
+
+    /**
+     * Devolve o fluxo dos combates.
+     *
+     * @return gerador
+     */
+    public RandomGenerator combat() { return streams[COMBAT]; }
+
+    /**
+     * Devolve o fluxo dos eventos de risco.
+     *
+     * @return gerador
+     */
+    public RandomGenerator risk() { return streams[RISK]; }
+
+    /**
+     * Devolve o fluxo das ofertas do mercador.
+     *
+     * @return gerador
+     */
+    public RandomGenerator shop() { return streams[SHOP]; }
+
+    /**
+     * Devolve o fluxo da criação do herói.
+     *
+     * @return gerador
+     */
+    public RandomGenerator hero() { return streams[HERO]; }
+
+    /**
+     * Devolve a semente da tarefa indicada, para geradores que são repostos em vez de criados
+     * (ver {@link SplitMix#reseed}).
+     *
+     * @param index número da tarefa
+     * @return semente da tarefa
+     */
+    public long taskSeed(long index) {
+        return SplitMix.seedFor(seed, index);
+    }
+
+    /**
+     * Cria um fluxo independente para uma tarefa paralela.
+     * Depende só da semente e do número da tarefa, nunca da thread que a executa.
+     *
+     * @param index número da tarefa
+     * @return gerador da tarefa
+     */
+    public SplitMix forTask(long index) {
+        return new SplitMix(taskSeed(index));
+    }
+
+    /**
+     * Regista no diário indicado cada número gerado pelos fluxos do jogo.
+     *
+     * @param journal diário da sessão, ou null para deixar de registar
+     */
+    public void setJournal(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Devolve o estado atual de um fluxo.
+     *
+     * @param id fluxo ({@link #COMBAT}, {@link #RISK}, {@link #SHOP} ou {@link #HERO})
+     * @return estado
+     */
+    public long getState(int id) { return streams[id].state; }
+
+    /**
+     * Repõe o estado de um fluxo lido com {@link #getState}; a sequência continua exatamente desse ponto.
+     *
+     * @param id fluxo
+     * @param state estado a repor
+     */
+    public void setState(int id, long state) { streams[id].state = state; }
+
+    /**
+     * Devolve o nome de um fluxo, para mensagens.
+     *
+     * @param id fluxo
+     * @return nome
+     */
+    public static String streamName(int id) {
+        return (id >= 0 && id < STREAMS) ? NAMES[id] : "fluxo " + id;
+    }
+
+    /** Fluxo SplitMix64 de um subsistema. */
+    private final class Stream implements RandomGenerator {
+        private final int id;
+        private long state;
+
+        private Stream(int id, long state) {
+            this.id = id;
+            this.state = state;
+        }
+
+        @Override
+        public long nextLong() {
+            state += SplitMix.GOLDEN;
+            long value = SplitMix.mix(state);
+            if (journal != null) journal.append(EventJournal.RANDOM, id, value);
+            return value;
+        }
+    }
+}
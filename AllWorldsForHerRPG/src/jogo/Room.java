@@ -1,24 +1,21 @@
 package jogo;
 
-import audio.Audio;
-import entidades.Hero;
 import entidades.NPC;
 
 import itens.Potion;
 
 import java.util.ArrayList;
-import java.util.Random;
-import java.util.Scanner;
 
 /**
  * Representa uma sala do labirinto.
- * Cada sala tem um nome, ligações (grafo por nomes) e pode ser de diferentes tipos:
- * loja, risco ou combate.
+ * Cada sala tem um nome, ligações (escritas por nome e resolvidas para identificadores por {@link RoomGraph})
+ * e pode ser de diferentes tipos: loja, risco ou combate. O que acontece ao entrar é jogado por {@link GameMachine}.
  */
 public class Room {
 
     private final String roomName;
     private final ArrayList<String> connectedRoomNames;
+    private int id = RoomGraph.NONE;
 
     private boolean cleared;
 
@@ -55,7 +52,17 @@ public class Room {
     }
 
     /**
-     * Devolve a lista de nomes das salas ligadas a esta sala.
+     * Devolve o identificador da sala no grafo do labirinto.
+     *
+     * @return identificador, ou {@link RoomGraph#NONE} se a sala ainda não pertence a um grafo
+     */
+    public int getId() { return id; }
+
+    void setId(int id) { this.id = id; }
+
+    /**
+     * Devolve a lista de nomes das salas ligadas a esta sala, pela ordem das saídas do grafo.
+     * Serve para construir o grafo e para mostrar as saídas; a navegação usa {@link RoomGraph#getExit}.
      *
      * @return lista de nomes das salas conectadas
      */
@@ -63,6 +70,71 @@ public class Room {
         return connectedRoomNames;
     }
 
+    /**
+     * Indica se esta sala é a loja do mercador.
+     *
+     * @return true se for uma sala de loja
+     */
+    public boolean isShopRoom() { return shopRoom; }
+
+    /**
+     * Indica se esta sala tem um evento de risco.
+     *
+     * @return true se for uma sala de risco
+     */
+    public boolean isRiskRoom() { return riskRoom; }
+
+    /**
+     * Devolve o evento de risco da sala.
+     *
+     * @return evento de risco, ou null se a sala não for de risco
+     */
+    public RiskEvent getRiskEvent() { return riskEvent; }
+
+    /**
+     * Devolve o inimigo da sala.
+     *
+     * @return inimigo, ou null se a sala não tiver combate
+     */
+    public NPC getEnemy() { return enemy; }
+
+    /**
+     * Devolve o nome do aliado presente na sala.
+     *
+     * @return nome do aliado, ou null se a sala não tiver aliado
+     */
+    public String getAllyName() { return allyName; }
+
+    /**
+     * Devolve a fala do aliado.
+     *
+     * @return fala do aliado
+     */
+    public String getAllyDialogue() { return allyDialogue; }
+
+    /**
+     * Devolve a fala do inimigo antes do combate.
+     *
+     * @return fala do inimigo
+     */
+    public String getEnemyDialogue() { return enemyDialogue; }
+
+    /**
+     * Devolve a poção de recompensa do combate da sala.
+     *
+     * @return poção de recompensa, ou null se não houver
+     */
+    public Potion getRewardPotion() { return rewardPotion; }
+
+    /**
+     * Indica se a sala já foi limpa.
+     *
+     * @return true se a sala já não tiver nada por resolver
+     */
+    public boolean isCleared() { return cleared; }
+
+    void markCleared() { this.cleared = true; }
+
     /**
      * Adiciona uma ligação desta sala para outra sala, identificada pelo nome.
      *
@@ -108,112 +180,14 @@ public class Room {
         this.rewardPotion = rewardPotion;
     }
 
-    /**
-     * Executa a lógica da sala atual.
-     * Pode correr um evento de risco, abrir a loja ou iniciar um combate.
-     *
-     * @param game instância do jogo (para acesso à loja)
-     * @param hero herói do jogador
-     * @param scanner scanner para ler escolhas do utilizador
-     * @param random gerador de números aleatórios
-     * @return true se o jogador sobreviver/continuar, false se morrer
-     */
-    public boolean play(Game game, Hero hero, Scanner scanner, Random random) {
-        System.out.println("\n\n########################################");
-        System.out.println("SALA: " + roomName.toUpperCase());
-        System.out.println("########################################\n");
-        ConsoleFX.pause(250);
-
-        if (riskRoom) {
-            return riskEvent.execute(scanner, random);
-        }
-
-        if (shopRoom) {
-            System.out.println("Um mercador aparece entre portais cintilantes...");
-            Audio.playSfxAndWait("src/resources/audio/shop.wav", 3000);
-
-            game.openShop(scanner, random);
-
-            cleared = true;
-            return true;
-        }
-
-        if (cleared) {
-            System.out.println("A sala está silenciosa. Já não há nada aqui.");
-            ConsoleFX.pause(350);
-            return true;
-        }
-
-        if (allyName != null && !allyName.isBlank()) {
-            System.out.println(allyName + ": \"" + allyDialogue + "\"\n");
-            ConsoleFX.pause(700);
-        }
-
-        if (enemy == null) {
-            System.out.println("Não há inimigos nesta sala.");
-            cleared = true;
-            ConsoleFX.pause(350);
-            return true;
-        }
-
-        System.out.println(enemy.getName() + ": \"" + enemyDialogue + "\"\n");
-        ConsoleFX.pause(700);
-
-        boolean won = hero.attack(enemy, scanner, random);
-        if (!won) return false;
-
-        ConsoleFX.pause(300);
-
-        if (rewardPotion != null) {
-            System.out.println("\nRecompensa encontrada: " + rewardPotion.getName());
-            rewardPotion.showDetails();
-            ConsoleFX.pause(200);
-
-            System.out.println("\n1) Usar agora");
-            System.out.println("2) Guardar no inventário");
-            System.out.print("Opção → ");
-            int c = readInt(scanner);
-
-            if (c == 1) {
-                Audio.playSfxAndWait("src/resources/audio/potion.wav", 5000);
-                ConsoleFX.pause(250);
-                hero.printStatus();
-                ConsoleFX.pause(800);
-            } else {
-                hero.addConsumable(rewardPotion);
-                System.out.println("Guardaste no inventário.");
-            }
-            ConsoleFX.pause(450);
-        }
-
-        cleared = true;
-        return true;
-    }
-
     /**
      * Mostra na consola as saídas disponíveis desta sala (ligações do grafo).
      */
     public void printConnections() {
-        System.out.println("\n--- Saídas disponíveis ---");
+        ConsoleFX.println("\n--- Saídas disponíveis ---");
         for (int i = 0; i < connectedRoomNames.size(); i++) {
-            System.out.println((i + 1) + ") " + connectedRoomNames.get(i));
-        }
-        System.out.println();
-    }
-
-    /**
-     * Lê um número inteiro da consola de forma segura.
-     *
-     * @param scanner scanner a utilizar para leitura
-     * @return inteiro introduzido pelo utilizador
-     */
-    private int readInt(Scanner scanner) {
-        while (!scanner.hasNextInt()) {
-            scanner.nextLine();
-            System.out.print("Opção → ");
+            ConsoleFX.println((i + 1) + ") " + connectedRoomNames.get(i));
         }
-        int v = scanner.nextInt();
-        scanner.nextLine();
-        return v;
+        ConsoleFX.println();
     }
 }
\ No newline at end of file
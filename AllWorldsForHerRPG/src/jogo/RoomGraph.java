@@ -0,0 +1,121 @@
+package jogo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Grafo das salas do labirinto com identificadores inteiros.
+ * As ligações das salas são escritas por nome ({@link Room#addConnection}); ao construir o grafo,
+ * cada sala recebe um identificador (a sua posição na lista) e os nomes das saídas são resolvidos uma única vez.
+ * As saídas ficam em dois arrays primitivos (formato CSR): as saídas da sala {@code id} são
+ * {@code exitTo[exitStart[id]]} até {@code exitTo[exitStart[id + 1] - 1]}.
+ * Durante o jogo a navegação é feita só por identificadores; o índice por nome serve apenas para carregar o labirinto.
+ */
+public final class RoomGraph {
+
+    /** Identificador devolvido para salas que não existem. */
+    public static final int NONE = -1;
+
+    private final Room[] rooms;
+    private final int[] exitStart;
+    private final int[] exitTo;
+    private final HashMap<String, Integer> index;
+
+    private RoomGraph(Room[] rooms, int[] exitStart, int[] exitTo, HashMap<String, Integer> index) {
+        this.rooms = rooms;
+        this.exitStart = exitStart;
+        this.exitTo = exitTo;
+        this.index = index;
+    }
+
+    /**
+     * Constrói o grafo a partir das salas e das suas ligações por nome.
+     * Os nomes são comparados sem distinguir maiúsculas de minúsculas; se houver nomes repetidos, vale a primeira sala.
+     * Uma ligação para um nome que não existe fica com {@link #NONE}.
+     *
+     * @param list salas do labirinto; a posição de cada sala é o seu identificador
+     * @return grafo construído
+     */
+    public static RoomGraph build(ArrayList<Room> list) {
+        int n = list.size();
+        Room[] rooms = list.toArray(new Room[0]);
+
+        HashMap<String, Integer> index = new HashMap<>(Math.max(16, (int) (n / 0.75f) + 1));
+        int exits = 0;
+        for (int id = 0; id < n; id++) {
+            rooms[id].setId(id);
+            index.putIfAbsent(key(rooms[id].getRoomName()), id);
+            exits += rooms[id].getConnectedRoomNames().size();
+        }
+
+        int[] exitStart = new int[n + 1];
+        int[] exitTo = new int[exits];
+        int e = 0;
+        for (int id = 0; id < n; id++) {
+            exitStart[id] = e;
+            ArrayList<String> names = rooms[id].getConnectedRoomNames();
+            for (int k = 0; k < names.size(); k++) {
+                Integer to = index.get(key(names.get(k)));
+                exitTo[e++] = (to == null) ? NONE : to;
+            }
+        }
+        exitStart[n] = e;
+
+        return new RoomGraph(rooms, exitStart, exitTo, index);
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Devolve o número de salas.
+     *
+     * @return número de salas
+     */
+    public int size() { return rooms.length; }
+
+    /**
+     * Devolve a sala com o identificador indicado.
+     *
+     * @param id identificador da sala
+     * @return sala
+     */
+    public Room getRoom(int id) { return rooms[id]; }
+
+    /**
+     * Procura o identificador de uma sala pelo nome, sem distinguir maiúsculas de minúsculas.
+     *
+     * @param name nome da sala
+     * @return identificador, ou {@link #NONE} se não existir
+     */
+    public int idOf(String name) {
+        Integer id = index.get(key(name));
+        return (id == null) ? NONE : id;
+    }
+
+    /**
+     * Devolve o número de saídas de uma sala.
+     *
+     * @param id identificador da sala
+     * @return número de saídas
+     */
+    public int getExitCount(int id) { return exitStart[id + 1] - exitStart[id]; }
+
+    /**
+     * Devolve o destino de uma saída.
+     *
+     * @param id identificador da sala
+     * @param k posição da saída, de 0 a {@code getExitCount(id) - 1}
+     * @return identificador da sala de destino, ou {@link #NONE} se a ligação aponta para uma sala que não existe
+     */
+    public int getExit(int id, int k) { return exitTo[exitStart[id] + k]; }
+
+    /**
+     * Devolve o número total de ligações do grafo.
+     *
+     * @return número de ligações
+     */
+    public int getExitTotal() { return exitTo.length; }
+}
@@ -0,0 +1,444 @@
+package jogo;
+
+import combate.FightSolver;
+import entidades.Hero;
+import entidades.NPC;
+import itens.CombatConsumable;
+import itens.Consumable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Conselheiro de rotas até à sala do boss, sobre o {@link RoomGraph} de um {@link Maze}.
+ * <p>
+ * Cada sala tem uma probabilidade de o herói lhe sobreviver: numa travessia, a de ir devagar;
+ * num combate por limpar, a probabilidade exata de vitória do {@link FightSolver} com o estado atual do herói.
+ * Como as probabilidades de um caminho se multiplicam, o custo de cada sala é {@code -log(p)},
+ * que é aditivo e nunca negativo, e a rota mais segura é um caminho mais curto (Dijkstra).
+ * A perda de vida esperada de cada combate serve de desempate e é mostrada com a rota.
+ * <p>
+ * A rota mais lucrativa maximiza o ouro esperado até ao boss, contando só o ouro que o herói vive para receber:
+ * {@code ouro(u) = p(u) * (recompensa(u) + max ouro(seguinte))}.
+ * <p>
+ * A pesquisa é feita para trás a partir do boss, por isso serve para qualquer sala de partida.
+ * É incremental: cada consulta só avança a pesquisa até a sala pedida ficar resolvida e guarda o trabalho feito,
+ * e as salas só são avaliadas quando a pesquisa lá chega. As pesquisas ficam em cache por estado do herói
+ * (vida, força, arma e consumíveis), que muda sempre que um combate é vencido.
+ */
+public class RouteAdvisor {
+
+    /** Número de estados do herói guardados em cache. */
+    private static final int MAX_STATES = 8;
+    private static final double EPS = 1e-12;
+    /** Custo de uma sala a que o herói não sobrevive: finito, para que ainda haja rota (com sobrevivência 0). */
+    private static final double DEAD_COST = 1e4;
+
+    /** Rota sugerida: salas a percorrer a partir da sala atual (sem a incluir) e as suas estimativas. */
+    public static final class Route {
+        private final Room[] rooms;
+        private final double survival;
+        private final double healthLoss;
+        private final double gold;
+
+        Route(Room[] rooms, double survival, double healthLoss, double gold) {
+            this.rooms = rooms;
+            this.survival = survival;
+            this.healthLoss = healthLoss;
+            this.gold = gold;
+        }
+
+        /**
+         * Devolve as salas da rota, da primeira saída até ao boss.
+         *
+         * @return salas da rota
+         */
+        public Room[] getRooms() { return rooms.clone(); }
+
+        /**
+         * Devolve a probabilidade de chegar ao fim da rota e vencer o boss.
+         *
+         * @return probabilidade entre 0 e 1
+         */
+        public double getSurvival() { return survival; }
+
+        /**
+         * Devolve a vida que se espera perder nos combates da rota (em cada combate, supondo vitória).
+         *
+         * @return perda de vida esperada
+         */
+        public double getHealthLoss() { return healthLoss; }
+
+        /**
+         * Devolve o ouro esperado ao longo da rota, contando só o que o herói vive para receber.
+         *
+         * @return ouro esperado
+         */
+        public double getGold() { return gold; }
+
+        /**
+         * Descreve a rota numa linha: nomes das salas separados por setas.
+         *
+         * @return descrição da rota
+         */
+        public String describe() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < rooms.length; i++) {
+                if (i > 0) sb.append(" → ");
+                sb.append(rooms[i].getRoomName());
+            }
+            return sb.toString();
+        }
+    }
+
+    private final RoomGraph graph;
+    private final int boss;
+    private final int[] predStart;
+    private final int[] predFrom;
+    private final LinkedHashMap<String, Search> searches = new LinkedHashMap<>(16, 0.75f, true);
+    private final FightSolver solver = new FightSolver();
+
+    /**
+     * Prepara o conselheiro para um labirinto. Só as ligações inversas são calculadas aqui;
+     * as salas são avaliadas à medida que as consultas precisam delas.
+     *
+     * @param maze labirinto com todas as salas em memória
+     */
+    public RouteAdvisor(Maze maze) {
+        this.graph = maze.getGraph();
+        this.boss = graph.idOf(Maze.BOSS_ROOM);
+
+        // ligações inversas em CSR: quem leva a cada sala
+        int n = graph.size();
+        predStart = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            for (int k = 0; k < graph.getExitCount(u); k++) {
+                int v = graph.getExit(u, k);
+                if (v != RoomGraph.NONE) predStart[v + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) predStart[v + 1] += predStart[v];
+        predFrom = new int[predStart[n]];
+        int[] fill = Arrays.copyOf(predStart, n);
+        for (int u = 0; u < n; u++) {
+            for (int k = 0; k < graph.getExitCount(u); k++) {
+                int v = graph.getExit(u, k);
+                if (v != RoomGraph.NONE) predFrom[fill[v]++] = u;
+            }
+        }
+    }
+
+    /**
+     * Devolve a rota com maior probabilidade de sobreviver até vencer o boss.
+     *
+     * @param from sala atual
+     * @param hero herói (o estado atual define as probabilidades dos combates)
+     * @return rota, ou null se não houver caminho até ao boss
+     */
+    public Route safest(Room from, Hero hero) {
+        Search s = searchFor(hero);
+        int start = from.getId();
+        if (boss == RoomGraph.NONE || start == boss) return null;
+
+        s.settle(start);
+        if (s.next[start] < 0) return null;
+        return s.route(start, s.next);
+    }
+
+    /**
+     * Devolve a rota com mais ouro esperado até ao boss.
+     *
+     * @param from sala atual
+     * @param hero herói (o estado atual define as probabilidades dos combates)
+     * @return rota, ou null se não houver caminho até ao boss
+     */
+    public Route mostProfitable(Room from, Hero hero) {
+        Search s = searchFor(hero);
+        int start = from.getId();
+        if (boss == RoomGraph.NONE || start == boss) return null;
+
+        s.profit(start);
+        if (s.profitNext[start] < 0) return null;
+        return s.route(start, s.profitNext);
+    }
+
+    private Search searchFor(Hero hero) {
+        String key = stateKey(hero);
+        Search s = searches.get(key);
+        if (s == null) {
+            if (searches.size() >= MAX_STATES) {
+                Map.Entry<String, Search> eldest = searches.entrySet().iterator().next();
+                searches.remove(eldest.getKey());
+            }
+            s = new Search(hero);
+            searches.put(key, s);
+        }
+        return s;
+    }
+
+    private static String stateKey(Hero hero) {
+        int[] damages = consumableDamages(hero);
+        Arrays.sort(damages);
+        int atk = (hero.getEquippedWeapon() == null) ? 0 : hero.getEquippedWeapon().getAttack();
+        int esp = (hero.getEquippedWeapon() == null) ? 0 : hero.getEquippedWeapon().getSpecialAttack();
+        return hero.getCurrentHealth() + "/" + hero.getStrength() + "/" + atk + "/" + esp + "/"
+                + hero.getSpecialBonus() + "/" + Arrays.toString(damages);
+    }
+
+    private static int[] consumableDamages(Hero hero) {
+        ArrayList<Consumable> inventory = hero.getInventory();
+        int n = 0;
+        int[] damages = new int[inventory.size()];
+        for (Consumable c : inventory) {
+            if (c instanceof CombatConsumable cc) damages[n++] = cc.getInstantAttack();
+        }
+        return Arrays.copyOf(damages, n);
+    }
+
+    /**
+     * Pesquisa para um estado do herói: custos das salas (avaliados quando são precisos),
+     * Dijkstra para trás a partir do boss (retomado a cada consulta) e a programação dinâmica do ouro.
+     */
+    private final class Search {
+        private final int health;
+        private final int strength;
+        private final int weaponAttack;
+        private final int weaponSpecial;
+        private final int specialBonus;
+        private final int[] consumables;
+
+        // custo de cada sala: NaN enquanto não for avaliada
+        private final double[] cost;
+        private final double[] loss;
+        private final HashMap<Long, double[]> fights = new HashMap<>();
+
+        // Dijkstra para trás
+        private final double[] dist;
+        private final double[] distLoss;
+        private final int[] next;
+        private final boolean[] settled;
+        private final Heap heap = new Heap();
+
+        // ouro esperado
+        private final double[] gold;
+        private final int[] profitNext;
+        private final byte[] profitState;
+
+        Search(Hero hero) {
+            health = hero.getCurrentHealth();
+            strength = hero.getStrength();
+            weaponAttack = (hero.getEquippedWeapon() == null) ? 0 : hero.getEquippedWeapon().getAttack();
+            weaponSpecial = (hero.getEquippedWeapon() == null) ? 0 : hero.getEquippedWeapon().getSpecialAttack();
+            specialBonus = hero.getSpecialBonus();
+            consumables = consumableDamages(hero);
+
+            int n = graph.size();
+            cost = new double[n];
+            loss = new double[n];
+            Arrays.fill(cost, Double.NaN);
+            dist = new double[n];
+            distLoss = new double[n];
+            next = new int[n];
+            settled = new boolean[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(next, -1);
+            gold = new double[n];
+            profitNext = new int[n];
+            profitState = new byte[n];
+
+            if (boss != RoomGraph.NONE) {
+                dist[boss] = cost(boss);
+                distLoss[boss] = loss[boss];
+                heap.push(boss, dist[boss]);
+            }
+        }
+
+        /**
+         * Avalia a sala: custo {@code -log(p)} de lhe sobreviver e perda de vida esperada.
+         */
+        double cost(int id) {
+            if (!Double.isNaN(cost[id])) return cost[id];
+
+            Room room = graph.getRoom(id);
+            double p = 1;
+            double lost = 0;
+            if (room.isRiskRoom()) {
+                RiskEvent e = room.getRiskEvent();
+                p = 1 - Math.min(e.getSlowDeathChance(), e.getFastDeathChance());
+            } else if (!room.isShopRoom() && !room.isCleared() && room.getEnemy() != null) {
+                double[] fight = fight(room.getEnemy());
+                p = fight[0];
+                lost = fight[1];
+            }
+            cost[id] = (p <= 0) ? DEAD_COST : Math.min(DEAD_COST, -Math.log(p));
+            loss[id] = lost;
+            return cost[id];
+        }
+
+        private double[] fight(NPC enemy) {
+            long key = ((long) enemy.getCurrentHealth() << 32) | (enemy.getStrength() & 0xFFFFFFFFL);
+            double[] r = fights.get(key);
+            if (r == null) {
+                double p = solver.solve(health, strength, weaponAttack, weaponSpecial, specialBonus, false,
+                        consumables, consumables.length, enemy.getCurrentHealth(), enemy.getStrength());
+                // vida esperada no fim, sabendo que o herói venceu
+                double lost = (p > 0) ? health - solver.getExpectedHealth() / p : health;
+                r = new double[] { p, lost };
+                fights.put(key, r);
+            }
+            return r;
+        }
+
+        /**
+         * Retoma o Dijkstra para trás até a sala {@code target} ficar resolvida (ou não haver mais salas alcançáveis).
+         */
+        void settle(int target) {
+            while (!settled[target] && !heap.isEmpty()) {
+                int v = heap.pop();
+                if (settled[v]) continue;
+                settled[v] = true;
+
+                for (int i = predStart[v]; i < predStart[v + 1]; i++) {
+                    int u = predFrom[i];
+                    if (settled[u]) continue;
+                    // o custo da própria sala entra sempre: é igual para todas as saídas de u, por isso não muda a escolha,
+                    // e mantém as distâncias certas para as consultas seguintes
+                    double d = cost(u) + dist[v];
+                    double l = loss[u] + distLoss[v];
+                    if (d < dist[u] - EPS || (d < dist[u] + EPS && l < distLoss[u])) {
+                        dist[u] = d;
+                        distLoss[u] = l;
+                        next[u] = v;
+                        heap.push(u, d);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Calcula o ouro esperado a partir de {@code start} com uma pesquisa em profundidade iterativa e memorizada.
+         * Ligações que voltam a uma sala ainda em pesquisa (ciclos) são ignoradas.
+         */
+        void profit(int start) {
+            if (profitState[start] == 2) return;
+
+            int[] stack = new int[16];
+            int[] edge = new int[16];
+            int top = 0;
+            stack[0] = start;
+            edge[0] = 0;
+            profitState[start] = 1;
+            profitNext[start] = -1;
+
+            while (top >= 0) {
+                int u = stack[top];
+                if (u != boss && edge[top] < graph.getExitCount(u)) {
+                    int v = graph.getExit(u, edge[top]++);
+                    if (v == RoomGraph.NONE || profitState[v] != 0) continue;
+                    if (++top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                        edge = Arrays.copyOf(edge, top * 2);
+                    }
+                    stack[top] = v;
+                    edge[top] = 0;
+                    profitState[v] = 1;
+                    profitNext[v] = -1;
+                    continue;
+                }
+
+                // todas as saídas de u resolvidas: escolhe a de mais ouro
+                double best = (u == boss) ? 0 : Double.NEGATIVE_INFINITY;
+                for (int k = 0; u != boss && k < graph.getExitCount(u); k++) {
+                    int v = graph.getExit(u, k);
+                    if (v == RoomGraph.NONE || profitState[v] != 2 || gold[v] == Double.NEGATIVE_INFINITY) continue;
+                    if (gold[v] > best + EPS) {
+                        best = gold[v];
+                        profitNext[u] = v;
+                    }
+                }
+                if (best == Double.NEGATIVE_INFINITY || u == start) {
+                    gold[u] = best;
+                } else {
+                    double p = Math.exp(-cost(u));
+                    gold[u] = p * (reward(u) + best);
+                }
+                profitState[u] = 2;
+                top--;
+            }
+            // a sala de partida fica com o valor das saídas; se for visitada noutra consulta, volta a ser calculada
+            profitState[start] = 0;
+        }
+
+        private int reward(int id) {
+            Room room = graph.getRoom(id);
+            if (room.isShopRoom() || room.isCleared() || room.getEnemy() == null) return 0;
+            return room.getEnemy().getGoldReward();
+        }
+
+        Route route(int start, int[] links) {
+            ArrayList<Room> rooms = new ArrayList<>();
+            double logSurvival = 0;
+            double lost = 0;
+            double expectedGold = 0;
+            double alive = 1;
+            int guard = graph.size();
+            for (int u = links[start]; u >= 0 && guard-- > 0; u = (u == boss) ? -1 : links[u]) {
+                rooms.add(graph.getRoom(u));
+                double c = cost(u);
+                logSurvival += c;
+                lost += loss[u];
+                alive *= Math.exp(-c);
+                expectedGold += alive * reward(u);
+            }
+            return new Route(rooms.toArray(new Room[0]), Math.exp(-logSurvival), lost, expectedGold);
+        }
+    }
+
+    /** Fila de prioridade mínima de salas por distância, com remoção preguiçosa de entradas antigas. */
+    private static final class Heap {
+        private int[] ids = new int[64];
+        private double[] keys = new double[64];
+        private int size;
+
+        boolean isEmpty() { return size == 0; }
+
+        void push(int id, double key) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) break;
+                ids[i] = ids[parent];
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            ids[i] = id;
+            keys[i] = key;
+        }
+
+        int pop() {
+            int top = ids[0];
+            int lastId = ids[--size];
+            double lastKey = keys[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (keys[child] >= lastKey) break;
+                ids[i] = ids[child];
+                keys[i] = keys[child];
+                i = child;
+            }
+            ids[i] = lastId;
+            keys[i] = lastKey;
+            return top;
+        }
+    }
+}
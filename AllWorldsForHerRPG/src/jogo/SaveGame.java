@@ -0,0 +1,325 @@
+package jogo;
+
+import entidades.Hero;
+import entidades.NPC;
+import itens.Consumable;
+import itens.Item;
+import itens.Weapon;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Partida guardada: herói, estado das salas, sala atual e estado dos fluxos de números aleatórios.
+ * <p>
+ * O formato é binário, versionado e compacto (cerca de 60 bytes para o labirinto do jogo):
+ * os números usam codificação de tamanho variável e os itens e as salas são guardados pelos identificadores
+ * do {@link MazeContent}, não pelos nomes. Uma impressão digital do conteúdo impede que a partida seja carregada
+ * com salas ou itens diferentes. O mercador não tem estado próprio (o stock vem do conteúdo), por isso não é guardado.
+ * <p>
+ * Só labirintos criados a partir de um {@link MazeContent} podem ser guardados.
+ */
+public final class SaveGame {
+
+    /** Ficheiro da gravação automática por omissão (na pasta do utilizador, fora do projeto). */
+    public static final Path DEFAULT_FILE = Paths.get(System.getProperty("user.home"), ".allworldsforher", "save.bin");
+
+    private static final int MAGIC = 0x41534156; // "ASAV"
+    private static final int VERSION = 2;
+
+    private final Hero hero;
+    private final Maze maze;
+    private final Room room;
+    private final long[] rngStates;
+
+    private SaveGame(Hero hero, Maze maze, Room room, long[] rngStates) {
+        this.hero = hero;
+        this.maze = maze;
+        this.room = room;
+        this.rngStates = rngStates;
+    }
+
+    /**
+     * Indica se o labirinto pode ser guardado.
+     *
+     * @param maze labirinto da partida
+     * @return true se o labirinto foi criado a partir de um {@link MazeContent}
+     */
+    public static boolean supports(MazeMap maze) {
+        return maze instanceof Maze m && m.getContent() != null;
+    }
+
+    /**
+     * Codifica o estado da partida. É rápido e não toca no disco, por isso pode ser chamado no ciclo do jogo.
+     *
+     * @param hero herói
+     * @param maze labirinto da partida (ver {@link #supports})
+     * @param current sala atual
+     * @param rng números aleatórios da partida (é guardado o estado de cada fluxo)
+     * @return partida codificada
+     * @throws IllegalArgumentException se o labirinto ou algum item do herói não pertencer a um conteúdo conhecido
+     */
+    public static byte[] encode(Hero hero, Maze maze, Room current, RngService rng) {
+        MazeContent content = maze.getContent();
+        if (content == null) throw new IllegalArgumentException("o labirinto não foi criado a partir de conteúdo");
+
+        Writer out = new Writer();
+        out.int32(MAGIC);
+        out.varint(VERSION);
+        out.int64(content.getFingerprint());
+
+        out.varint(HeroSetup.choiceOf(hero));
+        out.string(hero.getName());
+        out.varint(hero.getMaxHealth());
+        out.varint(hero.getCurrentHealth());
+        out.varint(hero.getStrength());
+        out.varint(hero.getLevel());
+        out.varint(hero.getGold());
+        out.varint(hero.getWeakPoint().ordinal());
+        out.varint((hero.getEquippedWeapon() == null) ? 0 : itemId(content, hero.getEquippedWeapon()) + 1);
+        ArrayList<Consumable> inventory = hero.getInventory();
+        out.varint(inventory.size());
+        for (Consumable c : inventory) out.varint(itemId(content, c));
+
+        RoomGraph graph = maze.getGraph();
+        int n = graph.size();
+        out.varint(n);
+        out.varint(current.getId());
+        byte[] cleared = new byte[(n + 7) / 8];
+        for (int id = 0; id < n; id++) {
+            if (graph.getRoom(id).isCleared()) cleared[id >> 3] |= (byte) (1 << (id & 7));
+        }
+        out.bytes(cleared);
+        // vida dos inimigos por derrotar (pode ter ficado reduzida num combate perdido)
+        for (int id = 0; id < n; id++) {
+            NPC enemy = graph.getRoom(id).getEnemy();
+            if (enemy != null) out.varint(enemy.getCurrentHealth());
+        }
+
+        out.varint(RngService.STREAMS);
+        for (int id = 0; id < RngService.STREAMS; id++) out.int64(rng.getState(id));
+        return out.toByteArray();
+    }
+
+    private static int itemId(MazeContent content, Item item) {
+        int id = content.itemId(item);
+        if (id < 0) throw new IllegalArgumentException("item fora do conteúdo do labirinto: " + item.getName());
+        return id;
+    }
+
+    /**
+     * Reconstrói uma partida a partir dos bytes: um labirinto novo do conteúdo, com as salas e o herói repostos.
+     *
+     * @param data partida codificada por {@link #encode}
+     * @param content conteúdo do jogo
+     * @return partida reconstruída
+     * @throws IOException se os dados não forem uma partida válida ou forem de outro conteúdo
+     */
+    public static SaveGame decode(byte[] data, MazeContent content) throws IOException {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(data);
+            if (in.getInt() != MAGIC) throw new IOException("não é uma partida guardada");
+            int version = varint(in);
+            if (version != VERSION) throw new IOException("versão de partida guardada não suportada: " + version);
+            if (in.getLong() != content.getFingerprint()) {
+                throw new IOException("a partida foi guardada com outro conteúdo do labirinto");
+            }
+
+            int heroChoice = varint(in);
+            String name = string(in);
+            int maxHealth = varint(in);
+            int currentHealth = varint(in);
+            int strength = varint(in);
+            int level = varint(in);
+            int gold = varint(in);
+            WeakPoint[] points = WeakPoint.values();
+            int weakPoint = varint(in);
+            if (heroChoice < 1 || heroChoice > 3 || weakPoint >= points.length) throw invalid();
+
+            Hero hero = HeroSetup.create(heroChoice, name, maxHealth, strength, gold);
+            hero.restoreProgress(level, points[weakPoint]);
+            hero.setCurrentHealth(currentHealth);
+
+            int weapon = varint(in);
+            if (weapon > 0) {
+                if (!(content.itemById(weapon - 1) instanceof Weapon w)) throw invalid();
+                hero.equipWeapon(w);
+            }
+            int count = varint(in);
+            for (int i = 0; i < count; i++) {
+                if (!(content.itemById(varint(in)) instanceof Consumable c)) throw invalid();
+                hero.addConsumable(c);
+            }
+
+            Maze maze = content.newMaze();
+            RoomGraph graph = maze.getGraph();
+            int n = varint(in);
+            int current = varint(in);
+            if (n != graph.size() || current >= n) throw invalid();
+            byte[] cleared = new byte[(n + 7) / 8];
+            in.get(cleared);
+            for (int id = 0; id < n; id++) {
+                if ((cleared[id >> 3] & (1 << (id & 7))) != 0) graph.getRoom(id).markCleared();
+            }
+            for (int id = 0; id < n; id++) {
+                NPC enemy = graph.getRoom(id).getEnemy();
+                if (enemy != null) enemy.setCurrentHealth(varint(in));
+            }
+
+            if (varint(in) != RngService.STREAMS) throw invalid();
+            long[] rngStates = new long[RngService.STREAMS];
+            for (int id = 0; id < rngStates.length; id++) rngStates[id] = in.getLong();
+            return new SaveGame(hero, maze, graph.getRoom(current), rngStates);
+        } catch (BufferUnderflowException e) {
+            throw invalid();
+        }
+    }
+
+    private static IOException invalid() {
+        return new IOException("partida guardada inválida");
+    }
+
+    /**
+     * Grava a partida com NIO num ficheiro temporário com nome único que depois substitui o anterior,
+     * por isso uma gravação interrompida nunca deixa uma partida corrompida e duas sessões nunca escrevem no mesmo ficheiro.
+     *
+     * @param file ficheiro da partida
+     * @param data partida codificada
+     * @throws IOException se a gravação falhar
+     */
+    public static void write(Path file, byte[] data) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) channel.write(buffer);
+                channel.force(false);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Lê uma partida guardada com uma única leitura do ficheiro.
+     *
+     * @param file ficheiro da partida
+     * @param content conteúdo do jogo
+     * @return partida reconstruída
+     * @throws IOException se o ficheiro não puder ser lido ou não for uma partida válida
+     */
+    public static SaveGame load(Path file, MazeContent content) throws IOException {
+        return decode(Files.readAllBytes(file), content);
+    }
+
+    /**
+     * Devolve o herói guardado.
+     *
+     * @return herói
+     */
+    public Hero getHero() { return hero; }
+
+    /**
+     * Devolve o labirinto, com as salas limpas e a vida dos inimigos repostas.
+     *
+     * @return labirinto
+     */
+    public Maze getMaze() { return maze; }
+
+    /**
+     * Devolve a sala onde o herói estava ao guardar.
+     *
+     * @return sala atual
+     */
+    public Room getRoom() { return room; }
+
+    /**
+     * Repõe o estado guardado de cada fluxo de números aleatórios; a partida continua com os mesmos sorteios.
+     *
+     * @param rng números aleatórios do jogo
+     */
+    public void restoreRng(RngService rng) {
+        for (int id = 0; id < rngStates.length; id++) rng.setState(id, rngStates[id]);
+    }
+
+    // codificação: inteiros sem sinal em grupos de 7 bits (varint) e texto UTF-8 com o tamanho à frente
+
+    private static int varint(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) throw invalid();
+                return value;
+            }
+        }
+        throw invalid();
+    }
+
+    private static String string(ByteBuffer in) throws IOException {
+        int length = varint(in);
+        if (length > in.remaining()) throw invalid();
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Buffer de escrita que cresce conforme é preciso. */
+    private static final class Writer {
+        private byte[] buf = new byte[128];
+        private int pos;
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+        }
+
+        void varint(int value) {
+            if (value < 0) throw new IllegalArgumentException("valor negativo: " + value);
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void int32(int value) {
+            ensure(4);
+            for (int s = 24; s >= 0; s -= 8) buf[pos++] = (byte) (value >>> s);
+        }
+
+        void int64(long value) {
+            ensure(8);
+            for (int s = 56; s >= 0; s -= 8) buf[pos++] = (byte) (value >>> s);
+        }
+
+        void bytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        void string(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            bytes(bytes);
+        }
+
+        byte[] toByteArray() { return Arrays.copyOf(buf, pos); }
+    }
+}
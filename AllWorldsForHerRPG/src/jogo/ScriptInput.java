@@ -0,0 +1,72 @@
+package jogo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Entrada a partir de um script: uma lista de linhas em memória ou uma sessão gravada em ficheiro.
+ * Permite correr partidas completas sem intervenção do jogador.
+ */
+public class ScriptInput extends Input {
+
+    private final ArrayDeque<String> lines;
+    private final boolean echo;
+
+    /**
+     * Cria uma entrada a partir das linhas indicadas.
+     *
+     * @param lines linhas do script, pela ordem em que serão lidas
+     * @param echo true para mostrar cada linha na consola, como se tivesse sido escrita
+     */
+    public ScriptInput(List<String> lines, boolean echo) {
+        this.lines = new ArrayDeque<>(lines);
+        this.echo = echo;
+    }
+
+    /**
+     * Carrega um script ou uma sessão gravada a partir de um ficheiro (uma resposta por linha).
+     *
+     * @param file ficheiro a carregar
+     * @param echo true para mostrar cada linha na consola
+     * @return entrada com as linhas do ficheiro
+     * @throws IOException se o ficheiro não puder ser lido
+     */
+    public static ScriptInput load(Path file, boolean echo) throws IOException {
+        return new ScriptInput(Files.readAllLines(file, StandardCharsets.UTF_8), echo);
+    }
+
+    @Override
+    protected String take() {
+        String line = lines.poll();
+        if (line == null) throw new EndOfInputException();
+        return line;
+    }
+
+    @Override
+    public String poll() {
+        return lines.poll();
+    }
+
+    @Override
+    public boolean hasPending() {
+        return !lines.isEmpty();
+    }
+
+    @Override
+    protected void onLine(String line) {
+        if (echo) ConsoleFX.println(line);
+    }
+
+    /**
+     * Devolve o número de linhas ainda por ler.
+     *
+     * @return linhas restantes
+     */
+    public int remaining() {
+        return lines.size();
+    }
+}
@@ -0,0 +1,165 @@
+package jogo;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resultado de um passo do motor de jogo ({@link GameMachine}): os efeitos a apresentar
+ * (ver {@link Effects}) e o pedido seguinte ao jogador.
+ * <p>
+ * O pedido é uma escolha entre {@link #getMin()} e {@link #getMax()}, uma linha de texto ({@link #wantsLine()}),
+ * a espera por um cálculo em segundo plano ({@link #getPending()}) ou nenhum, se a sessão terminou.
+ */
+public final class Step {
+
+    private final Phase phase;
+    private final int min;
+    private final int max;
+    private final String retryPrompt;
+    private final boolean rejected;
+    private final CompletableFuture<?> pending;
+
+    private final int[] kinds;
+    private final String[] texts;
+    private final Fragment[] fragments;
+    private final long[] values;
+
+    Step(Phase phase, int min, int max, String retryPrompt, boolean rejected, CompletableFuture<?> pending, Effects fx) {
+        this.phase = phase;
+        this.min = min;
+        this.max = max;
+        this.retryPrompt = retryPrompt;
+        this.rejected = rejected;
+        this.pending = pending;
+        this.kinds = fx.kinds();
+        this.texts = fx.texts();
+        this.fragments = fx.fragments();
+        this.values = fx.values();
+    }
+
+    /**
+     * Devolve o estado em que o motor ficou.
+     *
+     * @return pergunta seguinte
+     */
+    public Phase getPhase() { return phase; }
+
+    /**
+     * Indica se a sessão terminou (vitória ou saída).
+     *
+     * @return true se já não há mais passos
+     */
+    public boolean isFinished() { return phase == Phase.FINISHED; }
+
+    /**
+     * Indica se o próximo passo espera uma linha de texto em vez de uma escolha numérica.
+     *
+     * @return true para o nome da personagem
+     */
+    public boolean wantsLine() { return phase == Phase.NAME; }
+
+    /**
+     * Devolve a menor opção do menu atual.
+     *
+     * @return menor opção válida
+     */
+    public int getMin() { return min; }
+
+    /**
+     * Devolve a maior opção do menu atual.
+     *
+     * @return maior opção válida
+     */
+    public int getMax() { return max; }
+
+    /**
+     * Devolve o texto a mostrar quando a resposta não é um número.
+     *
+     * @return pedido repetido
+     */
+    public String getRetryPrompt() { return retryPrompt; }
+
+    /**
+     * Indica se a última resposta foi recusada (fora do menu, ouro insuficiente, ...):
+     * as respostas antecipadas que o jogador já escreveu devem ser descartadas.
+     *
+     * @return true se a resposta foi recusada
+     */
+    public boolean isRejected() { return rejected; }
+
+    /**
+     * Devolve o cálculo de que o motor está à espera, em {@link Phase#WAITING}.
+     * Quando terminar, o passo seguinte é {@link GameMachine#resume()}.
+     *
+     * @return cálculo em curso, ou null se o motor espera uma resposta
+     */
+    public CompletableFuture<?> getPending() { return pending; }
+
+    /**
+     * Devolve o número de efeitos do passo.
+     *
+     * @return número de efeitos
+     */
+    public int size() { return kinds.length; }
+
+    /**
+     * Devolve o tipo de um efeito ({@link Effects#TEXT}, {@link Effects#PAUSE}, ...).
+     *
+     * @param i posição do efeito
+     * @return tipo do efeito
+     */
+    public int kind(int i) { return kinds[i]; }
+
+    /**
+     * Devolve o texto de um efeito: o texto a mostrar, a linha da máquina de escrever,
+     * o caminho do som ou o nome da sala.
+     *
+     * @param i posição do efeito
+     * @return texto, ou null se o efeito não tiver
+     */
+    public String text(int i) {
+        if (kinds[i] == Effects.TEXT) return new String(fragments[i].bytes(), FrameBuffer.CHARSET);
+        return texts[i];
+    }
+
+    /**
+     * Devolve o texto de um efeito {@link Effects#TEXT} já codificado, pronto a copiar para um frame
+     * ({@link ConsoleFX#print(Fragment)}).
+     *
+     * @param i posição do efeito
+     * @return texto codificado, ou null se o efeito não for texto
+     */
+    public Fragment fragment(int i) { return fragments[i]; }
+
+    /**
+     * Copia o texto codificado de um efeito {@link Effects#TEXT} para um buffer.
+     *
+     * @param i posição do efeito
+     * @param out destino dos bytes
+     */
+    public void writeText(int i, ByteBuffer out) {
+        out.put(fragments[i].bytes());
+    }
+
+    /**
+     * Devolve o valor de um efeito: a duração da pausa, o atraso por carácter ou a espera máxima pelo som.
+     *
+     * @param i posição do efeito
+     * @return valor em milissegundos
+     */
+    public long value(int i) { return values[i]; }
+
+    /**
+     * Devolve todo o texto do passo, sem pausas nem sons (as linhas da máquina de escrever aparecem completas).
+     *
+     * @return texto do passo
+     */
+    public String getText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] == Effects.TEXT) sb.append(text(i));
+            else if (kinds[i] == Effects.TYPEWRITER) sb.append(texts[i]).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
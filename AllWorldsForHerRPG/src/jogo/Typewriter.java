@@ -0,0 +1,114 @@
+package jogo;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Efeito de máquina de escrever executado numa thread própria.
+ * As linhas ficam em fila e são animadas uma a uma, enquanto o jogo continua a preparar o ecrã seguinte.
+ * Carregar em Enter, ou usar um relógio sem esperas, completa de imediato a linha atual.
+ */
+public final class Typewriter {
+
+    private final FrameBuffer out;
+    private final ExecutorService executor;
+
+    private CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+    private volatile boolean skipLine;
+
+    /**
+     * Cria uma máquina de escrever que escreve para o frame indicado.
+     *
+     * @param out frame usado apenas por esta máquina de escrever
+     */
+    public Typewriter(FrameBuffer out) {
+        this(out, r -> {
+            Thread t = new Thread(r, "typewriter");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Cria uma máquina de escrever cuja thread é criada pela fábrica indicada
+     * (por exemplo, uma thread virtual por sessão no servidor).
+     *
+     * @param out frame usado apenas por esta máquina de escrever
+     * @param threads fábrica da thread de animação
+     */
+    public Typewriter(FrameBuffer out, ThreadFactory threads) {
+        this.out = out;
+        this.executor = Executors.newSingleThreadExecutor(threads);
+    }
+
+    /**
+     * Põe uma linha na fila de animação e devolve imediatamente.
+     *
+     * @param text texto da linha
+     * @param delayPerCharMs atraso entre caracteres em milissegundos (tempo de jogo)
+     * @return futuro concluído quando a linha estiver completamente escrita
+     */
+    public synchronized CompletableFuture<Void> type(String text, long delayPerCharMs) {
+        last = CompletableFuture.runAsync(() -> animate(text, delayPerCharMs), executor);
+        return last;
+    }
+
+    /**
+     * Completa de imediato a linha que está a ser animada.
+     */
+    public void skipCurrent() {
+        skipLine = true;
+    }
+
+    /**
+     * Indica se ainda há texto por escrever.
+     *
+     * @return true se a fila estiver vazia
+     */
+    public synchronized boolean isIdle() {
+        return last.isDone();
+    }
+
+    /**
+     * Espera até todas as linhas em fila estarem escritas.
+     */
+    public void awaitIdle() {
+        CompletableFuture<Void> pending;
+        synchronized (this) {
+            pending = last;
+        }
+        try {
+            pending.join();
+        } catch (RuntimeException e) {
+            // uma linha falhada não deve bloquear o resto da consola
+        }
+    }
+
+    /**
+     * Escreve as linhas em fila e termina a thread da máquina de escrever.
+     */
+    public void shutdown() {
+        awaitIdle();
+        executor.shutdown();
+    }
+
+    private void animate(String text, long delayPerCharMs) {
+        skipLine = false;
+        GameClock clock = ConsoleFX.getClock();
+
+        for (int i = 0; i < text.length(); i++) {
+            if (skipLine || clock.toRealMillis(delayPerCharMs) == 0 || ConsoleFX.skipRequested()) {
+                out.print(text.substring(i));
+                break;
+            }
+            out.print(text.charAt(i));
+            out.flush();
+            clock.sleep(delayPerCharMs);
+        }
+
+        out.println();
+        out.flush();
+    }
+}
@@ -0,0 +1,140 @@
+package servidor;
+
+import jogo.EndOfInputException;
+import jogo.Input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Entrada de uma ligação: as linhas enviadas pelo cliente (UTF-8, terminadas em {@code \n}).
+ * Tal como {@link jogo.ConsoleInput}, uma thread (aqui virtual) lê as linhas e coloca-as numa fila,
+ * por isso o jogador pode responder antecipadamente e uma linha em branco salta a espera atual.
+ * <p>
+ * A memória é limitada: as linhas maiores do que {@code maxLineBytes} são cortadas e, com a fila cheia,
+ * a leitura do socket para até o jogo consumir linhas (o cliente fica à espera, não o servidor).
+ */
+public final class ClientInput extends Input {
+
+    private static final String EOF = new String("<eof>");
+
+    private final InputStream source;
+    private final int maxLineBytes;
+    private final ArrayBlockingQueue<String> queue;
+    private final Thread reader;
+    private volatile boolean discarding;
+    private boolean ended;
+
+    /**
+     * Cria a entrada de uma ligação e arranca a thread que lê o socket.
+     *
+     * @param source stream de entrada do socket
+     * @param maxLineBytes tamanho máximo de uma linha em bytes
+     * @param maxPendingLines número máximo de linhas à espera de serem lidas pelo jogo
+     */
+    public ClientInput(InputStream source, int maxLineBytes, int maxPendingLines) {
+        this.source = source;
+        this.maxLineBytes = maxLineBytes;
+        this.queue = new ArrayBlockingQueue<>(maxPendingLines);
+        this.reader = Thread.ofVirtual().name("client-input").start(this::readLines);
+    }
+
+    /**
+     * Deixa de entregar linhas ao jogo e espera que o cliente acabe de enviar (no máximo o tempo indicado).
+     * As linhas que ainda chegarem são descartadas: fechar o socket com dados por ler faria o sistema
+     * reiniciar a ligação, e o cliente podia perder o fim da saída.
+     *
+     * @param waitMs tempo máximo de espera em milissegundos
+     */
+    public void close(long waitMs) {
+        discarding = true;
+        queue.clear();
+        try {
+            reader.join(Duration.ofMillis(waitMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    protected String take() {
+        if (ended) throw new EndOfInputException();
+        try {
+            String line = queue.take();
+            if (line == EOF) {
+                ended = true;
+                throw new EndOfInputException();
+            }
+            return line;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EndOfInputException();
+        }
+    }
+
+    @Override
+    public String poll() {
+        String line = queue.peek();
+        if (line == null || line == EOF) return null;
+        return queue.poll();
+    }
+
+    @Override
+    public boolean hasPending() {
+        String line = queue.peek();
+        return line != null && line != EOF;
+    }
+
+    /**
+     * Um Enter (linha em branco) salta a espera e é consumido.
+     * Uma resposta já escrita também salta a espera, mas fica na fila para o próximo pedido.
+     *
+     * @return true se há uma linha à espera
+     */
+    @Override
+    public boolean skipRequested() {
+        String line = queue.peek();
+        if (line == null || line == EOF) return false;
+        if (line.isBlank()) queue.poll();
+        return true;
+    }
+
+    private void readLines() {
+        byte[] chunk = new byte[512];
+        byte[] line = new byte[Math.min(maxLineBytes, 64)];
+        int len = 0;
+        try {
+            int n;
+            while ((n = source.read(chunk)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    byte b = chunk[i];
+                    if (b == '\n') {
+                        if (len > 0 && line[len - 1] == '\r') len--;
+                        if (!discarding) queue.put(new String(line, 0, len, StandardCharsets.UTF_8));
+                        len = 0;
+                    } else if (len < maxLineBytes) {
+                        if (len == line.length) line = Arrays.copyOf(line, Math.min(maxLineBytes, len * 2));
+                        line[len++] = b;
+                    }
+                }
+            }
+            if (discarding) return;
+            if (len > 0) queue.put(new String(line, 0, len, StandardCharsets.UTF_8));
+            queue.put(EOF);
+        } catch (IOException e) {
+            // a ligação fechou ou ficou inativa demasiado tempo: tratado como fim da entrada
+            putEof();
+        } catch (InterruptedException e) {
+            putEof();
+        }
+    }
+
+    private void putEof() {
+        // com a fila cheia, o fim tem prioridade sobre as linhas ainda por ler
+        while (!queue.offer(EOF)) queue.poll();
+    }
+}
@@ -0,0 +1,170 @@
+package servidor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Saída de uma ligação: um buffer circular de tamanho fixo esvaziado para o socket por uma thread virtual própria.
+ * <p>
+ * O jogo escreve no buffer sem esperar pela rede. Se o cliente ler mais devagar do que o jogo escreve,
+ * o buffer enche e a sessão fica à espera (contrapressão), sem gastar mais memória.
+ * Se o cliente não ler nada durante {@code writeTimeoutMs}, a ligação é fechada.
+ */
+public final class ClientOutput extends OutputStream {
+
+    private final OutputStream socket;
+    private final Runnable onStall;
+    private final long writeTimeoutMs;
+    private final byte[] ring;
+    private final Thread writer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private int head;
+    private int size;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Cria a saída de uma ligação e arranca a thread que escreve no socket.
+     *
+     * @param socket stream de saída do socket
+     * @param capacity tamanho do buffer em bytes
+     * @param writeTimeoutMs tempo máximo à espera de espaço no buffer
+     * @param onStall ação quando o cliente deixa de ler (normalmente fechar o socket)
+     */
+    public ClientOutput(OutputStream socket, int capacity, long writeTimeoutMs, Runnable onStall) {
+        this.socket = socket;
+        this.ring = new byte[capacity];
+        this.writeTimeoutMs = writeTimeoutMs;
+        this.onStall = onStall;
+        this.writer = Thread.ofVirtual().name("client-output").unstarted(this::drain);
+        writer.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        lock.lock();
+        try {
+            while (len > 0) {
+                long waitNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+                while (size == ring.length && failure == null && !closed) {
+                    if (waitNanos <= 0) {
+                        failure = new IOException("o cliente deixou de ler");
+                        notEmpty.signal();
+                        onStall.run();
+                        break;
+                    }
+                    waitNanos = notFull.awaitNanos(waitNanos);
+                }
+                if (failure != null) throw failure;
+                if (closed) throw new IOException("ligação fechada");
+
+                int tail = (head + size) % ring.length;
+                int n = Math.min(len, Math.min(ring.length - size, ring.length - tail));
+                System.arraycopy(b, off, ring, tail, n);
+                size += n;
+                off += n;
+                len -= n;
+                notEmpty.signal();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Não espera pela rede: o texto já está no buffer e a thread de escrita envia-o logo que pode. */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Espera que o texto pendente seja enviado (no máximo {@code writeTimeoutMs}) e termina a thread de escrita.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (!writer.join(Duration.ofMillis(writeTimeoutMs))) onStall.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Devolve o número de bytes à espera de serem enviados.
+     *
+     * @return bytes no buffer
+     */
+    public int pending() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            int from;
+            int n;
+            lock.lock();
+            try {
+                while (size == 0 && !closed && failure == null) notEmpty.awaitUninterruptibly();
+                if (failure != null || size == 0) return;
+                from = head;
+                n = Math.min(size, ring.length - head);
+            } finally {
+                lock.unlock();
+            }
+
+            // fora do lock: a escrita no socket pode demorar o que o cliente quiser;
+            // estes bytes só são libertados depois, por isso o jogo não os pode reescrever entretanto
+            try {
+                socket.write(ring, from, n);
+                socket.flush();
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                head = (head + n) % ring.length;
+                size -= n;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
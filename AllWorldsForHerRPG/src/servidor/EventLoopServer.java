@@ -0,0 +1,513 @@
+package servidor;
+
+import audio.Audio;
+import jogo.Effects;
+import jogo.FrameBuffer;
+import jogo.GameMachine;
+import jogo.RngService;
+import jogo.Step;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor de jogo por eventos: todas as ligações são tratadas por uma só thread, com canais não bloqueantes
+ * e um {@link Selector}. Cada ligação é uma partida do {@link GameMachine}; quando chega uma linha,
+ * a partida avança um ou mais passos e o texto de cada passo é enviado de imediato (sem pausas nem som).
+ * <p>
+ * Tal como no {@link GameServer}, o jogador pode responder antecipadamente (várias escolhas na mesma linha
+ * formam um lote, descartado quando uma escolha é recusada) e a memória por sessão é limitada:
+ * linhas cortadas em {@value #MAX_LINE_BYTES} bytes, no máximo {@value #MAX_PENDING_LINES} linhas por ler,
+ * e a partida deixa de avançar (e o socket de ser lido) enquanto houver mais de {@value #OUTPUT_LIMIT} bytes
+ * por enviar ao cliente. Os cálculos longos (distribuição otimizada) correm noutras threads e acordam o ciclo
+ * quando terminam.
+ *
+ * <pre>
+ * java -Dstdout.encoding=UTF-8 -cp out servidor.EventLoopServer [--port=4000] [--max-sessions=10000]
+ * </pre>
+ */
+public final class EventLoopServer {
+
+    private static final int MAX_LINE_BYTES = 256;
+    private static final int MAX_PENDING_LINES = 64;
+    private static final int OUTPUT_LIMIT = 16 * 1024;
+    private static final int OUTPUT_BUFFER = 4 * 1024;
+    private static final long WRITE_TIMEOUT_MS = 30_000;
+    private static final long IDLE_TIMEOUT_MS = 10 * 60_000;
+    private static final long CHECK_INTERVAL_MS = 1_000;
+    private static final long CLOSE_WAIT_MS = 1_000;
+    private static final int ACCEPT_BATCH = 256;
+
+    private static final byte[] GOODBYE = (System.lineSeparator() + "Até à próxima." + System.lineSeparator())
+            .getBytes(FrameBuffer.CHARSET);
+    private static final byte[] FULL = "Servidor cheio. Tenta mais tarde.\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(FrameBuffer.CHARSET);
+
+    private final int port;
+    private final int maxSessions;
+
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(16 * 1024);
+    private final ConcurrentLinkedQueue<Session> woken = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong finished = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile Selector selector;
+    private volatile ServerSocketChannel server;
+    private volatile boolean running;
+
+    /**
+     * Cria um servidor.
+     *
+     * @param port porta TCP (0 para uma porta livre qualquer)
+     * @param maxSessions número máximo de sessões em simultâneo
+     */
+    public EventLoopServer(int port, int maxSessions) {
+        this.port = port;
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Abre a porta e trata as ligações na thread atual até o servidor ser fechado.
+     *
+     * @throws IOException se a porta não puder ser aberta
+     */
+    public void serve() throws IOException {
+        bind();
+        loop();
+    }
+
+    /**
+     * Abre a porta sem começar a aceitar ligações (útil com a porta 0, para saber qual foi escolhida).
+     *
+     * @return porta aberta
+     * @throws IOException se a porta não puder ser aberta
+     */
+    public int bind() throws IOException {
+        Selector sel = Selector.open();
+        ServerSocketChannel s = ServerSocketChannel.open();
+        s.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        s.bind(new InetSocketAddress(port), 4096);
+        s.configureBlocking(false);
+        s.register(sel, SelectionKey.OP_ACCEPT);
+        selector = sel;
+        server = s;
+        running = true;
+        return ((InetSocketAddress) s.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Fecha o servidor e todas as sessões em curso.
+     */
+    public void close() {
+        running = false;
+        Selector sel = selector;
+        if (sel != null) sel.wakeup();
+    }
+
+    /**
+     * Devolve o número de sessões em curso.
+     *
+     * @return sessões ativas
+     */
+    public long getActiveSessions() { return started.get() - finished.get(); }
+
+    /**
+     * Devolve o número de sessões já terminadas.
+     *
+     * @return sessões terminadas
+     */
+    public long getFinishedSessions() { return finished.get(); }
+
+    /**
+     * Devolve o número de ligações recusadas por o servidor estar cheio.
+     *
+     * @return ligações recusadas
+     */
+    public long getRejected() { return rejected.get(); }
+
+    private void loop() throws IOException {
+        Selector sel = selector;
+        long nextCheck = System.currentTimeMillis() + CHECK_INTERVAL_MS;
+        try {
+            while (running) {
+                sel.select(CHECK_INTERVAL_MS);
+
+                Iterator<SelectionKey> it = sel.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Session session = (Session) key.attachment();
+                    if (key.isWritable()) session.flush();
+                    if (key.isValid() && key.isReadable()) session.read();
+                    if (key.isValid()) session.advance();
+                }
+
+                Session session;
+                while ((session = woken.poll()) != null) {
+                    if (session.key.isValid()) session.advance();
+                }
+
+                long now = System.currentTimeMillis();
+                if (now >= nextCheck) {
+                    for (SelectionKey key : sel.keys()) {
+                        if (key.attachment() instanceof Session s && key.isValid()) s.checkTimeout(now);
+                    }
+                    nextCheck = now + CHECK_INTERVAL_MS;
+                }
+            }
+        } finally {
+            for (SelectionKey key : sel.keys()) {
+                if (key.attachment() instanceof Session s) s.close();
+            }
+            server.close();
+            sel.close();
+        }
+    }
+
+    /**
+     * Aceita as ligações à espera (no máximo {@value #ACCEPT_BATCH} de cada vez, para não atrasar as outras sessões).
+     */
+    private void accept() {
+        for (int i = 0; i < ACCEPT_BATCH; i++) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (IOException e) {
+                return;
+            }
+            if (channel == null) return;
+            open(channel);
+        }
+    }
+
+    private void open(SocketChannel channel) {
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            if (getActiveSessions() >= maxSessions) {
+                rejected.incrementAndGet();
+                // melhor esforço: o socket acabou de abrir, a mensagem cabe no buffer do sistema
+                channel.write(ByteBuffer.wrap(FULL));
+                channel.close();
+                return;
+            }
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            started.incrementAndGet();
+            Session session = new Session(channel, key);
+            key.attach(session);
+            session.start();
+        } catch (IOException e) {
+            closeQuietly(channel);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // já estava fechado
+        }
+    }
+
+    /**
+     * Uma ligação: a partida, as linhas recebidas e ainda não usadas, e o texto por enviar.
+     * Só é usada pela thread do ciclo de eventos.
+     */
+    private final class Session {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final GameMachine machine = new GameMachine(new RngService());
+        private Step step;
+
+        private final byte[] line = new byte[MAX_LINE_BYTES];
+        private int lineLen;
+        private final ArrayDeque<String> lines = new ArrayDeque<>();
+        private final ArrayDeque<String> batch = new ArrayDeque<>();
+        private boolean eof;
+
+        private ByteBuffer out = ByteBuffer.allocate(OUTPUT_BUFFER);
+        private boolean waiting;
+        private boolean closing;
+        private boolean draining;
+        private boolean closed;
+        private long lastProgress = System.currentTimeMillis();
+
+        Session(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void start() {
+            show(machine.start(null));
+            advance();
+        }
+
+        /**
+         * Lê o que o cliente enviou e separa as linhas completas.
+         */
+        void read() {
+            readBuffer.clear();
+            int n;
+            try {
+                n = channel.read(readBuffer);
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            if (n < 0) {
+                eof = true;
+                if (draining) close();
+                return;
+            }
+            lastProgress = System.currentTimeMillis();
+            if (draining) return; // a partida terminou: o resto é descartado
+            readBuffer.flip();
+            while (readBuffer.hasRemaining()) {
+                byte b = readBuffer.get();
+                if (b == '\n') {
+                    if (lineLen > 0 && line[lineLen - 1] == '\r') lineLen--;
+                    lines.add(new String(line, 0, lineLen, StandardCharsets.UTF_8));
+                    lineLen = 0;
+                } else if (lineLen < MAX_LINE_BYTES) {
+                    // numa linha demasiado longa, o resto é ignorado até à mudança de linha
+                    line[lineLen++] = b;
+                }
+            }
+        }
+
+        /**
+         * Faz a partida avançar enquanto houver respostas e o cliente for lendo o texto.
+         */
+        void advance() {
+            while (!closed && !draining) {
+                boolean full;
+                try {
+                    full = play();
+                } catch (RuntimeException e) {
+                    // um erro numa partida não pode derrubar o servidor
+                    System.err.println("Erro na sessão: " + e);
+                    close();
+                    return;
+                }
+                flush();
+                // se a saída encheu mas o socket aceitou tudo, a partida pode continuar já
+                if (!full || out.position() > OUTPUT_LIMIT) return;
+            }
+        }
+
+        /**
+         * Joga passos até faltar uma resposta ou a saída encher.
+         *
+         * @return true se parou por a saída ter enchido
+         */
+        private boolean play() {
+            while (!closing) {
+                if (out.position() > OUTPUT_LIMIT) return true;
+                if (step.isFinished()) {
+                    closing = true;
+                    break;
+                }
+
+                CompletableFuture<?> pending = step.getPending();
+                if (pending != null) {
+                    if (!pending.isDone()) {
+                        if (!waiting) {
+                            waiting = true;
+                            pending.whenComplete((r, e) -> {
+                                woken.add(this);
+                                selector.wakeup();
+                            });
+                        }
+                        break;
+                    }
+                    waiting = false;
+                    show(machine.resume());
+                    continue;
+                }
+
+                String answer = step.wantsLine() ? nextLine() : nextToken();
+                if (answer == null) {
+                    if (eof) {
+                        append(GOODBYE);
+                        closing = true;
+                    }
+                    break;
+                }
+                show(machine.step(answer));
+            }
+            return false;
+        }
+
+        private String nextLine() {
+            String token = batch.poll();
+            if (token != null) {
+                echo(token);
+                return token;
+            }
+            return lines.poll();
+        }
+
+        private String nextToken() {
+            String token = batch.poll();
+            if (token != null) {
+                echo(token);
+                return token;
+            }
+            while (true) {
+                String next = lines.poll();
+                if (next == null) return null;
+                String[] tokens = next.trim().split("\\s+");
+                if (tokens[0].isEmpty()) continue;
+                for (int i = 1; i < tokens.length; i++) batch.add(tokens[i]);
+                return tokens[0];
+            }
+        }
+
+        private void echo(String token) {
+            append(token.getBytes(FrameBuffer.CHARSET));
+            append(NEWLINE);
+        }
+
+        /**
+         * Guarda o passo e acrescenta o seu texto à saída; pausas e sons são ignorados.
+         */
+        private void show(Step next) {
+            step = next;
+            if (next.isRejected()) batch.clear();
+            for (int i = 0; i < next.size(); i++) {
+                int kind = next.kind(i);
+                if (kind == Effects.TEXT) {
+                    ensure(next.fragment(i).length());
+                    next.writeText(i, out);
+                } else if (kind == Effects.TYPEWRITER) {
+                    append(next.text(i).getBytes(FrameBuffer.CHARSET));
+                    append(NEWLINE);
+                }
+            }
+        }
+
+        private void append(byte[] bytes) {
+            ensure(bytes.length);
+            out.put(bytes);
+        }
+
+        private void ensure(int extra) {
+            if (out.remaining() >= extra) return;
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + extra));
+            out.flip();
+            bigger.put(out);
+            out = bigger;
+        }
+
+        /**
+         * Envia o que o socket aceitar sem bloquear e atualiza o interesse do selector.
+         */
+        void flush() {
+            if (closed || draining) return;
+            if (out.position() > 0) {
+                out.flip();
+                try {
+                    if (channel.write(out) > 0) lastProgress = System.currentTimeMillis();
+                } catch (IOException e) {
+                    close();
+                    return;
+                }
+                out.compact();
+                if (out.position() == 0 && out.capacity() > OUTPUT_BUFFER) out = ByteBuffer.allocate(OUTPUT_BUFFER);
+            }
+
+            if (closing && out.position() == 0) {
+                finishOutput();
+                return;
+            }
+
+            int ops = 0;
+            if (out.position() > 0) ops |= SelectionKey.OP_WRITE;
+            if (!eof && !closing && lines.size() < MAX_PENDING_LINES && out.position() <= OUTPUT_LIMIT) {
+                ops |= SelectionKey.OP_READ;
+            }
+            try {
+                key.interestOps(ops);
+            } catch (IllegalStateException e) {
+                close();
+            }
+        }
+
+        /**
+         * Fecha só a escrita, para o cliente receber o fim da saída, e espera que o cliente feche a sua parte
+         * (fechar logo o socket com dados por ler podia descartar o texto ainda em trânsito).
+         */
+        private void finishOutput() {
+            draining = true;
+            lastProgress = System.currentTimeMillis();
+            try {
+                channel.shutdownOutput();
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            if (eof) {
+                close();
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        void checkTimeout(long now) {
+            long idle = now - lastProgress;
+            if ((draining && idle > CLOSE_WAIT_MS) || (out.position() > 0 && idle > WRITE_TIMEOUT_MS)
+                    || idle > IDLE_TIMEOUT_MS) {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            key.cancel();
+            closeQuietly(channel);
+            finished.incrementAndGet();
+        }
+    }
+
+    /**
+     * Arranca o servidor.
+     * Opções: {@code --port=N}, {@code --max-sessions=N}.
+     *
+     * @param args argumentos da linha de comandos
+     * @throws IOException se a porta não puder ser aberta
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 4000;
+        int maxSessions = 10_000;
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) port = Integer.parseInt(arg.substring("--port=".length()));
+            else if (arg.startsWith("--max-sessions=")) maxSessions = Integer.parseInt(arg.substring("--max-sessions=".length()));
+        }
+        Audio.setEnabled(false);
+
+        EventLoopServer server = new EventLoopServer(port, maxSessions);
+        int bound = server.bind();
+        System.out.println("Servidor à escuta na porta " + bound + " (uma thread, até " + maxSessions + " sessões).");
+        server.loop();
+    }
+}
@@ -0,0 +1,226 @@
+package servidor;
+
+import audio.Audio;
+import jogo.ConsoleContext;
+import jogo.Game;
+import jogo.GameClock;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor de jogo: cada ligação TCP é uma partida independente, jogada linha a linha
+ * (por exemplo com {@code nc localhost 4000}, ou com {@link LoadClient}).
+ * <p>
+ * Cada sessão corre numa thread virtual, com a sua entrada, a sua saída, o seu relógio e o seu
+ * {@link ConsoleContext}; o som está desligado. A memória por sessão é limitada: buffers de saída e de entrada
+ * de tamanho fixo, frames que começam pequenos e nenhuma thread do sistema própria, por isso dezenas de milhares
+ * de sessões cabem no mesmo processo. O texto é enviado em UTF-8 quando o processo corre com
+ * {@code -Dstdout.encoding=UTF-8}.
+ *
+ * <pre>
+ * java -Dstdout.encoding=UTF-8 -cp out servidor.GameServer [--port=4000] [--clock=real] [--max-sessions=10000]
+ * </pre>
+ */
+public final class GameServer {
+
+    private static final int OUTPUT_BUFFER = 4 * 1024;
+    private static final long WRITE_TIMEOUT_MS = 30_000;
+    private static final int IDLE_TIMEOUT_MS = 10 * 60_000;
+    private static final int MAX_LINE_BYTES = 256;
+    private static final int MAX_PENDING_LINES = 64;
+    private static final int CLOSE_WAIT_MS = 1_000;
+
+    private final int port;
+    private final String clock;
+    private final Semaphore slots;
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong finished = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile ServerSocket server;
+
+    /**
+     * Cria um servidor.
+     *
+     * @param port porta TCP (0 para uma porta livre qualquer)
+     * @param clock relógio de cada sessão (ver {@link GameClock#parse})
+     * @param maxSessions número máximo de sessões em simultâneo
+     */
+    public GameServer(int port, String clock, int maxSessions) {
+        GameClock.parse(clock); // valida já, em vez de falhar em cada sessão
+        this.port = port;
+        this.clock = clock;
+        this.slots = new Semaphore(maxSessions);
+    }
+
+    /**
+     * Abre a porta e aceita ligações até o servidor ser fechado.
+     *
+     * @throws IOException se a porta não puder ser aberta
+     */
+    public void serve() throws IOException {
+        bind();
+        acceptLoop();
+    }
+
+    /**
+     * Abre a porta sem começar a aceitar ligações (útil com a porta 0, para saber qual foi escolhida).
+     *
+     * @return porta aberta
+     * @throws IOException se a porta não puder ser aberta
+     */
+    public int bind() throws IOException {
+        ServerSocket s = new ServerSocket();
+        s.setReuseAddress(true);
+        s.bind(new InetSocketAddress(port), 4096);
+        server = s;
+        return s.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        ServerSocket s = server;
+        while (!s.isClosed()) {
+            Socket socket;
+            try {
+                socket = s.accept();
+            } catch (IOException e) {
+                if (s.isClosed()) return;
+                continue;
+            }
+            if (!slots.tryAcquire()) {
+                rejected.incrementAndGet();
+                Thread.ofVirtual().start(() -> reject(socket));
+                continue;
+            }
+            long id = started.incrementAndGet();
+            Thread.ofVirtual().name("sessao-" + id).start(() -> {
+                try {
+                    session(socket);
+                } finally {
+                    finished.incrementAndGet();
+                    slots.release();
+                }
+            });
+        }
+    }
+
+    private static void reject(Socket socket) {
+        try (socket) {
+            OutputStream out = socket.getOutputStream();
+            out.write("Servidor cheio. Tenta mais tarde.\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException e) {
+            // o cliente já desligou
+        }
+    }
+
+    private void session(Socket socket) {
+        ClientInput input = null;
+        ClientOutput output = null;
+        ConsoleContext console = null;
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(IDLE_TIMEOUT_MS);
+            output = new ClientOutput(socket.getOutputStream(), OUTPUT_BUFFER, WRITE_TIMEOUT_MS, () -> closeQuietly(socket));
+            input = new ClientInput(socket.getInputStream(), MAX_LINE_BYTES, MAX_PENDING_LINES);
+            console = new ConsoleContext(output, GameClock.parse(clock));
+            Game game = new Game(input);
+            console.run(game::startGame);
+        } catch (IOException e) {
+            // a ligação falhou antes de a partida começar
+        } catch (RuntimeException e) {
+            // um erro numa partida não pode derrubar o servidor
+            System.err.println("Erro na sessão: " + e);
+        } finally {
+            if (console != null) console.close();
+            if (output != null) output.close();
+            if (input != null) {
+                // o cliente recebe o fim da saída antes de o socket fechar
+                try {
+                    socket.shutdownOutput();
+                    socket.setSoTimeout(CLOSE_WAIT_MS);
+                } catch (IOException e) {
+                    // a ligação já caiu
+                }
+                input.close(2L * CLOSE_WAIT_MS);
+            }
+            closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // já estava fechado
+        }
+    }
+
+    /**
+     * Deixa de aceitar ligações; as sessões em curso continuam até terminarem.
+     */
+    public void close() {
+        ServerSocket s = server;
+        if (s != null) closeQuietly(s);
+    }
+
+    private static void closeQuietly(ServerSocket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // já estava fechado
+        }
+    }
+
+    /**
+     * Devolve o número de sessões em curso.
+     *
+     * @return sessões ativas
+     */
+    public long getActiveSessions() { return started.get() - finished.get(); }
+
+    /**
+     * Devolve o número de sessões já terminadas.
+     *
+     * @return sessões terminadas
+     */
+    public long getFinishedSessions() { return finished.get(); }
+
+    /**
+     * Devolve o número de ligações recusadas por o servidor estar cheio.
+     *
+     * @return ligações recusadas
+     */
+    public long getRejected() { return rejected.get(); }
+
+    /**
+     * Arranca o servidor.
+     * Opções: {@code --port=N}, {@code --clock=real|turbo|turbo:FATOR|virtual}, {@code --max-sessions=N}.
+     *
+     * @param args argumentos da linha de comandos
+     * @throws IOException se a porta não puder ser aberta
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 4000;
+        String clock = "real";
+        int maxSessions = 10_000;
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) port = Integer.parseInt(arg.substring("--port=".length()));
+            else if (arg.startsWith("--clock=")) clock = arg.substring("--clock=".length());
+            else if (arg.startsWith("--max-sessions=")) maxSessions = Integer.parseInt(arg.substring("--max-sessions=".length()));
+        }
+        Audio.setEnabled(false);
+
+        GameServer server = new GameServer(port, clock, maxSessions);
+        int bound = server.bind();
+        System.out.println("Servidor à escuta na porta " + bound + " (relógio " + clock + ", até " + maxSessions + " sessões).");
+        server.acceptLoop();
+    }
+}
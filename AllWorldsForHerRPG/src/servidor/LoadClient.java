@@ -0,0 +1,103 @@
+package servidor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cliente de carga para o {@link GameServer}: abre várias ligações ao mesmo tempo, cada uma numa thread virtual,
+ * envia o mesmo script de respostas e lê toda a saída até o servidor fechar a ligação.
+ * Todas as ligações ficam abertas em simultâneo antes de o script ser enviado, para medir sessões concorrentes.
+ *
+ * <pre>
+ * java -cp out servidor.LoadClient --sessions=10000 --script=FICHEIRO [--host=localhost] [--port=4000]
+ * </pre>
+ */
+public final class LoadClient {
+
+    private LoadClient() {}
+
+    /**
+     * Corre o teste de carga e mostra quantas sessões terminaram, os bytes recebidos e o tempo.
+     *
+     * @param args argumentos da linha de comandos
+     * @throws IOException se o script não puder ser lido
+     * @throws InterruptedException se o teste for interrompido
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = "localhost";
+        int port = 4000;
+        int sessions = 100;
+        String scriptFile = null;
+        for (String arg : args) {
+            if (arg.startsWith("--host=")) host = arg.substring("--host=".length());
+            else if (arg.startsWith("--port=")) port = Integer.parseInt(arg.substring("--port=".length()));
+            else if (arg.startsWith("--sessions=")) sessions = Integer.parseInt(arg.substring("--sessions=".length()));
+            else if (arg.startsWith("--script=")) scriptFile = arg.substring("--script=".length());
+        }
+        if (scriptFile == null) {
+            System.err.println("Uso: java servidor.LoadClient --sessions=N --script=FICHEIRO [--host=H] [--port=P]");
+            System.exit(2);
+        }
+        byte[] script = (String.join("\n", Files.readAllLines(Path.of(scriptFile), StandardCharsets.UTF_8)) + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        CountDownLatch connected = new CountDownLatch(sessions);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+
+        long start = System.nanoTime();
+        List<Runnable> clients = new ArrayList<>();
+        for (int i = 0; i < sessions; i++) {
+            clients.add(() -> {
+                try (Socket socket = new Socket()) {
+                    socket.connect(address, 30_000);
+                    connected.countDown();
+                    go.await();
+                    OutputStream out = socket.getOutputStream();
+                    out.write(script);
+                    out.flush();
+                    socket.shutdownOutput();
+
+                    InputStream in = socket.getInputStream();
+                    byte[] buf = new byte[4096];
+                    long total = 0;
+                    int n;
+                    while ((n = in.read(buf)) > 0) total += n;
+                    bytes.addAndGet(total);
+                    completed.incrementAndGet();
+                } catch (IOException e) {
+                    connected.countDown();
+                    failed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            clients.forEach(executor::submit);
+            connected.await();
+            System.out.printf("%d ligações abertas em %.1f s%n", sessions - failed.get(), (System.nanoTime() - start) / 1e9);
+            go.countDown();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Sessões terminadas: %d, falhadas: %d, %.1f MB recebidos, %.1f s%n",
+                completed.get(), failed.get(), bytes.get() / 1e6, seconds);
+    }
+}
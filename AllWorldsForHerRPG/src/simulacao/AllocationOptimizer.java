@@ -0,0 +1,113 @@
+package simulacao;
+
+import jogo.HeroSetup;
+import jogo.Maze;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Procura a distribuição de pontos (vida/força) com maior hipótese de vencer o labirinto
+ * para uma classe de herói e uma dificuldade.
+ * Todas as distribuições válidas (força de 0 ao máximo, o resto em vida) são avaliadas em paralelo
+ * pelo {@link Simulator}, com saídas ao acaso para que todos os combates do labirinto contem;
+ * as melhores são depois reavaliadas com mais partidas.
+ * Todas as distribuições usam as mesmas sementes, por isso as diferenças vêm só da distribuição e não do acaso.
+ * Ganha a distribuição com mais vitórias; em empate (por exemplo, quando nenhuma vence no Difícil),
+ * a que vence mais combates em média.
+ * <p>
+ * O resultado fica em cache por (classe, dificuldade) durante toda a sessão;
+ * {@link #prefetch} permite começar o cálculo em segundo plano antes de o jogador chegar à escolha do estilo.
+ */
+public final class AllocationOptimizer {
+
+    /** Partidas por distribuição na primeira passagem. */
+    private static final int SCREEN_RUNS = 8_192;
+    /** Partidas por distribuição na reavaliação das melhores. */
+    private static final int REFINE_RUNS = 131_072;
+    /** Número de distribuições reavaliadas. */
+    private static final int REFINE_TOP = 6;
+    private static final long SEED = 0x5EEDL;
+
+    private static final Map<Integer, CompletableFuture<int[]>> CACHE = new ConcurrentHashMap<>();
+
+    private AllocationOptimizer() {}
+
+    /**
+     * Começa (se ainda não começou) o cálculo da melhor distribuição em segundo plano.
+     *
+     * @param heroChoice 1 Enfermeira, 2 Estafeta, 3 Professora
+     * @param difficulty 1 para Fácil, 2 para Difícil
+     * @return cálculo em curso ou já terminado; o resultado é vida e força, por esta ordem
+     */
+    public static CompletableFuture<int[]> prefetch(int heroChoice, int difficulty) {
+        return CACHE.computeIfAbsent(heroChoice * 10 + difficulty,
+                k -> CompletableFuture.supplyAsync(() -> search(heroChoice, difficulty)));
+    }
+
+    /**
+     * Indica se a melhor distribuição já está calculada, ou seja, se {@link #best} responde de imediato.
+     *
+     * @param heroChoice 1 Enfermeira, 2 Estafeta, 3 Professora
+     * @param difficulty 1 para Fácil, 2 para Difícil
+     * @return true se o resultado está em cache
+     */
+    public static boolean isReady(int heroChoice, int difficulty) {
+        CompletableFuture<int[]> f = CACHE.get(heroChoice * 10 + difficulty);
+        return f != null && f.isDone();
+    }
+
+    /**
+     * Devolve a melhor distribuição, esperando pelo cálculo se ainda não estiver em cache.
+     *
+     * @param heroChoice 1 Enfermeira, 2 Estafeta, 3 Professora
+     * @param difficulty 1 para Fácil, 2 para Difícil
+     * @return vida e força, por esta ordem
+     */
+    public static int[] best(int heroChoice, int difficulty) {
+        return prefetch(heroChoice, difficulty).join().clone();
+    }
+
+    private static int[] search(int heroChoice, int difficulty) {
+        int points = HeroSetup.points(difficulty);
+        // pelo menos 1 ponto de vida: um herói sem vida nem chega a combater
+        int maxStrength = (points - 1) / HeroSetup.STRENGTH_COST;
+
+        SimReport[] screen = IntStream.rangeClosed(0, maxStrength)
+                .parallel()
+                .mapToObj(s -> evaluate(heroChoice, difficulty, points, s, SCREEN_RUNS))
+                .toArray(SimReport[]::new);
+
+        Integer[] order = new Integer[screen.length];
+        for (int s = 0; s < order.length; s++) order[s] = s;
+        Arrays.sort(order, (a, b) -> compare(screen[b], screen[a]));
+
+        int top = Math.min(REFINE_TOP, order.length);
+        SimReport[] refined = IntStream.range(0, top)
+                .parallel()
+                .mapToObj(i -> evaluate(heroChoice, difficulty, points, order[i], REFINE_RUNS))
+                .toArray(SimReport[]::new);
+
+        int best = 0;
+        for (int i = 1; i < top; i++) {
+            if (compare(refined[i], refined[best]) > 0) best = i;
+        }
+        return HeroSetup.split(points, order[best]);
+    }
+
+    private static int compare(SimReport a, SimReport b) {
+        int c = Long.compare(a.getWins(), b.getWins());
+        return (c != 0) ? c : Double.compare(a.getMeanLevel(), b.getMeanLevel());
+    }
+
+    private static SimReport evaluate(int heroChoice, int difficulty, int points, int strength, int runs) {
+        int[] allocation = HeroSetup.split(points, strength);
+        SimModel model = SimModel.compile(Maze.standard(), heroChoice, difficulty,
+                HeroSetup.STYLE_OPTIMIZED, allocation[0], allocation[1]);
+        Policy policy = new BasicPolicy(BasicPolicy.Exits.RANDOM, false, 0.6);
+        return new Simulator(model, policy).run(runs, SEED);
+    }
+}
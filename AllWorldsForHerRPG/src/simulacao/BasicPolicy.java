@@ -0,0 +1,143 @@
+package simulacao;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Política simples e razoável, parecida com a de um jogador cauteloso:
+ * usa o especial logo no início do combate, guarda as recompensas, compra a melhor arma ao alcance,
+ * bebe poções de força logo e poções de vida quando a vida desce abaixo de um limite.
+ * As saídas são escolhidas pela lista de salas preferidas e, se nenhuma servir, pela primeira ou ao acaso.
+ */
+public class BasicPolicy implements Policy {
+
+    /** Como escolher a saída quando nenhuma das salas preferidas está disponível. */
+    public enum Exits { FIRST, RANDOM }
+
+    private final Exits exits;
+    private final boolean fastCrossing;
+    private final double healBelow;
+    private final int[] preferred;
+
+    /**
+     * Cria a política por omissão: primeira saída, travessias devagar, cura abaixo de 60% da vida.
+     */
+    public BasicPolicy() {
+        this(Exits.FIRST, false, 0.6);
+    }
+
+    /**
+     * Cria uma política com as opções indicadas.
+     *
+     * @param exits escolha de saída quando nenhuma sala preferida está disponível
+     * @param fastCrossing true para atravessar as salas de risco depressa
+     * @param healBelow fração da vida máxima abaixo da qual bebe uma poção de vida
+     * @param preferred salas preferidas, por ordem de preferência
+     */
+    public BasicPolicy(Exits exits, boolean fastCrossing, double healBelow, int... preferred) {
+        this.exits = exits;
+        this.fastCrossing = fastCrossing;
+        this.healBelow = healBelow;
+        this.preferred = preferred.clone();
+    }
+
+    @Override
+    public int chooseCrossing(SimRun run) {
+        return fastCrossing ? 2 : 1;
+    }
+
+    @Override
+    public int chooseAttack(SimRun run, int enemyHealth) {
+        if (!run.isSpecialUsed()) return 2;
+
+        int normal = run.getStrength() + run.getWeaponAttack();
+        if (enemyHealth <= normal) return 1;
+
+        // em perigo de morrer no próximo golpe (ponto fraco duplica o dano): gasta um consumível
+        int worstHit = run.getModel().getEnemyStrength(run.getRoom()) * 2;
+        if (run.getHealth() <= worstHit && run.has(SimModel.ITEM_COMBAT)) return 3;
+        return 1;
+    }
+
+    @Override
+    public int chooseCombatItem(SimRun run, int enemyHealth) {
+        SimModel m = run.getModel();
+        int best = -1;
+        for (int i = 0; i < m.getItemCount(); i++) {
+            if (run.count(i) == 0 || m.getItemKind(i) != SimModel.ITEM_COMBAT) continue;
+            if (best < 0 || m.getItemInstant(i) > m.getItemInstant(best)) best = i;
+        }
+        return best;
+    }
+
+    @Override
+    public boolean keepReward(SimRun run, int item) {
+        return true;
+    }
+
+    @Override
+    public int chooseShopItem(SimRun run, int[] offer, int size) {
+        SimModel m = run.getModel();
+        int gold = run.getGold();
+
+        int weapon = -1;
+        int boost = -1;
+        int heal = -1;
+        for (int k = 0; k < size; k++) {
+            int item = offer[k];
+            if (m.getItemPrice(item) > gold) continue;
+
+            int kind = m.getItemKind(item);
+            if (kind == SimModel.ITEM_WEAPON) {
+                if (m.getItemAttack(item) <= run.getWeaponAttack()) continue;
+                if (weapon < 0 || m.getItemAttack(item) > m.getItemAttack(offer[weapon])) weapon = k;
+            } else if (kind == SimModel.ITEM_POTION && m.getItemBoost(item) > 0) {
+                if (boost < 0 || m.getItemBoost(item) > m.getItemBoost(offer[boost])) boost = k;
+            } else if (kind == SimModel.ITEM_POTION && m.getItemHeal(item) > 0) {
+                if (heal < 0 || m.getItemHeal(item) > m.getItemHeal(offer[heal])) heal = k;
+            }
+        }
+        if (weapon >= 0) return weapon;
+        if (boost >= 0) return boost;
+        return heal;
+    }
+
+    @Override
+    public int choosePotion(SimRun run) {
+        SimModel m = run.getModel();
+        int missing = run.getMaxHealth() - run.getHealth();
+        boolean low = run.getHealth() < run.getMaxHealth() * healBelow;
+
+        int best = -1;
+        for (int i = 0; i < m.getItemCount(); i++) {
+            if (run.count(i) == 0 || m.getItemKind(i) != SimModel.ITEM_POTION) continue;
+            if (m.getItemBoost(i) > 0) return i;
+            if (!low) continue;
+
+            // a poção mais pequena que cura tudo o que falta; se nenhuma chega, a maior
+            if (best < 0) {
+                best = i;
+            } else {
+                int h = m.getItemHeal(i);
+                int b = m.getItemHeal(best);
+                boolean fits = h >= missing;
+                boolean bestFits = b >= missing;
+                if ((fits && (!bestFits || h < b)) || (!fits && !bestFits && h > b)) best = i;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int chooseExit(SimRun run, RandomGenerator random) {
+        SimModel m = run.getModel();
+        int room = run.getRoom();
+        int count = m.getExitCount(room);
+
+        for (int p : preferred) {
+            for (int k = 0; k < count; k++) {
+                if (m.getExit(room, k) == p) return k;
+            }
+        }
+        return (exits == Exits.RANDOM) ? random.nextInt(count) : 0;
+    }
+}
@@ -0,0 +1,113 @@
+package simulacao;
+
+import combate.CombatPolicy;
+import combate.FightSolver;
+import combate.PolicyCache;
+
+import java.util.Arrays;
+
+/**
+ * Política que joga os combates de forma ótima, consultando as tabelas de {@link PolicyCache};
+ * as restantes decisões (loja, poções, saídas) são as de {@link BasicPolicy}.
+ * Cada thread guarda a última tabela usada, por isso um turno de combate custa apenas uma consulta à tabela.
+ * Os combates grandes demais para uma tabela são calculados estado a estado com um {@link FightSolver}.
+ */
+public class OptimalPolicy extends BasicPolicy {
+
+    /** Número de políticas recentes guardadas por thread (chegam para as combinações de força, arma e inimigo de uma partida). */
+    private static final int RECENT = 32;
+
+    /** Memória de trabalho de cada thread: as últimas políticas usadas, o solver e o dano dos consumíveis disponíveis. */
+    private static final class Slot {
+        final CombatPolicy[] recent = new CombatPolicy[RECENT];
+        final FightSolver solver = new FightSolver();
+        int next;
+        int[] damages = new int[8];
+        int count;
+    }
+
+    private final PolicyCache cache;
+    private final ThreadLocal<Slot> slots = ThreadLocal.withInitial(Slot::new);
+
+    /**
+     * Cria a política com a cache partilhada e as opções por omissão de {@link BasicPolicy}.
+     */
+    public OptimalPolicy() {
+        this(PolicyCache.shared(), Exits.FIRST, false, 0.6);
+    }
+
+    /**
+     * Cria uma política com as opções indicadas.
+     *
+     * @param cache cache de onde vêm as políticas de combate
+     * @param exits escolha de saída quando nenhuma sala preferida está disponível
+     * @param fastCrossing true para atravessar as salas de risco depressa
+     * @param healBelow fração da vida máxima abaixo da qual bebe uma poção de vida
+     * @param preferred salas preferidas, por ordem de preferência
+     */
+    public OptimalPolicy(PolicyCache cache, Exits exits, boolean fastCrossing, double healBelow, int... preferred) {
+        super(exits, fastCrossing, healBelow, preferred);
+        this.cache = cache;
+    }
+
+    @Override
+    public int chooseAttack(SimRun run, int enemyHealth) {
+        return CombatPolicy.actionOf(bestMove(run, enemyHealth));
+    }
+
+    @Override
+    public int chooseCombatItem(SimRun run, int enemyHealth) {
+        int damage = CombatPolicy.itemDamageOf(bestMove(run, enemyHealth));
+        SimModel m = run.getModel();
+        for (int i = 0; i < m.getItemCount(); i++) {
+            if (run.count(i) > 0 && m.getItemKind(i) == SimModel.ITEM_COMBAT && m.getItemInstant(i) == damage) return i;
+        }
+        return -1;
+    }
+
+    private int bestMove(SimRun run, int enemyHealth) {
+        Slot slot = slots.get();
+        collectDamages(run, slot);
+
+        SimModel m = run.getModel();
+        int room = run.getRoom();
+        int weaponAttack = run.getWeaponAttack();
+        int weaponSpecial = run.getWeaponSpecial();
+        int enemyStrength = m.getEnemyStrength(room);
+
+        CombatPolicy policy = null;
+        for (CombatPolicy p : slot.recent) {
+            if (p != null && p.covers(run.getStrength(), weaponAttack, weaponSpecial, m.getSpecialBonus(),
+                    enemyStrength, run.getHealth(), enemyHealth, slot.damages, slot.count)) {
+                policy = p;
+                break;
+            }
+        }
+        if (policy == null) {
+            policy = cache.get(run.getStrength(), weaponAttack, weaponSpecial, m.getSpecialBonus(), enemyStrength,
+                    Math.max(run.getMaxHealth(), run.getHealth()), Math.max(m.getEnemyHealth(room), enemyHealth),
+                    slot.damages, slot.count);
+            if (policy == null) {
+                slot.solver.solve(run.getHealth(), run.getStrength(), weaponAttack, weaponSpecial, m.getSpecialBonus(),
+                        run.isSpecialUsed(), slot.damages, slot.count, enemyHealth, enemyStrength);
+                return slot.solver.getBestMove();
+            }
+            slot.recent[slot.next] = policy;
+            slot.next = (slot.next + 1) % RECENT;
+        }
+        return policy.bestMove(run.getHealth(), enemyHealth, run.isSpecialUsed(), slot.damages, slot.count);
+    }
+
+    private static void collectDamages(SimRun run, Slot slot) {
+        SimModel m = run.getModel();
+        int n = 0;
+        for (int i = 0; i < m.getItemCount(); i++) {
+            if (m.getItemKind(i) != SimModel.ITEM_COMBAT) continue;
+            for (int k = run.count(i); k > 0; k--) {
+                if (n == slot.damages.length) slot.damages = Arrays.copyOf(slot.damages, n * 2);
+                slot.damages[n++] = m.getItemInstant(i);
+            }
+        }
+        slot.count = n;
+    }
+}
@@ -0,0 +1,74 @@
+package simulacao;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Política de decisão usada pelo simulador no lugar das escolhas do jogador.
+ * A mesma instância é partilhada por todas as threads, por isso não deve guardar estado entre chamadas.
+ */
+public interface Policy {
+
+    /**
+     * Escolhe como atravessar uma sala de risco.
+     *
+     * @param run estado da partida
+     * @return 1 para ir devagar, 2 para ir depressa
+     */
+    int chooseCrossing(SimRun run);
+
+    /**
+     * Escolhe a ação de um turno de combate.
+     * Uma escolha que o jogo recusaria (especial repetido, sem consumíveis) é tratada como ataque normal.
+     *
+     * @param run estado da partida
+     * @param enemyHealth vida atual do inimigo
+     * @return 1 ataque normal, 2 ataque especial, 3 consumível de combate
+     */
+    int chooseAttack(SimRun run, int enemyHealth);
+
+    /**
+     * Escolhe o consumível de combate a usar depois de {@link #chooseAttack} devolver 3.
+     *
+     * @param run estado da partida
+     * @param enemyHealth vida atual do inimigo
+     * @return índice do item, ou -1 para desistir (conta como ataque normal)
+     */
+    int chooseCombatItem(SimRun run, int enemyHealth);
+
+    /**
+     * Decide se a poção de recompensa vai para o inventário.
+     * Tal como no jogo, escolher "Usar agora" não aplica o efeito da poção.
+     *
+     * @param run estado da partida
+     * @param item índice da poção de recompensa
+     * @return true para guardar no inventário
+     */
+    boolean keepReward(SimRun run, int item);
+
+    /**
+     * Escolhe um item da oferta do mercador. A loja volta a baralhar a oferta depois de cada escolha.
+     *
+     * @param run estado da partida
+     * @param offer itens da oferta atual (índices de item)
+     * @param size número de itens válidos em {@code offer}
+     * @return posição na oferta, ou -1 para sair da loja
+     */
+    int chooseShopItem(SimRun run, int[] offer, int size);
+
+    /**
+     * Escolhe uma poção a beber antes de sair da sala.
+     *
+     * @param run estado da partida
+     * @return índice do item, ou -1 para não usar nada
+     */
+    int choosePotion(SimRun run);
+
+    /**
+     * Escolhe a saída da sala atual.
+     *
+     * @param run estado da partida
+     * @param random gerador da partida, para políticas aleatórias
+     * @return posição da saída, de 0 a {@code getExitCount(room) - 1}
+     */
+    int chooseExit(SimRun run, RandomGenerator random);
+}
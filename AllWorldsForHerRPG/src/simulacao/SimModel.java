@@ -0,0 +1,297 @@
+package simulacao;
+
+import entidades.Hero;
+import entidades.NPC;
+import itens.CombatConsumable;
+import itens.Consumable;
+import itens.Item;
+import itens.Potion;
+import itens.Weapon;
+import jogo.HeroSetup;
+import jogo.Maze;
+import jogo.Room;
+import jogo.RoomGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Cenário de simulação compilado: o labirinto, o stock do mercador e o herói inicial
+ * convertidos em tabelas de inteiros indexadas por sala e por item.
+ * É imutável depois de criado e pode ser partilhado por todas as threads da simulação.
+ */
+public final class SimModel {
+
+    public static final int ROOM_EMPTY = 0;
+    public static final int ROOM_SHOP = 1;
+    public static final int ROOM_RISK = 2;
+    public static final int ROOM_COMBAT = 3;
+
+    public static final int ITEM_POTION = 0;
+    public static final int ITEM_COMBAT = 1;
+    public static final int ITEM_WEAPON = 2;
+
+    // salas
+    final String[] roomNames;
+    final int[] roomType;
+    final double[] slowDeath;
+    final double[] fastDeath;
+    final int[] enemyHealth;
+    final int[] enemyStrength;
+    final int[] enemyGold;
+    final int[] rewardItem;
+    final int[] exitStart;
+    final int[] exitTo;
+    final int entrance;
+    final int boss;
+    private final RoomGraph graph;
+
+    // itens
+    final String[] itemNames;
+    final int[] itemKind;
+    final int[] itemPrice;
+    final int[] itemHeal;
+    final int[] itemBoost;
+    final int[] itemInstant;
+    final int[] itemAttack;
+    final int[] itemSpecial;
+    final int[] stock;
+
+    // herói inicial
+    final int heroChoice;
+    final int difficulty;
+    final int style;
+    final int startHealth;
+    final int startStrength;
+    final int startGold;
+    final int specialBonus;
+    final int starterWeapon;
+    final int[] starterItems;
+
+    private SimModel(Maze maze, int heroChoice, int difficulty, int style, int health, int strength) {
+        this.heroChoice = heroChoice;
+        this.difficulty = difficulty;
+        this.style = style;
+
+        Hero hero = HeroSetup.create(heroChoice, "Simulação", health, strength, HeroSetup.gold(difficulty));
+        Maze.giveStarterKit(hero);
+
+        startHealth = hero.getMaxHealth();
+        startStrength = hero.getStrength();
+        startGold = hero.getGold();
+        specialBonus = hero.getSpecialBonus();
+
+        graph = maze.getGraph();
+        ArrayList<Item> items = new ArrayList<>();
+        IdentityHashMap<Item, Integer> itemIds = new IdentityHashMap<>();
+
+        ArrayList<Item> vendorStock = maze.getVendor().getStock();
+        int allowed = 0;
+        int[] stockIds = new int[vendorStock.size()];
+        for (Item it : vendorStock) {
+            if (it.isAllowedFor(hero)) stockIds[allowed++] = idOf(it, items, itemIds);
+        }
+        stock = Arrays.copyOf(stockIds, allowed);
+
+        starterWeapon = (hero.getEquippedWeapon() == null) ? -1 : idOf(hero.getEquippedWeapon(), items, itemIds);
+        ArrayList<Consumable> inventory = hero.getInventory();
+        starterItems = new int[inventory.size()];
+        for (int i = 0; i < inventory.size(); i++) starterItems[i] = idOf(inventory.get(i), items, itemIds);
+
+        int n = graph.size();
+        roomNames = new String[n];
+        roomType = new int[n];
+        slowDeath = new double[n];
+        fastDeath = new double[n];
+        enemyHealth = new int[n];
+        enemyStrength = new int[n];
+        enemyGold = new int[n];
+        rewardItem = new int[n];
+        exitStart = new int[n + 1];
+        exitTo = new int[graph.getExitTotal()];
+
+        int exits = 0;
+        for (int i = 0; i < n; i++) {
+            Room r = graph.getRoom(i);
+            roomNames[i] = r.getRoomName();
+            exitStart[i] = exits;
+            for (int k = 0; k < graph.getExitCount(i); k++) exitTo[exits++] = graph.getExit(i, k);
+            rewardItem[i] = -1;
+
+            if (r.isRiskRoom()) {
+                roomType[i] = ROOM_RISK;
+                slowDeath[i] = r.getRiskEvent().getSlowDeathChance();
+                fastDeath[i] = r.getRiskEvent().getFastDeathChance();
+            } else if (r.isShopRoom()) {
+                roomType[i] = ROOM_SHOP;
+            } else if (r.getEnemy() != null) {
+                NPC enemy = r.getEnemy();
+                roomType[i] = ROOM_COMBAT;
+                enemyHealth[i] = enemy.getMaxHealth();
+                enemyStrength[i] = enemy.getStrength();
+                enemyGold[i] = enemy.getGoldReward();
+                if (r.getRewardPotion() != null) rewardItem[i] = idOf(r.getRewardPotion(), items, itemIds);
+            } else {
+                roomType[i] = ROOM_EMPTY;
+            }
+        }
+        exitStart[n] = exits;
+
+        entrance = indexOf(Maze.ENTRANCE);
+        boss = indexOf(Maze.BOSS_ROOM);
+
+        int m = items.size();
+        itemNames = new String[m];
+        itemKind = new int[m];
+        itemPrice = new int[m];
+        itemHeal = new int[m];
+        itemBoost = new int[m];
+        itemInstant = new int[m];
+        itemAttack = new int[m];
+        itemSpecial = new int[m];
+        for (int i = 0; i < m; i++) {
+            Item it = items.get(i);
+            itemNames[i] = it.getName();
+            itemPrice[i] = it.getPrice();
+            if (it instanceof Weapon w) {
+                itemKind[i] = ITEM_WEAPON;
+                itemAttack[i] = w.getAttack();
+                itemSpecial[i] = w.getSpecialAttack();
+            } else if (it instanceof CombatConsumable c) {
+                itemKind[i] = ITEM_COMBAT;
+                itemInstant[i] = c.getInstantAttack();
+            } else if (it instanceof Potion p) {
+                itemKind[i] = ITEM_POTION;
+                itemHeal[i] = p.getHealAmount();
+                itemBoost[i] = p.getStrengthBoost();
+            }
+        }
+    }
+
+    /**
+     * Compila o cenário de um labirinto para uma classe de herói, dificuldade e estilo de distribuição automática.
+     *
+     * @param maze labirinto a simular
+     * @param heroChoice 1 Enfermeira, 2 Estafeta, 3 Professora
+     * @param difficulty 1 para Fácil, 2 para Difícil
+     * @param style estilo de distribuição automática dos pontos (ver {@link HeroSetup#autoAllocate});
+     *              o estilo {@link HeroSetup#STYLE_OPTIMIZED} usa a distribuição de {@link AllocationOptimizer}
+     * @return cenário compilado
+     */
+    public static SimModel compile(Maze maze, int heroChoice, int difficulty, int style) {
+        int[] allocation = (style == HeroSetup.STYLE_OPTIMIZED)
+                ? AllocationOptimizer.best(heroChoice, difficulty)
+                : HeroSetup.autoAllocate(HeroSetup.points(difficulty), style);
+        return new SimModel(maze, heroChoice, difficulty, style, allocation[0], allocation[1]);
+    }
+
+    /**
+     * Compila o cenário de um labirinto com uma distribuição de pontos já decidida.
+     *
+     * @param maze labirinto a simular
+     * @param heroChoice 1 Enfermeira, 2 Estafeta, 3 Professora
+     * @param difficulty 1 para Fácil, 2 para Difícil
+     * @param style estilo apresentado na descrição do cenário
+     * @param health vida inicial
+     * @param strength força inicial
+     * @return cenário compilado
+     */
+    public static SimModel compile(Maze maze, int heroChoice, int difficulty, int style, int health, int strength) {
+        return new SimModel(maze, heroChoice, difficulty, style, health, strength);
+    }
+
+    private static int idOf(Item item, ArrayList<Item> items, IdentityHashMap<Item, Integer> ids) {
+        Integer id = ids.get(item);
+        if (id != null) return id;
+        ids.put(item, items.size());
+        items.add(item);
+        return items.size() - 1;
+    }
+
+    /**
+     * Procura uma sala pelo nome.
+     *
+     * @param name nome da sala
+     * @return índice da sala, ou -1 se não existir
+     */
+    public int indexOf(String name) {
+        return graph.idOf(name);
+    }
+
+    public int getRoomCount() { return roomNames.length; }
+
+    public String getRoomName(int room) { return roomNames[room]; }
+
+    public int getRoomType(int room) { return roomType[room]; }
+
+    public double getSlowDeathChance(int room) { return slowDeath[room]; }
+
+    public double getFastDeathChance(int room) { return fastDeath[room]; }
+
+    public int getEnemyHealth(int room) { return enemyHealth[room]; }
+
+    public int getEnemyStrength(int room) { return enemyStrength[room]; }
+
+    public int getEnemyGold(int room) { return enemyGold[room]; }
+
+    /**
+     * Devolve a poção de recompensa do combate de uma sala.
+     *
+     * @param room índice da sala
+     * @return índice do item, ou -1 se não houver recompensa
+     */
+    public int getRewardItem(int room) { return rewardItem[room]; }
+
+    public int getExitCount(int room) { return exitStart[room + 1] - exitStart[room]; }
+
+    /**
+     * Devolve o destino de uma saída de uma sala.
+     *
+     * @param room índice da sala
+     * @param k posição da saída, de 0 a {@code getExitCount(room) - 1}
+     * @return índice da sala de destino
+     */
+    public int getExit(int room, int k) { return exitTo[exitStart[room] + k]; }
+
+    public int getEntrance() { return entrance; }
+
+    public int getBoss() { return boss; }
+
+    public int getItemCount() { return itemNames.length; }
+
+    public String getItemName(int item) { return itemNames[item]; }
+
+    public int getItemKind(int item) { return itemKind[item]; }
+
+    public int getItemPrice(int item) { return itemPrice[item]; }
+
+    public int getItemHeal(int item) { return itemHeal[item]; }
+
+    public int getItemBoost(int item) { return itemBoost[item]; }
+
+    public int getItemInstant(int item) { return itemInstant[item]; }
+
+    public int getItemAttack(int item) { return itemAttack[item]; }
+
+    public int getItemSpecial(int item) { return itemSpecial[item]; }
+
+    public int getHeroChoice() { return heroChoice; }
+
+    public int getDifficulty() { return difficulty; }
+
+    public int getStyle() { return style; }
+
+    public int getSpecialBonus() { return specialBonus; }
+
+    /**
+     * Descreve o cenário (classe, dificuldade e estilo).
+     *
+     * @return descrição curta
+     */
+    public String describe() {
+        return HeroSetup.className(heroChoice) + " · " + HeroSetup.difficultyName(difficulty)
+                + " · " + HeroSetup.styleName(style)
+                + " (vida " + startHealth + ", força " + startStrength + ", ouro " + startGold + ")";
+    }
+}
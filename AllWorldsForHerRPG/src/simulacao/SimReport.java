@@ -0,0 +1,149 @@
+package simulacao;
+
+import java.io.PrintStream;
+
+/**
+ * Resultados agregados de uma simulação: vitórias, mortes por sala e distribuições de ouro e nível no fim das partidas.
+ * Cada thread acumula o seu relatório e no fim os relatórios são juntados com {@link #merge}.
+ */
+public final class SimReport {
+
+    /** Largura de cada intervalo do histograma de ouro. */
+    public static final int GOLD_BUCKET = 10;
+    private static final int GOLD_BUCKETS = 40;
+
+    private final SimModel model;
+
+    private long runs;
+    private long wins;
+    private long stuck;
+    private long goldSum;
+    private long levelSum;
+    private final long[] visits;
+    private final long[] deaths;
+    private final long[] gold;
+    private final long[] levels;
+
+    /**
+     * Cria um relatório vazio para um cenário.
+     *
+     * @param model cenário simulado
+     */
+    public SimReport(SimModel model) {
+        this.model = model;
+        this.visits = new long[model.getRoomCount()];
+        this.deaths = new long[model.getRoomCount()];
+        this.gold = new long[GOLD_BUCKETS];
+        this.levels = new long[model.getRoomCount() + 2];
+    }
+
+    void visit(int room) {
+        visits[room]++;
+    }
+
+    /**
+     * Regista o fim de uma partida.
+     *
+     * @param run estado final da partida
+     * @param outcome {@link Simulator#WIN}, {@link Simulator#STUCK} ou índice da sala onde o herói morreu
+     */
+    void record(SimRun run, int outcome) {
+        runs++;
+        if (outcome == Simulator.WIN) wins++;
+        else if (outcome == Simulator.STUCK) stuck++;
+        else deaths[outcome]++;
+
+        goldSum += run.gold;
+        levelSum += run.level;
+        gold[Math.min(GOLD_BUCKETS - 1, run.gold / GOLD_BUCKET)]++;
+        levels[Math.min(levels.length - 1, run.level)]++;
+    }
+
+    /**
+     * Junta outro relatório a este.
+     *
+     * @param other relatório do mesmo cenário
+     * @return este relatório
+     */
+    public SimReport merge(SimReport other) {
+        runs += other.runs;
+        wins += other.wins;
+        stuck += other.stuck;
+        goldSum += other.goldSum;
+        levelSum += other.levelSum;
+        for (int i = 0; i < visits.length; i++) visits[i] += other.visits[i];
+        for (int i = 0; i < deaths.length; i++) deaths[i] += other.deaths[i];
+        for (int i = 0; i < gold.length; i++) gold[i] += other.gold[i];
+        for (int i = 0; i < levels.length; i++) levels[i] += other.levels[i];
+        return this;
+    }
+
+    public long getRuns() { return runs; }
+
+    public long getWins() { return wins; }
+
+    public double getWinRate() { return (runs == 0) ? 0 : (double) wins / runs; }
+
+    public long getDeaths(int room) { return deaths[room]; }
+
+    public long getVisits(int room) { return visits[room]; }
+
+    public double getMeanGold() { return (runs == 0) ? 0 : (double) goldSum / runs; }
+
+    public double getMeanLevel() { return (runs == 0) ? 0 : (double) levelSum / runs; }
+
+    /**
+     * Devolve o percentil do ouro final, arredondado ao intervalo do histograma.
+     *
+     * @param p percentil entre 0 e 1
+     * @return limite inferior do intervalo que contém o percentil
+     */
+    public int goldPercentile(double p) {
+        long target = (long) Math.ceil(runs * p);
+        long seen = 0;
+        for (int i = 0; i < gold.length; i++) {
+            seen += gold[i];
+            if (seen >= target && seen > 0) return i * GOLD_BUCKET;
+        }
+        return (gold.length - 1) * GOLD_BUCKET;
+    }
+
+    /**
+     * Escreve o relatório em texto.
+     *
+     * @param out destino do texto
+     */
+    public void print(PrintStream out) {
+        out.println("=== Simulação: " + model.describe() + " ===");
+        out.printf("Partidas: %d | Vitórias: %d (%.2f%%)%n", runs, wins, 100.0 * getWinRate());
+        if (stuck > 0) out.println("Partidas sem saída: " + stuck);
+
+        out.println();
+        out.println("Mortes por sala (percentagem das partidas | taxa entre quem entrou na sala):");
+        for (int i = 0; i < deaths.length; i++) {
+            if (visits[i] == 0) continue;
+            out.printf("  %-30s %9d  %6.2f%% | %6.2f%% de %d%n",
+                    model.getRoomName(i), deaths[i],
+                    100.0 * deaths[i] / runs,
+                    100.0 * deaths[i] / visits[i], visits[i]);
+        }
+
+        out.println();
+        out.printf("Ouro final: média %.1f | p10 %d | p50 %d | p90 %d%n",
+                getMeanGold(), goldPercentile(0.10), goldPercentile(0.50), goldPercentile(0.90));
+        for (int i = 0; i < gold.length; i++) {
+            if (gold[i] == 0) continue;
+            String range = (i == gold.length - 1)
+                    ? (i * GOLD_BUCKET) + "+"
+                    : (i * GOLD_BUCKET) + "-" + (i * GOLD_BUCKET + GOLD_BUCKET - 1);
+            out.printf("  %-9s %9d  %6.2f%%%n", range, gold[i], 100.0 * gold[i] / runs);
+        }
+
+        out.println();
+        out.printf("Nível final: média %.2f%n", getMeanLevel());
+        for (int i = 0; i < levels.length; i++) {
+            if (levels[i] == 0) continue;
+            out.printf("  nível %-3d %9d  %6.2f%%%n", i, levels[i], 100.0 * levels[i] / runs);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package simulacao;
+
+import combate.CombatState;
+
+import java.util.Arrays;
+
+/**
+ * Estado mutável de uma partida simulada: atributos do herói, inventário e sala atual.
+ * Cada thread da simulação reutiliza a mesma instância de partida em partida.
+ * As políticas de decisão leem este estado através dos métodos públicos.
+ */
+public final class SimRun {
+
+    final SimModel model;
+    final int[] inventory;
+    final boolean[] cleared;
+    final int[] offer;
+    final CombatState combat = new CombatState();
+
+    int health;
+    int maxHealth;
+    int strength;
+    int gold;
+    int level;
+    int weapon;
+    int room;
+
+    /**
+     * Cria o estado de partida para um cenário.
+     *
+     * @param model cenário compilado
+     */
+    public SimRun(SimModel model) {
+        this.model = model;
+        this.inventory = new int[model.getItemCount()];
+        this.cleared = new boolean[model.getRoomCount()];
+        this.offer = new int[model.stock.length];
+        reset();
+    }
+
+    /**
+     * Repõe o herói inicial na entrada do labirinto, com todas as salas por limpar.
+     */
+    public void reset() {
+        health = model.startHealth;
+        maxHealth = model.startHealth;
+        strength = model.startStrength;
+        gold = model.startGold;
+        level = 1;
+        weapon = model.starterWeapon;
+        room = model.entrance;
+        Arrays.fill(inventory, 0);
+        Arrays.fill(cleared, false);
+        for (int item : model.starterItems) inventory[item]++;
+    }
+
+    public SimModel getModel() { return model; }
+
+    public int getHealth() { return health; }
+
+    public int getMaxHealth() { return maxHealth; }
+
+    public int getStrength() { return strength; }
+
+    public int getGold() { return gold; }
+
+    public int getLevel() { return level; }
+
+    public int getRoom() { return room; }
+
+    public boolean isSpecialUsed() { return combat.isSpecialUsed(); }
+
+    /**
+     * Devolve a arma equipada.
+     *
+     * @return índice do item, ou -1 se não houver arma
+     */
+    public int getWeapon() { return weapon; }
+
+    public int getWeaponAttack() { return (weapon < 0) ? 0 : model.itemAttack[weapon]; }
+
+    public int getWeaponSpecial() { return (weapon < 0) ? 0 : model.itemSpecial[weapon]; }
+
+    /**
+     * Devolve quantas unidades de um item o herói tem no inventário.
+     *
+     * @param item índice do item
+     * @return quantidade
+     */
+    public int count(int item) { return inventory[item]; }
+
+    /**
+     * Conta as unidades de itens do tipo indicado no inventário.
+     *
+     * @param kind {@link SimModel#ITEM_POTION} ou {@link SimModel#ITEM_COMBAT}
+     * @return quantidade total
+     */
+    public int countKind(int kind) {
+        int total = 0;
+        for (int i = 0; i < inventory.length; i++) {
+            if (model.itemKind[i] == kind) total += inventory[i];
+        }
+        return total;
+    }
+
+    /**
+     * Indica se o herói tem algum item do tipo indicado no inventário.
+     *
+     * @param kind {@link SimModel#ITEM_POTION} ou {@link SimModel#ITEM_COMBAT}
+     * @return true se houver pelo menos um
+     */
+    public boolean has(int kind) {
+        for (int i = 0; i < inventory.length; i++) {
+            if (inventory[i] > 0 && model.itemKind[i] == kind) return true;
+        }
+        return false;
+    }
+}
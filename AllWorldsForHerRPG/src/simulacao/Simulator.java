@@ -0,0 +1,280 @@
+package simulacao;
+
+import combate.CombatResolver;
+import combate.CombatState;
+import combate.PolicyCache;
+import jogo.Maze;
+import jogo.RngService;
+
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+/**
+ * Simulador de Monte Carlo de partidas completas do labirinto, sem consola nem som.
+ * Aplica as mesmas regras do {@code GameMachine} (salas, {@code RiskEvent} e {@code Vendor}),
+ * e o combate é resolvido pelo mesmo {@link CombatResolver} que {@code Fight} usa;
+ * as escolhas do jogador vêm de uma {@link Policy}.
+ * As partidas são repartidas em blocos e corridas em paralelo por todos os núcleos;
+ * cada partida tem uma semente própria ({@link RngService#taskSeed}), por isso o resultado é o mesmo com qualquer número de threads.
+ *
+ * <pre>
+ * java -cp out simulacao.Simulator --hero=2 --difficulty=2 --style=2 --runs=1000000
+ * </pre>
+ */
+public final class Simulator {
+
+    /** Resultado de uma partida ganha. */
+    public static final int WIN = -1;
+    /** Resultado de uma partida que ficou presa (sem saídas, ou a política nunca avançou). */
+    public static final int STUCK = -2;
+
+    private static final int CHUNK = 4096;
+    private static final int MAX_STEPS = 256;
+    private static final int MAX_SHOP_ROUNDS = 64;
+
+    private final SimModel model;
+    private final Policy policy;
+
+    /**
+     * Cria um simulador para um cenário e uma política de decisão.
+     *
+     * @param model cenário compilado
+     * @param policy política usada em todas as partidas
+     */
+    public Simulator(SimModel model, Policy policy) {
+        this.model = model;
+        this.policy = policy;
+    }
+
+    /**
+     * Corre as partidas indicadas em paralelo e agrega os resultados.
+     *
+     * @param runs número de partidas
+     * @param seed semente base
+     * @return relatório agregado
+     */
+    public SimReport run(long runs, long seed) {
+        int chunks = (int) ((runs + CHUNK - 1) / CHUNK);
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(c -> runChunk((long) c * CHUNK, Math.min(runs, (long) (c + 1) * CHUNK), seed))
+                .reduce(SimReport::merge)
+                .orElseGet(() -> new SimReport(model));
+    }
+
+    private SimReport runChunk(long from, long to, long seed) {
+        SimReport report = new SimReport(model);
+        SimRun run = new SimRun(model);
+        RngService rng = new RngService(seed);
+        SplitMix random = rng.forTask(from);
+        for (long i = from; i < to; i++) {
+            random.reseed(rng.taskSeed(i));
+            run.reset();
+            report.record(run, playOnce(run, random, report));
+        }
+        return report;
+    }
+
+    /**
+     * Joga uma partida completa, da entrada até à vitória ou à morte.
+     *
+     * @param run estado da partida (já reposto)
+     * @param random gerador da partida
+     * @param report relatório onde são contadas as visitas às salas
+     * @return {@link #WIN}, {@link #STUCK} ou índice da sala onde o herói morreu
+     */
+    int playOnce(SimRun run, SplitMix random, SimReport report) {
+        for (int step = 0; step < MAX_STEPS; step++) {
+            int room = run.room;
+            report.visit(room);
+
+            if (!playRoom(run, random)) return room;
+            if (room == model.boss) return WIN;
+
+            usePotion(run);
+
+            int count = model.getExitCount(room);
+            if (count == 0) return STUCK;
+
+            // tal como no jogo, uma escolha inválida deixa o herói na mesma sala
+            int k = policy.chooseExit(run, random);
+            if (k < 0 || k >= count) continue;
+            int next = model.getExit(room, k);
+            if (next < 0) continue;
+            run.room = next;
+        }
+        return STUCK;
+    }
+
+    private boolean playRoom(SimRun run, SplitMix random) {
+        int room = run.room;
+        switch (model.roomType[room]) {
+            case SimModel.ROOM_RISK: {
+                int choice = policy.chooseCrossing(run);
+                double roll = random.nextDouble();
+                if (choice == 1) return roll >= model.slowDeath[room];
+                if (choice == 2) return roll >= model.fastDeath[room];
+                return true;
+            }
+            case SimModel.ROOM_SHOP:
+                openShop(run, random);
+                run.cleared[room] = true;
+                return true;
+            case SimModel.ROOM_COMBAT:
+                if (run.cleared[room]) return true;
+                if (!fight(run, random)) return false;
+
+                int reward = model.rewardItem[room];
+                if (reward >= 0 && policy.keepReward(run, reward)) run.inventory[reward]++;
+                run.cleared[room] = true;
+                return true;
+            default:
+                run.cleared[room] = true;
+                return true;
+        }
+    }
+
+    private boolean fight(SimRun run, SplitMix random) {
+        int room = run.room;
+        CombatState combat = run.combat;
+        combat.start(run.health, run.strength, run.getWeaponAttack(), run.getWeaponSpecial(), model.specialBonus,
+                run.countKind(SimModel.ITEM_COMBAT), model.enemyHealth[room], model.enemyStrength[room]);
+
+        while (!combat.isOver()) {
+            int action = policy.chooseAttack(run, combat.getEnemyHealth());
+            int damage = CombatResolver.REJECTED;
+
+            if (action == CombatResolver.CONSUMABLE) {
+                int item = policy.chooseCombatItem(run, combat.getEnemyHealth());
+                if (item >= 0 && run.inventory[item] > 0 && model.itemKind[item] == SimModel.ITEM_COMBAT) {
+                    damage = CombatResolver.heroAction(combat, CombatResolver.CONSUMABLE, model.itemInstant[item]);
+                    if (damage != CombatResolver.REJECTED) run.inventory[item]--;
+                }
+            } else if (action == CombatResolver.SPECIAL) {
+                damage = CombatResolver.heroAction(combat, CombatResolver.SPECIAL, 0);
+            }
+            // o jogo voltaria a perguntar; o simulador trata uma escolha recusada como ataque normal
+            if (damage == CombatResolver.REJECTED) CombatResolver.heroAction(combat, CombatResolver.NORMAL, 0);
+
+            if (combat.isEnemyAlive()) CombatResolver.enemyAction(combat, random);
+            run.health = combat.getHeroHealth();
+        }
+
+        if (!combat.isHeroAlive()) return false;
+
+        run.gold += model.enemyGold[room];
+        run.level++;
+        run.maxHealth += 10;
+        run.strength += 1;
+        if (run.health > run.maxHealth) run.health = run.maxHealth;
+        return true;
+    }
+
+    private void openShop(SimRun run, SplitMix random) {
+        int[] stock = model.stock;
+        int[] offer = run.offer;
+
+        for (int round = 0; round < MAX_SHOP_ROUNDS; round++) {
+            // mesma baralhação de Collections.shuffle, limitada a 10 itens como em Vendor.getRandomOffer
+            System.arraycopy(stock, 0, offer, 0, stock.length);
+            for (int i = offer.length; i > 1; i--) {
+                int j = random.nextInt(i);
+                int tmp = offer[i - 1];
+                offer[i - 1] = offer[j];
+                offer[j] = tmp;
+            }
+            int size = Math.min(10, offer.length);
+
+            int pick = policy.chooseShopItem(run, offer, size);
+            if (pick < 0 || pick >= size) return;
+
+            int item = offer[pick];
+            int price = model.itemPrice[item];
+            if (run.gold < price) continue;
+            run.gold -= price;
+
+            if (model.itemKind[item] == SimModel.ITEM_WEAPON) run.weapon = item;
+            else run.inventory[item]++;
+        }
+    }
+
+    private void usePotion(SimRun run) {
+        if (!run.has(SimModel.ITEM_POTION)) return;
+
+        int item = policy.choosePotion(run);
+        if (item < 0 || run.inventory[item] == 0 || model.itemKind[item] != SimModel.ITEM_POTION) return;
+
+        run.inventory[item]--;
+        run.health = Math.min(run.maxHealth, run.health + model.itemHeal[item]);
+        run.strength += model.itemBoost[item];
+    }
+
+    /**
+     * Ponto de entrada da linha de comandos.
+     * Opções:
+     * <ul>
+     *   <li>{@code --hero=1|2|3} Enfermeira, Estafeta ou Professora (por omissão 2);</li>
+     *   <li>{@code --difficulty=1|2} Fácil ou Difícil (por omissão 2);</li>
+     *   <li>{@code --style=1|2|3|4} distribuição automática Defensiva, Agressiva, Balanceada ou Otimizada (por omissão 2);</li>
+     *   <li>{@code --runs=N} número de partidas (por omissão 1000000);</li>
+     *   <li>{@code --seed=S} semente base (por omissão 1);</li>
+     *   <li>{@code --exits=first|random} escolha de saída por omissão;</li>
+     *   <li>{@code --prefer=SALA,SALA} salas preferidas quando aparecem como saída;</li>
+     *   <li>{@code --risk=slow|fast} forma de atravessar as salas de risco;</li>
+     *   <li>{@code --combat=basic|optimal} combate simples ou ótimo (tabelas de {@link PolicyCache}).</li>
+     * </ul>
+     *
+     * @param args argumentos da linha de comandos
+     */
+    public static void main(String[] args) {
+        int hero = 2;
+        int difficulty = 2;
+        int style = 2;
+        long runs = 1_000_000;
+        long seed = 1;
+        BasicPolicy.Exits exits = BasicPolicy.Exits.FIRST;
+        boolean fast = false;
+        String prefer = "";
+        boolean optimal = false;
+
+        for (String arg : args) {
+            if (arg.startsWith("--hero=")) hero = Integer.parseInt(arg.substring("--hero=".length()));
+            else if (arg.startsWith("--difficulty=")) difficulty = Integer.parseInt(arg.substring("--difficulty=".length()));
+            else if (arg.startsWith("--style=")) style = Integer.parseInt(arg.substring("--style=".length()));
+            else if (arg.startsWith("--runs=")) runs = Long.parseLong(arg.substring("--runs=".length()));
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(arg.substring("--seed=".length()));
+            else if (arg.startsWith("--exits=")) exits = BasicPolicy.Exits.valueOf(arg.substring("--exits=".length()).toUpperCase());
+            else if (arg.startsWith("--prefer=")) prefer = arg.substring("--prefer=".length());
+            else if (arg.startsWith("--risk=")) fast = arg.substring("--risk=".length()).equalsIgnoreCase("fast");
+            else if (arg.startsWith("--combat=")) optimal = arg.substring("--combat=".length()).equalsIgnoreCase("optimal");
+        }
+
+        SimModel model = SimModel.compile(Maze.standard(), hero, difficulty, style);
+
+        ArrayList<Integer> preferred = new ArrayList<>();
+        for (String name : prefer.split(",")) {
+            if (name.isBlank()) continue;
+            int room = model.indexOf(name.trim());
+            if (room < 0) throw new IllegalArgumentException("sala desconhecida: " + name.trim());
+            preferred.add(room);
+        }
+        int[] rooms = preferred.stream().mapToInt(Integer::intValue).toArray();
+
+        Policy policy = optimal
+                ? new OptimalPolicy(PolicyCache.shared(), exits, fast, 0.6, rooms)
+                : new BasicPolicy(exits, fast, 0.6, rooms);
+        Simulator simulator = new Simulator(model, policy);
+
+        long start = System.nanoTime();
+        SimReport report = simulator.run(runs, seed);
+        long elapsed = System.nanoTime() - start;
+
+        report.print(System.out);
+        System.out.println();
+        if (optimal) System.out.println(PolicyCache.shared());
+        System.out.printf("Tempo: %d ms (%.0f partidas/min, %d threads)%n",
+                elapsed / 1_000_000,
+                runs * 60e9 / Math.max(1, elapsed),
+                Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,63 @@
+package simulacao;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Gerador SplitMix64 que pode ser reposto com uma nova semente sem criar objetos.
+ * Cada partida simulada usa uma semente derivada da semente base e do número da partida,
+ * pelo que o resultado não depende de quantas threads correm a simulação.
+ */
+public final class SplitMix implements RandomGenerator {
+
+    /** Incremento do estado em cada número gerado. */
+    public static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    /**
+     * Cria um gerador com a semente indicada.
+     *
+     * @param seed semente inicial
+     */
+    public SplitMix(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Repõe o gerador com uma nova semente.
+     *
+     * @param seed nova semente
+     */
+    public void reseed(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Deriva a semente de uma partida a partir da semente base e do número da partida.
+     *
+     * @param seed semente base da simulação
+     * @param index número da partida
+     * @return semente da partida
+     */
+    public static long seedFor(long seed, long index) {
+        return mix(seed + GOLDEN * (index + 1));
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN;
+        return mix(state);
+    }
+
+    /**
+     * Função de mistura do SplitMix64 (a mesma de {@link java.util.SplittableRandom}).
+     *
+     * @param z valor a misturar
+     * @return valor misturado
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}